@@ -0,0 +1,79 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntSupplier;
+
+public final class CardBagBenchmark {
+    private static final int BAG_COUNT = 1_024;
+    private static final int WARMUP_MILLIS = 500;
+    private static final int MEASURE_MILLIS = 1_500;
+
+    public static void main(String[] args) {
+        Random rng = new Random(2021);
+        List<SortedBag<Card>> sortedBags = new ArrayList<>();
+        for (int i = 0; i < BAG_COUNT; i++) {
+            SortedBag.Builder<Card> builder = new SortedBag.Builder<>();
+            for (Card card : Card.ALL)
+                builder.add(rng.nextInt(5), card);
+            sortedBags.add(builder.build());
+        }
+        CardBag[] cardBags = sortedBags.stream().map(CardBag::of).toArray(CardBag[]::new);
+
+        compare("size", i -> sortedBags.get(i).size(), i -> cardBags[i].size());
+        compare("countOf", i -> sortedBags.get(i).countOf(Card.LOCOMOTIVE), i -> cardBags[i].countOf(Card.LOCOMOTIVE));
+        compare("contains",
+                i -> sortedBags.get(i).contains(sortedBags.get(i ^ 1)) ? 1 : 0,
+                i -> cardBags[i].contains(cardBags[i ^ 1]) ? 1 : 0);
+        compare("union",
+                i -> sortedBags.get(i).union(sortedBags.get(i ^ 1)).size(),
+                i -> cardBags[i].union(cardBags[i ^ 1]).size());
+        compare("difference",
+                i -> sortedBags.get(i).difference(sortedBags.get(i ^ 1)).size(),
+                i -> cardBags[i].difference(cardBags[i ^ 1]).size());
+    }
+
+    private interface Op {
+        int apply(int i);
+    }
+
+    private static void compare(String name, Op sortedBagOp, Op cardBagOp) {
+        double sortedBag = nanosPerCall(sortedBagOp);
+        double cardBag = nanosPerCall(cardBagOp);
+        System.out.printf("%-10s SortedBag %8.1f ns, CardBag %6.1f ns, speedup ×%.1f%n",
+                name, sortedBag, cardBag, sortedBag / cardBag);
+    }
+
+    private static double nanosPerCall(Op op) {
+        IntSupplier f = new IntSupplier() {
+            private int i = 0;
+
+            @Override
+            public int getAsInt() {
+                i = (i + 1) & (BAG_COUNT - 1);
+                return op.apply(i);
+            }
+        };
+
+        int sink = 0;
+        long end = System.nanoTime() + WARMUP_MILLIS * 1_000_000L;
+        while (System.nanoTime() < end)
+            sink += f.getAsInt();
+
+        long calls = 0;
+        long start = System.nanoTime();
+        end = start + MEASURE_MILLIS * 1_000_000L;
+        long now;
+        do {
+            for (int i = 0; i < 100; i++)
+                sink += f.getAsInt();
+            calls += 100;
+        } while ((now = System.nanoTime()) < end);
+
+        if (sink == 42) System.out.print("");
+        return (double) (now - start) / calls;
+    }
+}
@@ -0,0 +1,115 @@
+package ch.epfl.tchu.game;
+
+import java.util.*;
+
+public final class TrailBenchmark {
+    private static final List<Integer> SIZES = List.of(10, 20, 40);
+    private static final int WARMUP_MILLIS = 500;
+    private static final int MEASURE_MILLIS = 2_000;
+
+    public static void main(String[] args) {
+        for (int size : SIZES) {
+            List<Route> routes = connectedRoutes(size, new Random(2021));
+
+            int length = Trail.longest(routes).length();
+            int legacyLength = LegacyTrail.longestLength(routes);
+            if (length != legacyLength)
+                throw new AssertionError(String.format("%d routes: %d != %d", size, length, legacyLength));
+
+            double dfs = nanosPerCall(() -> Trail.longest(routes).length());
+            double bfs = nanosPerCall(() -> LegacyTrail.longestLength(routes));
+            System.out.printf("%2d routes (longest = %3d): dfs %,12.0f ns, bfs %,15.0f ns, speedup ×%.1f%n",
+                    size, length, dfs, bfs, bfs / dfs);
+        }
+    }
+
+    // Réseau connexe de ChMap ressemblant à celui d'un joueur : un arbre construit en largeur à partir d'une route
+    // tirée au hasard, dans lequel un dixième des routes ferment un cycle.
+    private static List<Route> connectedRoutes(int count, Random rng) {
+        List<Route> all = new ArrayList<>(ChMap.routes());
+        Collections.shuffle(all, rng);
+
+        List<Route> routes = new ArrayList<>();
+        Set<Station> stations = new HashSet<>();
+        int cycles = 0;
+        while (routes.size() < count) {
+            Iterator<Route> it = all.iterator();
+            while (it.hasNext() && routes.size() < count) {
+                Route route = it.next();
+                boolean has1 = stations.contains(route.station1());
+                boolean has2 = stations.contains(route.station2());
+                boolean closesCycle = has1 && has2 && cycles < count / 10;
+                if (routes.isEmpty() || has1 != has2 || closesCycle) {
+                    cycles += closesCycle ? 1 : 0;
+                    routes.add(route);
+                    stations.addAll(route.stations());
+                    it.remove();
+                }
+            }
+        }
+        return routes;
+    }
+
+    private static double nanosPerCall(java.util.function.IntSupplier f) {
+        int sink = 0;
+        long end = System.nanoTime() + WARMUP_MILLIS * 1_000_000L;
+        while (System.nanoTime() < end)
+            sink += f.getAsInt();
+
+        long calls = 0;
+        long start = System.nanoTime();
+        end = start + MEASURE_MILLIS * 1_000_000L;
+        long now;
+        do {
+            sink += f.getAsInt();
+            calls += 1;
+        } while ((now = System.nanoTime()) < end);
+
+        if (sink == 42) System.out.print("");
+        return (double) (now - start) / calls;
+    }
+
+    // Ancienne recherche en largeur de Trail.longest, conservée comme référence.
+    private static final class LegacyTrail {
+        private final List<Route> routes;
+        private final Station to;
+        private final int length;
+
+        private LegacyTrail(List<Route> routes, Station to, int length) {
+            this.routes = routes;
+            this.to = to;
+            this.length = length;
+        }
+
+        static int longestLength(List<Route> routes) {
+            List<LegacyTrail> allTrails = new ArrayList<>();
+            for (Route route : routes) {
+                allTrails.add(new LegacyTrail(List.of(route), route.station2(), route.length()));
+                allTrails.add(new LegacyTrail(List.of(route), route.station1(), route.length()));
+            }
+
+            int maxLength = allTrails.stream().mapToInt(t -> t.length).max().orElse(0);
+            while (!allTrails.isEmpty()) {
+                List<LegacyTrail> tempTrails = new ArrayList<>();
+                for (LegacyTrail trail : allTrails) {
+                    List<Route> routesNotInTrail = new ArrayList<>(routes);
+                    routesNotInTrail.removeAll(trail.routes);
+
+                    for (Route route : routesNotInTrail) {
+                        Station end = route.station1().equals(trail.to) ? route.station2()
+                                : route.station2().equals(trail.to) ? route.station1() : null;
+                        if (end != null) {
+                            List<Route> newRoutes = new ArrayList<>(trail.routes);
+                            newRoutes.add(route);
+                            LegacyTrail newTrail = new LegacyTrail(newRoutes, end, trail.length + route.length());
+                            maxLength = Math.max(maxLength, newTrail.length);
+                            tempTrails.add(newTrail);
+                        }
+                    }
+                }
+                allTrails = tempTrails;
+            }
+            return maxLength;
+        }
+    }
+}
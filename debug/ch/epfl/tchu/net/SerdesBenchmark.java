@@ -0,0 +1,189 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+import ch.epfl.tchu.sim.RandomBot;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.function.IntSupplier;
+
+public final class SerdesBenchmark {
+    private static final int GAME_COUNT = 8;
+    private static final int WARMUP_MILLIS = 500;
+    private static final int MEASURE_MILLIS = 1_500;
+
+    public static void main(String[] args) {
+        List<PublicGameState> states = new ArrayList<>();
+        List<PlayerState> ownStates = new ArrayList<>();
+        for (long seed = 0; seed < GAME_COUNT; seed++)
+            recordGame(seed, states, ownStates);
+        List<String> infos = new ArrayList<>();
+        for (PlayerState ownState : ownStates)
+            infos.add(ownState.routes().size() + " routes et " + ownState.ticketCount() + " billets – Genève");
+        System.out.printf("%d états enregistrés%n", states.size());
+
+        compare("état", states, Serdes.OF_PUBLIC_GAME_STATE, BinarySerdes.OF_PUBLIC_GAME_STATE);
+        compare("joueur", ownStates, Serdes.OF_PLAYER_STATE, BinarySerdes.OF_PLAYER_STATE);
+        List<SortedBag<Card>> cards = new ArrayList<>();
+        for (PlayerState ownState : ownStates)
+            cards.add(ownState.cards());
+        compare("cartes", cards, Serdes.OF_SORTED_BAG_OF_CARD, BinarySerdes.OF_SORTED_BAG_OF_CARD);
+        compare("info", infos, Serdes.OF_STRING, BinarySerdes.OF_STRING);
+    }
+
+    private static void recordGame(long seed, List<PublicGameState> states, List<PlayerState> ownStates) {
+        Random rng = new Random(seed);
+        Map<PlayerId, Player> players = new EnumMap<>(PlayerId.class);
+        Map<PlayerId, String> names = new EnumMap<>(PlayerId.class);
+        for (PlayerId id : List.of(PlayerId.PLAYER_1, PlayerId.PLAYER_2)) {
+            RandomBot bot = new RandomBot(new Random(rng.nextLong()));
+            players.put(id, id != PlayerId.PLAYER_1 ? bot : new Recorder(bot, states, ownStates));
+            names.put(id, id.name());
+        }
+        Game.simulate(players, names, SortedBag.of(ChMap.tickets()), rng, false, 1_000);
+    }
+
+    private static <T> void compare(String name, List<T> values, Serde<T> serde, BinarySerde<T> binarySerde) {
+        int count = values.size();
+        List<String> texts = new ArrayList<>(count);
+        long textBytes = 0;
+        for (T value : values) {
+            String text = serde.serialize(value);
+            texts.add(text);
+            textBytes += text.length();
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        int[] offsets = new int[count + 1];
+        for (int i = 0; i < count; i++) {
+            binarySerde.write(values.get(i), buffer);
+            offsets[i + 1] = buffer.position();
+        }
+        ByteBuffer encoded = buffer.flip();
+        long binaryBytes = offsets[count];
+
+        ByteBuffer scratch = ByteBuffer.allocate(1 << 16);
+
+        double textEncode = nanosPerCall(count, i -> serde.serialize(values.get(i)).length());
+        double binaryEncode = nanosPerCall(count, i -> {
+            scratch.clear();
+            binarySerde.write(values.get(i), scratch);
+            return scratch.position();
+        });
+        double textDecode = nanosPerCall(count, i -> serde.deserialize(texts.get(i)).hashCode());
+        double binaryDecode = nanosPerCall(count, i -> {
+            encoded.limit(offsets[i + 1]).position(offsets[i]);
+            return binarySerde.read(encoded).hashCode();
+        });
+
+        System.out.printf("%-7s octets %7.1f → %6.1f (×%.1f) | écriture %7.1f → %6.1f ns (×%.1f)"
+                        + " | lecture %7.1f → %6.1f ns (×%.1f)%n",
+                name, (double) textBytes / count, (double) binaryBytes / count, (double) textBytes / binaryBytes,
+                textEncode, binaryEncode, textEncode / binaryEncode,
+                textDecode, binaryDecode, textDecode / binaryDecode);
+    }
+
+    private interface Op {
+        int apply(int i);
+    }
+
+    private static double nanosPerCall(int count, Op op) {
+        IntSupplier f = new IntSupplier() {
+            private int i = 0;
+
+            @Override
+            public int getAsInt() {
+                i = i + 1 == count ? 0 : i + 1;
+                return op.apply(i);
+            }
+        };
+
+        int sink = 0;
+        long end = System.nanoTime() + WARMUP_MILLIS * 1_000_000L;
+        while (System.nanoTime() < end)
+            sink += f.getAsInt();
+
+        long calls = 0;
+        long start = System.nanoTime();
+        end = start + MEASURE_MILLIS * 1_000_000L;
+        long now;
+        do {
+            for (int i = 0; i < 100; i++)
+                sink += f.getAsInt();
+            calls += 100;
+        } while ((now = System.nanoTime()) < end);
+
+        if (sink == 42) System.out.print("");
+        return (double) (now - start) / calls;
+    }
+
+    private static final class Recorder implements Player {
+        private final Player player;
+        private final List<PublicGameState> states;
+        private final List<PlayerState> ownStates;
+
+        private Recorder(Player player, List<PublicGameState> states, List<PlayerState> ownStates) {
+            this.player = player;
+            this.states = states;
+            this.ownStates = ownStates;
+        }
+
+        @Override
+        public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+            player.initPlayers(ownId, playerNames);
+        }
+
+        @Override
+        public void receiveInfo(String info) {
+            player.receiveInfo(info);
+        }
+
+        @Override
+        public void updateState(PublicGameState newState, PlayerState ownState) {
+            states.add(newState);
+            ownStates.add(ownState);
+            player.updateState(newState, ownState);
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+            player.setInitialTicketChoice(tickets);
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseInitialTickets() {
+            return player.chooseInitialTickets();
+        }
+
+        @Override
+        public TurnKind nextTurn() {
+            return player.nextTurn();
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+            return player.chooseTickets(options);
+        }
+
+        @Override
+        public int drawSlot() {
+            return player.drawSlot();
+        }
+
+        @Override
+        public Route claimedRoute() {
+            return player.claimedRoute();
+        }
+
+        @Override
+        public SortedBag<Card> initialClaimCards() {
+            return player.initialClaimCards();
+        }
+
+        @Override
+        public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+            return player.chooseAdditionalCards(options);
+        }
+    }
+}
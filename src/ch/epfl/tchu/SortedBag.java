@@ -1,7 +1,9 @@
 package ch.epfl.tchu;
 
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Multiensemble trié et immuable.
@@ -12,6 +14,12 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
     // Table associant sa multiplicité à chaque élément de l'ensemble.
     // Invariant : toutes les multiplicités sont strictement positives (> 0).
     private final SortedMap<E, Integer> elements;
+    // Nombre total d'éléments, et index permettant d'accéder aux éléments par position :
+    // distinctElements[i] est le i-ème élément distinct, et cumulativeCounts[i] la somme des multiplicités
+    // des éléments distincts d'index 0 à i (inclus).
+    private final int size;
+    private final Object[] distinctElements;
+    private final int[] cumulativeCounts;
 
     /**
      * Crée un multiensemble vide.
@@ -82,6 +90,17 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
     private SortedBag(SortedMap<E, Integer> elements) {
         assert elements.values().stream().allMatch(n -> n > 0);
         this.elements = Collections.unmodifiableSortedMap(elements);
+
+        this.distinctElements = new Object[elements.size()];
+        this.cumulativeCounts = new int[elements.size()];
+        int i = 0, total = 0;
+        for (var elementAndCount : elements.entrySet()) {
+            total += elementAndCount.getValue();
+            distinctElements[i] = elementAndCount.getKey();
+            cumulativeCounts[i] = total;
+            i += 1;
+        }
+        this.size = total;
     }
 
     /**
@@ -97,9 +116,7 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      * @return le nombre d'éléments dans le multiensemble.
      */
     public int size() {
-        return elements.values().stream()
-                .mapToInt(Integer::intValue)
-                .sum();
+        return size;
     }
 
     /**
@@ -136,15 +153,12 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      * @return l'élément d'index donné
      * @throws IndexOutOfBoundsException si l'index est invalide
      */
+    @SuppressWarnings("unchecked")
     public E get(int index) {
-        Objects.checkIndex(index, size());
-        for (var elementsAndCount : elements.entrySet()) {
-            var count = elementsAndCount.getValue();
-            if (index < count)
-                return elementsAndCount.getKey();
-            index -= count;
-        }
-        throw new Error(); // ne devrait jamais se produire
+        Objects.checkIndex(index, size);
+        // Premier élément distinct dont la somme cumulée des multiplicités dépasse index
+        var i = Arrays.binarySearch(cumulativeCounts, index + 1);
+        return (E) distinctElements[i >= 0 ? i : -(i + 1)];
     }
 
     /**
@@ -173,23 +187,50 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
     /**
      * Retourne tous les sous-ensembles du multiensemble ayant une taille donnée.
      * @param size la taille des sous-ensembles à retourner
-     * @return l'ensemble des sous-ensembles de <code>this</code> de taille <code>size</code>
+     * @return l'ensemble (immuable) des sous-ensembles de <code>this</code> de taille <code>size</code>
      * @throws IllegalArgumentException si <code>size</code> n'est pas comprise entre 0 et
      * la taille du multiensemble
      */
+    @SuppressWarnings("unchecked")
     public Set<SortedBag<E>> subsetsOfSize(int size) {
         Preconditions.checkArgument(0 <= size && size <= size());
-        if (size == 0)
-            return Set.of(SortedBag.of());
-
-        var result = new HashSet<SortedBag<E>>();
-        for (var e1 : elements.keySet()) {
-            var s1 = SortedBag.of(e1);
-            this.difference(s1)
-                    .subsetsOfSize(size - 1)
-                    .forEach(e -> result.add(s1.union(e)));
+
+        // Les sous-ensembles sont énumérés directement sous la forme de leurs vecteurs de multiplicités,
+        // par ordre lexicographique décroissant, ce qui évite tout doublon.
+        var k = distinctElements.length;
+        var counts = new int[k];
+        var result = new LinkedHashSet<SortedBag<E>>();
+        fillFrom(counts, 0, size);
+        while (true) {
+            var subset = new TreeMap<E, Integer>();
+            for (var i = 0; i < k; i++) {
+                if (counts[i] > 0) subset.put((E) distinctElements[i], counts[i]);
+            }
+            result.add(new SortedBag<>(subset));
+
+            // Cherche la dernière position dont une occurrence peut être reportée sur les suivantes
+            var i = k - 2;
+            var suffixSum = k == 0 ? 0 : counts[k - 1];
+            while (i >= 0 && (counts[i] == 0 || this.size - cumulativeCounts[i] < suffixSum + 1)) {
+                suffixSum += counts[i];
+                i -= 1;
+            }
+            if (i < 0)
+                return Collections.unmodifiableSet(result);
+
+            counts[i] -= 1;
+            fillFrom(counts, i + 1, suffixSum + 1);
+        }
+    }
+
+    // Répartit count occurrences sur les éléments distincts d'index from et suivants, en remplissant
+    // chacun au maximum de sa multiplicité, dans l'ordre.
+    private void fillFrom(int[] counts, int from, int count) {
+        for (var i = from; i < counts.length; i++) {
+            var multiplicity = cumulativeCounts[i] - (i == 0 ? 0 : cumulativeCounts[i - 1]);
+            counts[i] = Math.min(multiplicity, count);
+            count -= counts[i];
         }
-        return result;
     }
 
     /**
@@ -207,18 +248,53 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      * @return un flot des éléments de <code>this</code>
      */
     public Stream<E> stream() {
-        var builder = Stream.<E>builder();
-        elements.forEach((v, n) -> { for (var i = 0; i < n; i++) builder.add(v); });
-        return builder.build();
+        var characteristics = Spliterator.ORDERED | Spliterator.SORTED | Spliterator.IMMUTABLE | Spliterator.NONNULL;
+        var spliterator = new Spliterators.AbstractSpliterator<E>(size, characteristics | Spliterator.SIZED) {
+            private final Iterator<E> iterator = iterator();
+
+            @Override
+            public boolean tryAdvance(Consumer<? super E> action) {
+                if (!iterator.hasNext())
+                    return false;
+                action.accept(iterator.next());
+                return true;
+            }
+
+            @Override
+            public Comparator<? super E> getComparator() {
+                return null;
+            }
+        };
+        return StreamSupport.stream(spliterator, false);
     }
 
     /**
-     * Retourne un itérateur sur les éléments du multiensemble.
+     * Retourne un itérateur sur les éléments du multiensemble. L'itérateur parcourt directement les éléments
+     * distincts du multiensemble, sans en faire de copie.
      * @return un itérateur sur les éléments de <code>this</code>
      */
     @Override
+    @SuppressWarnings("unchecked")
     public Iterator<E> iterator() {
-        return stream().iterator();
+        return new Iterator<>() {
+            private int distinctIndex = 0;
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                if (index == cumulativeCounts[distinctIndex])
+                    distinctIndex += 1;
+                index += 1;
+                return (E) distinctElements[distinctIndex];
+            }
+        };
     }
 
     /**
@@ -276,6 +352,7 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      */
     public static final class Builder<E extends Comparable<E>> {
         private final SortedMap<E, Integer> elements = new TreeMap<>();
+        private int size = 0;
 
         /**
          * Ajoute un nombre donné d'occurrences d'un élément au bâtisseur.
@@ -287,6 +364,7 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
         public Builder<E> add(int count, E element) {
             Preconditions.checkArgument(0 <= count);
             if (count > 0) elements.merge(element, count, Integer::sum);
+            size += count;
             return this;
         }
 
@@ -306,6 +384,7 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
          */
         public Builder<E> add(SortedBag<E> that) {
             that.elements.forEach((e, c) -> elements.merge(e, c, Integer::sum));
+            size += that.size;
             return this;
         }
 
@@ -322,9 +401,7 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
          * @return le nombre d'éléments ajoutés au bâtisseur jusqu'à présent
          */
         public int size() {
-            return elements.values().stream()
-                    .mapToInt(Integer::intValue)
-                    .sum();
+            return size;
         }
 
         /**
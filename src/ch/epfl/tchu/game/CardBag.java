@@ -0,0 +1,303 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Multiensemble immuable de cartes wagon/locomotive, dont les multiplicités sont stockées dans un seul {@code long}.
+ * Chaque type de carte occupe un champ de 7 bits (à la position {@code 7 * ordinal}) : les 6 bits de poids faible
+ * contiennent la multiplicité, le bit de poids fort est toujours nul et sert de garde, ce qui permet d'effectuer
+ * les opérations sur tous les types de cartes à la fois par simple arithmétique.
+ *
+ * @author Dylan Vairoli (326603)
+ * @author Giovanni Ranieri (326870)
+ */
+public final class CardBag {
+
+    /**
+     * La multiplicité maximale d'un type de carte dans un multiensemble.
+     */
+    public static final int MAX_COUNT = (1 << 6) - 1;
+
+    /**
+     * Le multiensemble vide.
+     */
+    public static final CardBag EMPTY = new CardBag(0L);
+
+    private static final int FIELD_SIZE = 7;
+    private static final long FIELD_MASK = (1L << FIELD_SIZE) - 1;
+
+    // Un bit dans chaque champ : bit de poids faible (ONES) et bit de garde (GUARDS)
+    private static final long ONES = computeOnes();
+    private static final long GUARDS = ONES << (FIELD_SIZE - 1);
+
+    // Sous-ensembles déjà calculés, associés à leur multiensemble et à leur taille
+    private static final int MAX_CACHED_SUBSETS = 1 << 16;
+    private static final Map<SubsetsKey, List<CardBag>> SUBSETS_CACHE = new ConcurrentHashMap<>();
+
+    private final long bits;
+    private final int size;
+    private SortedBag<Card> sortedBag;
+
+    private CardBag(long bits) {
+        assert (bits & GUARDS) == 0;
+        this.bits = bits;
+        this.size = computeSize(bits);
+    }
+
+    private static long computeOnes() {
+        long ones = 0;
+        for (int i = 0; i < Card.COUNT; i++)
+            ones |= 1L << (FIELD_SIZE * i);
+        return ones;
+    }
+
+    private static int computeSize(long bits) {
+        int size = 0;
+        for (; bits != 0; bits >>>= FIELD_SIZE)
+            size += (int) (bits & FIELD_MASK);
+        return size;
+    }
+
+    private static int shift(Card card) {
+        return FIELD_SIZE * card.ordinal();
+    }
+
+    /**
+     * Retourne le multiensemble contenant {@code count} cartes {@code card}.
+     *
+     * @param count la multiplicité de la carte
+     * @param card  la carte
+     * @return le multiensemble contenant {@code count} cartes {@code card}
+     * @throws IllegalArgumentException si {@code count} n'est pas compris entre 0 et {@link #MAX_COUNT} (inclus)
+     */
+    public static CardBag of(int count, Card card) {
+        Preconditions.checkArgument(count >= 0 && count <= MAX_COUNT);
+        return new CardBag((long) count << shift(card));
+    }
+
+    /**
+     * Retourne le multiensemble contenant {@code count1} cartes {@code card1} et {@code count2} cartes {@code card2}.
+     *
+     * @param count1 la multiplicité de la première carte
+     * @param card1  la première carte
+     * @param count2 la multiplicité de la seconde carte
+     * @param card2  la seconde carte
+     * @return le multiensemble contenant les cartes données
+     * @throws IllegalArgumentException si une multiplicité résultante n'est pas comprise entre 0 et {@link #MAX_COUNT}
+     */
+    public static CardBag of(int count1, Card card1, int count2, Card card2) {
+        return of(count1, card1).union(of(count2, card2));
+    }
+
+    /**
+     * Retourne le multiensemble contenant les mêmes cartes que {@code cards}.
+     *
+     * @param cards le multiensemble de cartes
+     * @return le multiensemble contenant les mêmes cartes que {@code cards}
+     * @throws IllegalArgumentException si une multiplicité de {@code cards} est supérieure à {@link #MAX_COUNT}
+     */
+    public static CardBag of(SortedBag<Card> cards) {
+        long bits = 0;
+        for (Card card : cards.toSet()) {
+            int count = cards.countOf(card);
+            Preconditions.checkArgument(count <= MAX_COUNT);
+            bits |= (long) count << shift(card);
+        }
+        CardBag bag = new CardBag(bits);
+        bag.sortedBag = cards;
+        return bag;
+    }
+
+    /**
+     * Retourne le multiensemble dont la représentation compacte est {@code bits}, qui doit être valide.
+     */
+    static CardBag ofBits(long bits) {
+        return bits == 0 ? EMPTY : new CardBag(bits);
+    }
+
+    /**
+     * Retourne la multiplicité de la carte donnée.
+     *
+     * @param card la carte
+     * @return la multiplicité de {@code card}, 0 si elle n'appartient pas au multiensemble
+     */
+    public int countOf(Card card) {
+        return (int) ((bits >>> shift(card)) & FIELD_MASK);
+    }
+
+    /**
+     * Retourne le nombre de cartes du multiensemble.
+     *
+     * @return le nombre de cartes du multiensemble
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Retourne vrai ssi le multiensemble est vide.
+     *
+     * @return vrai ssi le multiensemble est vide
+     */
+    public boolean isEmpty() {
+        return bits == 0;
+    }
+
+    /**
+     * Retourne vrai ssi le multiensemble donné est un sous-ensemble de celui-ci.
+     *
+     * @param that le multiensemble dont on doit déterminer s'il est un sous-ensemble
+     * @return vrai ssi {@code that} est un sous-ensemble de {@code this}
+     */
+    public boolean contains(CardBag that) {
+        // Un bit de garde est effacé ssi la soustraction a dû emprunter dans ce champ
+        return (((bits | GUARDS) - that.bits) & GUARDS) == GUARDS;
+    }
+
+    /**
+     * Retourne l'union de ce multiensemble et du multiensemble donné.
+     *
+     * @param that le multiensemble à combiner avec celui-ci
+     * @return l'union de {@code this} et de {@code that}
+     * @throws IllegalArgumentException si une multiplicité résultante est supérieure à {@link #MAX_COUNT}
+     */
+    public CardBag union(CardBag that) {
+        long sum = bits + that.bits;
+        Preconditions.checkArgument((sum & GUARDS) == 0);
+        return new CardBag(sum);
+    }
+
+    /**
+     * Retourne la différence entre ce multiensemble et le multiensemble donné. Les multiplicités qui deviendraient
+     * négatives sont nulles dans le résultat.
+     *
+     * @param that le multiensemble à soustraire de celui-ci
+     * @return la différence entre {@code this} et {@code that}
+     */
+    public CardBag difference(CardBag that) {
+        long difference = (bits | GUARDS) - that.bits;
+        long keptGuards = difference & GUARDS;
+        // Masque des 6 bits de multiplicité des champs n'ayant pas emprunté
+        long keptFields = keptGuards - (keptGuards >>> (FIELD_SIZE - 1));
+        return new CardBag(difference & keptFields);
+    }
+
+    /**
+     * Retourne un multiensemble identique à celui-ci, mais contenant une carte {@code card} de plus.
+     *
+     * @param card la carte à ajouter
+     * @return un multiensemble identique à celui-ci, mais contenant une carte {@code card} de plus
+     * @throws IllegalArgumentException si la multiplicité de {@code card} dépasserait {@link #MAX_COUNT}
+     */
+    public CardBag with(Card card) {
+        return union(of(1, card));
+    }
+
+    /**
+     * Retourne le nombre de types de cartes distincts du multiensemble.
+     *
+     * @return le nombre de types de cartes distincts du multiensemble
+     */
+    public int distinctCount() {
+        // Le bit de garde d'un champ est mis ssi ce champ est non nul
+        long nonZero = (bits + (GUARDS - ONES)) & GUARDS;
+        return Long.bitCount(nonZero);
+    }
+
+    /**
+     * Retourne tous les sous-ensembles de ce multiensemble ayant une taille donnée. Le résultat est mémorisé,
+     * si bien que les appels suivants pour le même multiensemble et la même taille sont immédiats.
+     *
+     * @param size la taille des sous-ensembles à retourner
+     * @return la liste (immuable et sans doublon) des sous-ensembles de {@code this} de taille {@code size}
+     * @throws IllegalArgumentException si {@code size} n'est pas comprise entre 0 et la taille du multiensemble
+     * @see SortedBag#subsetsOfSize(int)
+     */
+    public List<CardBag> subsetsOfSize(int size) {
+        Preconditions.checkArgument(0 <= size && size <= size());
+
+        SubsetsKey key = new SubsetsKey(bits, size);
+        List<CardBag> subsets = SUBSETS_CACHE.get(key);
+        if (subsets == null) {
+            List<CardBag> newSubsets = new ArrayList<>();
+            for (SortedBag<Card> subset : toSortedBag().subsetsOfSize(size))
+                newSubsets.add(of(subset));
+            subsets = List.copyOf(newSubsets);
+
+            if (SUBSETS_CACHE.size() < MAX_CACHED_SUBSETS)
+                SUBSETS_CACHE.put(key, subsets);
+        }
+        return subsets;
+    }
+
+    /**
+     * Retourne le multiensemble trié correspondant à celui-ci.
+     *
+     * @return le multiensemble trié contenant les mêmes cartes que {@code this}
+     */
+    public SortedBag<Card> toSortedBag() {
+        if (sortedBag == null) {
+            SortedBag.Builder<Card> builder = new SortedBag.Builder<>();
+            for (Card card : Card.ALL)
+                builder.add(countOf(card), card);
+            sortedBag = builder.build();
+        }
+        return sortedBag;
+    }
+
+    /**
+     * Retourne la représentation compacte de ce multiensemble, sous la forme de ses champs de 7 bits.
+     *
+     * @return la représentation compacte de ce multiensemble
+     */
+    public long bits() {
+        return bits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(bits);
+    }
+
+    @Override
+    public boolean equals(Object that) {
+        return that instanceof CardBag && bits == ((CardBag) that).bits;
+    }
+
+    @Override
+    public String toString() {
+        return toSortedBag().toString();
+    }
+
+    /**
+     * Clef de la table des sous-ensembles déjà calculés.
+     */
+    private static final class SubsetsKey {
+        private final long bits;
+        private final int size;
+
+        private SubsetsKey(long bits, int size) {
+            this.bits = bits;
+            this.size = size;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(bits, size);
+        }
+
+        @Override
+        public boolean equals(Object that) {
+            return that instanceof SubsetsKey
+                    && bits == ((SubsetsKey) that).bits
+                    && size == ((SubsetsKey) that).size;
+        }
+    }
+}
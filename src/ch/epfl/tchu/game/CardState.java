@@ -52,6 +52,27 @@ public final class CardState extends PublicCardState {
         return new CardState(newTopCards, deck, SortedBag.of());
     }
 
+    /**
+     * Retourne l'état dont les cartes face visible, la pioche et la défausse sont celles données.
+     */
+    static CardState of(List<Card> faceUpCards, Deck<Card> deck, SortedBag<Card> discards) {
+        return new CardState(faceUpCards, deck, discards);
+    }
+
+    /**
+     * Retourne la pioche de cet état.
+     */
+    Deck<Card> deck() {
+        return deck;
+    }
+
+    /**
+     * Retourne la défausse de cet état.
+     */
+    SortedBag<Card> discards() {
+        return discards;
+    }
+
     /**
      * Retourne un état de cartes à celui-ci, si ce n'est que la carte face visible d'index {@code slot}
      * a été remplacée par celle se trouvant au sommet de la pioche, qui en est du même coup retirée.
@@ -9,19 +9,43 @@ import java.util.Random;
 
 /**
  * Un tas de cartes.
+ * <p>
+ * Les tas sont persistants : les cartes sont stockées dans un tableau, jamais modifié, partagé par un tas et tous
+ * ceux qui en sont obtenus en enlevant des cartes de son sommet, qui ne diffèrent que par l'index de leur sommet
+ * dans ce tableau. Les tas de cartes wagon/locomotive stockent les ordinaux de leurs cartes dans un tableau
+ * d'octets.
  *
  * @author Dylan Vairoli (326603)
  * @author Giovanni Ranieri (326870)
  */
 public final class Deck<C extends Comparable<C>> {
 
-    private final List<C> cards;
+    // Exactement l'un des deux tableaux est non nul
+    private final Object[] cards;
+    private final byte[] cardOrdinals;
+    private final int top;
 
     /**
-     * Construit un tas de cartes de type {@code <C>}.
+     * Construit un tas de cartes de type {@code <C>}, constitué des cartes des tableaux donnés à partir de l'index
+     * {@code top}.
      */
-    private Deck(List<C> cards) {
-        this.cards = List.copyOf(cards);
+    private Deck(Object[] cards, byte[] cardOrdinals, int top) {
+        this.cards = cards;
+        this.cardOrdinals = cardOrdinals;
+        this.top = top;
+    }
+
+    /**
+     * Retourne le tas composé des cartes données, dans l'ordre, la première étant au sommet.
+     */
+    private static <C extends Comparable<C>> Deck<C> ofList(List<C> cards) {
+        if (cards.isEmpty() || !(cards.get(0) instanceof Card))
+            return new Deck<>(cards.toArray(), null, 0);
+
+        byte[] cardOrdinals = new byte[cards.size()];
+        for (int i = 0; i < cardOrdinals.length; i++)
+            cardOrdinals[i] = (byte) ((Card) cards.get(i)).ordinal();
+        return new Deck<>(null, cardOrdinals, 0);
     }
 
     /**
@@ -35,7 +59,24 @@ public final class Deck<C extends Comparable<C>> {
     public static <C extends Comparable<C>> Deck<C> of(SortedBag<C> cards, Random rng) {
         List<C> newCardsList = cards.toList();
         Collections.shuffle(newCardsList, rng);
-        return new Deck<>(newCardsList);
+        return ofList(newCardsList);
+    }
+
+    /**
+     * Retourne le tas composé des cartes données, dans l'ordre, la première étant au sommet.
+     */
+    static <C extends Comparable<C>> Deck<C> ofOrdered(List<C> cards) {
+        return ofList(cards);
+    }
+
+    /**
+     * Retourne la carte d'index {@code index} de ce tas, la carte au sommet ayant l'index 0.
+     */
+    @SuppressWarnings("unchecked")
+    C card(int index) {
+        return cardOrdinals == null ?
+                (C) cards[top + index] :
+                (C) Card.ALL.get(cardOrdinals[top + index]);
     }
 
     /**
@@ -46,7 +87,7 @@ public final class Deck<C extends Comparable<C>> {
      */
     public C topCard() {
         Preconditions.checkArgument(!isEmpty());
-        return cards.get(0);
+        return card(0);
     }
 
     /**
@@ -71,8 +112,19 @@ public final class Deck<C extends Comparable<C>> {
         Preconditions.checkArgument(count >= 0 && count <= size());
 
         SortedBag.Builder<C> builder = new SortedBag.Builder<>();
-        for (int i = 0; i < count; i++) {
-            builder.add(cards.get(i));
+        if (cardOrdinals == null) {
+            for (int i = 0; i < count; i++)
+                builder.add(card(i));
+        } else {
+            // Les cartes sont comptées avant d'être ajoutées au bâtisseur, une fois par type de carte
+            int[] counts = new int[Card.COUNT];
+            for (int i = top; i < top + count; i++)
+                counts[cardOrdinals[i]] += 1;
+            for (int c = 0; c < Card.COUNT; c++) {
+                @SuppressWarnings("unchecked")
+                C card = (C) Card.ALL.get(c);
+                builder.add(counts[c], card);
+            }
         }
         return builder.build();
     }
@@ -87,8 +139,7 @@ public final class Deck<C extends Comparable<C>> {
     public Deck<C> withoutTopCards(int count) {
         Preconditions.checkArgument(count >= 0 && count <= size());
 
-        List<C> newListOfCards = cards.subList(count, size());
-        return new Deck<>(newListOfCards);
+        return new Deck<>(cards, cardOrdinals, top + count);
     }
 
     /**
@@ -97,7 +148,7 @@ public final class Deck<C extends Comparable<C>> {
      * @return le nombre de cartes que ce tas contient
      */
     public int size() {
-        return cards.size();
+        return (cardOrdinals == null ? cards.length : cardOrdinals.length) - top;
     }
 
     /**
@@ -106,6 +157,6 @@ public final class Deck<C extends Comparable<C>> {
      * @return ssi ce tas est vide
      */
     public boolean isEmpty() {
-        return cards.isEmpty();
+        return size() == 0;
     }
 }
@@ -36,6 +36,35 @@ public final class Game {
      */
     public static void play(Map<PlayerId, Player> players, Map<PlayerId, String> playerNames,
                             SortedBag<Ticket> tickets, Random rng) {
+        run(players, playerNames, tickets, rng, true, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Fait jouer une partie de tCHu comme {@link #play(Map, Map, SortedBag, Random)}, mais sans générer les textes
+     * décrivant son déroulement si {@code informed} est faux — les joueurs ne reçoivent alors aucune information,
+     * seulement les changements d'état —, et retourne son résultat. La partie est interrompue si elle ne s'est pas
+     * terminée après {@code maxTurnCount} tours, ce qui évite à des joueurs artificiels de boucler indéfiniment.
+     * Le déroulement de la partie ne dépend que des joueurs et de {@code rng} : deux parties jouées par des joueurs
+     * déterministes avec des générateurs de même graine sont identiques.
+     *
+     * @param players      table associant les joueurs à leur identité
+     * @param playerNames  table associant le nom des joueurs à leur identité
+     * @param tickets      les billets disponibles pour cette partie
+     * @param rng          générateur aléatoire utilisé
+     * @param informed     vrai ssi les joueurs doivent recevoir les textes décrivant le déroulement de la partie
+     * @param maxTurnCount le nombre maximal de tours joués
+     * @return le résultat de la partie
+     * @throws IllegalArgumentException si {@code players} ou {@code playerNames} ont une taille plus grande que 4 ou
+     *                                  plus petite que 2, ou si {@code maxTurnCount} n'est pas strictement positif
+     */
+    public static GameResult simulate(Map<PlayerId, Player> players, Map<PlayerId, String> playerNames,
+                                      SortedBag<Ticket> tickets, Random rng, boolean informed, int maxTurnCount) {
+        Preconditions.checkArgument(maxTurnCount > 0);
+        return run(players, playerNames, tickets, rng, informed, maxTurnCount);
+    }
+
+    private static GameResult run(Map<PlayerId, Player> players, Map<PlayerId, String> playerNames,
+                                  SortedBag<Ticket> tickets, Random rng, boolean informed, int maxTurnCount) {
         Preconditions.checkArgument(players.size() <= PlayerId.COUNT && players.size() >= MINIMUM_PLAYER_COUNT);
         Preconditions.checkArgument(playerNames.size() <= PlayerId.COUNT && playerNames.size() >= MINIMUM_PLAYER_COUNT);
 
@@ -43,13 +72,15 @@ public final class Game {
         Set<PlayerId> playerIds = players.keySet();
 
         Map<PlayerId, Info> infos = new EnumMap<>(PlayerId.class);
-        playerNames.forEach((id, name) -> infos.put(id, new Info(name)));
+        if (informed)
+            playerNames.forEach((id, name) -> infos.put(id, new Info(name)));
 
         // 1. Initialisation de la partie
         players.forEach((id, player) -> player.initPlayers(id, playerNames));
 
         GameState gameState = GameState.initial(playerIds, tickets, rng);
-        sendInformation(infos.get(gameState.currentPlayerId()).willPlayFirst(), playersValues);
+        if (informed)
+            sendInformation(infos.get(gameState.currentPlayerId()).willPlayFirst(), playersValues);
 
         for (Player player : playersValues) {
             player.setInitialTicketChoice(gameState.topTickets(INITIAL_TICKETS_COUNT));
@@ -60,28 +91,40 @@ public final class Game {
         for (PlayerId id : playerIds)
             gameState = gameState.withInitiallyChosenTickets(id, players.get(id).chooseInitialTickets());
 
-        for (PlayerId id : playerIds)
-            sendInformation(infos.get(id).keptTickets(gameState.playerState(id).ticketCount()), playersValues);
+        if (informed) {
+            for (PlayerId id : playerIds)
+                sendInformation(infos.get(id).keptTickets(gameState.playerState(id).ticketCount()), playersValues);
+        }
 
         //2. Début de la partie
         boolean gameHasEnded = false;
-        while (!gameHasEnded) {
+        int turnCount = 0;
+        while (!gameHasEnded && turnCount < maxTurnCount) {
 
             Player currentPlayer = players.get(gameState.currentPlayerId());
             Info currentPlayerInfo = infos.get(gameState.currentPlayerId());
 
-            sendInformation(currentPlayerInfo.canPlay(), playersValues);
+            if (informed)
+                sendInformation(currentPlayerInfo.canPlay(), playersValues);
             sendStateUpdate(gameState, players);
 
             // Choix de l'action du joueur
             switch (currentPlayer.nextTurn()) {
                 case DRAW_TICKETS:
-                    SortedBag<Ticket> drawnTickets = gameState.topTickets(IN_GAME_TICKETS_COUNT);
-                    sendInformation(currentPlayerInfo.drewTickets(drawnTickets.size()), playersValues);
+                    // Le joueur tire les derniers billets s'il en reste moins que d'habitude, et passe son tour s'il
+                    // n'en reste aucun, ce qu'il ne choisit que si aucun autre coup ne lui est possible
+                    int drawnCount = Math.min(IN_GAME_TICKETS_COUNT, gameState.ticketsCount());
+                    if (drawnCount == 0)
+                        break;
+
+                    SortedBag<Ticket> drawnTickets = gameState.topTickets(drawnCount);
+                    if (informed)
+                        sendInformation(currentPlayerInfo.drewTickets(drawnTickets.size()), playersValues);
 
                     SortedBag<Ticket> chosenTickets = currentPlayer.chooseTickets(drawnTickets);
                     gameState = gameState.withChosenAdditionalTickets(drawnTickets, chosenTickets);
-                    sendInformation(currentPlayerInfo.keptTickets(chosenTickets.size()), playersValues);
+                    if (informed)
+                        sendInformation(currentPlayerInfo.keptTickets(chosenTickets.size()), playersValues);
                     break;
 
                 case DRAW_CARDS:
@@ -94,11 +137,13 @@ public final class Game {
                         int slot = currentPlayer.drawSlot();
 
                         if (slot != DECK_SLOT) {
-                            sendInformation(currentPlayerInfo
-                                    .drewVisibleCard(gameState.cardState().faceUpCard(slot)), playersValues);
+                            if (informed)
+                                sendInformation(currentPlayerInfo
+                                        .drewVisibleCard(gameState.cardState().faceUpCard(slot)), playersValues);
                             gameState = gameState.withDrawnFaceUpCard(slot);
                         } else {
-                            sendInformation(currentPlayerInfo.drewBlindCard(), playersValues);
+                            if (informed)
+                                sendInformation(currentPlayerInfo.drewBlindCard(), playersValues);
                             gameState = gameState.withBlindlyDrawnCard();
                         }
                     }
@@ -109,10 +154,12 @@ public final class Game {
                     SortedBag<Card> initialCards = currentPlayer.initialClaimCards();
 
                     if (claimedRoute.level() == Route.Level.OVERGROUND) {
-                        sendInformation(currentPlayerInfo.claimedRoute(claimedRoute, initialCards), playersValues);
+                        if (informed)
+                            sendInformation(currentPlayerInfo.claimedRoute(claimedRoute, initialCards), playersValues);
                         gameState = gameState.withClaimedRoute(claimedRoute, initialCards);
                     } else {
-                        sendInformation(currentPlayerInfo.attemptsTunnelClaim(claimedRoute, initialCards), playersValues);
+                        if (informed)
+                            sendInformation(currentPlayerInfo.attemptsTunnelClaim(claimedRoute, initialCards), playersValues);
 
                         // Tire des cartes du haut de la pioche
                         SortedBag.Builder<Card> drawnCardsBuilder = new SortedBag.Builder<>();
@@ -125,8 +172,9 @@ public final class Game {
 
                         // Calcule le nombre éventuel de cartes additionnelles
                         int additionalCardsCount = claimedRoute.additionalClaimCardsCount(initialCards, drawnCards);
-                        sendInformation(currentPlayerInfo
-                                .drewAdditionalCards(drawnCards, additionalCardsCount), playersValues);
+                        if (informed)
+                            sendInformation(currentPlayerInfo
+                                    .drewAdditionalCards(drawnCards, additionalCardsCount), playersValues);
 
                         // S'il y a des cartes additionnelles, calcule les cartes que le joueur pourrait jouer
                         SortedBag<Card> additionalCards = SortedBag.of();
@@ -143,8 +191,9 @@ public final class Game {
                         if (additionalCardsCount == 0 || !additionalCards.isEmpty()) {
                             SortedBag<Card> usedCards = initialCards.union(additionalCards);
                             gameState = gameState.withClaimedRoute(claimedRoute, usedCards);
-                            sendInformation(currentPlayerInfo.claimedRoute(claimedRoute, usedCards), playersValues);
-                        } else
+                            if (informed)
+                                sendInformation(currentPlayerInfo.claimedRoute(claimedRoute, usedCards), playersValues);
+                        } else if (informed)
                             sendInformation(currentPlayerInfo.didNotClaimRoute(claimedRoute), playersValues);
 
                         gameState = gameState.withMoreDiscardedCards(drawnCards);
@@ -155,43 +204,53 @@ public final class Game {
                     break;
             }
 
-            if (gameState.lastTurnBegins())
+            if (informed && gameState.lastTurnBegins())
                 sendInformation(currentPlayerInfo.lastTurnBegins(gameState.currentPlayerState().carCount()), playersValues);
 
             gameHasEnded = gameState.lastPlayer() == gameState.currentPlayerId();
 
             gameState = gameState.forNextTurn(playerIds);
+            turnCount++;
         }
 
         // 3. Fin de la partie
         sendStateUpdate(gameState, players);
 
         Map<Integer, String> points = new HashMap<>();
-        Map<String, Trail> longestTrails = new HashMap<>();
+        Map<PlayerId, Integer> finalPoints = new EnumMap<>(PlayerId.class);
+        Map<PlayerId, Trail> longestTrails = new EnumMap<>(PlayerId.class);
+        Set<PlayerId> longestTrailBonus = EnumSet.noneOf(PlayerId.class);
 
         // Calcul du chemin le plus long de chacun des joueurs
         int maxLength = 0;
         for (PlayerId id : playerIds) {
-            Trail longest = Trail.longest(gameState.playerState(id).routes());
+            Trail longest = gameState.playerState(id).longestTrail();
             maxLength = max(maxLength, longest.length());
-            longestTrails.put(playerNames.get(id), longest);
+            longestTrails.put(id, longest);
         }
 
-        for (int i = 0; i < MAX_MESSAGE_COUNT; i++)
-            sendInformation("", playersValues);
-
+        if (informed) {
+            for (int i = 0; i < MAX_MESSAGE_COUNT; i++)
+                sendInformation("", playersValues);
+        }
 
         for (PlayerId id : playerIds) {
-            String name = playerNames.get(id);
-            Trail tr = longestTrails.get(name);
+            Trail tr = longestTrails.get(id);
+            int playerPoints = gameState.playerState(id).finalPoints();
             if (tr.length() == maxLength) {
-                sendInformation(infos.get(id).getsLongestTrailBonus(tr), playersValues);
-                points.put(gameState.playerState(id).finalPoints() + LONGEST_TRAIL_BONUS_POINTS, name);
-            } else
-                points.put(gameState.playerState(id).finalPoints(), name);
+                if (informed)
+                    sendInformation(infos.get(id).getsLongestTrailBonus(tr), playersValues);
+                playerPoints += LONGEST_TRAIL_BONUS_POINTS;
+                longestTrailBonus.add(id);
+            }
+            points.put(playerPoints, playerNames.get(id));
+            finalPoints.put(id, playerPoints);
         }
 
-        sendInformation(Info.classement(points), playersValues);
+        if (informed)
+            sendInformation(Info.classement(points), playersValues);
+
+        return new GameResult(finalPoints, longestTrails, longestTrailBonus, turnCount, gameHasEnded);
     }
 
     /**
@@ -0,0 +1,126 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.Preconditions;
+
+import java.util.*;
+
+/**
+ * Le résultat (immuable) d'une partie de tCHu : les points finaux, les chemins les plus longs et la durée de la partie.
+ *
+ * @author Dylan Vairoli (326603)
+ * @author Giovanni Ranieri (326870)
+ */
+public final class GameResult {
+
+    private final Map<PlayerId, Integer> points;
+    private final Map<PlayerId, Trail> longestTrails;
+    private final Set<PlayerId> longestTrailBonus;
+    private final int turnCount;
+    private final boolean complete;
+
+    /**
+     * Construit le résultat d'une partie dans laquelle les joueurs ont obtenu les points {@code points} (bonus compris)
+     * et les chemins les plus longs {@code longestTrails}, les joueurs de {@code longestTrailBonus} ayant obtenu le
+     * bonus; la partie a duré {@code turnCount} tours, et {@code complete} indique si elle s'est terminée normalement.
+     *
+     * @param points            table associant les points finaux à l'identité des joueurs
+     * @param longestTrails     table associant le chemin le plus long à l'identité des joueurs
+     * @param longestTrailBonus les joueurs ayant obtenu le bonus du chemin le plus long
+     * @param turnCount         le nombre de tours joués
+     * @param complete          vrai ssi la partie s'est terminée normalement
+     * @throws IllegalArgumentException si les deux tables ne portent pas sur les mêmes joueurs, si un joueur ayant
+     *                                  obtenu le bonus n'y figure pas, ou si {@code turnCount} est négatif
+     */
+    public GameResult(Map<PlayerId, Integer> points, Map<PlayerId, Trail> longestTrails,
+                      Set<PlayerId> longestTrailBonus, int turnCount, boolean complete) {
+        Preconditions.checkArgument(points.keySet().equals(longestTrails.keySet()));
+        Preconditions.checkArgument(points.keySet().containsAll(longestTrailBonus));
+        Preconditions.checkArgument(turnCount >= 0);
+
+        this.points = Collections.unmodifiableMap(new EnumMap<>(points));
+        this.longestTrails = Collections.unmodifiableMap(new EnumMap<>(longestTrails));
+        this.longestTrailBonus = longestTrailBonus.isEmpty()
+                ? Set.of()
+                : Collections.unmodifiableSet(EnumSet.copyOf(longestTrailBonus));
+        this.turnCount = turnCount;
+        this.complete = complete;
+    }
+
+    /**
+     * Retourne l'identité des joueurs de la partie, dans l'ordre de {@link PlayerId}.
+     *
+     * @return l'identité des joueurs de la partie
+     */
+    public Set<PlayerId> playerIds() {
+        return points.keySet();
+    }
+
+    /**
+     * Retourne les points finaux du joueur donné, bonus du chemin le plus long compris.
+     *
+     * @param playerId l'identité du joueur
+     * @return les points finaux du joueur
+     */
+    public int points(PlayerId playerId) {
+        return points.get(playerId);
+    }
+
+    /**
+     * Retourne le chemin le plus long du joueur donné.
+     *
+     * @param playerId l'identité du joueur
+     * @return le chemin le plus long du joueur
+     */
+    public Trail longestTrail(PlayerId playerId) {
+        return longestTrails.get(playerId);
+    }
+
+    /**
+     * Retourne vrai ssi le joueur donné a obtenu le bonus du chemin le plus long.
+     *
+     * @param playerId l'identité du joueur
+     * @return vrai ssi le joueur a obtenu le bonus du chemin le plus long
+     */
+    public boolean hasLongestTrailBonus(PlayerId playerId) {
+        return longestTrailBonus.contains(playerId);
+    }
+
+    /**
+     * Retourne les joueurs ayant obtenu le plus de points (plusieurs en cas d'égalité).
+     *
+     * @return les gagnants de la partie
+     */
+    public Set<PlayerId> winners() {
+        int maxPoints = Collections.max(points.values());
+        Set<PlayerId> winners = EnumSet.noneOf(PlayerId.class);
+        points.forEach((id, p) -> {
+            if (p == maxPoints)
+                winners.add(id);
+        });
+        return Collections.unmodifiableSet(winners);
+    }
+
+    /**
+     * Retourne le nombre de tours joués durant la partie.
+     *
+     * @return le nombre de tours joués
+     */
+    public int turnCount() {
+        return turnCount;
+    }
+
+    /**
+     * Retourne vrai ssi la partie s'est terminée normalement, c-à-d qu'elle n'a pas été interrompue faute d'avoir
+     * pris fin après le nombre maximal de tours.
+     *
+     * @return vrai ssi la partie s'est terminée normalement
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    @Override
+    public String toString() {
+        return points.toString();
+    }
+}
@@ -69,6 +69,34 @@ public final class GameState extends PublicGameState {
         return new GameState(ticketsDeck, cardState, firstPlayer, playerState, null);
     }
 
+    /**
+     * Retourne l'état de la partie composé des éléments donnés.
+     */
+    static GameState of(Deck<Ticket> tickets,
+                        CardState cardState,
+                        PlayerId currentPlayerId,
+                        Map<PlayerId, PlayerState> playerState,
+                        PlayerId lastPlayer) {
+        return new GameState(tickets, cardState, currentPlayerId, playerState, lastPlayer);
+    }
+
+    /**
+     * Retourne la pioche des billets de cet état.
+     */
+    Deck<Ticket> ticketDeck() {
+        return tickets;
+    }
+
+    /**
+     * Retourne l'état total (public et privé) des cartes wagon/locomotive.
+     *
+     * @return l'état total des cartes wagon/locomotive
+     */
+    @Override
+    public CardState cardState() {
+        return cardState;
+    }
+
     /**
      * Retourne l'état complet du joueur d'identité {@code playerId}.
      *
@@ -0,0 +1,703 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+
+import java.util.*;
+
+import static ch.epfl.tchu.game.Constants.FACE_UP_CARDS_COUNT;
+
+/**
+ * L'état modifiable d'une partie de tCHu, destiné à l'exploration de l'arbre de jeu par les joueurs automatiques.
+ * Contrairement à {@link GameState}, dont chaque transition construit un nouvel état (et copie la table des états
+ * des joueurs), les transitions de cet état modifient en temps constant des tableaux de types primitifs, et sont
+ * enregistrées dans un historique qui permet de les annuler, dans l'ordre inverse, au moyen de {@link #undo()}.
+ * Seule la recréation de la pioche à partir de la défausse, rare, alloue de la mémoire.
+ * <p>
+ * Les transitions sont celles de {@link GameState}, et vérifient les mêmes conditions; les routes doivent être
+ * celles de {@link ChMap#routes()}.
+ *
+ * @author Dylan Vairoli (326603)
+ * @author Giovanni Ranieri (326870)
+ */
+public final class MutableGameState {
+
+    private static final int END_CAR_COUNT = 2;
+
+    private static final List<Route> ROUTES = ChMap.routes();
+    private static final Map<Route, Integer> ROUTE_INDEX = computeRouteIndex();
+    private static final long[] CARD_BITS = computeCardBits();
+    private static final int STATION_COUNT = ChMap.stations().stream().mapToInt(Station::id).max().orElse(-1) + 1;
+
+    // Types des transitions enregistrées dans l'historique, dans les 4 bits de poids faible de chaque entrée
+    private static final int TICKETS = 0;
+    private static final int REMOVED_CARD = 1;
+    private static final int DISCARDED = 2;
+    private static final int RECREATED = 3;
+    private static final int FACE_UP_CARD = 4;
+    private static final int BLIND_CARD = 5;
+    private static final int CLAIMED_ROUTE = 6;
+    private static final int NEXT_TURN = 7;
+    private static final int TYPE_BITS = 4;
+
+    private final List<PlayerId> playerIds;
+
+    // Pioche des billets, le sommet étant à l'index ticketsTop
+    private final Ticket[] ticketsDeck;
+    private int ticketsTop;
+
+    // Pioche des cartes (ordinaux), le sommet étant à l'index deckSize - 1
+    private final byte[] deck;
+    private int deckSize;
+    private final int[] discards = new int[Card.COUNT];
+    private int discardsSize;
+    private final byte[] faceUpCards = new byte[FACE_UP_CARDS_COUNT];
+
+    // États des joueurs, indexés par la position de leur identité dans playerIds
+    private final long[] cards;
+    private final int[] carCount;
+    private final int[] claimPoints;
+    private final Ticket[][] tickets;
+    private final int[] ticketsCount;
+    private final int[][] routes;
+    private final int[] routesCount;
+    private final byte[] routeOwner = new byte[ROUTES.size()];
+
+    private int currentPlayer;
+    private int lastPlayer;
+
+    private long[] history = new long[64];
+    private int historySize;
+    private final Deque<byte[]> savedDecks = new ArrayDeque<>();
+
+    private MutableGameState(GameState state) {
+        List<PlayerId> ids = new ArrayList<>();
+        for (PlayerId id : PlayerId.ALL) {
+            if (state.playerState(id) != null)
+                ids.add(id);
+        }
+        playerIds = List.copyOf(ids);
+        int playerCount = playerIds.size();
+
+        Deck<Ticket> ticketDeck = state.ticketDeck();
+        int totalTickets = ticketDeck.size();
+        for (PlayerId id : playerIds)
+            totalTickets += state.playerState(id).ticketCount();
+        ticketsDeck = new Ticket[ticketDeck.size()];
+        for (int i = 0; i < ticketsDeck.length; i++)
+            ticketsDeck[i] = ticketDeck.card(i);
+
+        CardState cardState = state.cardState();
+        int totalCards = cardState.deckSize() + cardState.discardsSize() + FACE_UP_CARDS_COUNT;
+        for (PlayerId id : playerIds)
+            totalCards += state.playerState(id).cardCount();
+        deck = new byte[totalCards];
+        deckSize = cardState.deckSize();
+        for (int i = 0; i < deckSize; i++)
+            deck[deckSize - 1 - i] = (byte) cardState.deck().card(i).ordinal();
+        for (Card card : cardState.discards())
+            discards[card.ordinal()] += 1;
+        discardsSize = cardState.discardsSize();
+        for (int slot : Constants.FACE_UP_CARD_SLOTS)
+            faceUpCards[slot] = (byte) cardState.faceUpCard(slot).ordinal();
+
+        cards = new long[playerCount];
+        carCount = new int[playerCount];
+        claimPoints = new int[playerCount];
+        tickets = new Ticket[playerCount][totalTickets];
+        ticketsCount = new int[playerCount];
+        routes = new int[playerCount][ROUTES.size()];
+        routesCount = new int[playerCount];
+        Arrays.fill(routeOwner, (byte) -1);
+        for (int p = 0; p < playerCount; p++) {
+            PlayerState playerState = state.playerState(playerIds.get(p));
+            cards[p] = playerState.cardBag().bits();
+            carCount[p] = playerState.carCount();
+            claimPoints[p] = playerState.claimPoints();
+            for (Ticket ticket : playerState.tickets())
+                tickets[p][ticketsCount[p]++] = ticket;
+            for (Route route : playerState.routes()) {
+                int index = routeIndex(route);
+                routeOwner[index] = (byte) p;
+                routes[p][routesCount[p]++] = index;
+            }
+        }
+
+        currentPlayer = playerIds.indexOf(state.currentPlayerId());
+        lastPlayer = state.lastPlayer() == null ? -1 : playerIds.indexOf(state.lastPlayer());
+    }
+
+    private static Map<Route, Integer> computeRouteIndex() {
+        Map<Route, Integer> index = new HashMap<>();
+        for (int i = 0; i < ROUTES.size(); i++)
+            index.put(ROUTES.get(i), i);
+        return Map.copyOf(index);
+    }
+
+    private static long[] computeCardBits() {
+        long[] bits = new long[Card.COUNT];
+        for (Card card : Card.ALL)
+            bits[card.ordinal()] = CardBag.of(1, card).bits();
+        return bits;
+    }
+
+    private static int routeIndex(Route route) {
+        Integer index = ROUTE_INDEX.get(route);
+        Preconditions.checkArgument(index != null);
+        return index;
+    }
+
+    /**
+     * Retourne l'état modifiable équivalent à l'état donné, dont l'historique est vide.
+     *
+     * @param state l'état de la partie
+     * @return l'état modifiable équivalent à {@code state}
+     * @throws IllegalArgumentException si un joueur s'est emparé d'une route n'appartenant pas à {@link ChMap}
+     */
+    public static MutableGameState of(GameState state) {
+        return new MutableGameState(state);
+    }
+
+    /**
+     * Retourne un état modifiable, dont l'historique est vide, compatible avec ce que le joueur d'identité
+     * {@code ownId} sait de la partie : la partie publique de l'état et son propre état sont ceux donnés, alors que
+     * les informations qu'il ignore (cartes et billets des autres joueurs, ordre des pioches, contenu de la défausse)
+     * sont tirées au hasard au moyen du générateur aléatoire {@code rng}, parmi toutes les cartes du jeu et parmi
+     * les billets {@code tickets}.
+     *
+     * @param state    la partie publique de l'état de la partie
+     * @param ownId    l'identité du joueur
+     * @param ownState l'état complet du joueur
+     * @param tickets  tous les billets de la partie
+     * @param rng      le générateur aléatoire utilisé
+     * @return un état modifiable compatible avec ce que le joueur sait de la partie
+     * @throws IllegalArgumentException si les cartes ou les billets inconnus du joueur ne suffisent pas à
+     *                                  compléter l'état
+     */
+    public static MutableGameState sampled(PublicGameState state, PlayerId ownId, PlayerState ownState,
+                                           SortedBag<Ticket> tickets, Random rng) {
+        PublicCardState publicCardState = state.cardState();
+        List<Card> unknownCards = Constants.ALL_CARDS
+                .difference(ownState.cards())
+                .difference(SortedBag.of(publicCardState.faceUpCards()))
+                .toList();
+        Collections.shuffle(unknownCards, rng);
+        List<Ticket> unknownTickets = tickets.difference(ownState.tickets()).toList();
+        Collections.shuffle(unknownTickets, rng);
+
+        int cardIndex = 0;
+        int ticketIndex = 0;
+        Map<PlayerId, PlayerState> playerState = new EnumMap<>(PlayerId.class);
+        for (PlayerId id : PlayerId.ALL) {
+            PublicPlayerState publicPlayerState = state.playerState(id);
+            if (id == ownId) {
+                playerState.put(id, ownState);
+            } else if (publicPlayerState != null) {
+                int cardCount = publicPlayerState.cardCount();
+                int ticketCount = publicPlayerState.ticketCount();
+                Preconditions.checkArgument(cardIndex + cardCount <= unknownCards.size()
+                        && ticketIndex + ticketCount <= unknownTickets.size());
+                playerState.put(id, new PlayerState(
+                        SortedBag.of(unknownTickets.subList(ticketIndex, ticketIndex + ticketCount)),
+                        SortedBag.of(unknownCards.subList(cardIndex, cardIndex + cardCount)),
+                        publicPlayerState.routes()));
+                cardIndex += cardCount;
+                ticketIndex += ticketCount;
+            }
+        }
+
+        int deckEnd = cardIndex + publicCardState.deckSize();
+        Preconditions.checkArgument(deckEnd + publicCardState.discardsSize() == unknownCards.size()
+                && ticketIndex + state.ticketsCount() <= unknownTickets.size());
+        CardState cardState = CardState.of(publicCardState.faceUpCards(),
+                Deck.ofOrdered(unknownCards.subList(cardIndex, deckEnd)),
+                SortedBag.of(unknownCards.subList(deckEnd, unknownCards.size())));
+        Deck<Ticket> ticketDeck = Deck.ofOrdered(unknownTickets.subList(ticketIndex, ticketIndex + state.ticketsCount()));
+
+        return new MutableGameState(GameState.of(ticketDeck, cardState,
+                state.currentPlayerId(), playerState, state.lastPlayer()));
+    }
+
+    /**
+     * Retourne l'état immuable équivalent à l'état actuel de celui-ci.
+     *
+     * @return l'état immuable équivalent à celui-ci
+     */
+    public GameState toGameState() {
+        List<Ticket> ticketsList = Arrays.asList(ticketsDeck).subList(ticketsTop, ticketsDeck.length);
+
+        List<Card> deckList = new ArrayList<>(deckSize);
+        for (int i = deckSize - 1; i >= 0; i--)
+            deckList.add(Card.ALL.get(deck[i]));
+        SortedBag.Builder<Card> discardsBuilder = new SortedBag.Builder<>();
+        for (Card card : Card.ALL)
+            discardsBuilder.add(discards[card.ordinal()], card);
+        List<Card> faceUpList = new ArrayList<>(FACE_UP_CARDS_COUNT);
+        for (byte card : faceUpCards)
+            faceUpList.add(Card.ALL.get(card));
+        CardState cardState = CardState.of(faceUpList, Deck.ofOrdered(deckList), discardsBuilder.build());
+
+        Map<PlayerId, PlayerState> playerState = new EnumMap<>(PlayerId.class);
+        for (int p = 0; p < playerIds.size(); p++) {
+            List<Route> playerRoutes = new ArrayList<>(routesCount[p]);
+            for (int i = 0; i < routesCount[p]; i++)
+                playerRoutes.add(ROUTES.get(routes[p][i]));
+            SortedBag<Ticket> playerTickets = SortedBag.of(Arrays.asList(tickets[p]).subList(0, ticketsCount[p]));
+            playerState.put(playerIds.get(p),
+                    new PlayerState(playerTickets, CardBag.ofBits(cards[p]).toSortedBag(), playerRoutes));
+        }
+
+        return GameState.of(Deck.ofOrdered(ticketsList), cardState,
+                playerIds.get(currentPlayer), playerState, lastPlayer == -1 ? null : playerIds.get(lastPlayer));
+    }
+
+    /**
+     * Retourne l'identité du joueur courant.
+     *
+     * @return l'identité du joueur courant
+     */
+    public PlayerId currentPlayerId() {
+        return playerIds.get(currentPlayer);
+    }
+
+    /**
+     * Retourne l'identité du dernier joueur, ou {@code null} si elle n'est pas encore connue.
+     *
+     * @return l'identité du dernier joueur, ou {@code null}
+     */
+    public PlayerId lastPlayer() {
+        return lastPlayer == -1 ? null : playerIds.get(lastPlayer);
+    }
+
+    /**
+     * Retourne la taille de la pioche de billets.
+     *
+     * @return la taille de la pioche de billets
+     */
+    public int ticketsCount() {
+        return ticketsDeck.length - ticketsTop;
+    }
+
+    /**
+     * Retourne le billet d'index {@code index} de la pioche, le billet au sommet ayant l'index 0.
+     *
+     * @param index l'index du billet
+     * @return le billet d'index {@code index} de la pioche
+     * @throws IndexOutOfBoundsException si {@code index} n'est pas compris entre 0 (inclus) et la taille de la
+     *                                   pioche (exclus)
+     */
+    public Ticket topTicket(int index) {
+        Objects.checkIndex(index, ticketsCount());
+        return ticketsDeck[ticketsTop + index];
+    }
+
+    /**
+     * Retourne la taille de la pioche de cartes.
+     *
+     * @return la taille de la pioche de cartes
+     */
+    public int deckSize() {
+        return deckSize;
+    }
+
+    /**
+     * Retourne la taille de la défausse.
+     *
+     * @return la taille de la défausse
+     */
+    public int discardsSize() {
+        return discardsSize;
+    }
+
+    /**
+     * Retourne vrai ssi il est possible de tirer des cartes, c-à-d si la pioche et la défausse contiennent entre
+     * elles au moins 5 cartes.
+     *
+     * @return vrai ssi il est possible de tirer des cartes
+     */
+    public boolean canDrawCards() {
+        return deckSize + discardsSize >= FACE_UP_CARDS_COUNT;
+    }
+
+    /**
+     * Retourne la carte face visible à l'emplacement donné.
+     *
+     * @param slot l'emplacement de la carte
+     * @return la carte face visible à l'emplacement {@code slot}
+     * @throws IndexOutOfBoundsException si {@code slot} n'est pas compris entre 0 (inclus) et 5 (exclus)
+     */
+    public Card faceUpCard(int slot) {
+        return Card.ALL.get(faceUpCards[Objects.checkIndex(slot, FACE_UP_CARDS_COUNT)]);
+    }
+
+    /**
+     * Retourne la carte au sommet de la pioche.
+     *
+     * @return la carte au sommet de la pioche
+     * @throws IllegalArgumentException si la pioche est vide
+     */
+    public Card topCard() {
+        Preconditions.checkArgument(deckSize > 0);
+        return Card.ALL.get(deck[deckSize - 1]);
+    }
+
+    /**
+     * Retourne les cartes en main du joueur donné.
+     *
+     * @param playerId l'identité du joueur
+     * @return les cartes en main du joueur d'identité {@code playerId}
+     */
+    public CardBag cards(PlayerId playerId) {
+        return CardBag.ofBits(cards[playerIds.indexOf(playerId)]);
+    }
+
+    /**
+     * Retourne le nombre de wagons du joueur donné.
+     *
+     * @param playerId l'identité du joueur
+     * @return le nombre de wagons du joueur d'identité {@code playerId}
+     */
+    public int carCount(PlayerId playerId) {
+        return carCount[playerIds.indexOf(playerId)];
+    }
+
+    /**
+     * Retourne le nombre de points de construction obtenus par le joueur donné.
+     *
+     * @param playerId l'identité du joueur
+     * @return le nombre de points de construction du joueur d'identité {@code playerId}
+     */
+    public int claimPoints(PlayerId playerId) {
+        return claimPoints[playerIds.indexOf(playerId)];
+    }
+
+    /**
+     * Retourne le nombre de billets du joueur donné.
+     *
+     * @param playerId l'identité du joueur
+     * @return le nombre de billets du joueur d'identité {@code playerId}
+     */
+    public int ticketCount(PlayerId playerId) {
+        return ticketsCount[playerIds.indexOf(playerId)];
+    }
+
+    /**
+     * Retourne l'identité du joueur s'étant emparé de la route donnée, ou {@code null} si personne ne l'a fait.
+     *
+     * @param route la route
+     * @return l'identité du propriétaire de {@code route}, ou {@code null}
+     * @throws IllegalArgumentException si {@code route} n'appartient pas à {@link ChMap}
+     */
+    public PlayerId routeOwner(Route route) {
+        int owner = routeOwner[routeIndex(route)];
+        return owner == -1 ? null : playerIds.get(owner);
+    }
+
+    /**
+     * Retourne le nombre de points obtenus par le joueur donné grâce à ses routes et à ses billets, c-à-d ses
+     * points en fin de partie sans l'éventuel bonus du plus long chemin.
+     *
+     * @param playerId l'identité du joueur
+     * @return le nombre de points du joueur d'identité {@code playerId}
+     * @see PlayerState#finalPoints()
+     */
+    public int finalPoints(PlayerId playerId) {
+        int p = playerIds.indexOf(playerId);
+        StationPartition.Builder connectivityBuilder = new StationPartition.Builder(STATION_COUNT);
+        for (int i = 0; i < routesCount[p]; i++) {
+            Route route = ROUTES.get(routes[p][i]);
+            connectivityBuilder.connect(route.station1(), route.station2());
+        }
+        StationPartition connectivity = connectivityBuilder.build();
+
+        int points = claimPoints[p];
+        for (int i = 0; i < ticketsCount[p]; i++)
+            points += tickets[p][i].points(connectivity);
+        return points;
+    }
+
+    /**
+     * Retourne le plus long chemin du réseau du joueur donné.
+     *
+     * @param playerId l'identité du joueur
+     * @return le plus long chemin du réseau du joueur d'identité {@code playerId}
+     * @see PlayerState#longestTrail()
+     */
+    public Trail longestTrail(PlayerId playerId) {
+        int p = playerIds.indexOf(playerId);
+        List<Route> playerRoutes = new ArrayList<>(routesCount[p]);
+        for (int i = 0; i < routesCount[p]; i++)
+            playerRoutes.add(ROUTES.get(routes[p][i]));
+        return Trail.longest(playerRoutes);
+    }
+
+    /**
+     * Retourne le nombre de transitions de l'historique, qui peut être passé à {@link #undoTo(int)}.
+     *
+     * @return le nombre de transitions de l'historique
+     */
+    public int historySize() {
+        return historySize;
+    }
+
+    /**
+     * Enlève de la pioche les {@code drawnCount} billets de son sommet, et ajoute à la main du joueur courant ceux
+     * d'entre eux dont l'index (0 pour le billet au sommet) correspond à un bit de {@code chosenMask}.
+     *
+     * @param drawnCount le nombre de billets tirés
+     * @param chosenMask les billets gardés, un bit par billet tiré
+     * @throws IllegalArgumentException si {@code drawnCount} n'est pas compris entre 0 et la taille de la pioche
+     *                                  (inclus), ou si {@code chosenMask} désigne un billet qui n'a pas été tiré
+     * @see GameState#withChosenAdditionalTickets(SortedBag, SortedBag)
+     */
+    public void chooseAdditionalTickets(int drawnCount, int chosenMask) {
+        Preconditions.checkArgument(drawnCount >= 0 && drawnCount <= ticketsCount() && drawnCount < Integer.SIZE);
+        Preconditions.checkArgument((chosenMask >>> drawnCount) == 0);
+
+        for (int i = 0; i < drawnCount; i++) {
+            if ((chosenMask & (1 << i)) != 0)
+                tickets[currentPlayer][ticketsCount[currentPlayer]++] = ticketsDeck[ticketsTop + i];
+        }
+        ticketsTop += drawnCount;
+        record(TICKETS, ((long) Integer.bitCount(chosenMask) << Integer.SIZE) | drawnCount);
+    }
+
+    /**
+     * Enlève la carte du sommet de la pioche, sans l'attribuer à quiconque.
+     *
+     * @throws IllegalArgumentException si la pioche est vide
+     * @see GameState#withoutTopCard()
+     */
+    public void removeTopCard() {
+        Preconditions.checkArgument(deckSize > 0);
+        deckSize -= 1;
+        record(REMOVED_CARD, 0);
+    }
+
+    /**
+     * Ajoute les cartes données à la défausse.
+     *
+     * @param discardedCards les cartes à ajouter à la défausse
+     * @see GameState#withMoreDiscardedCards(SortedBag)
+     */
+    public void discard(CardBag discardedCards) {
+        addDiscards(discardedCards.bits(), 1);
+        push(discardedCards.bits());
+        record(DISCARDED, 0);
+    }
+
+    /**
+     * Recrée la pioche à partir de la défausse, mélangée au moyen du générateur aléatoire donné, si elle est vide.
+     *
+     * @param rng le générateur aléatoire utilisé
+     * @see GameState#withCardsDeckRecreatedIfNeeded(Random)
+     */
+    public void recreateCardsDeckIfNeeded(Random rng) {
+        if (deckSize > 0)
+            return;
+
+        // Les cartes de la pioche écrasées doivent être conservées pour pouvoir annuler les transitions précédentes
+        byte[] saved = Arrays.copyOf(deck, discardsSize + Card.COUNT);
+        for (int c = 0; c < Card.COUNT; c++) {
+            saved[discardsSize + c] = (byte) discards[c];
+            for (int i = 0; i < discards[c]; i++)
+                deck[deckSize++] = (byte) c;
+            discards[c] = 0;
+        }
+        savedDecks.push(saved);
+
+        // Même mélange que Collections.shuffle (donc que Deck.of), puis inversion car le sommet est à la fin
+        for (int i = deckSize; i > 1; i--)
+            swapDeckCards(i - 1, rng.nextInt(i));
+        for (int i = 0; i < deckSize / 2; i++)
+            swapDeckCards(i, deckSize - 1 - i);
+        discardsSize = 0;
+        record(RECREATED, 0);
+    }
+
+    /**
+     * Place la carte face visible à l'emplacement donné dans la main du joueur courant, et la remplace par celle au
+     * sommet de la pioche.
+     *
+     * @param slot l'emplacement de la carte
+     * @throws IndexOutOfBoundsException si {@code slot} n'est pas compris entre 0 (inclus) et 5 (exclus)
+     * @throws IllegalArgumentException  si la pioche est vide
+     * @see GameState#withDrawnFaceUpCard(int)
+     */
+    public void drawFaceUpCard(int slot) {
+        Objects.checkIndex(slot, FACE_UP_CARDS_COUNT);
+        Preconditions.checkArgument(deckSize > 0);
+
+        byte card = faceUpCards[slot];
+        cards[currentPlayer] += CARD_BITS[card];
+        faceUpCards[slot] = deck[--deckSize];
+        record(FACE_UP_CARD, ((long) card << Integer.SIZE) | slot);
+    }
+
+    /**
+     * Place la carte du sommet de la pioche dans la main du joueur courant.
+     *
+     * @throws IllegalArgumentException si la pioche est vide
+     * @see GameState#withBlindlyDrawnCard()
+     */
+    public void drawBlindCard() {
+        Preconditions.checkArgument(deckSize > 0);
+        cards[currentPlayer] += CARD_BITS[deck[--deckSize]];
+        record(BLIND_CARD, 0);
+    }
+
+    /**
+     * Attribue la route donnée au joueur courant, qui s'en empare au moyen des cartes données, ajoutées à la
+     * défausse.
+     *
+     * @param route      la route dont le joueur s'empare
+     * @param claimCards les cartes utilisées pour s'emparer de {@code route}
+     * @throws IllegalArgumentException si la route appartient déjà à un joueur, n'appartient pas à {@link ChMap},
+     *                                  ou si le joueur courant ne possède pas les cartes {@code claimCards}
+     * @see GameState#withClaimedRoute(Route, SortedBag)
+     */
+    public void claimRoute(Route route, CardBag claimCards) {
+        int index = routeIndex(route);
+        Preconditions.checkArgument(routeOwner[index] == -1);
+        Preconditions.checkArgument(CardBag.ofBits(cards[currentPlayer]).contains(claimCards));
+
+        cards[currentPlayer] -= claimCards.bits();
+        addDiscards(claimCards.bits(), 1);
+        carCount[currentPlayer] -= route.length();
+        claimPoints[currentPlayer] += route.claimPoints();
+        routeOwner[index] = (byte) currentPlayer;
+        routes[currentPlayer][routesCount[currentPlayer]++] = index;
+
+        push(claimCards.bits());
+        record(CLAIMED_ROUTE, index);
+    }
+
+    /**
+     * Retourne vrai ssi le dernier tour commence, c-à-d si l'identité du dernier joueur est actuellement inconnue
+     * mais que le joueur courant n'a plus que deux wagons ou moins.
+     *
+     * @return vrai ssi le dernier tour commence
+     * @see GameState#lastTurnBegins()
+     */
+    public boolean lastTurnBegins() {
+        return lastPlayer == -1 && carCount[currentPlayer] <= END_CAR_COUNT;
+    }
+
+    /**
+     * Termine le tour du joueur courant : le joueur suivant devient le joueur courant et, si le dernier tour
+     * commence, le joueur courant actuel devient le dernier joueur.
+     *
+     * @see GameState#forNextTurn(Collection)
+     */
+    public void nextTurn() {
+        record(NEXT_TURN, ((long) (lastPlayer + 1) << Integer.SIZE) | currentPlayer);
+        if (lastTurnBegins())
+            lastPlayer = currentPlayer;
+        currentPlayer = playerIds.indexOf(playerIds.get(currentPlayer).next(playerIds));
+    }
+
+    /**
+     * Annule la dernière transition de l'historique.
+     *
+     * @throws IllegalStateException si l'historique est vide
+     */
+    public void undo() {
+        if (historySize == 0)
+            throw new IllegalStateException();
+
+        long entry = history[--historySize];
+        long data = entry >>> TYPE_BITS;
+        int low = (int) data;
+        int high = (int) (data >>> Integer.SIZE);
+        switch ((int) (entry & ((1 << TYPE_BITS) - 1))) {
+            case TICKETS:
+                ticketsTop -= low;
+                ticketsCount[currentPlayer] -= high;
+                break;
+
+            case REMOVED_CARD:
+                deckSize += 1;
+                break;
+
+            case DISCARDED:
+                addDiscards(history[--historySize], -1);
+                break;
+
+            case RECREATED:
+                byte[] saved = savedDecks.pop();
+                int savedDiscardsSize = saved.length - Card.COUNT;
+                System.arraycopy(saved, 0, deck, 0, savedDiscardsSize);
+                for (int c = 0; c < Card.COUNT; c++)
+                    discards[c] = saved[savedDiscardsSize + c];
+                discardsSize = savedDiscardsSize;
+                deckSize = 0;
+                break;
+
+            case FACE_UP_CARD:
+                faceUpCards[low] = (byte) high;
+                deckSize += 1;
+                cards[currentPlayer] -= CARD_BITS[high];
+                break;
+
+            case BLIND_CARD:
+                cards[currentPlayer] -= CARD_BITS[deck[deckSize++]];
+                break;
+
+            case CLAIMED_ROUTE:
+                long claimCards = history[--historySize];
+                Route route = ROUTES.get(low);
+                routesCount[currentPlayer] -= 1;
+                routeOwner[low] = -1;
+                claimPoints[currentPlayer] -= route.claimPoints();
+                carCount[currentPlayer] += route.length();
+                addDiscards(claimCards, -1);
+                cards[currentPlayer] += claimCards;
+                break;
+
+            case NEXT_TURN:
+                currentPlayer = low;
+                lastPlayer = high - 1;
+                break;
+
+            default:
+                throw new Error();
+        }
+    }
+
+    /**
+     * Annule les transitions de l'historique jusqu'à ce qu'il n'en contienne plus que {@code size}.
+     *
+     * @param size le nombre de transitions à conserver, typiquement obtenu de {@link #historySize()}
+     * @throws IllegalArgumentException si {@code size} n'est pas compris entre 0 et la taille de l'historique
+     *                                  (inclus)
+     */
+    public void undoTo(int size) {
+        Preconditions.checkArgument(size >= 0 && size <= historySize);
+        while (historySize > size)
+            undo();
+    }
+
+    private void swapDeckCards(int i, int j) {
+        byte card = deck[i];
+        deck[i] = deck[j];
+        deck[j] = card;
+    }
+
+    private void addDiscards(long bits, int sign) {
+        for (int c = 0; c < Card.COUNT; c++) {
+            int count = (int) ((bits >>> Long.numberOfTrailingZeros(CARD_BITS[c])) & CardBag.MAX_COUNT);
+            discards[c] += sign * count;
+            discardsSize += sign * count;
+        }
+    }
+
+    private void record(int type, long data) {
+        push((data << TYPE_BITS) | type);
+    }
+
+    private void push(long entry) {
+        if (historySize == history.length)
+            history = Arrays.copyOf(history, 2 * history.length);
+        history[historySize++] = entry;
+    }
+}
@@ -18,7 +18,9 @@ import static java.lang.Math.max;
 public final class PlayerState extends PublicPlayerState {
 
     private final SortedBag<Ticket> tickets;
-    private final SortedBag<Card> cards;
+    private final CardBag cards;
+    private final StationPartition connectivity;
+    private Trail longestTrail;
 
     /**
      * Construit l'état d'un joueur possédant les billets {@code tickets},
@@ -29,10 +31,35 @@ public final class PlayerState extends PublicPlayerState {
      * @param routes  les routes dont le joueur s'est emparées
      */
     public PlayerState(SortedBag<Ticket> tickets, SortedBag<Card> cards, List<Route> routes) {
+        this(tickets, CardBag.of(cards), routes, computeConnectivity(routes), null);
+    }
+
+    /**
+     * Construit l'état d'un joueur dont la connectivité du réseau {@code connectivity} est déjà connue,
+     * de même que le plus long chemin {@code longestTrail} (qui peut être {@code null} s'il reste à calculer).
+     */
+    private PlayerState(SortedBag<Ticket> tickets, CardBag cards, List<Route> routes,
+                        StationPartition connectivity, Trail longestTrail) {
         super(tickets.size(), cards.size(), routes);
 
         this.tickets = tickets;
         this.cards = cards;
+        this.connectivity = connectivity;
+        this.longestTrail = longestTrail;
+    }
+
+    /**
+     * Retourne la partition des gares reliées par les routes {@code routes}.
+     */
+    private static StationPartition computeConnectivity(List<Route> routes) {
+        int maxIndex = routes.stream()
+                .mapToInt(r -> max(r.station1().id(), r.station2().id()))
+                .max()
+                .orElse(0);
+
+        StationPartition.Builder connectivityBuilder = new StationPartition.Builder(maxIndex + 1);
+        routes.forEach(c -> connectivityBuilder.connect(c.station1(), c.station2()));
+        return connectivityBuilder.build();
     }
 
     /**
@@ -55,7 +82,7 @@ public final class PlayerState extends PublicPlayerState {
      * @return un état identique à celui-ci, si ce n'est que ce joueur possède en plus les billets {@code newTickets}
      */
     public PlayerState withAddedTickets(SortedBag<Ticket> newTickets) {
-        return new PlayerState(tickets.union(newTickets), cards, routes());
+        return new PlayerState(tickets.union(newTickets), cards, routes(), connectivity, longestTrail);
     }
 
     /**
@@ -65,7 +92,7 @@ public final class PlayerState extends PublicPlayerState {
      * @return un état identique à celui-ci, si ce n'est que ce joueur possède en plus la carte {@code card}
      */
     public PlayerState withAddedCard(Card card) {
-        return new PlayerState(tickets(), cards.union(SortedBag.of(card)), routes());
+        return new PlayerState(tickets(), cards.with(card), routes(), connectivity, longestTrail);
     }
 
     /**
@@ -76,7 +103,7 @@ public final class PlayerState extends PublicPlayerState {
      * @return ssi le joueur peut s'emparer de la route {@code route}
      */
     public boolean canClaimRoute(Route route) {
-        return carCount() >= route.length() && !possibleClaimCards(route).isEmpty();
+        return carCount() >= route.length() && route.canBeClaimedWith(cards);
     }
 
     /**
@@ -92,9 +119,15 @@ public final class PlayerState extends PublicPlayerState {
     public List<SortedBag<Card>> possibleClaimCards(Route route) {
         Preconditions.checkArgument(carCount() >= route.length());
 
-        return route.possibleClaimCards().stream()
-                .filter(cards::contains)
-                .collect(Collectors.toList());
+        List<SortedBag<Card>> possibleClaimCards = route.possibleClaimCards();
+        List<CardBag> possibleClaimCardBags = route.possibleClaimCardBags();
+
+        List<SortedBag<Card>> claimCards = new ArrayList<>();
+        for (int i = 0; i < possibleClaimCards.size(); i++) {
+            if (cards.contains(possibleClaimCardBags.get(i)))
+                claimCards.add(possibleClaimCards.get(i));
+        }
+        return claimCards;
     }
 
     /**
@@ -123,17 +156,18 @@ public final class PlayerState extends PublicPlayerState {
                 .findAny()
                 .orElse(Card.LOCOMOTIVE);
 
-        SortedBag<Card> possibleCardsInHand = SortedBag.of(cards.stream()
-                .filter(c -> c == Card.LOCOMOTIVE || c == initialCardType)
-                .collect(Collectors.toList()))
-                .difference(initialCards);
+        CardBag usableCards = CardBag.of(cards.countOf(Card.LOCOMOTIVE), Card.LOCOMOTIVE);
+        if (initialCardType != Card.LOCOMOTIVE)
+            usableCards = usableCards.union(CardBag.of(cards.countOf(initialCardType), initialCardType));
 
-        // 2. Create all possible subsets and put it in a list
-        Set<SortedBag<Card>> optionsSet = new HashSet<>();
-        if (possibleCardsInHand.size() >= additionalCardsCount)
-            optionsSet = possibleCardsInHand.subsetsOfSize(additionalCardsCount);
+        CardBag possibleCardsInHand = usableCards.difference(CardBag.of(initialCards));
 
-        List<SortedBag<Card>> optionsList = new ArrayList<>(optionsSet);
+        // 2. Create all possible subsets and put it in a list
+        List<SortedBag<Card>> optionsList = new ArrayList<>();
+        if (possibleCardsInHand.size() >= additionalCardsCount) {
+            for (CardBag option : possibleCardsInHand.subsetsOfSize(additionalCardsCount))
+                optionsList.add(option.toSortedBag());
+        }
 
         // 3. Sort the list
         optionsList.sort(Comparator.comparingInt(cs -> cs.countOf(Card.LOCOMOTIVE)));
@@ -151,34 +185,92 @@ public final class PlayerState extends PublicPlayerState {
      * si ce n'est que ce joueur s'est de plus emparé de la route {@code route} au moyen des cartes {@code claimCards}
      */
     public PlayerState withClaimedRoute(Route route, SortedBag<Card> claimCards) {
-        SortedBag<Card> newCards = cards.difference(claimCards);
+        CardBag newCards = cards.difference(CardBag.of(claimCards));
 
         List<Route> newRoutes = new ArrayList<>(routes());
         newRoutes.add(route);
 
-        return new PlayerState(tickets(), newCards, newRoutes);
+        // Seule la composante connexe contenant la nouvelle route peut contenir un chemin plus long
+        List<Route> component = connectedRoutes(newRoutes, route);
+        Trail componentLongest = Trail.longest(component);
+        Trail previousLongest = longestTrail();
+        Trail newLongestTrail = previousLongest.length() == 0
+                || component.contains(previousLongest.routes().get(0))
+                || isFoundBefore(componentLongest, previousLongest, newRoutes) ?
+                componentLongest : previousLongest;
+
+        return new PlayerState(tickets(), newCards, newRoutes,
+                connectivity.withConnected(route.station1(), route.station2()), newLongestTrail);
+    }
+
+    /**
+     * Retourne vrai si et seulement si {@link Trail#longest(List)} choisit le chemin {@code trail1} plutôt que
+     * {@code trail2}, tous deux non vides et situés dans des composantes connexes distinctes du réseau {@code routes} :
+     * le plus long l'emporte, puis celui comportant le moins de routes, puis celui dont la première route apparaît
+     * en premier dans {@code routes}, car la recherche explore les chemins par première route croissante.
+     */
+    private static boolean isFoundBefore(Trail trail1, Trail trail2, List<Route> routes) {
+        if (trail1.length() != trail2.length())
+            return trail1.length() > trail2.length();
+        if (trail1.routes().size() != trail2.routes().size())
+            return trail1.routes().size() < trail2.routes().size();
+        return routes.indexOf(trail1.routes().get(0)) < routes.indexOf(trail2.routes().get(0));
+    }
+
+    /**
+     * Retourne les routes de {@code routes} appartenant à la même composante connexe que {@code route},
+     * dans l'ordre de {@code routes}.
+     */
+    private static List<Route> connectedRoutes(List<Route> routes, Route route) {
+        BitSet stations = new BitSet();
+        stations.set(route.station1().id());
+        stations.set(route.station2().id());
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Route r : routes) {
+                boolean has1 = stations.get(r.station1().id());
+                boolean has2 = stations.get(r.station2().id());
+                if (has1 != has2) {
+                    stations.set(r.station1().id());
+                    stations.set(r.station2().id());
+                    changed = true;
+                }
+            }
+        }
+
+        return routes.stream()
+                .filter(r -> stations.get(r.station1().id()))
+                .collect(Collectors.toList());
     }
 
     /**
      * Retourne le nombre de points (éventuellement négatif) obtenus par ce joueur grâce à ses billets.
+     * La connectivité du réseau étant maintenue à chaque nouvelle route, ce calcul ne dépend que du nombre de billets.
      *
      * @return le nombre de points obtenus par ce joueur grâce à ses billets
      */
     public int ticketPoints() {
-        int maxIndex = routes().stream()
-                .mapToInt(r -> max(r.station1().id(), r.station2().id()))
-                .max()
-                .orElse(0);
-
-        StationPartition.Builder connectivityBuilder = new StationPartition.Builder(maxIndex + 1);
-        routes().forEach(c -> connectivityBuilder.connect(c.station1(), c.station2()));
-        StationPartition connectivity = connectivityBuilder.build();
-
         return tickets().stream()
                 .mapToInt(t -> t.points(connectivity))
                 .sum();
     }
 
+    /**
+     * Retourne le plus long chemin du réseau de ce joueur. Il est mis à jour à chaque nouvelle route
+     * en ne recherchant que dans la composante connexe de cette dernière, et il est toujours identique à celui que
+     * retourne {@code Trail.longest(routes())}, y compris en cas d'égalité.
+     *
+     * @return le plus long chemin du réseau de ce joueur
+     * @see Trail#longest(List)
+     */
+    public Trail longestTrail() {
+        if (longestTrail == null)
+            longestTrail = Trail.longest(routes());
+        return longestTrail;
+    }
+
     /**
      * Retourne la totalité des points obtenus par ce joueur à la fin de la partie.
      *
@@ -203,6 +295,15 @@ public final class PlayerState extends PublicPlayerState {
      * @return les cartes wagon/locomotive de ce joueur
      */
     public SortedBag<Card> cards() {
+        return cards.toSortedBag();
+    }
+
+    /**
+     * Retourne les cartes wagon/locomotive de ce joueur, sous forme compacte.
+     *
+     * @return les cartes wagon/locomotive de ce joueur
+     */
+    public CardBag cardBag() {
         return cards;
     }
 }
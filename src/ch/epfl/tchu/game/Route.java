@@ -21,6 +21,8 @@ public final class Route {
     private final int length;
     private final Level level;
     private final Color color;
+    private final List<SortedBag<Card>> possibleClaimCards;
+    private final List<CardBag> possibleClaimCardBags;
 
     /**
      * Construit une route avec l'identité, les gares, la longueur,
@@ -46,6 +48,12 @@ public final class Route {
         this.level = Objects.requireNonNull(level);
         this.length = length;
         this.color = color;
+
+        this.possibleClaimCards = computePossibleClaimCards();
+        List<CardBag> claimCardBags = new ArrayList<>(possibleClaimCards.size());
+        for (SortedBag<Card> claimCards : possibleClaimCards)
+            claimCardBags.add(CardBag.of(claimCards));
+        this.possibleClaimCardBags = List.copyOf(claimCardBags);
     }
 
     /**
@@ -74,9 +82,49 @@ public final class Route {
      * Retourne la liste de tous les ensembles de cartes qui pourraient être joués pour (tenter de)
      * s'emparer de cette route, triée par ordre croissant de nombre de cartes locomotive, puis par couleur.
      *
-     * @return la liste de tous les ensembles de cartes qui pourraient être joués pour s'emparer de cette route
+     * @return la liste (immuable) de tous les ensembles de cartes qui pourraient être joués pour s'emparer
+     * de cette route
      */
     public List<SortedBag<Card>> possibleClaimCards() {
+        return possibleClaimCards;
+    }
+
+    /**
+     * Retourne la liste de tous les ensembles de cartes qui pourraient être joués pour (tenter de)
+     * s'emparer de cette route, sous forme compacte et dans le même ordre que {@link #possibleClaimCards()}.
+     *
+     * @return la liste (immuable) des ensembles de cartes qui pourraient être joués pour s'emparer de cette route
+     */
+    public List<CardBag> possibleClaimCardBags() {
+        return possibleClaimCardBags;
+    }
+
+    /**
+     * Retourne vrai ssi au moins un des ensembles de cartes permettant de s'emparer de cette route est contenu
+     * dans {@code cards}. Le test se fait directement sur les multiplicités des cartes, sans parcourir ces ensembles.
+     *
+     * @param cards les cartes disponibles
+     * @return vrai ssi {@code cards} permet de (tenter de) s'emparer de cette route
+     */
+    public boolean canBeClaimedWith(CardBag cards) {
+        int locomotives = level == Level.UNDERGROUND ? cards.countOf(Card.LOCOMOTIVE) : 0;
+        if (locomotives >= length)
+            return true;
+
+        if (color != null)
+            return cards.countOf(Card.of(color)) + locomotives >= length;
+
+        for (Card car : Card.CARS) {
+            if (cards.countOf(car) + locomotives >= length)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Calcule la liste de tous les ensembles de cartes qui pourraient être joués pour s'emparer de cette route.
+     */
+    private List<SortedBag<Card>> computePossibleClaimCards() {
         List<SortedBag<Card>> possibleClaimCardsList = new ArrayList<>();
 
         if (color != null)
@@ -95,7 +143,7 @@ public final class Route {
             possibleClaimCardsList.add(SortedBag.of(length, Card.LOCOMOTIVE));
         }
 
-        return possibleClaimCardsList;
+        return List.copyOf(possibleClaimCardsList);
     }
 
     /**
@@ -0,0 +1,428 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.Preconditions;
+
+import java.util.*;
+
+/**
+ * Les plus courts chemins, en nombre de wagons, entre toutes les paires de gares d'un réseau, qui permettent de
+ * connaître en temps constant le coût restant pour relier les gares d'un trajet ou d'un billet, et le chemin à
+ * suivre pour cela.
+ * <p>
+ * Les chemins sont calculés une fois par l'algorithme de Floyd-Warshall, puis mis à jour de manière incrémentale
+ * lorsque le joueur pour lequel ils sont tenus à jour s'empare d'une route, qui ne coûte alors plus rien, ou lorsqu'une
+ * route lui devient inaccessible, parce qu'elle a été prise par un autre joueur ou qu'elle est bloquée : seuls les
+ * chemins menant aux gares vers lesquelles elle était empruntée doivent alors être recalculés, par l'algorithme de
+ * Dijkstra. Ils ne le sont que lors de la consultation suivante des chemins menant à chacune de ces gares, si bien
+ * que les routes prises par les autres joueurs entre deux décisions ne coûtent qu'un calcul par gare consultée.
+ * Les distances et les gares suivantes sur ces chemins sont stockées dans des tableaux plats indexés par
+ * {@code from * stationCount + to}.
+ * <p>
+ * Contrairement à la plupart des classes du jeu, celle-ci n'est pas immuable : chaque joueur doit en avoir sa propre
+ * copie, obtenue au moyen de {@link #ofChMap()} ou du constructeur de copie, qui évite de tout recalculer.
+ *
+ * @author Dylan Vairoli (326603)
+ * @author Giovanni Ranieri (326870)
+ */
+public final class ShortestPaths {
+
+    /**
+     * La distance entre deux gares qu'aucun chemin ne relie.
+     */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private static final byte FREE = 0;
+    private static final byte CLAIMED = 1;
+    private static final byte REMOVED = 2;
+    private static final int BUCKET_COUNT = Constants.MAX_ROUTE_LENGTH + 1;
+
+    private static final ShortestPaths CH_MAP = new ShortestPaths(ChMap.routes());
+
+    private final Network network;
+    private final byte[] routeStates;
+    // Longueur de la route la plus courte reliant directement chaque paire de gares, nulle si le joueur en possède une
+    private final int[] lengths;
+    private final int[] distances;
+    private final int[] nextStations;
+    // Gares dont les chemins qui y mènent doivent être recalculés avant d'être consultés
+    private final boolean[] outdated;
+
+    /**
+     * Calcule les plus courts chemins entre toutes les paires de gares du réseau formé des routes {@code routes},
+     * qui sont toutes libres.
+     *
+     * @param routes les routes du réseau
+     */
+    public ShortestPaths(List<Route> routes) {
+        this.network = new Network(routes);
+        int stationCount = network.stationCount;
+        this.routeStates = new byte[network.routes.size()];
+        this.lengths = new int[stationCount * stationCount];
+        this.distances = new int[stationCount * stationCount];
+        this.nextStations = new int[stationCount * stationCount];
+        this.outdated = new boolean[stationCount];
+
+        for (int s1 = 0; s1 < stationCount; s1++) {
+            for (int s2 = 0; s2 < stationCount; s2++)
+                lengths[s1 * stationCount + s2] = pairLength(s1, s2);
+        }
+        computeAll();
+    }
+
+    /**
+     * Construit une copie indépendante des plus courts chemins {@code that}, dans leur état actuel.
+     *
+     * @param that les plus courts chemins à copier
+     */
+    public ShortestPaths(ShortestPaths that) {
+        this.network = that.network;
+        this.routeStates = that.routeStates.clone();
+        this.lengths = that.lengths.clone();
+        this.distances = that.distances.clone();
+        this.nextStations = that.nextStations.clone();
+        this.outdated = that.outdated.clone();
+    }
+
+    /**
+     * Retourne une copie des plus courts chemins entre les gares de {@link ChMap}, dont toutes les routes sont
+     * libres, qui ne sont calculés qu'une seule fois.
+     *
+     * @return les plus courts chemins entre les gares de {@link ChMap}
+     */
+    public static ShortestPaths ofChMap() {
+        return new ShortestPaths(CH_MAP);
+    }
+
+    /**
+     * Retourne le nombre minimal de wagons que le joueur doit encore poser pour relier les deux gares données, ou
+     * {@link #UNREACHABLE} si cela lui est impossible.
+     *
+     * @param s1 la première gare
+     * @param s2 la seconde gare
+     * @return la distance entre les deux gares
+     * @throws IllegalArgumentException si l'une des gares n'appartient pas au réseau
+     */
+    public int distance(Station s1, Station s2) {
+        return distances[upToDatePairIndex(s1, s2)];
+    }
+
+    /**
+     * Retourne le nombre minimal de wagons que le joueur doit encore poser pour relier les gares du trajet donné, ou
+     * {@link #UNREACHABLE} si cela lui est impossible.
+     *
+     * @param trip le trajet
+     * @return la distance entre les gares du trajet
+     * @throws IllegalArgumentException si l'une des gares du trajet n'appartient pas au réseau
+     */
+    public int distance(Trip trip) {
+        return distance(trip.from(), trip.to());
+    }
+
+    /**
+     * Retourne le trajet du billet donné que le joueur peut réaliser en posant le moins de wagons, le premier d'entre
+     * eux en cas d'égalité.
+     *
+     * @param ticket le billet
+     * @return le trajet le moins coûteux du billet
+     * @throws IllegalArgumentException si l'une des gares du billet n'appartient pas au réseau
+     */
+    public Trip cheapestTrip(Ticket ticket) {
+        Trip cheapest = null;
+        for (Trip trip : ticket.trips()) {
+            if (cheapest == null || distance(trip) < distance(cheapest))
+                cheapest = trip;
+        }
+        return cheapest;
+    }
+
+    /**
+     * Retourne la gare qui suit {@code from} sur un plus court chemin menant à {@code to}, {@code from} si les deux
+     * gares sont identiques, ou {@code null} si aucun chemin ne les relie.
+     *
+     * @param from la gare de départ
+     * @param to   la gare d'arrivée
+     * @return la gare suivante sur le chemin de {@code from} à {@code to}
+     * @throws IllegalArgumentException si l'une des gares n'appartient pas au réseau
+     */
+    public Station nextStation(Station from, Station to) {
+        int next = nextStations[upToDatePairIndex(from, to)];
+        return next < 0 ? null : network.stations[next];
+    }
+
+    /**
+     * Retourne les routes encore libres reliant directement les deux gares données, dans l'ordre du réseau.
+     *
+     * @param s1 la première gare
+     * @param s2 la seconde gare
+     * @return les routes libres reliant directement les deux gares
+     * @throws IllegalArgumentException si l'une des gares n'appartient pas au réseau
+     */
+    public List<Route> freeRoutes(Station s1, Station s2) {
+        List<Route> freeRoutes = new ArrayList<>();
+        for (int route : network.pairRoutes[pairIndex(s1, s2)]) {
+            if (routeStates[route] == FREE)
+                freeRoutes.add(network.routes.get(route));
+        }
+        return freeRoutes;
+    }
+
+    /**
+     * Note que le joueur s'est emparé de la route donnée, qui ne coûte dès lors plus rien, et met à jour les chemins
+     * qui en profitent. Ne fait rien si la route a déjà été notée comme prise.
+     *
+     * @param route la route
+     * @throws IllegalArgumentException si la route n'appartient pas au réseau ou a été retirée
+     */
+    public void claimRoute(Route route) {
+        int index = routeIndex(route);
+        Preconditions.checkArgument(routeStates[index] != REMOVED);
+        if (routeStates[index] == CLAIMED)
+            return;
+
+        routeStates[index] = CLAIMED;
+        int s1 = route.station1().id();
+        int s2 = route.station2().id();
+        // Les chemins menant aux extrémités de la route servent à raccourcir les autres, qui ne le sont que s'ils
+        // sont à jour, ceux qui ne le sont pas étant de toute manière recalculés
+        if (outdated[s1])
+            computeTo(s1);
+        if (outdated[s2])
+            computeTo(s2);
+        int oldLength = lengths[s1 * network.stationCount + s2];
+        setLength(s1, s2);
+        if (lengths[s1 * network.stationCount + s2] < oldLength) {
+            shortenThrough(s1, s2);
+            shortenThrough(s2, s1);
+        }
+    }
+
+    /**
+     * Retire la route donnée, qui est devenue inaccessible au joueur; les chemins qui l'empruntaient seront recalculés
+     * lors de leur prochaine consultation. Ne fait rien si la route a déjà été retirée.
+     *
+     * @param route la route
+     * @throws IllegalArgumentException si la route n'appartient pas au réseau ou a été prise par le joueur
+     */
+    public void removeRoute(Route route) {
+        int index = routeIndex(route);
+        Preconditions.checkArgument(routeStates[index] != CLAIMED);
+        if (routeStates[index] == REMOVED)
+            return;
+
+        routeStates[index] = REMOVED;
+        int stationCount = network.stationCount;
+        int s1 = route.station1().id();
+        int s2 = route.station2().id();
+        int oldLength = lengths[s1 * stationCount + s2];
+        setLength(s1, s2);
+        if (lengths[s1 * stationCount + s2] == oldLength)
+            return;
+
+        // Les chemins menant à une gare donnée forment un arbre, défini par les gares suivantes : seuls ceux dont
+        // l'arbre emprunte la liaison retirée changent
+        for (int to = 0; to < stationCount; to++) {
+            if (nextStations[s1 * stationCount + to] == s2 || nextStations[s2 * stationCount + to] == s1)
+                outdated[to] = true;
+        }
+    }
+
+    private int pairIndex(Station s1, Station s2) {
+        Preconditions.checkArgument(network.contains(s1) && network.contains(s2));
+        return s1.id() * network.stationCount + s2.id();
+    }
+
+    private int upToDatePairIndex(Station from, Station to) {
+        int pair = pairIndex(from, to);
+        if (outdated[to.id()])
+            computeTo(to.id());
+        return pair;
+    }
+
+    private int routeIndex(Route route) {
+        Integer index = network.routeIndices.get(route);
+        Preconditions.checkArgument(index != null);
+        return index;
+    }
+
+    /**
+     * Retourne la longueur de la liaison directe entre les deux gares d'identités données, c-à-d 0 si le joueur
+     * possède l'une des routes qui les relient, la longueur de la plus courte d'entre elles encore libre sinon, et
+     * {@link #UNREACHABLE} s'il n'y en a pas.
+     */
+    private int pairLength(int s1, int s2) {
+        if (s1 == s2)
+            return 0;
+
+        int length = UNREACHABLE;
+        for (int route : network.pairRoutes[s1 * network.stationCount + s2]) {
+            if (routeStates[route] == CLAIMED)
+                return 0;
+            if (routeStates[route] == FREE)
+                length = Math.min(length, network.routes.get(route).length());
+        }
+        return length;
+    }
+
+    private void setLength(int s1, int s2) {
+        int length = pairLength(s1, s2);
+        lengths[s1 * network.stationCount + s2] = length;
+        lengths[s2 * network.stationCount + s1] = length;
+    }
+
+    /**
+     * Calcule les plus courts chemins entre toutes les paires de gares par l'algorithme de Floyd-Warshall.
+     */
+    private void computeAll() {
+        int stationCount = network.stationCount;
+        for (int s1 = 0; s1 < stationCount; s1++) {
+            for (int s2 = 0; s2 < stationCount; s2++) {
+                int pair = s1 * stationCount + s2;
+                distances[pair] = lengths[pair];
+                nextStations[pair] = lengths[pair] == UNREACHABLE ? -1 : s2;
+            }
+        }
+
+        for (int k = 0; k < stationCount; k++) {
+            for (int i = 0; i < stationCount; i++) {
+                int ik = distances[i * stationCount + k];
+                if (ik == UNREACHABLE)
+                    continue;
+                for (int j = 0; j < stationCount; j++) {
+                    int kj = distances[k * stationCount + j];
+                    if (kj != UNREACHABLE && ik + kj < distances[i * stationCount + j]) {
+                        distances[i * stationCount + j] = ik + kj;
+                        nextStations[i * stationCount + j] = nextStations[i * stationCount + k];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Raccourcit les chemins qui gagnent à emprunter la liaison de {@code s1} à {@code s2}, dont la longueur vient
+     * de diminuer. Un plus court chemin n'empruntant une liaison qu'une fois, une passe suffit.
+     */
+    private void shortenThrough(int s1, int s2) {
+        int stationCount = network.stationCount;
+        int length = lengths[s1 * stationCount + s2];
+        for (int i = 0; i < stationCount; i++) {
+            int is1 = distances[i * stationCount + s1];
+            if (is1 == UNREACHABLE)
+                continue;
+            int next = i == s1 ? s2 : nextStations[i * stationCount + s1];
+            for (int j = 0; j < stationCount; j++) {
+                int s2j = distances[s2 * stationCount + j];
+                if (!outdated[j] && s2j != UNREACHABLE && is1 + length + s2j < distances[i * stationCount + j]) {
+                    distances[i * stationCount + j] = is1 + length + s2j;
+                    nextStations[i * stationCount + j] = next;
+                }
+            }
+        }
+    }
+
+    /**
+     * Recalcule les plus courts chemins menant à la gare d'identité {@code to} par l'algorithme de Dijkstra, les
+     * routes n'ayant pas de sens. Les longueurs des liaisons étant des petits entiers, les gares à traiter sont
+     * rangées dans des seaux selon leur distance modulo la longueur maximale d'une route plus un (algorithme de
+     * Dial), si bien que la prochaine gare à traiter est trouvée en temps constant.
+     */
+    private void computeTo(int to) {
+        int stationCount = network.stationCount;
+        int[] toDistances = new int[stationCount];
+        Arrays.fill(toDistances, UNREACHABLE);
+        toDistances[to] = 0;
+        nextStations[to * stationCount + to] = to;
+
+        // Une gare est ajoutée à un seau à chaque fois que sa distance diminue, au plus une fois par liaison
+        int capacity = network.linkCount + 1;
+        int[] buckets = new int[BUCKET_COUNT * capacity];
+        int[] bucketSizes = new int[BUCKET_COUNT];
+        buckets[0] = to;
+        bucketSizes[0] = 1;
+        int pending = 1;
+        for (int distance = 0; pending > 0; distance++) {
+            int bucket = distance % BUCKET_COUNT;
+            while (bucketSizes[bucket] > 0) {
+                int station = buckets[bucket * capacity + --bucketSizes[bucket]];
+                pending -= 1;
+                // Une gare dont la distance a diminué depuis son ajout a déjà été traitée
+                if (toDistances[station] != distance)
+                    continue;
+
+                for (int neighbor : network.neighbors[station]) {
+                    int length = lengths[station * stationCount + neighbor];
+                    if (length != UNREACHABLE && distance + length < toDistances[neighbor]) {
+                        toDistances[neighbor] = distance + length;
+                        nextStations[neighbor * stationCount + to] = station;
+                        int neighborBucket = (distance + length) % BUCKET_COUNT;
+                        buckets[neighborBucket * capacity + bucketSizes[neighborBucket]++] = neighbor;
+                        pending += 1;
+                    }
+                }
+            }
+        }
+
+        for (int from = 0; from < stationCount; from++) {
+            distances[from * stationCount + to] = toDistances[from];
+            if (toDistances[from] == UNREACHABLE)
+                nextStations[from * stationCount + to] = -1;
+        }
+        outdated[to] = false;
+    }
+
+    /**
+     * Structure (immuable) d'un réseau, partagée par toutes les copies de ses plus courts chemins.
+     */
+    private static final class Network {
+        private final List<Route> routes;
+        private final Map<Route, Integer> routeIndices;
+        private final int stationCount;
+        private final Station[] stations;
+        // Routes reliant directement chaque paire de gares, gares voisines de chaque gare et nombre de ces voisinages
+        private final int[][] pairRoutes;
+        private final int[][] neighbors;
+        private final int linkCount;
+
+        private Network(List<Route> routes) {
+            this.routes = List.copyOf(routes);
+
+            Map<Route, Integer> routeIndices = new HashMap<>();
+            int stationCount = 0;
+            for (int i = 0; i < this.routes.size(); i++) {
+                Route route = this.routes.get(i);
+                routeIndices.put(route, i);
+                stationCount = Math.max(stationCount, Math.max(route.station1().id(), route.station2().id()) + 1);
+            }
+            this.routeIndices = Map.copyOf(routeIndices);
+            this.stationCount = stationCount;
+
+            this.stations = new Station[stationCount];
+            this.pairRoutes = new int[stationCount * stationCount][0];
+            this.neighbors = new int[stationCount][0];
+            for (int i = 0; i < this.routes.size(); i++) {
+                Route route = this.routes.get(i);
+                int s1 = route.station1().id();
+                int s2 = route.station2().id();
+                stations[s1] = route.station1();
+                stations[s2] = route.station2();
+                if (pairRoutes[s1 * stationCount + s2].length == 0) {
+                    neighbors[s1] = append(neighbors[s1], s2);
+                    neighbors[s2] = append(neighbors[s2], s1);
+                }
+                pairRoutes[s1 * stationCount + s2] = append(pairRoutes[s1 * stationCount + s2], i);
+                pairRoutes[s2 * stationCount + s1] = append(pairRoutes[s2 * stationCount + s1], i);
+            }
+            this.linkCount = Arrays.stream(neighbors).mapToInt(n -> n.length).sum();
+        }
+
+        private static int[] append(int[] array, int value) {
+            int[] newArray = Arrays.copyOf(array, array.length + 1);
+            newArray[array.length] = value;
+            return newArray;
+        }
+
+        private boolean contains(Station station) {
+            return station.id() < stationCount && stations[station.id()] != null;
+        }
+    }
+}
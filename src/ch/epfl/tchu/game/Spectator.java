@@ -0,0 +1,35 @@
+package ch.epfl.tchu.game;
+
+import java.util.Map;
+
+/**
+ * Un spectateur d'une partie de tCHu, qui en suit le déroulement sans y jouer : il ne reçoit que les informations
+ * communiquées à tous les joueurs et la partie publique de l'état de la partie.
+ *
+ * @author Dylan Vairoli (326603)
+ * @author Giovanni Ranieri (326870)
+ */
+public interface Spectator {
+
+    /**
+     * Appelée au début de la partie pour communiquer au spectateur les noms des différents joueurs.
+     *
+     * @param playerNames les noms des différents joueurs
+     */
+    void initPlayers(Map<PlayerId, String> playerNames);
+
+    /**
+     * Appelée chaque fois qu'une information est communiquée aux joueurs au cours de la partie.
+     *
+     * @param info l'information communiquée
+     */
+    void receiveInfo(String info);
+
+    /**
+     * Appelée chaque fois que l'état du jeu a changé, pour informer le spectateur de la composante publique du
+     * nouvel état de la partie.
+     *
+     * @param newState le nouvel état public de la partie
+     */
+    void updateState(PublicGameState newState);
+}
@@ -2,6 +2,8 @@ package ch.epfl.tchu.game;
 
 import ch.epfl.tchu.Preconditions;
 
+import java.util.Arrays;
+
 /**
  * Représente une partition aplatie de gares.
  *
@@ -15,11 +17,12 @@ public final class StationPartition implements StationConnectivity {
     /**
      * Construit une partition aplatie de gares à partir de {@code relations}
      * qui est un tableau d'entiers contenant les liens liant chaque élément au représentant de leur sous-ensemble.
+     * Attention: le tableau n'est pas copié et ne doit donc jamais être modifié !
      *
      * @param relations tableau ayant comme chaque entrée la relation index:représentant
      */
     private StationPartition(int[] relations) {
-        this.relations = relations.clone();
+        this.relations = relations;
     }
 
     @Override
@@ -28,12 +31,38 @@ public final class StationPartition implements StationConnectivity {
                 relations[s1.id()] == relations[s2.id()] : s1.id() == s2.id();
     }
 
+    /**
+     * Retourne une partition identique à celle-ci, si ce n'est que les sous-ensembles contenant {@code s1}
+     * et {@code s2} ont été joints. La partition retournée couvre au moins les deux gares données.
+     *
+     * @param s1 la première gare
+     * @param s2 la seconde gare
+     * @return une partition identique à celle-ci, dans laquelle {@code s1} et {@code s2} sont connectées
+     */
+    public StationPartition withConnected(Station s1, Station s2) {
+        int stationCount = Math.max(relations.length, Math.max(s1.id(), s2.id()) + 1);
+        int[] newRelations = Arrays.copyOf(relations, stationCount);
+        for (int i = relations.length; i < stationCount; i++)
+            newRelations[i] = i;
+
+        int representative1 = newRelations[s1.id()];
+        int representative2 = newRelations[s2.id()];
+        if (representative1 != representative2) {
+            for (int i = 0; i < stationCount; i++) {
+                if (newRelations[i] == representative2)
+                    newRelations[i] = representative1;
+            }
+        }
+        return new StationPartition(newRelations);
+    }
+
     /**
      * Bâtisseur d'une StationPartition
      */
     public static final class Builder {
 
         private final int[] relations;
+        private final int[] ranks;
 
         /**
          * Construit un bâtisseur de partition d'un ensemble de gares dont l'identité est comprise
@@ -46,6 +75,7 @@ public final class StationPartition implements StationConnectivity {
             Preconditions.checkArgument(stationCount >= 0);
 
             this.relations = new int[stationCount];
+            this.ranks = new int[stationCount];
             for (int i = 0; i < stationCount; i++) {
                 relations[i] = i;
             }
@@ -53,14 +83,26 @@ public final class StationPartition implements StationConnectivity {
 
         /**
          * Joint les sous-ensembles contenant les deux gares passées en argument, en « élisant »
-         * l'un des deux représentants comme représentant du sous-ensemble joint.
+         * l'un des deux représentants comme représentant du sous-ensemble joint (celui du sous-ensemble
+         * de plus haut rang, afin de garder les arbres peu profonds).
          *
          * @param s1 la première gare
          * @param s2 la seconde gare
          * @return {@code this}
          */
         public Builder connect(Station s1, Station s2) {
-            relations[representative(s2.id())] = representative(s1.id());
+            int representative1 = representative(s1.id());
+            int representative2 = representative(s2.id());
+            if (representative1 == representative2)
+                return this;
+
+            if (ranks[representative1] < ranks[representative2]) {
+                relations[representative1] = representative2;
+            } else {
+                relations[representative2] = representative1;
+                if (ranks[representative1] == ranks[representative2])
+                    ranks[representative1] += 1;
+            }
             return this;
         }
 
@@ -74,18 +116,27 @@ public final class StationPartition implements StationConnectivity {
             for (int i = 0; i < relations.length; i++) {
                 relations[i] = representative(i);
             }
-            return new StationPartition(relations);
+            return new StationPartition(relations.clone());
         }
 
         /**
+         * Retourne le numéro d'identification du représentant du sous-ensemble contenant la gare donnée,
+         * et fait pointer directement sur lui toutes les gares rencontrées en chemin (compression de chemin).
+         *
          * @return le numéro d'identification du représentant du sous-ensemble la contenant
          */
         private int representative(int stationId) {
-            int parent = relations[stationId];
-            while (parent != relations[parent]) {
-                parent = relations[parent];
+            int root = stationId;
+            while (root != relations[root]) {
+                root = relations[root];
+            }
+
+            while (stationId != root) {
+                int parent = relations[stationId];
+                relations[stationId] = root;
+                stationId = parent;
             }
-            return parent;
+            return root;
         }
     }
 }
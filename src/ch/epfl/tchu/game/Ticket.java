@@ -114,6 +114,15 @@ public final class Ticket implements Comparable<Ticket> {
     public String text() {
         return text;
     }
+
+    /**
+     * Retourne la liste (immuable) des trajets de ce billet.
+     *
+     * @return la liste des trajets de ce billet
+     */
+    public List<Trip> trips() {
+        return trips;
+    }
 }
 
 
@@ -1,7 +1,7 @@
 package ch.epfl.tchu.game;
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -25,74 +25,139 @@ public final class Trail {
     }
 
     /**
-     * Retourne le plus long chemin du réseau constitué de {@code routes}.
+     * Retourne le plus long chemin du réseau constitué de {@code routes}. Parmi les chemins de longueur maximale,
+     * celui qui comporte le moins de routes est retourné.
      *
      * @param routes les routes composant le réseau
      * @return le plus long chemin du réseau
      */
     public static Trail longest(List<Route> routes) {
-        List<Trail> allTrails = computeTrivialTrails(routes);
-
-        Trail maxLengthTrail = allTrails.stream()
-                .max(Comparator.comparing(Trail::length))
-                .orElse(new Trail(List.of(), null, null, 0));
-
-        while (!allTrails.isEmpty()) {
-            List<Trail> tempTrails = new ArrayList<>();
-
-            for (Trail trail : allTrails) {
-                List<Route> routesNotInTrail = new ArrayList<>(routes);
-                routesNotInTrail.removeAll(trail.routes);
-
-                for (Route route : routesNotInTrail) {
-                    Trail newTrail = tryExtend(trail, route);
-                    if (!newTrail.equals(trail)) {
-                        maxLengthTrail = maxLengthTrail.length() < newTrail.length() ?
-                                newTrail : maxLengthTrail;
-                        tempTrails.add(newTrail);
-                    }
-                }
-            }
-            allTrails = tempTrails;
-        }
-
-        return maxLengthTrail;
+        return new Search(routes).longest();
     }
 
     /**
-     * Retourne un chemin similaire à {@code trailToExtend}, seulement étendu avec {@code route},
-     * retourne le nouveau chemin si l'extension a fonctionné, retourne le chemin initial {@code trailToExtend} sinon.
+     * Recherche en profondeur du plus long chemin d'un réseau. Les routes sont désignées par leur index dans la liste
+     * donnée, et les routes partant de chaque gare sont stockées dans une table d'adjacence indexée par l'identité
+     * des gares. La recherche se fait en place : les routes déjà utilisées sont marquées dans un ensemble de bits,
+     * et le chemin courant est stocké dans un tableau, de sorte qu'aucune allocation n'a lieu à chaque étape.
+     * Les chemins sont parcourus dans le même ordre que l'ancienne recherche en largeur, ce qui garantit un résultat
+     * identique en cas d'égalité.
      */
-    private static Trail tryExtend(Trail trailToExtend, Route route) {
-        if (route.station1().equals(trailToExtend.station2()))
-            return extend(trailToExtend, route, route.station2());
-        else if (route.station2().equals(trailToExtend.station2()))
-            return extend(trailToExtend, route, route.station1());
-        else
-            return trailToExtend;
-    }
+    private static final class Search {
+
+        private final List<Route> routes;
+        private final int[] lengths;
+        private final int[] stations1;
+        private final int[] stations2;
+
+        // Routes partant de la gare d'identité s : adjacency[adjacencyStart[s]] à adjacency[adjacencyStart[s + 1]]
+        private final int[] adjacencyStart;
+        private final int[] adjacency;
+
+        private final long[] used;
+        private final int[] path;
+
+        private final int[] bestPath;
+        private int bestLength;
+        private int bestCount;
+        private boolean bestReversed;
+
+        private boolean reversed;
+
+        private Search(List<Route> routes) {
+            this.routes = routes;
+
+            int routeCount = routes.size();
+            this.lengths = new int[routeCount];
+            this.stations1 = new int[routeCount];
+            this.stations2 = new int[routeCount];
+
+            int maxStationId = 0;
+            for (int i = 0; i < routeCount; i++) {
+                Route route = routes.get(i);
+                lengths[i] = route.length();
+                stations1[i] = route.station1().id();
+                stations2[i] = route.station2().id();
+                maxStationId = Math.max(maxStationId, Math.max(stations1[i], stations2[i]));
+            }
 
-    /**
-     * Retourne un nouveau chemin similaire à {@code trail}, seulement étendu avec la route {@code route}.
-     * La gare d'arrivée du nouveau chemin est {@code endStation}.
-     */
-    private static Trail extend(Trail trailToExtend, Route route, Station endStation) {
-        List<Route> newRoads = new ArrayList<>(trailToExtend.routes);
-        newRoads.add(route);
-        return new Trail(newRoads, trailToExtend.station1(), endStation, trailToExtend.length + route.length());
-    }
+            this.adjacencyStart = new int[maxStationId + 2];
+            for (int i = 0; i < routeCount; i++) {
+                adjacencyStart[stations1[i] + 1]++;
+                adjacencyStart[stations2[i] + 1]++;
+            }
+            for (int s = 0; s <= maxStationId; s++)
+                adjacencyStart[s + 1] += adjacencyStart[s];
+
+            // Les routes sont ajoutées par index croissant, chaque liste d'adjacence est donc triée
+            this.adjacency = new int[2 * routeCount];
+            int[] fill = Arrays.copyOf(adjacencyStart, maxStationId + 1);
+            for (int i = 0; i < routeCount; i++) {
+                adjacency[fill[stations1[i]]++] = i;
+                adjacency[fill[stations2[i]]++] = i;
+            }
 
-    /**
-     * Retourne tous les chemins constitués d'une seule route de la liste {@code routes}.
-     */
-    private static List<Trail> computeTrivialTrails(List<Route> routes) {
-        List<Trail> trivialTrailsList = new ArrayList<>();
+            this.used = new long[(routeCount + Long.SIZE - 1) / Long.SIZE];
+            this.path = new int[routeCount];
+            this.bestPath = new int[routeCount];
+        }
 
-        for (Route route : routes) {
-            trivialTrailsList.add(new Trail(List.of(route), route.station1(), route.station2(), route.length()));
-            trivialTrailsList.add(new Trail(List.of(route), route.station2(), route.station1(), route.length()));
+        /**
+         * Effectue la recherche et retourne le plus long chemin trouvé.
+         */
+        private Trail longest() {
+            for (int i = 0; i < routes.size(); i++) {
+                reversed = false;
+                explore(i, stations2[i], 0, 0);
+                reversed = true;
+                explore(i, stations1[i], 0, 0);
+            }
+            return bestCount == 0 ? new Trail(List.of(), null, null, 0) : bestTrail();
+        }
+
+        /**
+         * Ajoute la route d'index {@code route} au chemin courant, qui contient {@code count} routes et a une
+         * longueur {@code length}, puis explore toutes les extensions du chemin ainsi obtenu depuis la gare
+         * d'identité {@code end}.
+         */
+        private void explore(int route, int end, int count, int length) {
+            used[route >>> 6] |= 1L << route;
+            path[count] = route;
+            count += 1;
+            length += lengths[route];
+
+            if (length > bestLength || (length == bestLength && count < bestCount)) {
+                System.arraycopy(path, 0, bestPath, 0, count);
+                bestLength = length;
+                bestCount = count;
+                bestReversed = reversed;
+            }
+
+            for (int k = adjacencyStart[end]; k < adjacencyStart[end + 1]; k++) {
+                int next = adjacency[k];
+                if ((used[next >>> 6] & (1L << next)) == 0)
+                    explore(next, stations1[next] == end ? stations2[next] : stations1[next], count, length);
+            }
+
+            used[route >>> 6] &= ~(1L << route);
+        }
+
+        /**
+         * Construit le chemin correspondant au meilleur chemin trouvé.
+         */
+        private Trail bestTrail() {
+            List<Route> trailRoutes = new ArrayList<>(bestCount);
+            for (int i = 0; i < bestCount; i++)
+                trailRoutes.add(routes.get(bestPath[i]));
+
+            Route first = trailRoutes.get(0);
+            Station from = bestReversed ? first.station2() : first.station1();
+            Station to = from;
+            for (Route route : trailRoutes)
+                to = route.stationOpposite(to);
+
+            return new Trail(trailRoutes, from, to, bestLength);
         }
-        return trivialTrailsList;
     }
 
     /**
@@ -131,6 +196,15 @@ public final class Trail {
         return length;
     }
 
+    /**
+     * Retourne les routes constituant ce chemin, dans l'ordre de parcours.
+     *
+     * @return les routes constituant ce chemin
+     */
+    List<Route> routes() {
+        return routes;
+    }
+
     /**
      * Retourne la station de départ de ce chemin.
      *
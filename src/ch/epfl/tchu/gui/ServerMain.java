@@ -53,7 +53,7 @@ public final class ServerMain extends Application {
             playerNames.put(id, args.size() <= (i + 1) ? DEFAULT_NAMES.get(i) : args.get(i + 1));
         }
 
-        List<Player> playersProxy = new ArrayList<>();
+        List<RemotePlayerProxy> playersProxy = new ArrayList<>();
         for (int i = 0; i < playerCount - 1; i++) {
             Socket socket;
             try (ServerSocket s0 = new ServerSocket(DEFAULT_PORT)) {
@@ -61,6 +61,7 @@ public final class ServerMain extends Application {
             }
             playersProxy.add(new RemotePlayerProxy(socket));
         }
+        RemotePlayerProxy.shareEncodings(playersProxy);
 
         Map<PlayerId, Player> players = new EnumMap<>(PlayerId.class);
         players.put(PlayerId.PLAYER_1, new GraphicalPlayerAdapter());
@@ -0,0 +1,189 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Représente un serializer-deserializer binaire, un objet capable d'écrire des valeurs d'un type donné dans un
+ * {@link ByteBuffer} et de les y relire, sans passer par des chaînes de caractères.
+ * Les entiers sont écrits sous forme d'entiers de longueur variable (7 bits par octet, le bit de poids fort
+ * indiquant qu'un octet suit), si bien que les petites valeurs — index, tailles — n'occupent qu'un octet.
+ *
+ * @author Dylan Vairoli (326603)
+ * @author Giovanni Ranieri (326870)
+ * @see Serde
+ */
+public interface BinarySerde<E> {
+
+    /**
+     * Crée le {@code BinarySerde} correspondant aux fonctions d'écriture et de lecture données.
+     *
+     * @param writer la fonction d'écriture
+     * @param reader la fonction de lecture
+     * @param <T>    le type des objets à (dé)sérialiser
+     * @return le {@code BinarySerde} correspondant aux deux fonctions données
+     */
+    static <T> BinarySerde<T> of(BiConsumer<T, ByteBuffer> writer, Function<ByteBuffer, T> reader) {
+        return new BinarySerde<>() {
+            @Override
+            public void write(T obj, ByteBuffer buffer) {
+                writer.accept(obj, buffer);
+            }
+
+            @Override
+            public T read(ByteBuffer buffer) {
+                return reader.apply(buffer);
+            }
+        };
+    }
+
+    /**
+     * Crée le {@code BinarySerde} des valeurs de la liste donnée, chacune étant représentée par son index au sein de
+     * cette liste. Les index sont obtenus au moyen d'une table associative, et non d'un parcours de la liste.
+     *
+     * @param values la liste de toutes les valeurs de l'ensemble de valeurs énuméré
+     * @param <T>    le type des objets contenus dans la liste
+     * @return le {@code BinarySerde} des valeurs de la liste donnée
+     * @throws IllegalArgumentException si la liste est vide
+     */
+    static <T> BinarySerde<T> oneOf(List<T> values) {
+        Preconditions.checkArgument(!values.isEmpty());
+        List<T> valuesCopy = List.copyOf(values);
+        Map<T, Integer> indexes = new HashMap<>();
+        for (int i = valuesCopy.size() - 1; i >= 0; i--)
+            indexes.put(valuesCopy.get(i), i);
+
+        return of((v, b) -> putVarInt(b, indexes.get(v)), b -> valuesCopy.get(getVarInt(b)));
+    }
+
+    /**
+     * Crée le {@code BinarySerde} des listes de valeurs du type donné, écrites précédées de leur taille.
+     *
+     * @param serde le {@code BinarySerde} des valeurs de la liste
+     * @param <T>   le type des valeurs contenues dans les listes
+     * @return le {@code BinarySerde} des listes de valeurs du type donné
+     */
+    static <T> BinarySerde<List<T>> listOf(BinarySerde<T> serde) {
+        return of((list, b) -> {
+            putVarInt(b, list.size());
+            for (T value : list)
+                serde.write(value, b);
+        }, b -> {
+            int size = getSize(b);
+            List<T> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++)
+                list.add(serde.read(b));
+            return list;
+        });
+    }
+
+    /**
+     * Crée le {@code BinarySerde} des multi-ensembles de valeurs du type donné, écrits comme la liste de leurs
+     * éléments (triés) précédée de sa taille.
+     *
+     * @param serde le {@code BinarySerde} des valeurs du multi-ensemble
+     * @param <T>   le type des valeurs contenues dans les multi-ensembles
+     * @return le {@code BinarySerde} des multi-ensembles de valeurs du type donné
+     */
+    static <T extends Comparable<T>> BinarySerde<SortedBag<T>> bagOf(BinarySerde<T> serde) {
+        return of((bag, b) -> {
+            putVarInt(b, bag.size());
+            for (T value : bag)
+                serde.write(value, b);
+        }, b -> {
+            int size = getSize(b);
+            SortedBag.Builder<T> builder = new SortedBag.Builder<>();
+            for (int i = 0; i < size; i++)
+                builder.add(serde.read(b));
+            return builder.build();
+        });
+    }
+
+    // Lit la taille d'une collection, dont chaque élément occupe au moins un octet : une taille lue sur le réseau
+    // ne peut ainsi pas faire allouer plus de mémoire que le tampon n'en contient
+    private static int getSize(ByteBuffer buffer) {
+        int size = getVarInt(buffer);
+        if (size < 0 || size > buffer.remaining())
+            throw new BufferUnderflowException();
+        return size;
+    }
+
+    /**
+     * Écrit l'entier positif ou nul donné sous forme d'entier de longueur variable.
+     *
+     * @param buffer le tampon
+     * @param value  l'entier à écrire
+     * @throws IllegalArgumentException si {@code value} est négatif
+     */
+    static void putVarInt(ByteBuffer buffer, int value) {
+        Preconditions.checkArgument(value >= 0);
+        putVarLong(buffer, value);
+    }
+
+    /**
+     * Lit un entier écrit par {@link #putVarInt(ByteBuffer, int)}.
+     *
+     * @param buffer le tampon
+     * @return l'entier lu
+     */
+    static int getVarInt(ByteBuffer buffer) {
+        return Math.toIntExact(getVarLong(buffer));
+    }
+
+    /**
+     * Écrit l'entier positif ou nul donné sous forme d'entier de longueur variable.
+     *
+     * @param buffer le tampon
+     * @param value  l'entier à écrire, considéré comme non signé
+     */
+    static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) (value | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Lit un entier écrit par {@link #putVarLong(ByteBuffer, long)}.
+     *
+     * @param buffer le tampon
+     * @return l'entier lu
+     */
+    static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0)
+                return value;
+        }
+    }
+
+    /**
+     * Écrit l'objet donné dans le tampon donné, à partir de sa position courante.
+     *
+     * @param obj    l'objet à écrire
+     * @param buffer le tampon
+     * @throws java.nio.BufferOverflowException si le tampon est trop petit
+     */
+    void write(E obj, ByteBuffer buffer);
+
+    /**
+     * Lit un objet dans le tampon donné, à partir de sa position courante.
+     *
+     * @param buffer le tampon
+     * @return l'objet lu
+     * @throws java.nio.BufferUnderflowException si le tampon ne contient pas un objet complet
+     */
+    E read(ByteBuffer buffer);
+}
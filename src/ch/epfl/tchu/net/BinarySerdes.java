@@ -0,0 +1,260 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+import static ch.epfl.tchu.game.Player.TurnKind;
+import static ch.epfl.tchu.net.BinarySerde.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Contient la totalité des {@code BinarySerde} utiles au jeu, pendants binaires de ceux de {@link Serdes}.
+ *
+ * @author Dylan Vairoli (326603)
+ * @author Giovanni Ranieri (326870)
+ * @see BinarySerde
+ */
+public final class BinarySerdes {
+
+    /**
+     * {@code BinarySerde} relatif aux entiers, écrits en « zigzag » (0, -1, 1, -2…) afin que les petits entiers
+     * négatifs occupent eux aussi un seul octet.
+     */
+    public static final BinarySerde<Integer> OF_INTEGER = BinarySerde.of(
+            (i, b) -> putVarLong(b, ((i << 1) ^ (i >> 31)) & 0xFFFF_FFFFL),
+            b -> {
+                int zigzag = (int) getVarLong(b);
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            });
+    /**
+     * {@code BinarySerde} relatif aux chaînes de caractères, écrites en UTF-8 précédées de leur longueur en octets.
+     */
+    public static final BinarySerde<String> OF_STRING = BinarySerde.of(BinarySerdes::putString, BinarySerdes::getString);
+    /**
+     * {@code BinarySerde} relatif aux {@code PlayerId}.
+     */
+    public static final BinarySerde<PlayerId> OF_PLAYER_ID = BinarySerde.oneOf(PlayerId.ALL);
+    /**
+     * {@code BinarySerde} relatif aux types de tour de jeu.
+     */
+    public static final BinarySerde<TurnKind> OF_TURN_KIND = BinarySerde.oneOf(TurnKind.ALL);
+    /**
+     * {@code BinarySerde} relatif aux cartes.
+     */
+    public static final BinarySerde<Card> OF_CARD = BinarySerde.oneOf(Card.ALL);
+    /**
+     * {@code BinarySerde} relatif aux routes.
+     */
+    public static final BinarySerde<Route> OF_ROUTE = BinarySerde.oneOf(ChMap.routes());
+    /**
+     * {@code BinarySerde} relatif aux billets pour 2 joueurs.
+     */
+    public static final BinarySerde<Ticket> OF_TICKET = BinarySerde.oneOf(ChMap.tickets());
+    /**
+     * {@code BinarySerde} relatif aux billets pour 3 joueurs.
+     */
+    public static final BinarySerde<Ticket> OF_SUPP_TICKET = BinarySerde.oneOf(ChMap.supplementaryTickets());
+    /**
+     * {@code BinarySerde} relatif aux formats de transmission.
+     */
+    public static final BinarySerde<WireFormat> OF_WIRE_FORMAT = BinarySerde.oneOf(WireFormat.ALL);
+    /**
+     * {@code BinarySerde} relatif aux listes de chaînes de caractères.
+     */
+    public static final BinarySerde<List<String>> OF_LIST_OF_STRINGS = BinarySerde.listOf(OF_STRING);
+    /**
+     * {@code BinarySerde} relatif aux listes de cartes.
+     */
+    public static final BinarySerde<List<Card>> OF_LIST_OF_CARDS = BinarySerde.listOf(OF_CARD);
+    /**
+     * {@code BinarySerde} relatif aux listes de routes.
+     */
+    public static final BinarySerde<List<Route>> OF_LIST_OF_ROUTES = BinarySerde.listOf(OF_ROUTE);
+    /**
+     * {@code BinarySerde} relatif aux multi-ensembles de cartes, écrits sous la forme de l'ensemble des types de
+     * cartes présents (un bit par type), suivi de la multiplicité de chacun d'eux.
+     */
+    public static final BinarySerde<SortedBag<Card>> OF_SORTED_BAG_OF_CARD =
+            BinarySerde.of(BinarySerdes::putCards, BinarySerdes::getCards);
+    /**
+     * {@code BinarySerde} relatif aux multi-ensembles de billets.
+     */
+    public static final BinarySerde<SortedBag<Ticket>> OF_SORTED_BAG_OF_TICKETS = BinarySerde.bagOf(OF_TICKET);
+    /**
+     * {@code BinarySerde} relatif aux multi-ensembles de billets pour 3 joueurs.
+     */
+    public static final BinarySerde<SortedBag<Ticket>> OF_SORTED_BAG_OF_SUPP_TICKETS =
+            BinarySerde.bagOf(OF_SUPP_TICKET);
+    /**
+     * {@code BinarySerde} relatif aux listes de multi-ensembles de cartes.
+     */
+    public static final BinarySerde<List<SortedBag<Card>>> OF_LIST_OF_SORTED_BAGS_OF_CARDS =
+            BinarySerde.listOf(OF_SORTED_BAG_OF_CARD);
+    /**
+     * {@code BinarySerde} relatif aux {@code PublicCardState}.
+     */
+    public static final BinarySerde<PublicCardState> OF_PUBLIC_CARD_STATE = BinarySerde.of(
+            (pcs, b) -> {
+                for (Card card : pcs.faceUpCards())
+                    OF_CARD.write(card, b);
+                putVarInt(b, pcs.deckSize());
+                putVarInt(b, pcs.discardsSize());
+            },
+            b -> {
+                List<Card> faceUpCards = new ArrayList<>(Constants.FACE_UP_CARDS_COUNT);
+                for (int i = 0; i < Constants.FACE_UP_CARDS_COUNT; i++)
+                    faceUpCards.add(OF_CARD.read(b));
+                return new PublicCardState(faceUpCards, getVarInt(b), getVarInt(b));
+            });
+    /**
+     * {@code BinarySerde} relatif aux {@code PublicPlayerState}.
+     */
+    public static final BinarySerde<PublicPlayerState> OF_PUBLIC_PLAYER_STATE = BinarySerde.of(
+            (pps, b) -> {
+                putVarInt(b, pps.ticketCount());
+                putVarInt(b, pps.cardCount());
+                OF_LIST_OF_ROUTES.write(pps.routes(), b);
+            },
+            b -> new PublicPlayerState(getVarInt(b), getVarInt(b), OF_LIST_OF_ROUTES.read(b)));
+    /**
+     * {@code BinarySerde} relatif aux {@code PlayerState}.
+     */
+    public static final BinarySerde<PlayerState> OF_PLAYER_STATE = playerStateOf(OF_SORTED_BAG_OF_TICKETS);
+    /**
+     * {@code BinarySerde} relatif aux {@code PlayerState} pour 3 joueurs.
+     */
+    public static final BinarySerde<PlayerState> OF_SUPP_PLAYER_STATE = playerStateOf(OF_SORTED_BAG_OF_SUPP_TICKETS);
+    /**
+     * {@code BinarySerde} relatif aux {@code PublicGameState}.
+     * Les joueurs présents et le dernier joueur sont indiqués par un octet d'en-tête.
+     */
+    public static final BinarySerde<PublicGameState> OF_PUBLIC_GAME_STATE = BinarySerde.of(
+            (pgs, b) -> {
+                int presentPlayers = 0;
+                for (PlayerId id : PlayerId.ALL) {
+                    if (pgs.playerState(id) != null)
+                        presentPlayers |= 1 << id.ordinal();
+                }
+                b.put((byte) presentPlayers);
+                b.put((byte) (pgs.lastPlayer() == null ? 0 : pgs.lastPlayer().ordinal() + 1));
+
+                putVarInt(b, pgs.ticketsCount());
+                OF_PUBLIC_CARD_STATE.write(pgs.cardState(), b);
+                OF_PLAYER_ID.write(pgs.currentPlayerId(), b);
+                for (PlayerId id : PlayerId.ALL) {
+                    if (pgs.playerState(id) != null)
+                        OF_PUBLIC_PLAYER_STATE.write(pgs.playerState(id), b);
+                }
+            },
+            b -> {
+                int presentPlayers = b.get();
+                int lastPlayer = b.get();
+
+                int ticketsCount = getVarInt(b);
+                PublicCardState cardState = OF_PUBLIC_CARD_STATE.read(b);
+                PlayerId currentPlayerId = OF_PLAYER_ID.read(b);
+                Map<PlayerId, PublicPlayerState> playerStates = new EnumMap<>(PlayerId.class);
+                for (PlayerId id : PlayerId.ALL) {
+                    if ((presentPlayers & (1 << id.ordinal())) != 0)
+                        playerStates.put(id, OF_PUBLIC_PLAYER_STATE.read(b));
+                }
+                return new PublicGameState(ticketsCount, cardState, currentPlayerId, playerStates,
+                        lastPlayer == 0 ? null : PlayerId.ALL.get(lastPlayer - 1));
+            });
+
+    private BinarySerdes() {
+    }
+
+    private static BinarySerde<PlayerState> playerStateOf(BinarySerde<SortedBag<Ticket>> ticketsSerde) {
+        return BinarySerde.of(
+                (ps, b) -> {
+                    ticketsSerde.write(ps.tickets(), b);
+                    OF_SORTED_BAG_OF_CARD.write(ps.cards(), b);
+                    OF_LIST_OF_ROUTES.write(ps.routes(), b);
+                },
+                b -> new PlayerState(ticketsSerde.read(b), OF_SORTED_BAG_OF_CARD.read(b), OF_LIST_OF_ROUTES.read(b)));
+    }
+
+    private static void putCards(SortedBag<Card> cards, ByteBuffer buffer) {
+        int presentCards = 0;
+        for (Card card : cards.toSet())
+            presentCards |= 1 << card.ordinal();
+        putVarInt(buffer, presentCards);
+        for (Card card : Card.ALL) {
+            if ((presentCards & (1 << card.ordinal())) != 0)
+                putVarInt(buffer, cards.countOf(card));
+        }
+    }
+
+    private static SortedBag<Card> getCards(ByteBuffer buffer) {
+        int presentCards = getVarInt(buffer);
+        SortedBag.Builder<Card> builder = new SortedBag.Builder<>();
+        for (Card card : Card.ALL) {
+            if ((presentCards & (1 << card.ordinal())) != 0)
+                builder.add(getVarInt(buffer), card);
+        }
+        return builder.build();
+    }
+
+    // La longueur en octets est calculée au préalable afin d'encoder les caractères directement dans le tampon.
+    // Comme String.getBytes, une demi-paire de substitution isolée est remplacée par '?'.
+    private static void putString(String s, ByteBuffer buffer) {
+        int utf8Length = 0;
+        for (int i = 0; i < s.length(); i += Character.charCount(s.codePointAt(i)))
+            utf8Length += utf8Length(s.codePointAt(i));
+        putVarInt(buffer, utf8Length);
+
+        for (int i = 0; i < s.length(); i += Character.charCount(s.codePointAt(i))) {
+            int codePoint = s.codePointAt(i);
+            switch (utf8Length(codePoint)) {
+                case 1:
+                    buffer.put(codePoint < 0x80 ? (byte) codePoint : (byte) '?');
+                    break;
+                case 2:
+                    buffer.put((byte) (0xC0 | (codePoint >> 6)));
+                    buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+                    break;
+                case 3:
+                    buffer.put((byte) (0xE0 | (codePoint >> 12)));
+                    buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                    buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+                    break;
+                default:
+                    buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                    buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                    buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                    buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+            }
+        }
+    }
+
+    private static int utf8Length(int codePoint) {
+        if (codePoint < 0x80 || (codePoint < 0x10000 && Character.isSurrogate((char) codePoint)))
+            return 1;
+        else if (codePoint < 0x800)
+            return 2;
+        else
+            return codePoint < 0x10000 ? 3 : 4;
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = getVarInt(buffer);
+        if (buffer.remaining() < length)
+            throw new BufferUnderflowException();
+
+        String s;
+        if (buffer.hasArray()) {
+            s = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, UTF_8);
+        } else {
+            ByteBuffer slice = buffer.slice();
+            slice.limit(length);
+            s = UTF_8.decode(slice).toString();
+        }
+        buffer.position(buffer.position() + length);
+        return s;
+    }
+}
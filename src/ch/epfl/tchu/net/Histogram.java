@@ -0,0 +1,117 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.Preconditions;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogramme de valeurs positives, comme des durées ou des tailles, dont la précision relative est constante.
+ * <p>
+ * À la manière de HdrHistogram, les valeurs sont réparties dans des intervalles dont la largeur double à chaque
+ * puissance de deux : chaque puissance de deux est divisée en 32 intervalles de même largeur, si bien qu'une valeur
+ * n'est connue qu'à 1/32 près (environ 3 %), quelle que soit sa grandeur. Un histogramme occupe ainsi une taille
+ * fixe, et l'enregistrement d'une valeur ne consiste qu'à incrémenter un compteur.
+ * <p>
+ * Les valeurs peuvent être enregistrées par plusieurs fils d'exécution à la fois, sans verrou.
+ *
+ * @author Dylan Vairoli (326603)
+ * @author Giovanni Ranieri (326870)
+ */
+public final class Histogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    // Les valeurs inférieures à SUB_BUCKET_COUNT ont chacune leur intervalle, les autres en ont SUB_BUCKET_COUNT
+    // par puissance de deux, jusqu'à 2^62
+    private static final int BUCKET_COUNT = (Long.SIZE - 1 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Enregistre la valeur donnée.
+     *
+     * @param value la valeur
+     * @throws IllegalArgumentException si la valeur est négative
+     */
+    public void record(long value) {
+        Preconditions.checkArgument(value >= 0);
+        counts.incrementAndGet(bucketIndex(value));
+        count.increment();
+        sum.add(value);
+        if (value > max.get())
+            max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Retourne le nombre de valeurs enregistrées.
+     *
+     * @return le nombre de valeurs enregistrées
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * Retourne la plus grande valeur enregistrée, ou 0 si aucune ne l'a été.
+     *
+     * @return la plus grande valeur enregistrée
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * Retourne la moyenne exacte des valeurs enregistrées, ou 0 si aucune ne l'a été.
+     *
+     * @return la moyenne des valeurs enregistrées
+     */
+    public double mean() {
+        long count = count();
+        return count == 0 ? 0 : (double) sum.sum() / count;
+    }
+
+    /**
+     * Retourne la valeur en dessous de laquelle se trouve le pourcentage donné des valeurs enregistrées, à la
+     * précision de l'histogramme près, ou 0 si aucune valeur n'a été enregistrée. La valeur retournée est la plus
+     * grande de son intervalle, sans dépasser la plus grande valeur enregistrée.
+     *
+     * @param percentile le pourcentage, compris entre 0 et 100 (inclus)
+     * @return la valeur correspondant au pourcentage donné
+     * @throws IllegalArgumentException si le pourcentage n'est pas compris entre 0 et 100
+     */
+    public long valueAtPercentile(double percentile) {
+        Preconditions.checkArgument(0 <= percentile && percentile <= 100);
+        long total = count();
+        if (total == 0)
+            return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= rank)
+                return Math.min(highestValue(i), max());
+        }
+        // Des valeurs ont été enregistrées pendant le parcours
+        return max();
+    }
+
+    private static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT)
+            return (int) value;
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) (value >>> shift) - SUB_BUCKET_COUNT;
+    }
+
+    private static long highestValue(int index) {
+        if (index < SUB_BUCKET_COUNT)
+            return index;
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long subBucket = SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
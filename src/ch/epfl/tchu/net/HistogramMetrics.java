@@ -0,0 +1,186 @@
+package ch.epfl.tchu.net;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Récepteur de mesures les accumulant, pour chaque type de message, dans des compteurs et des histogrammes
+ * ({@link Histogram}), qui peuvent être consultés à tout moment ou résumés dans un rapport textuel destiné à un
+ * journal.
+ * <p>
+ * Un même récepteur peut être partagé par plusieurs mandataires ou clients, dont il cumule alors les mesures.
+ *
+ * @author Dylan Vairoli (326603)
+ * @author Giovanni Ranieri (326870)
+ */
+public final class HistogramMetrics implements NetworkMetrics {
+    private static final double[] REPORTED_PERCENTILES = {50, 90, 99};
+
+    private final Map<MessageId, Stats> stats = new EnumMap<>(MessageId.class);
+
+    /**
+     * Construit un récepteur de mesures dont tous les compteurs et histogrammes sont vides.
+     */
+    public HistogramMetrics() {
+        for (MessageId id : MessageId.values())
+            stats.put(id, new Stats());
+    }
+
+    @Override
+    public void messageSent(MessageId id, int bytes, long encodingNanos) {
+        Stats s = stats.get(id);
+        s.bytesSent.add(bytes);
+        s.encoding.record(encodingNanos);
+    }
+
+    @Override
+    public void messageReceived(MessageId id, int bytes, long decodingNanos) {
+        Stats s = stats.get(id);
+        s.bytesReceived.add(bytes);
+        s.decoding.record(decodingNanos);
+    }
+
+    @Override
+    public void roundTrip(MessageId id, long nanos) {
+        stats.get(id).roundTrip.record(nanos);
+    }
+
+    @Override
+    public void requestHandled(MessageId id, long nanos) {
+        stats.get(id).handling.record(nanos);
+    }
+
+    /**
+     * Retourne le nombre de messages du type donné envoyés.
+     *
+     * @param id le type de message
+     * @return le nombre de messages envoyés
+     */
+    public long sentCount(MessageId id) {
+        return stats.get(id).encoding.count();
+    }
+
+    /**
+     * Retourne le nombre de messages du type donné reçus.
+     *
+     * @param id le type de message
+     * @return le nombre de messages reçus
+     */
+    public long receivedCount(MessageId id) {
+        return stats.get(id).decoding.count();
+    }
+
+    /**
+     * Retourne le nombre total d'octets des messages du type donné envoyés.
+     *
+     * @param id le type de message
+     * @return le nombre d'octets envoyés
+     */
+    public long bytesSent(MessageId id) {
+        return stats.get(id).bytesSent.sum();
+    }
+
+    /**
+     * Retourne le nombre total d'octets des messages du type donné reçus.
+     *
+     * @param id le type de message
+     * @return le nombre d'octets reçus
+     */
+    public long bytesReceived(MessageId id) {
+        return stats.get(id).bytesReceived.sum();
+    }
+
+    /**
+     * Retourne l'histogramme des temps de codage des messages du type donné, en nanosecondes.
+     *
+     * @param id le type de message
+     * @return l'histogramme des temps de codage
+     */
+    public Histogram encodingTimes(MessageId id) {
+        return stats.get(id).encoding;
+    }
+
+    /**
+     * Retourne l'histogramme des temps de décodage des messages du type donné, en nanosecondes.
+     *
+     * @param id le type de message
+     * @return l'histogramme des temps de décodage
+     */
+    public Histogram decodingTimes(MessageId id) {
+        return stats.get(id).decoding;
+    }
+
+    /**
+     * Retourne l'histogramme des temps d'aller-retour des demandes du type donné, en nanosecondes.
+     *
+     * @param id le type de demande
+     * @return l'histogramme des temps d'aller-retour
+     */
+    public Histogram roundTripTimes(MessageId id) {
+        return stats.get(id).roundTrip;
+    }
+
+    /**
+     * Retourne l'histogramme des temps de traitement des demandes du type donné par le client, en nanosecondes.
+     *
+     * @param id le type de demande
+     * @return l'histogramme des temps de traitement
+     */
+    public Histogram handlingTimes(MessageId id) {
+        return stats.get(id).handling;
+    }
+
+    /**
+     * Retourne un rapport textuel des mesures, formé d'un paragraphe par type de message envoyé ou reçu, qui donne
+     * les nombres de messages et d'octets, puis la moyenne, les principaux centiles et le maximum de chaque
+     * histogramme non vide, en microsecondes.
+     *
+     * @return le rapport des mesures
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<MessageId, Stats> e : stats.entrySet()) {
+            Stats s = e.getValue();
+            if (s.encoding.count() == 0 && s.decoding.count() == 0)
+                continue;
+
+            sb.append(String.format(Locale.ROOT, "%s: %d envoyés (%d o), %d reçus (%d o)%n",
+                    e.getKey(),
+                    s.encoding.count(), s.bytesSent.sum(),
+                    s.decoding.count(), s.bytesReceived.sum()));
+            appendHistogram(sb, "codage", s.encoding);
+            appendHistogram(sb, "décodage", s.decoding);
+            appendHistogram(sb, "aller-retour", s.roundTrip);
+            appendHistogram(sb, "traitement", s.handling);
+        }
+        return sb.toString();
+    }
+
+    private static void appendHistogram(StringBuilder sb, String name, Histogram histogram) {
+        if (histogram.count() == 0)
+            return;
+
+        sb.append(String.format(Locale.ROOT, "  %-12s moy=%.1f", name, micros(histogram.mean())));
+        for (double percentile : REPORTED_PERCENTILES) {
+            sb.append(String.format(Locale.ROOT, " p%.0f=%.1f",
+                    percentile, micros(histogram.valueAtPercentile(percentile))));
+        }
+        sb.append(String.format(Locale.ROOT, " max=%.1f µs%n", micros(histogram.max())));
+    }
+
+    private static double micros(double nanos) {
+        return nanos / TimeUnit.MICROSECONDS.toNanos(1);
+    }
+
+    private static final class Stats {
+        private final LongAdder bytesSent = new LongAdder();
+        private final LongAdder bytesReceived = new LongAdder();
+        private final Histogram encoding = new Histogram();
+        private final Histogram decoding = new Histogram();
+        private final Histogram roundTrip = new Histogram();
+        private final Histogram handling = new Histogram();
+    }
+}
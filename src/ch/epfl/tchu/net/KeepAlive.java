@@ -0,0 +1,67 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.Preconditions;
+
+/**
+ * Paramètres de maintien d'une connexion entre un mandataire et un client.
+ * <p>
+ * Chaque extrémité envoie un battement de cœur (un octet nul, ignoré à la lecture) à intervalle régulier, et
+ * considère la connexion comme perdue si elle attend des données depuis plus longtemps que le délai de lecture.
+ * Un client dont la connexion est perdue tente de se reconnecter au serveur pendant le délai de reconnexion, et
+ * le mandataire l'attend pendant le même délai avant d'abandonner la partie.
+ *
+ * @author Dylan Vairoli (326603)
+ * @author Giovanni Ranieri (326870)
+ */
+public final class KeepAlive {
+    private final int heartbeatMillis;
+    private final int readTimeoutMillis;
+    private final int reconnectTimeoutMillis;
+
+    /**
+     * Construit des paramètres de maintien de connexion.
+     *
+     * @param heartbeatMillis        l'intervalle entre deux battements de cœur, en millisecondes
+     * @param readTimeoutMillis      le délai de lecture, en millisecondes
+     * @param reconnectTimeoutMillis le délai de reconnexion, en millisecondes
+     * @throws IllegalArgumentException si l'intervalle entre deux battements n'est pas strictement positif, si le
+     *                                  délai de lecture ne lui est pas strictement supérieur, ou si le délai de
+     *                                  reconnexion est négatif
+     */
+    public KeepAlive(int heartbeatMillis, int readTimeoutMillis, int reconnectTimeoutMillis) {
+        Preconditions.checkArgument(heartbeatMillis > 0);
+        Preconditions.checkArgument(readTimeoutMillis > heartbeatMillis);
+        Preconditions.checkArgument(reconnectTimeoutMillis >= 0);
+
+        this.heartbeatMillis = heartbeatMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.reconnectTimeoutMillis = reconnectTimeoutMillis;
+    }
+
+    /**
+     * Retourne l'intervalle entre deux battements de cœur, en millisecondes.
+     *
+     * @return l'intervalle entre deux battements de cœur
+     */
+    public int heartbeatMillis() {
+        return heartbeatMillis;
+    }
+
+    /**
+     * Retourne le délai de lecture, en millisecondes.
+     *
+     * @return le délai de lecture
+     */
+    public int readTimeoutMillis() {
+        return readTimeoutMillis;
+    }
+
+    /**
+     * Retourne le délai de reconnexion, en millisecondes.
+     *
+     * @return le délai de reconnexion
+     */
+    public int reconnectTimeoutMillis() {
+        return reconnectTimeoutMillis;
+    }
+}
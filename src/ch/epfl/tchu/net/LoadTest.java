@@ -0,0 +1,279 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+import ch.epfl.tchu.sim.GreedyBot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Test de charge d'un serveur de parties, tel que {@link LobbyServer} : un nombre donné de clients, dont les joueurs
+ * sont des joueurs artificiels sans interface, se connectent au serveur au travers d'un même {@link NioTransport},
+ * jouent leurs parties, et le test rapporte le nombre de tours joués par seconde et la latence du serveur.
+ * <p>
+ * La latence est mesurée du côté des clients : c'est le temps écoulé entre l'envoi de la réponse à une demande du
+ * serveur et la réception du message suivant. Elle comprend donc le temps de traitement de la réponse par le
+ * serveur, le délai de regroupement des messages et celui du réseau, mais aussi le temps d'attente du fil du
+ * transport, partagé par tous les clients, ce qui suppose des joueurs rapides, comme {@link GreedyBot}.
+ *
+ * @author Dylan Vairoli (326603)
+ * @author Giovanni Ranieri (326870)
+ */
+public final class LoadTest {
+    private static final String DEFAULT_HOST_NAME = "localhost";
+    private static final int DEFAULT_PORT = 5108;
+    private static final int DEFAULT_CLIENT_COUNT = 100;
+
+    private final String hostName;
+    private final int port;
+    private final int clientCount;
+    private final Function<Random, Player> bots;
+
+    /**
+     * Construit un test de charge du serveur écoutant sur le port et le nom d'hôte donnés, au moyen de
+     * {@code clientCount} clients dont les joueurs sont créés par la fabrique {@code bots}, avec pour générateurs
+     * aléatoires {@code new Random(0)}, {@code new Random(1)}, etc.
+     *
+     * @param hostName    le nom d'hôte du serveur
+     * @param port        le port du serveur
+     * @param clientCount le nombre de clients
+     * @param bots        la fabrique des joueurs
+     * @throws IllegalArgumentException si {@code clientCount} n'est pas strictement positif
+     */
+    public LoadTest(String hostName, int port, int clientCount, Function<Random, Player> bots) {
+        Preconditions.checkArgument(clientCount > 0);
+
+        this.hostName = hostName;
+        this.port = port;
+        this.clientCount = clientCount;
+        this.bots = bots;
+    }
+
+    /**
+     * Connecte tous les clients au serveur, attend la fin de toutes leurs parties, c-à-d la fermeture de leurs
+     * connexions, et en retourne le rapport.
+     *
+     * @return le rapport du test
+     * @throws java.io.UncheckedIOException si un client ne peut pas se connecter au serveur
+     */
+    public Report run() {
+        Histogram latencies = new Histogram();
+        LongAdder turnCount = new LongAdder();
+        long start = System.nanoTime();
+        try (NioTransport transport = new NioTransport()) {
+            List<CompletableFuture<Void>> clients = new ArrayList<>();
+            for (int i = 0; i < clientCount; i++) {
+                Player player = new TimedPlayer(bots.apply(new Random(i)), latencies, turnCount);
+                clients.add(new RemotePlayerClient(player, hostName, port).runOn(transport));
+            }
+            CompletableFuture.allOf(clients.toArray(CompletableFuture[]::new)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        return new Report(clientCount, turnCount.sum(), System.nanoTime() - start, latencies);
+    }
+
+    /**
+     * Lance un test de charge avec des joueurs gloutons, dont les arguments optionnels sont le nom d'hôte et le
+     * port du serveur, et le nombre de clients, et en affiche le rapport.
+     *
+     * @param args le nom d'hôte, le port et le nombre de clients (optionnels)
+     */
+    public static void main(String[] args) {
+        String hostName = args.length > 0 ? args[0] : DEFAULT_HOST_NAME;
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+        int clientCount = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_CLIENT_COUNT;
+
+        System.out.println(new LoadTest(hostName, port, clientCount, GreedyBot::new).run());
+    }
+
+    /**
+     * Rapport (immuable) d'un test de charge.
+     */
+    public static final class Report {
+        private final int clientCount;
+        private final long turnCount;
+        private final long elapsedNanos;
+        private final Histogram latencies;
+
+        private Report(int clientCount, long turnCount, long elapsedNanos, Histogram latencies) {
+            this.clientCount = clientCount;
+            this.turnCount = turnCount;
+            this.elapsedNanos = elapsedNanos;
+            this.latencies = latencies;
+        }
+
+        /**
+         * Retourne le nombre de clients du test.
+         *
+         * @return le nombre de clients du test
+         */
+        public int clientCount() {
+            return clientCount;
+        }
+
+        /**
+         * Retourne le nombre total de tours joués par les clients.
+         *
+         * @return le nombre total de tours joués
+         */
+        public long turnCount() {
+            return turnCount;
+        }
+
+        /**
+         * Retourne la durée du test, en nanosecondes.
+         *
+         * @return la durée du test
+         */
+        public long elapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Retourne le nombre de tours joués par seconde, par l'ensemble des clients.
+         *
+         * @return le nombre de tours joués par seconde
+         */
+        public double turnsPerSecond() {
+            return turnCount * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * Retourne la latence du serveur au centile donné, en nanosecondes.
+         *
+         * @param percentile le centile, entre 0 et 100
+         * @return la latence du serveur au centile donné
+         * @throws IllegalArgumentException si le centile n'est pas compris entre 0 et 100
+         */
+        public long latencyAtPercentile(double percentile) {
+            return latencies.valueAtPercentile(percentile);
+        }
+
+        /**
+         * Retourne la latence maximale du serveur, en nanosecondes.
+         *
+         * @return la latence maximale du serveur
+         */
+        public long maxLatency() {
+            return latencies.max();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d clients : %d tours en %.1f s (%.0f tours/s), "
+                            + "latence p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, max %.2f ms",
+                    clientCount, turnCount, elapsedNanos / 1e9, turnsPerSecond(),
+                    latencyAtPercentile(50) / 1e6, latencyAtPercentile(90) / 1e6,
+                    latencyAtPercentile(99) / 1e6, maxLatency() / 1e6);
+        }
+    }
+
+    /**
+     * Joueur mesurant, pour le joueur qu'il décore, le temps écoulé entre chacune de ses réponses et l'appel suivant,
+     * et comptant ses tours. Il n'est utilisé que par le fil du transport.
+     */
+    private static final class TimedPlayer implements Player {
+        private final Player player;
+        private final Histogram latencies;
+        private final LongAdder turnCount;
+        // Instant de la dernière réponse, ou 0 si la dernière méthode appelée n'en retourne pas
+        private long repliedNanos;
+
+        private TimedPlayer(Player player, Histogram latencies, LongAdder turnCount) {
+            this.player = player;
+            this.latencies = latencies;
+            this.turnCount = turnCount;
+        }
+
+        private void called() {
+            if (repliedNanos != 0) {
+                latencies.record(System.nanoTime() - repliedNanos);
+                repliedNanos = 0;
+            }
+        }
+
+        private <T> T replied(T reply) {
+            repliedNanos = System.nanoTime();
+            return reply;
+        }
+
+        @Override
+        public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+            called();
+            player.initPlayers(ownId, playerNames);
+        }
+
+        @Override
+        public void receiveInfo(String info) {
+            called();
+            player.receiveInfo(info);
+        }
+
+        @Override
+        public void updateState(PublicGameState newState, PlayerState ownState) {
+            called();
+            player.updateState(newState, ownState);
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+            called();
+            player.setInitialTicketChoice(tickets);
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseInitialTickets() {
+            called();
+            return replied(player.chooseInitialTickets());
+        }
+
+        @Override
+        public TurnKind nextTurn() {
+            called();
+            turnCount.increment();
+            return replied(player.nextTurn());
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+            called();
+            return replied(player.chooseTickets(options));
+        }
+
+        @Override
+        public int drawSlot() {
+            called();
+            return replied(player.drawSlot());
+        }
+
+        @Override
+        public Route claimedRoute() {
+            called();
+            return replied(player.claimedRoute());
+        }
+
+        @Override
+        public SortedBag<Card> initialClaimCards() {
+            called();
+            return replied(player.initialClaimCards());
+        }
+
+        @Override
+        public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+            called();
+            return replied(player.chooseAdditionalCards(options));
+        }
+    }
+}
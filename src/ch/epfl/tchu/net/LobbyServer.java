@@ -0,0 +1,233 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.channels.ServerSocketChannel;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static ch.epfl.tchu.game.Constants.MINIMUM_PLAYER_COUNT;
+
+/**
+ * Serveur tCHu sans interface graphique, capable d'héberger de nombreuses parties simultanées.
+ * Tous les clients se connectent au même port et sont placés dans une file d'attente; dès que la file contient
+ * assez de clients pour remplir une table, une partie est lancée entre eux, chacun étant représenté par un
+ * {@link RemotePlayerProxy}. Si un client attend depuis plus longtemps que le délai d'attente maximal et que d'autres
+ * attendent avec lui, une table incomplète (d'au moins 2 joueurs) est lancée sans attendre davantage.
+ * Chaque partie se joue sur son propre fil d'exécution, emprunté à un pool qui en crée à la demande, tandis que
+ * les communications de toutes les connexions sont assurées par un unique {@link NioTransport} : une partie en
+ * attente de la réponse d'un client n'occupe que son propre fil.
+ *
+ * @author Dylan Vairoli (326603)
+ * @author Giovanni Ranieri (326870)
+ */
+public final class LobbyServer implements Closeable {
+    private static final int DEFAULT_PORT = 5108;
+    private static final long DEFAULT_MAX_WAIT_MILLIS = 30_000;
+    private static final int ACCEPT_TIMEOUT_MILLIS = 500;
+
+    private final ServerSocketChannel serverChannel;
+    private final NioTransport transport;
+    private final int tableSize;
+    private final long maxWaitNanos;
+    private final ExecutorService tables;
+    private final Deque<WaitingClient> queue = new ArrayDeque<>();
+    private final AtomicInteger activeTableCount = new AtomicInteger();
+    private final AtomicInteger playedTableCount = new AtomicInteger();
+
+    /**
+     * Construit un serveur écoutant sur le port {@code port}, dont les tables comptent {@code tableSize} joueurs,
+     * et qui lance une table incomplète lorsqu'un client a attendu plus de {@code maxWaitMillis} millisecondes.
+     *
+     * @param port          le port d'écoute (0 pour un port choisi par le système)
+     * @param tableSize     le nombre de joueurs d'une table complète
+     * @param maxWaitMillis le délai d'attente maximal d'un client, en millisecondes
+     * @throws IllegalArgumentException si {@code tableSize} n'est pas compris entre 2 et {@link PlayerId#COUNT}, ou
+     *                                  si {@code maxWaitMillis} est négatif
+     * @throws UncheckedIOException     en cas d'erreur d'entrée/sortie
+     */
+    public LobbyServer(int port, int tableSize, long maxWaitMillis) {
+        Preconditions.checkArgument(MINIMUM_PLAYER_COUNT <= tableSize && tableSize <= PlayerId.COUNT);
+        Preconditions.checkArgument(maxWaitMillis >= 0);
+
+        this.tableSize = tableSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.tables = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "tchu-table-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            this.serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(new InetSocketAddress(port));
+            serverChannel.socket().setSoTimeout(ACCEPT_TIMEOUT_MILLIS);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.transport = new NioTransport();
+    }
+
+    /**
+     * Retourne le port sur lequel ce serveur écoute.
+     *
+     * @return le port d'écoute
+     */
+    public int port() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Retourne le nombre de parties en cours.
+     *
+     * @return le nombre de parties en cours
+     */
+    public int activeTableCount() {
+        return activeTableCount.get();
+    }
+
+    /**
+     * Retourne le nombre de parties terminées (normalement ou non).
+     *
+     * @return le nombre de parties terminées
+     */
+    public int playedTableCount() {
+        return playedTableCount.get();
+    }
+
+    /**
+     * Accepte les connexions des clients et lance les parties, jusqu'à ce que le serveur soit fermé. La file
+     * d'attente n'est manipulée que par le fil d'exécution appelant cette méthode.
+     *
+     * @throws UncheckedIOException en cas d'erreur d'entrée/sortie
+     */
+    public void run() {
+        while (serverChannel.isOpen()) {
+            try {
+                // L'adaptateur de la prise permet d'attendre une connexion avec un délai
+                Socket socket = serverChannel.socket().accept();
+                queue.addLast(new WaitingClient(transport.register(socket.getChannel()), System.nanoTime()));
+            } catch (SocketTimeoutException e) {
+                // Aucune connexion : vérifie tout de même les délais d'attente
+            } catch (IOException e) {
+                if (!serverChannel.isOpen())
+                    break;
+                throw new UncheckedIOException(e);
+            }
+            matchWaitingClients();
+        }
+        queue.forEach(c -> c.connection.close());
+        queue.clear();
+    }
+
+    /**
+     * Lance des tables complètes tant que possible, puis une table incomplète si le premier client de la file
+     * a trop attendu.
+     */
+    private void matchWaitingClients() {
+        while (queue.size() >= tableSize)
+            startTable(tableSize);
+
+        if (queue.size() >= MINIMUM_PLAYER_COUNT
+                && System.nanoTime() - queue.peekFirst().arrivalTime >= maxWaitNanos)
+            startTable(queue.size());
+    }
+
+    private void startTable(int playerCount) {
+        List<NioTransport.Connection> connections = new ArrayList<>(playerCount);
+        for (int i = 0; i < playerCount; i++)
+            connections.add(queue.removeFirst().connection);
+
+        activeTableCount.incrementAndGet();
+        tables.execute(() -> {
+            try {
+                playTable(connections);
+            } finally {
+                activeTableCount.decrementAndGet();
+                playedTableCount.incrementAndGet();
+                connections.forEach(NioTransport.Connection::close);
+            }
+        });
+    }
+
+    private static void playTable(List<NioTransport.Connection> connections) {
+        Map<PlayerId, RemotePlayerProxy> players = new EnumMap<>(PlayerId.class);
+        Map<PlayerId, String> playerNames = new EnumMap<>(PlayerId.class);
+        for (int i = 0; i < connections.size(); i++) {
+            PlayerId id = PlayerId.ALL.get(i);
+            players.put(id, new RemotePlayerProxy(connections.get(i)));
+            playerNames.put(id, "Joueur " + (i + 1));
+        }
+        RemotePlayerProxy.shareEncodings(players.values());
+
+        SortedBag<Ticket> tickets = connections.size() == MINIMUM_PLAYER_COUNT
+                ? SortedBag.of(ChMap.tickets())
+                : SortedBag.of(ChMap.supplementaryTickets());
+        try {
+            Game.play(new EnumMap<>(players), playerNames, tickets, new Random());
+            players.values().forEach(RemotePlayerProxy::awaitPendingMessages);
+        } catch (UncheckedIOException e) {
+            // Un client s'est déconnecté : la partie est abandonnée, et les autres clients le sont avec elle
+        }
+    }
+
+    /**
+     * Ferme ce serveur : plus aucune connexion n'est acceptée, et les parties en cours sont interrompues.
+     *
+     * @throws UncheckedIOException en cas d'erreur d'entrée/sortie
+     */
+    @Override
+    public void close() {
+        try {
+            serverChannel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            // Fermer les connexions débloque les fils d'exécution des parties, en attente d'une réponse des clients
+            transport.close();
+            tables.shutdownNow();
+        }
+    }
+
+    /**
+     * Lance un serveur, dont les arguments optionnels sont le port d'écoute, le nombre de joueurs par table et le
+     * délai d'attente maximal en millisecondes.
+     *
+     * @param args le port, le nombre de joueurs par table et le délai d'attente maximal (optionnels)
+     */
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int tableSize = args.length > 1 ? Integer.parseInt(args[1]) : MINIMUM_PLAYER_COUNT;
+        long maxWaitMillis = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_MAX_WAIT_MILLIS;
+
+        try (LobbyServer server = new LobbyServer(port, tableSize, maxWaitMillis)) {
+            server.run();
+        }
+    }
+
+    /**
+     * Un client en attente d'une table, et l'instant de son arrivée.
+     */
+    private static final class WaitingClient {
+        private final NioTransport.Connection connection;
+        private final long arrivalTime;
+
+        private WaitingClient(NioTransport.Connection connection, long arrivalTime) {
+            this.connection = connection;
+            this.arrivalTime = arrivalTime;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package ch.epfl.tchu.net;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Un canal de messages textuels d'une ligne, échangés avec un joueur distant.
+ * Les messages écrits peuvent être regroupés avant d'être envoyés : ils le sont au plus tard lors de l'appel
+ * suivant à {@link #flush()}, ou après un court délai.
+ *
+ * @author Dylan Vairoli (326603)
+ * @author Giovanni Ranieri (326870)
+ */
+interface MessageChannel {
+
+    /**
+     * Écrit le message donné, auquel une fin de ligne est ajoutée.
+     *
+     * @param message le message à envoyer, sans fin de ligne
+     * @throws java.io.UncheckedIOException en cas d'erreur d'entrée/sortie
+     */
+    void write(CharSequence message);
+
+    /**
+     * Écrit le message donné, déjà codé en ASCII et terminé par une fin de ligne. Le tableau n'est pas modifié, et
+     * peut donc être partagé par plusieurs canaux.
+     *
+     * @param line le message à envoyer, fin de ligne comprise
+     * @throws java.io.UncheckedIOException en cas d'erreur d'entrée/sortie
+     */
+    default void writeLine(byte[] line) {
+        write(new String(line, 0, line.length - 1, US_ASCII));
+    }
+
+    /**
+     * Envoie immédiatement les messages écrits qui ne l'ont pas encore été.
+     *
+     * @throws java.io.UncheckedIOException en cas d'erreur d'entrée/sortie
+     */
+    void flush();
+
+    /**
+     * Attend le prochain message et le retourne.
+     *
+     * @return le message reçu, sans fin de ligne
+     * @throws java.io.UncheckedIOException en cas d'erreur d'entrée/sortie, ou si le canal est fermé
+     */
+    String read();
+
+    /**
+     * Ferme ce canal. Les messages écrits qui n'ont pas encore été envoyés peuvent être perdus.
+     */
+    void close();
+}
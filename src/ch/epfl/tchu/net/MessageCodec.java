@@ -0,0 +1,440 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.Preconditions;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Code et décode les messages échangés sur un canal dans un format de transmission donné. Chaque valeur est
+ * accompagnée de son {@code Serde} et de son {@code BinarySerde}, si bien que le mandataire et le client n'ont
+ * qu'une manière d'écrire chaque message, quel que soit le format négocié.
+ * <p>
+ * Au format textuel, un message est une ligne formée du nom de son type suivi de ses arguments, séparés par des
+ * espaces, et une réponse une ligne contenant sa seule valeur. Au format binaire, un message est une trame formée
+ * de l'index de son type (un octet) suivi de ses arguments, et une réponse une trame contenant sa seule valeur.
+ * <p>
+ * Les messages sont regroupés par le canal : ils ne sont envoyés immédiatement que lorsqu'une réponse est attendue,
+ * c-à-d lorsque le codec lit une réponse, ainsi que les réponses elles-mêmes, attendues par l'autre extrémité.
+ * Les autres messages le sont après le court délai du canal.
+ * <p>
+ * Chaque codec rapporte à son récepteur de mesures ({@link NetworkMetrics}) la taille et le temps de codage des
+ * messages envoyés et reçus, le temps d'aller-retour des demandes dont il lit la réponse et le temps de traitement
+ * de celles auxquelles il répond. Le décodage d'un message reçu n'étant achevé que lorsque toutes ses valeurs ont
+ * été lues, il est rapporté lors de l'appel suivant du codec.
+ * <p>
+ * Un codec n'est utilisable que par un seul fil à la fois, et l'objet retourné par l'une de ses méthodes n'est
+ * valide que jusqu'à l'appel suivant.
+ *
+ * @author Dylan Vairoli (326603)
+ * @author Giovanni Ranieri (326870)
+ */
+abstract class MessageCodec {
+    // Taille maximale d'un message binaire, ou d'une ligne reçue par un transport non bloquant, largement supérieure
+    // à celle de l'état complet d'une partie : un message plus grand est refusé, et sa connexion fermée, plutôt que de
+    // laisser l'autre extrémité épuiser la mémoire
+    static final int MAX_MESSAGE_SIZE = 1 << 16;
+
+    private static final List<MessageId> MESSAGE_IDS = List.of(MessageId.values());
+
+    private final NetworkMetrics metrics;
+    // Type et instant de fin de codage du dernier message envoyé, ou de début de codage du message en cours
+    private MessageId sentId;
+    private long sentNanos;
+    private boolean sendingReply;
+    // Type, taille, instant de réception et temps de décodage du dernier message reçu
+    private MessageId receivedId;
+    private int receivedBytes;
+    private long receivedNanos;
+    private long decodingNanos;
+    private boolean decoding;
+
+    private MessageCodec(NetworkMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Retourne un codec au format donné, utilisant le canal donné, qui ne rapporte aucune mesure.
+     *
+     * @param format  le format de transmission
+     * @param channel le canal
+     * @return un codec au format {@code format} utilisant {@code channel}
+     * @throws IllegalArgumentException si le format est binaire mais que le canal n'est pas un {@link StreamChannel}
+     */
+    static MessageCodec of(WireFormat format, MessageChannel channel) {
+        return of(format, channel, NetworkMetrics.NONE);
+    }
+
+    /**
+     * Retourne un codec au format donné, utilisant le canal donné, qui rapporte ses mesures au récepteur donné.
+     *
+     * @param format  le format de transmission
+     * @param channel le canal
+     * @param metrics le récepteur des mesures
+     * @return un codec au format {@code format} utilisant {@code channel}
+     * @throws IllegalArgumentException si le format est binaire mais que le canal n'est pas un {@link StreamChannel}
+     */
+    static MessageCodec of(WireFormat format, MessageChannel channel, NetworkMetrics metrics) {
+        if (format == WireFormat.TEXT)
+            return new TextCodec(channel, metrics);
+
+        Preconditions.checkArgument(channel instanceof StreamChannel);
+        return new BinaryCodec((StreamChannel) channel, metrics);
+    }
+
+    /**
+     * Retourne le format de transmission de ce codec.
+     *
+     * @return le format de transmission de ce codec
+     */
+    abstract WireFormat format();
+
+    /**
+     * Commence un message du type donné, envoyé par {@link Encoder#send()} une fois ses arguments ajoutés.
+     *
+     * @param id le type du message
+     * @return l'encodeur du message
+     */
+    abstract Encoder message(MessageId id);
+
+    /**
+     * Commence une réponse, envoyée par {@link Encoder#send()} une fois sa valeur ajoutée.
+     *
+     * @return l'encodeur de la réponse
+     */
+    abstract Encoder reply();
+
+    /**
+     * Envoie le message dont le codage partagé est donné, qui a la valeur donnée pour unique argument. Le message
+     * n'est codé que s'il ne l'a pas déjà été pour un autre canal.
+     *
+     * @param message le codage partagé des messages de ce type
+     * @param value   la valeur du message
+     * @param <T>     le type de la valeur
+     * @throws java.io.UncheckedIOException en cas d'erreur d'entrée/sortie
+     */
+    abstract <T> void send(SharedEncoding<T> message, T value);
+
+    /**
+     * Attend le prochain message et retourne son décodeur.
+     *
+     * @return le décodeur du message reçu
+     * @throws java.io.UncheckedIOException en cas d'erreur d'entrée/sortie, ou si le canal est fermé
+     */
+    abstract Decoder readMessage();
+
+    /**
+     * Envoie les messages en attente, puis attend la prochaine réponse et retourne son décodeur.
+     *
+     * @return le décodeur de la réponse reçue
+     * @throws java.io.UncheckedIOException en cas d'erreur d'entrée/sortie, ou si le canal est fermé
+     */
+    abstract Decoder readReply();
+
+    // Appelée au début du codage d'un message, ou d'une réponse au dernier message reçu si id est null
+    final void startEncoding(MessageId id) {
+        reportDecoding();
+        sendingReply = id == null;
+        sentId = sendingReply ? receivedId : id;
+        sentNanos = System.nanoTime();
+    }
+
+    // Appelée une fois le message en cours codé, juste avant son envoi
+    final void encoded(int bytes) {
+        long now = System.nanoTime();
+        metrics.messageSent(sentId, bytes, now - sentNanos);
+        if (sendingReply)
+            metrics.requestHandled(sentId, now - receivedNanos);
+        sentNanos = now;
+    }
+
+    // Appelée à la réception d'un message, ou d'une réponse au dernier message envoyé si id est null
+    final void received(MessageId id, int bytes) {
+        receivedNanos = System.nanoTime();
+        if (id == null) {
+            id = sentId;
+            metrics.roundTrip(id, receivedNanos - sentNanos);
+        }
+        receivedId = id;
+        receivedBytes = bytes;
+        decodingNanos = 0;
+        decoding = true;
+    }
+
+    final void decoded(long startNanos) {
+        decodingNanos += System.nanoTime() - startNanos;
+    }
+
+    final void reportDecoding() {
+        if (decoding) {
+            decoding = false;
+            metrics.messageReceived(receivedId, receivedBytes, decodingNanos);
+        }
+    }
+
+    /**
+     * Encodeur d'un message ou d'une réponse.
+     */
+    interface Encoder {
+
+        /**
+         * Ajoute la valeur donnée au message.
+         *
+         * @param value       la valeur
+         * @param serde       le {@code Serde} utilisé au format textuel
+         * @param binarySerde le {@code BinarySerde} utilisé au format binaire
+         * @param <T>         le type de la valeur
+         * @return cet encodeur
+         */
+        <T> Encoder put(T value, Serde<T> serde, BinarySerde<T> binarySerde);
+
+        /**
+         * Ajoute au message la valeur donnée, qui n'est codée que si elle ne l'a pas déjà été pour un autre canal.
+         *
+         * @param value    la valeur
+         * @param encoding le codage partagé de la valeur
+         * @param <T>      le type de la valeur
+         * @return cet encodeur
+         */
+        <T> Encoder put(T value, SharedEncoding<T> encoding);
+
+        /**
+         * Envoie le message, immédiatement s'il s'agit d'une réponse, et sinon au plus tard lorsque le codec lit une
+         * réponse ou après le court délai du canal.
+         *
+         * @throws java.io.UncheckedIOException en cas d'erreur d'entrée/sortie
+         */
+        void send();
+    }
+
+    /**
+     * Décodeur d'un message ou d'une réponse.
+     */
+    interface Decoder {
+
+        /**
+         * Retourne le type du message, {@code null} pour une réponse.
+         *
+         * @return le type du message
+         */
+        MessageId id();
+
+        /**
+         * Retourne la valeur suivante du message.
+         *
+         * @param serde       le {@code Serde} utilisé au format textuel
+         * @param binarySerde le {@code BinarySerde} utilisé au format binaire
+         * @param <T>         le type de la valeur
+         * @return la valeur suivante du message
+         */
+        <T> T next(Serde<T> serde, BinarySerde<T> binarySerde);
+    }
+
+    private static final class TextCodec extends MessageCodec implements Encoder, Decoder {
+        private final MessageChannel channel;
+        private final StringBuilder message = new StringBuilder();
+        private boolean isReply;
+        private boolean firstArgument;
+        private MessageId id;
+        private String received;
+        private int nextArgument;
+
+        private TextCodec(MessageChannel channel, NetworkMetrics metrics) {
+            super(metrics);
+            this.channel = channel;
+        }
+
+        @Override
+        WireFormat format() {
+            return WireFormat.TEXT;
+        }
+
+        @Override
+        Encoder message(MessageId id) {
+            startEncoding(id);
+            message.setLength(0);
+            message.append(id.name());
+            isReply = false;
+            firstArgument = false;
+            return this;
+        }
+
+        @Override
+        Encoder reply() {
+            startEncoding(null);
+            message.setLength(0);
+            isReply = true;
+            firstArgument = true;
+            return this;
+        }
+
+        @Override
+        public <T> Encoder put(T value, Serde<T> serde, BinarySerde<T> binarySerde) {
+            if (!firstArgument)
+                message.append(' ');
+            firstArgument = false;
+            serde.serializeTo(value, message);
+            return this;
+        }
+
+        @Override
+        public <T> Encoder put(T value, SharedEncoding<T> encoding) {
+            if (!firstArgument)
+                message.append(' ');
+            firstArgument = false;
+            for (byte b : encoding.encode(value, WireFormat.TEXT))
+                message.append((char) b);
+            return this;
+        }
+
+        @Override
+        public void send() {
+            encoded(message.length());
+            channel.write(message);
+            if (isReply)
+                channel.flush();
+        }
+
+        @Override
+        <T> void send(SharedEncoding<T> message, T value) {
+            startEncoding(message.id());
+            byte[] line = message.encode(value, WireFormat.TEXT);
+            encoded(line.length - 1);
+            channel.writeLine(line);
+        }
+
+        @Override
+        Decoder readMessage() {
+            reportDecoding();
+            received = channel.read();
+            int end = StreamingSerde.indexOf(received, ' ', 0, received.length());
+            id = MessageId.valueOf(received.substring(0, end));
+            nextArgument = end + 1;
+            received(id, received.length());
+            return this;
+        }
+
+        @Override
+        Decoder readReply() {
+            reportDecoding();
+            channel.flush();
+            received = channel.read();
+            id = null;
+            nextArgument = 0;
+            received(null, received.length());
+            return this;
+        }
+
+        @Override
+        public MessageId id() {
+            return id;
+        }
+
+        @Override
+        public <T> T next(Serde<T> serde, BinarySerde<T> binarySerde) {
+            long start = System.nanoTime();
+            int end = StreamingSerde.indexOf(received, ' ', nextArgument, received.length());
+            T value = serde.deserialize(received, nextArgument, end);
+            nextArgument = end + 1;
+            decoded(start);
+            return value;
+        }
+    }
+
+    private static final class BinaryCodec extends MessageCodec implements Encoder, Decoder {
+        private final StreamChannel channel;
+        private final ByteBuffer message = ByteBuffer.allocate(MAX_MESSAGE_SIZE);
+        private boolean isReply;
+        private MessageId id;
+        private ByteBuffer frame;
+
+        private BinaryCodec(StreamChannel channel, NetworkMetrics metrics) {
+            super(metrics);
+            this.channel = channel;
+        }
+
+        @Override
+        WireFormat format() {
+            return WireFormat.BINARY;
+        }
+
+        @Override
+        Encoder message(MessageId id) {
+            startEncoding(id);
+            message.clear();
+            message.put((byte) id.ordinal());
+            isReply = false;
+            return this;
+        }
+
+        @Override
+        Encoder reply() {
+            startEncoding(null);
+            message.clear();
+            isReply = true;
+            return this;
+        }
+
+        @Override
+        public <T> Encoder put(T value, Serde<T> serde, BinarySerde<T> binarySerde) {
+            binarySerde.write(value, message);
+            return this;
+        }
+
+        @Override
+        public <T> Encoder put(T value, SharedEncoding<T> encoding) {
+            message.put(encoding.encode(value, WireFormat.BINARY));
+            return this;
+        }
+
+        @Override
+        public void send() {
+            message.flip();
+            encoded(message.remaining());
+            channel.writeFrame(message);
+            if (isReply)
+                channel.flush();
+        }
+
+        @Override
+        <T> void send(SharedEncoding<T> message, T value) {
+            startEncoding(message.id());
+            byte[] frame = message.encode(value, WireFormat.BINARY);
+            encoded(frame.length);
+            channel.writeFrame(ByteBuffer.wrap(frame));
+        }
+
+        @Override
+        Decoder readMessage() {
+            reportDecoding();
+            frame = channel.readFrame();
+            int bytes = frame.remaining();
+            id = MESSAGE_IDS.get(frame.get());
+            received(id, bytes);
+            return this;
+        }
+
+        @Override
+        Decoder readReply() {
+            reportDecoding();
+            channel.flush();
+            frame = channel.readFrame();
+            id = null;
+            received(null, frame.remaining());
+            return this;
+        }
+
+        @Override
+        public MessageId id() {
+            return id;
+        }
+
+        @Override
+        public <T> T next(Serde<T> serde, BinarySerde<T> binarySerde) {
+            long start = System.nanoTime();
+            T value = binarySerde.read(frame);
+            decoded(start);
+            return value;
+        }
+    }
+}
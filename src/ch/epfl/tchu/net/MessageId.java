@@ -17,5 +17,10 @@ public enum MessageId {
     DRAW_SLOT,
     ROUTE,
     CARDS,
-    CHOOSE_ADDITIONAL_CARDS
+    CHOOSE_ADDITIONAL_CARDS,
+    UPDATE_STATE_DELTA,
+    CHOOSE_WIRE_FORMAT,
+    SESSION,
+    SPECTATE,
+    UPDATE_PUBLIC_STATE
 }
@@ -0,0 +1,61 @@
+package ch.epfl.tchu.net;
+
+/**
+ * Récepteur des mesures prises par les mandataires et les clients de joueurs distants sur les messages qu'ils
+ * échangent, qui permettent de déterminer si un tour lent l'est à cause du réseau, du codage des messages ou du
+ * joueur lui-même.
+ * <p>
+ * Chaque mesure est associée au type du message concerné; une réponse est associée au type de la demande à
+ * laquelle elle répond. Les tailles sont celles des messages sans leur délimitation (fin de ligne ou longueur de la
+ * trame), et les durées sont en nanosecondes. Le temps de codage d'un message comprend le calcul de ses arguments
+ * une fois le message commencé, comme celui de la différence entre deux états. Les méthodes d'un même récepteur
+ * peuvent être appelées par plusieurs fils d'exécution à la fois; elles ne font rien par défaut.
+ *
+ * @author Dylan Vairoli (326603)
+ * @author Giovanni Ranieri (326870)
+ * @see HistogramMetrics
+ */
+public interface NetworkMetrics {
+
+    /**
+     * Récepteur ignorant toutes les mesures.
+     */
+    NetworkMetrics NONE = new NetworkMetrics() { };
+
+    /**
+     * Appelée lorsqu'un message ou une réponse a été codé et va être envoyé.
+     *
+     * @param id            le type du message, ou de la demande à laquelle la réponse répond
+     * @param bytes         la taille du message codé, en octets
+     * @param encodingNanos le temps de codage du message
+     */
+    default void messageSent(MessageId id, int bytes, long encodingNanos) { }
+
+    /**
+     * Appelée lorsqu'un message ou une réponse reçu a été décodé, c-à-d lors de l'utilisation suivante du codec qui
+     * l'a reçu.
+     *
+     * @param id            le type du message, ou de la demande à laquelle la réponse répond
+     * @param bytes         la taille du message reçu, en octets
+     * @param decodingNanos le temps de décodage de ses arguments
+     */
+    default void messageReceived(MessageId id, int bytes, long decodingNanos) { }
+
+    /**
+     * Appelée par un mandataire lorsqu'il reçoit la réponse à une demande, avec le temps écoulé depuis l'envoi de
+     * cette dernière. Ce temps comprend celui de traitement de la demande par le client.
+     *
+     * @param id    le type de la demande
+     * @param nanos le temps d'aller-retour
+     */
+    default void roundTrip(MessageId id, long nanos) { }
+
+    /**
+     * Appelée par un client lorsqu'il envoie la réponse à une demande, avec le temps écoulé depuis la réception de
+     * cette dernière, qui comprend son décodage, le temps de réflexion du joueur et le codage de la réponse.
+     *
+     * @param id    le type de la demande
+     * @param nanos le temps de traitement
+     */
+    default void requestHandled(MessageId id, long nanos) { }
+}
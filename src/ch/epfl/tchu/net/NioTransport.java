@@ -0,0 +1,345 @@
+package ch.epfl.tchu.net;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Transport non bloquant multiplexant un nombre quelconque de connexions sur un seul fil d'exécution, au moyen d'un
+ * {@link Selector}. Ce fil lit les données disponibles, les découpe en lignes directement dans ses tampons et écrit
+ * les messages en attente; les autres fils ne font que déposer des messages ou en attendre.
+ * <p>
+ * Les messages reçus par une connexion sont soit mis en file, pour être lus par {@link Connection#read()}, soit
+ * transmis à un gestionnaire appelé par le fil du transport, dont la réponse éventuelle est renvoyée.
+ *
+ * @author Dylan Vairoli (326603)
+ * @author Giovanni Ranieri (326870)
+ */
+public final class NioTransport implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 14;
+
+    // Marque de fin de flux déposée dans la file des messages reçus, comparée par identité
+    private static final String END_OF_STREAM = new String("");
+
+    private final Selector selector;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final Thread loop;
+    private volatile boolean closed;
+
+    /**
+     * Construit un transport et démarre son fil d'exécution.
+     *
+     * @throws UncheckedIOException en cas d'erreur d'entrée/sortie
+     */
+    public NioTransport() {
+        try {
+            this.selector = Selector.open();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.loop = new Thread(this::run, "tchu-nio");
+        loop.setDaemon(true);
+        loop.start();
+    }
+
+    /**
+     * Prend en charge le canal donné, dont les messages reçus sont mis en file.
+     *
+     * @param channel le canal connecté
+     * @return la connexion associée au canal
+     * @throws UncheckedIOException en cas d'erreur d'entrée/sortie
+     */
+    public Connection register(SocketChannel channel) {
+        return register(channel, null);
+    }
+
+    /**
+     * Prend en charge le canal donné, dont les messages reçus sont passés au gestionnaire {@code handler}, appelé par
+     * le fil du transport; la réponse qu'il retourne, si elle n'est pas {@code null}, est renvoyée.
+     *
+     * @param channel le canal connecté
+     * @param handler le gestionnaire des messages reçus, ou {@code null} pour les mettre en file
+     * @return la connexion associée au canal
+     * @throws UncheckedIOException en cas d'erreur d'entrée/sortie
+     */
+    public Connection register(SocketChannel channel, Function<String, String> handler) {
+        try {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        Connection connection = new Connection(channel, handler);
+        execute(() -> {
+            try {
+                connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+                // Des messages ont pu être déposés avant l'enregistrement
+                if (!connection.outgoing.isEmpty())
+                    connection.enableWrites();
+            } catch (ClosedChannelException e) {
+                connection.closeNow();
+            }
+        });
+        return connection;
+    }
+
+    /**
+     * Se connecte à l'hôte et au port donnés, et prend en charge la connexion obtenue, dont les messages reçus sont
+     * passés au gestionnaire {@code handler}.
+     *
+     * @param hostName le nom d'hôte
+     * @param port     le port
+     * @param handler  le gestionnaire des messages reçus, ou {@code null} pour les mettre en file
+     * @return la connexion établie
+     * @throws UncheckedIOException en cas d'erreur d'entrée/sortie
+     */
+    public Connection connect(String hostName, int port, Function<String, String> handler) {
+        try {
+            return register(SocketChannel.open(new InetSocketAddress(hostName, port)), handler);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void execute(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    private void run() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        try {
+            while (!closed) {
+                selector.select();
+
+                Runnable task;
+                while ((task = tasks.poll()) != null)
+                    task.run();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+
+                    Connection connection = (Connection) key.attachment();
+                    try {
+                        if (key.isValid() && key.isReadable())
+                            connection.readAvailable(buffer);
+                        if (key.isValid() && key.isWritable())
+                            connection.writePending();
+                    } catch (IOException | RuntimeException e) {
+                        connection.closeNow();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            for (SelectionKey key : List.copyOf(selector.keys()))
+                ((Connection) key.attachment()).closeNow();
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Ferme ce transport ainsi que toutes ses connexions, sans attendre l'envoi des messages en attente.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        selector.wakeup();
+    }
+
+    /**
+     * Une connexion prise en charge par un transport non bloquant.
+     */
+    public final class Connection implements MessageChannel {
+        private final SocketChannel channel;
+        private final Function<String, String> handler;
+        private final BlockingQueue<String> incoming = new LinkedBlockingQueue<>();
+        private final Queue<ByteBuffer> outgoing = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean writesRequested = new AtomicBoolean();
+        private final CompletableFuture<Void> closedFuture = new CompletableFuture<>();
+
+        // Accédés uniquement par le fil du transport
+        private SelectionKey key;
+        private byte[] line = new byte[256];
+        private int lineLength;
+        private boolean closing;
+
+        private Connection(SocketChannel channel, Function<String, String> handler) {
+            this.channel = channel;
+            this.handler = handler;
+        }
+
+        /**
+         * Dépose le message donné, qui sera envoyé par le fil du transport. Cette méthode ne bloque jamais.
+         *
+         * @param message le message à envoyer, sans fin de ligne
+         * @throws UncheckedIOException si la connexion est fermée
+         */
+        @Override
+        public void write(CharSequence message) {
+            byte[] bytes = new byte[message.length() + 1];
+            for (int i = 0; i < message.length(); i++)
+                bytes[i] = (byte) message.charAt(i);
+            bytes[message.length()] = '\n';
+            writeLine(bytes);
+        }
+
+        /**
+         * Dépose le message donné, déjà codé et terminé par une fin de ligne, sans le copier.
+         *
+         * @param line le message à envoyer, fin de ligne comprise
+         * @throws UncheckedIOException si la connexion est fermée
+         */
+        @Override
+        public void writeLine(byte[] line) {
+            if (closedFuture.isDone())
+                throw new UncheckedIOException(new ClosedChannelException());
+
+            outgoing.add(ByteBuffer.wrap(line));
+
+            if (writesRequested.compareAndSet(false, true))
+                execute(this::enableWrites);
+        }
+
+        /**
+         * Ne fait rien : les messages déposés sont envoyés par le fil du transport dès qu'il le peut, ceux qui ont
+         * été déposés entre-temps l'étant ensemble.
+         */
+        @Override
+        public void flush() {
+        }
+
+        /**
+         * Attend le prochain message mis en file et le retourne.
+         *
+         * @return le message reçu, sans fin de ligne
+         * @throws UncheckedIOException si la connexion est fermée, ou si le fil appelant est interrompu
+         */
+        @Override
+        public String read() {
+            try {
+                String message = incoming.take();
+                if (message == END_OF_STREAM) {
+                    incoming.add(END_OF_STREAM);
+                    throw new UncheckedIOException(new EOFException("La connexion est fermée"));
+                }
+                return message;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException(new InterruptedIOException());
+            }
+        }
+
+        /**
+         * Ferme cette connexion dès que les messages en attente ont été envoyés.
+         */
+        @Override
+        public void close() {
+            execute(() -> {
+                closing = true;
+                if (outgoing.isEmpty())
+                    closeNow();
+                else
+                    enableWrites();
+            });
+        }
+
+        /**
+         * Retourne le futur complété lorsque cette connexion est fermée, par l'une ou l'autre de ses extrémités.
+         *
+         * @return le futur complété à la fermeture de cette connexion
+         */
+        public CompletableFuture<Void> closed() {
+            return closedFuture.thenApply(v -> v);
+        }
+
+        private void enableWrites() {
+            writesRequested.set(false);
+            if (key != null && key.isValid())
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+
+        private void readAvailable(ByteBuffer buffer) throws IOException {
+            buffer.clear();
+            if (channel.read(buffer) < 0) {
+                closeNow();
+                return;
+            }
+            buffer.flip();
+
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+                // Les octets nuls sont les battements de cœur des clients maintenant leur connexion
+                if (b == 0)
+                    continue;
+                if (b == '\n') {
+                    String message = new String(line, 0, lineLength, US_ASCII);
+                    lineLength = 0;
+                    deliver(message);
+                } else {
+                    if (lineLength == MessageCodec.MAX_MESSAGE_SIZE)
+                        throw new IOException("Message trop long");
+                    if (lineLength == line.length)
+                        line = Arrays.copyOf(line, Math.min(2 * line.length, MessageCodec.MAX_MESSAGE_SIZE));
+                    line[lineLength++] = b;
+                }
+            }
+        }
+
+        private void deliver(String message) {
+            if (handler == null) {
+                incoming.add(message);
+            } else {
+                String reply = handler.apply(message);
+                if (reply != null)
+                    write(reply);
+            }
+        }
+
+        // Les messages en attente sont écrits ensemble, en un seul appel système tant que le canal les accepte
+        private void writePending() throws IOException {
+            ByteBuffer[] buffers = outgoing.toArray(new ByteBuffer[0]);
+            channel.write(buffers);
+            ByteBuffer buffer;
+            while ((buffer = outgoing.peek()) != null && !buffer.hasRemaining())
+                outgoing.poll();
+            if (!outgoing.isEmpty())
+                return;
+
+            if (closing)
+                closeNow();
+            else
+                key.interestOps(SelectionKey.OP_READ);
+        }
+
+        private void closeNow() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+            incoming.add(END_OF_STREAM);
+            closedFuture.complete(null);
+        }
+    }
+}
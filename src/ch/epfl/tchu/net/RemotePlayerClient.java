@@ -3,32 +3,50 @@ package ch.epfl.tchu.net;
 import ch.epfl.tchu.SortedBag;
 import ch.epfl.tchu.game.*;
 
-import java.io.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static ch.epfl.tchu.game.Constants.*;
-import static ch.epfl.tchu.net.Serdes.OF_PLAYER_STATE;
-import static ch.epfl.tchu.net.Serdes.OF_SUPP_PLAYER_STATE;
-import static java.nio.charset.StandardCharsets.US_ASCII;
+import static ch.epfl.tchu.net.Serdes.*;
 
 /**
  * Un client de joueur distant.
+ * <p>
+ * Un client auquel des paramètres de maintien de connexion sont donnés envoie des battements de cœur au mandataire,
+ * et considère la connexion comme perdue s'il ne reçoit rien pendant le délai de lecture. Si le serveur lui a
+ * attribué une session ({@link SessionServer}), il tente alors de s'y reconnecter pendant le délai de reconnexion,
+ * puis reprend la partie là où elle en était. Ne pouvant distinguer la fin d'une partie d'une connexion perdue, il
+ * tente également de se reconnecter à la fin de la partie, et se termine dès que le serveur refuse la session.
  *
  * @author Dylan Vairoli (326603)
  * @author Giovanni Ranieri (326870)
  */
 public final class RemotePlayerClient {
+    private static final long INITIAL_RECONNECT_DELAY_MILLIS = 100;
+    private static final long MAX_RECONNECT_DELAY_MILLIS = 2_000;
 
     private final Player player;
     private final String hostName;
     private final int port;
+    private final WireFormat wireFormat;
+    private final KeepAlive keepAlive;
 
-    private Serde<SortedBag<Ticket>> ticketsSerde = Serdes.OF_SORTED_BAG_OF_TICKETS;
+    private NetworkMetrics metrics = NetworkMetrics.NONE;
+    private String sessionToken;
+    private MessageChannel channel;
+    private MessageCodec codec;
+    private Serde<SortedBag<Ticket>> ticketsSerde = OF_SORTED_BAG_OF_TICKETS;
+    private BinarySerde<SortedBag<Ticket>> binaryTicketsSerde = BinarySerdes.OF_SORTED_BAG_OF_TICKETS;
     private Serde<PlayerState> playerStateSerde = OF_PLAYER_STATE;
+    private BinarySerde<PlayerState> binaryPlayerStateSerde = BinarySerdes.OF_PLAYER_STATE;
+    private StateDeltaCodec stateDeltaCodec = new StateDeltaCodec();
 
     /**
      * Construit le client du joueur donné, auquel il doit fournir un accès distant à l'aide
@@ -40,9 +58,51 @@ public final class RemotePlayerClient {
      * @throws UncheckedIOException en cas d'erreur d'entrée/sortie
      */
     public RemotePlayerClient(Player player, String hostName, int port) {
+        this(player, hostName, port, WireFormat.TEXT);
+    }
+
+    /**
+     * Construit le client du joueur donné, auquel il doit fournir un accès distant à l'aide
+     * du nom d'hôte et du port d'écoute à utiliser pour se connecter au mandataire. Le client accepte le format de
+     * transmission {@code wireFormat} si le mandataire le lui propose, et le format textuel sinon.
+     *
+     * @param player     le joueur auquel le client fourni un accès distant
+     * @param hostName   le nom d'hôte
+     * @param port       le port d'écoute
+     * @param wireFormat le format de transmission accepté par le client
+     */
+    public RemotePlayerClient(Player player, String hostName, int port, WireFormat wireFormat) {
+        this(player, hostName, port, wireFormat, null);
+    }
+
+    /**
+     * Construit le client du joueur donné comme {@link #RemotePlayerClient(Player, String, int, WireFormat)}, dont
+     * la connexion est maintenue selon les paramètres donnés.
+     *
+     * @param player     le joueur auquel le client fourni un accès distant
+     * @param hostName   le nom d'hôte
+     * @param port       le port d'écoute
+     * @param wireFormat le format de transmission accepté par le client
+     * @param keepAlive  les paramètres de maintien de la connexion, ou {@code null} pour une connexion sans délai de
+     *                   lecture ni battements de cœur
+     */
+    public RemotePlayerClient(Player player, String hostName, int port, WireFormat wireFormat, KeepAlive keepAlive) {
         this.player = player;
         this.hostName = hostName;
         this.port = port;
+        this.wireFormat = wireFormat;
+        this.keepAlive = keepAlive;
+    }
+
+    /**
+     * Fait rapporter au récepteur donné les mesures des messages échangés avec le mandataire : leur nombre, leur
+     * taille, leur temps de codage et de décodage, ainsi que le temps de traitement des demandes, qui comprend le
+     * temps de réflexion du joueur. Doit être appelée avant {@link #run()} ou {@link #runOn(NioTransport)}.
+     *
+     * @param metrics le récepteur des mesures
+     */
+    public void setMetrics(NetworkMetrics metrics) {
+        this.metrics = metrics;
     }
 
     /**
@@ -52,96 +112,242 @@ public final class RemotePlayerClient {
      * Si cette méthode retourne un résultat, il est sérialisé et renvoyer au mandataire en réponse.
      */
     public void run() {
-        try (Socket socket = new Socket(hostName, port);
-             BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), US_ASCII));
-             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), US_ASCII))) {
-
-            String str;
-            while ((str = reader.readLine()) != null) {
-                String[] message = str.split(Pattern.quote(" "), -1);
-
-                switch (MessageId.valueOf(message[0])) {
-                    case INIT_PLAYERS:
-                        PlayerId id = Serdes.OF_PLAYER_ID.deserialize(message[1]);
-                        List<String> names = Serdes.OF_LIST_OF_STRINGS.deserialize(message[2]);
-
-                        ticketsSerde = names.size() == MINIMUM_PLAYER_COUNT ?
-                                Serdes.OF_SORTED_BAG_OF_TICKETS : Serdes.OF_SORTED_BAG_OF_SUPP_TICKETS;
-                        playerStateSerde = names.size() == MINIMUM_PLAYER_COUNT ?
-                                OF_PLAYER_STATE : OF_SUPP_PLAYER_STATE;
-
-                        Map<PlayerId, String> playerNames = new EnumMap<>(PlayerId.class);
-                        for (int i = 0; i < names.size(); i++)
-                            playerNames.put(PlayerId.ALL.get(i), names.get(i));
-
-                        player.initPlayers(id, playerNames);
-                        break;
-
-                    case RECEIVE_INFO:
-                        player.receiveInfo(Serdes.OF_STRING.deserialize(message[1]));
-                        break;
-
-                    case UPDATE_STATE:
-                        player.updateState(Serdes.OF_PUBLIC_GAME_STATE.deserialize(message[1]),
-                                playerStateSerde.deserialize(message[2]));
-                        break;
-
-                    case SET_INITIAL_TICKETS:
-                        player.setInitialTicketChoice(ticketsSerde.deserialize(message[1]));
-                        break;
-
-                    case CHOOSE_INITIAL_TICKETS:
-                        writer.write(ticketsSerde.serialize(player.chooseInitialTickets()));
-                        writer.write('\n');
-                        writer.flush();
-                        break;
-
-                    case NEXT_TURN:
-                        writer.write(Serdes.OF_TURN_KIND.serialize(player.nextTurn()));
-                        writer.write('\n');
-                        writer.flush();
-                        break;
-
-                    case CHOOSE_TICKETS:
-                        SortedBag<Ticket> chosenTickets = player
-                                .chooseTickets(ticketsSerde.deserialize(message[1]));
-                        writer.write(ticketsSerde.serialize(chosenTickets));
-                        writer.write('\n');
-                        writer.flush();
-                        break;
-
-                    case DRAW_SLOT:
-                        writer.write(Serdes.OF_INTEGER.serialize(player.drawSlot()));
-                        writer.write('\n');
-                        writer.flush();
-                        break;
-
-                    case ROUTE:
-                        writer.write(Serdes.OF_ROUTE.serialize(player.claimedRoute()));
-                        writer.write('\n');
-                        writer.flush();
-                        break;
-
-                    case CARDS:
-                        writer.write(Serdes.OF_SORTED_BAG_OF_CARD.serialize(player.initialClaimCards()));
-                        writer.write('\n');
-                        writer.flush();
-                        break;
-
-                    case CHOOSE_ADDITIONAL_CARDS:
-                        SortedBag<Card> chosenCards = player
-                                .chooseAdditionalCards(Serdes.OF_LIST_OF_SORTED_BAGS_OF_CARDS.deserialize(message[1]));
-                        writer.write(Serdes.OF_SORTED_BAG_OF_CARD.serialize(chosenCards));
-                        writer.write('\n');
-                        writer.flush();
-                        break;
-
-                    default:
-                        throw new Error("Type de message (MessageId) non reconnu: " + MessageId.valueOf(message[0]));
+        Socket socket;
+        try {
+            socket = connect();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        while (socket != null) {
+            boolean resumed = serve(socket);
+            socket = resumed && canResume() ? reconnect() : null;
+        }
+    }
+
+    /**
+     * Traite les messages reçus sur la prise donnée jusqu'à ce que la connexion soit fermée ou perdue, et retourne
+     * vrai ssi le mandataire a envoyé un autre message que celui attribuant la session, c-à-d qu'il ne l'a pas
+     * refusée.
+     *
+     * @throws UncheckedIOException en cas d'erreur d'entrée/sortie, si le client ne peut pas se reconnecter
+     */
+    private boolean serve(Socket socket) {
+        int messageCount = 0;
+        try (socket) {
+            StreamChannel streamChannel = new StreamChannel(socket, keepAlive);
+            channel = streamChannel;
+            codec = MessageCodec.of(WireFormat.TEXT, channel, metrics);
+            try {
+                while (!streamChannel.atEnd()) {
+                    MessageCodec.Decoder message = codec.readMessage();
+                    if (message.id() != MessageId.SESSION)
+                        messageCount += 1;
+                    handleMessage(message);
                 }
+            } finally {
+                streamChannel.close();
             }
         } catch (IOException e) {
-            throw new UncheckedIOException(e);
+            if (!canResume())
+                throw new UncheckedIOException(e);
+        } catch (UncheckedIOException e) {
+            if (!canResume())
+                throw e;
+        }
+        return messageCount > 0;
+    }
+
+    private boolean canResume() {
+        return keepAlive != null && sessionToken != null;
+    }
+
+    private Socket connect() throws IOException {
+        if (keepAlive == null)
+            return new Socket(hostName, port);
+
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(hostName, port), keepAlive.readTimeoutMillis());
+            return socket;
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Tente de se reconnecter au serveur pendant le délai de reconnexion, à intervalles croissants, et retourne la
+     * prise connectée, ou {@code null} si aucune tentative n'a abouti.
+     */
+    private Socket reconnect() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(keepAlive.reconnectTimeoutMillis());
+        long delayMillis = INITIAL_RECONNECT_DELAY_MILLIS;
+        while (true) {
+            try {
+                return connect();
+            } catch (IOException e) {
+                if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis) > deadline)
+                    return null;
+            }
+
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            delayMillis = Math.min(2 * delayMillis, MAX_RECONNECT_DELAY_MILLIS);
+        }
+    }
+
+    /**
+     * Se connecte au port et au nom d'hôte donnés au travers du transport non bloquant {@code transport}, dont le
+     * fil d'exécution traite ensuite les messages comme {@link #run()}, sans bloquer de fil propre à ce client.
+     * Le joueur doit donc répondre rapidement, ce qui convient aux joueurs artificiels mais pas au joueur graphique.
+     * Les messages sont toujours transmis au format textuel.
+     *
+     * @param transport le transport utilisé
+     * @return le futur complété lorsque la connexion est fermée, c-à-d à la fin de la partie
+     * @throws UncheckedIOException en cas d'erreur d'entrée/sortie
+     */
+    public CompletableFuture<Void> runOn(NioTransport transport) {
+        HandlerChannel handlerChannel = new HandlerChannel();
+        channel = handlerChannel;
+        codec = MessageCodec.of(WireFormat.TEXT, channel, metrics);
+
+        return transport.connect(hostName, port, message -> {
+            handlerChannel.incoming = message;
+            handleMessage(codec.readMessage());
+            String reply = handlerChannel.outgoing;
+            handlerChannel.outgoing = null;
+            return reply;
+        }).closed();
+    }
+
+    /**
+     * Traite le message donné en appelant la méthode du joueur associée à son type, et envoie au mandataire la
+     * sérialisation du résultat de cette méthode, si elle en retourne un.
+     */
+    private void handleMessage(MessageCodec.Decoder message) {
+        switch (message.id()) {
+            case SESSION:
+                String offeredToken = message.next(OF_STRING, BinarySerdes.OF_STRING);
+                if (sessionToken == null)
+                    sessionToken = offeredToken;
+                codec.reply().put(sessionToken, OF_STRING, BinarySerdes.OF_STRING).send();
+                break;
+
+            case CHOOSE_WIRE_FORMAT:
+                WireFormat offered = message.next(OF_WIRE_FORMAT, BinarySerdes.OF_WIRE_FORMAT);
+                WireFormat chosen = offered == wireFormat && channel instanceof StreamChannel ?
+                        offered : WireFormat.TEXT;
+                codec.reply().put(chosen, OF_WIRE_FORMAT, BinarySerdes.OF_WIRE_FORMAT).send();
+                codec = MessageCodec.of(chosen, channel, metrics);
+                break;
+
+            case INIT_PLAYERS:
+                PlayerId id = message.next(OF_PLAYER_ID, BinarySerdes.OF_PLAYER_ID);
+                List<String> names = message.next(OF_LIST_OF_STRINGS, BinarySerdes.OF_LIST_OF_STRINGS);
+
+                boolean twoPlayers = names.size() == MINIMUM_PLAYER_COUNT;
+                ticketsSerde = twoPlayers ? OF_SORTED_BAG_OF_TICKETS : OF_SORTED_BAG_OF_SUPP_TICKETS;
+                binaryTicketsSerde = twoPlayers ?
+                        BinarySerdes.OF_SORTED_BAG_OF_TICKETS : BinarySerdes.OF_SORTED_BAG_OF_SUPP_TICKETS;
+                playerStateSerde = twoPlayers ? OF_PLAYER_STATE : OF_SUPP_PLAYER_STATE;
+                binaryPlayerStateSerde = twoPlayers ?
+                        BinarySerdes.OF_PLAYER_STATE : BinarySerdes.OF_SUPP_PLAYER_STATE;
+                stateDeltaCodec = new StateDeltaCodec();
+
+                Map<PlayerId, String> playerNames = new EnumMap<>(PlayerId.class);
+                for (int i = 0; i < names.size(); i++)
+                    playerNames.put(PlayerId.ALL.get(i), names.get(i));
+
+                player.initPlayers(id, playerNames);
+                break;
+
+            case RECEIVE_INFO:
+                player.receiveInfo(message.next(OF_STRING, BinarySerdes.OF_STRING));
+                break;
+
+            case UPDATE_STATE:
+                stateDeltaCodec.reset(message.next(OF_PUBLIC_GAME_STATE, BinarySerdes.OF_PUBLIC_GAME_STATE),
+                        message.next(playerStateSerde, binaryPlayerStateSerde));
+                player.updateState(stateDeltaCodec.state(), stateDeltaCodec.ownState());
+                break;
+
+            case UPDATE_STATE_DELTA:
+                stateDeltaCodec.apply(message.next(OF_PUBLIC_GAME_STATE, BinarySerdes.OF_PUBLIC_GAME_STATE),
+                        message.next(playerStateSerde, binaryPlayerStateSerde));
+                player.updateState(stateDeltaCodec.state(), stateDeltaCodec.ownState());
+                break;
+
+            case SET_INITIAL_TICKETS:
+                player.setInitialTicketChoice(message.next(ticketsSerde, binaryTicketsSerde));
+                break;
+
+            case CHOOSE_INITIAL_TICKETS:
+                codec.reply().put(player.chooseInitialTickets(), ticketsSerde, binaryTicketsSerde).send();
+                break;
+
+            case NEXT_TURN:
+                codec.reply().put(player.nextTurn(), OF_TURN_KIND, BinarySerdes.OF_TURN_KIND).send();
+                break;
+
+            case CHOOSE_TICKETS:
+                SortedBag<Ticket> chosenTickets = player.chooseTickets(message.next(ticketsSerde, binaryTicketsSerde));
+                codec.reply().put(chosenTickets, ticketsSerde, binaryTicketsSerde).send();
+                break;
+
+            case DRAW_SLOT:
+                codec.reply().put(player.drawSlot(), OF_INTEGER, BinarySerdes.OF_INTEGER).send();
+                break;
+
+            case ROUTE:
+                codec.reply().put(player.claimedRoute(), OF_ROUTE, BinarySerdes.OF_ROUTE).send();
+                break;
+
+            case CARDS:
+                codec.reply().put(player.initialClaimCards(), OF_SORTED_BAG_OF_CARD, BinarySerdes.OF_SORTED_BAG_OF_CARD)
+                        .send();
+                break;
+
+            case CHOOSE_ADDITIONAL_CARDS:
+                SortedBag<Card> chosenCards = player.chooseAdditionalCards(
+                        message.next(OF_LIST_OF_SORTED_BAGS_OF_CARDS, BinarySerdes.OF_LIST_OF_SORTED_BAGS_OF_CARDS));
+                codec.reply().put(chosenCards, OF_SORTED_BAG_OF_CARD, BinarySerdes.OF_SORTED_BAG_OF_CARD).send();
+                break;
+
+            default:
+                throw new Error("Type de message (MessageId) non reconnu: " + message.id());
+        }
+    }
+
+    /**
+     * Canal de messages d'une connexion prise en charge par un transport non bloquant : le message lu est celui
+     * que le transport vient de recevoir, et le message écrit la réponse que le transport renvoie.
+     */
+    private static final class HandlerChannel implements MessageChannel {
+        private String incoming;
+        private String outgoing;
+
+        @Override
+        public void write(CharSequence message) {
+            outgoing = message.toString();
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public String read() {
+            return incoming;
+        }
+
+        // La connexion appartient au transport, qui la ferme lui-même
+        @Override
+        public void close() {
         }
     }
 }
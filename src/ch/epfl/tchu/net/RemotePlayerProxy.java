@@ -3,31 +3,68 @@ package ch.epfl.tchu.net;
 import ch.epfl.tchu.SortedBag;
 import ch.epfl.tchu.game.*;
 
-import java.io.*;
+import java.io.Closeable;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
 import java.net.Socket;
-import java.util.Arrays;
+import java.util.ArrayDeque;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.StringJoiner;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 
 import static ch.epfl.tchu.game.Constants.MINIMUM_PLAYER_COUNT;
 import static ch.epfl.tchu.net.MessageId.*;
 import static ch.epfl.tchu.net.Serdes.*;
-import static java.nio.charset.StandardCharsets.US_ASCII;
 
 /**
  * Un mandataire (proxy) de joueur distant.
+ * <p>
+ * Les méthodes qui n'attendent pas de réponse du client ne font que déposer leur message dans la file de ce
+ * mandataire, qui est écrite sur le canal par un autre fil d'exécution. Diffuser une information ou un état à tous
+ * les joueurs ne prend ainsi que le temps d'écrire au plus lent d'entre eux, plutôt que la somme de leurs temps.
+ * Les méthodes qui attendent une réponse commencent par attendre que la file soit vide, si bien que le client reçoit
+ * les messages dans l'ordre dans lequel ils ont été donnés au mandataire. Une erreur survenue lors de l'écriture d'un
+ * message déposé est levée par l'appel suivant d'une méthode du mandataire.
+ * <p>
+ * Le mandataire d'une session ({@link SessionServer}) ne lève une telle erreur que si le client ne s'est pas
+ * reconnecté dans le délai imparti. S'il se reconnecte, le mandataire renégocie le format de transmission, lui
+ * renvoie l'état complet de la partie (ainsi que les billets initiaux s'il ne les a pas encore choisis), puis
+ * reprend l'appel en cours; une demande interrompue est donc posée à nouveau, alors que les informations déposées
+ * qui n'ont pas pu être envoyées sont perdues. Fermer le mandataire à la fin de la partie met fin à la session, le
+ * client étant alors refusé lorsqu'il tente de s'y reconnecter.
  *
  * @author Dylan Vairoli (326603)
  * @author Giovanni Ranieri (326870)
  */
-public final class RemotePlayerProxy implements Player {
+public final class RemotePlayerProxy implements Player, Closeable {
+    private static final Executor OUTBOUND_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "tchu-outbound");
+        thread.setDaemon(true);
+        return thread;
+    });
 
-    private final BufferedReader bufferedReader;
-    private final BufferedWriter bufferedWriter;
+    private final WireFormat wireFormat;
+    private final SessionServer.Session session;
+    private Broadcast broadcast = new Broadcast();
+    private NetworkMetrics metrics = NetworkMetrics.NONE;
+    private MessageChannel channel;
+    private MessageCodec codec;
+    private SortedBag<Ticket> pendingInitialTickets;
 
     private Serde<SortedBag<Ticket>> ticketsSerde = OF_SORTED_BAG_OF_TICKETS;
+    private BinarySerde<SortedBag<Ticket>> binaryTicketsSerde = BinarySerdes.OF_SORTED_BAG_OF_TICKETS;
     private Serde<PlayerState> playerStateSerde = OF_PLAYER_STATE;
+    private BinarySerde<PlayerState> binaryPlayerStateSerde = BinarySerdes.OF_PLAYER_STATE;
+    private StateDeltaCodec stateDeltaCodec = new StateDeltaCodec();
+
+    // Accédés uniquement en possession du verrou de la file
+    private final Queue<Runnable> outbound = new ArrayDeque<>();
+    private boolean sending;
+    private RuntimeException failure;
 
     /**
      * Construit un mandataire du joueur distant en fonction de la prise ({@code Socket}),
@@ -37,107 +74,351 @@ public final class RemotePlayerProxy implements Player {
      * @throws UncheckedIOException en cas d'erreur d'entrée/sortie
      */
     public RemotePlayerProxy(Socket socket) {
-        try {
-            this.bufferedReader = new BufferedReader(new InputStreamReader(socket.getInputStream(), US_ASCII));
-            this.bufferedWriter = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), US_ASCII));
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
+        this(socket, WireFormat.TEXT);
     }
 
     /**
-     * Écrit un message sur la prise de ce mandataire, en fonction de son identité
-     * et les chaînes de caractères correspondants à la sérialisation de ses arguments données.
+     * Construit un mandataire du joueur distant en fonction de la prise ({@code Socket}), qu'il utilise pour
+     * communiquer à travers le réseau avec le client. Si {@code wireFormat} est le format binaire, il le propose au
+     * client avant le premier message de la partie, et ne l'utilise que si le client l'accepte.
      *
-     * @param identity l'identité du message
-     * @param argSer   la sérialisation de ses arguments
+     * @param socket     la prise utilisée pour communiquer à travers le réseau
+     * @param wireFormat le format de transmission proposé au client
      * @throws UncheckedIOException en cas d'erreur d'entrée/sortie
-     * @see MessageId
      */
-    private void writeMessage(MessageId identity, String... argSer) {
-        try {
-            StringJoiner sj = new StringJoiner(" ");
-            sj.add(identity.name());
-            Arrays.stream(argSer).forEach(sj::add);
-
-            bufferedWriter.write(sj.toString());
-            bufferedWriter.write('\n');
-            bufferedWriter.flush();
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
+    public RemotePlayerProxy(Socket socket, WireFormat wireFormat) {
+        this(new StreamChannel(socket), wireFormat, null);
     }
 
     /**
-     * Lit le message en attente sur la prise de ce mandataire.
+     * Construit un mandataire du joueur distant comme {@link #RemotePlayerProxy(Socket, WireFormat)}, dont la
+     * connexion est maintenue selon les paramètres donnés : le mandataire échoue si le client ne donne plus signe de
+     * vie pendant le délai de lecture, ce qui libère le fil d'exécution de la partie. Le délai de reconnexion n'est
+     * pas utilisé, le client n'ayant pas de session.
      *
-     * @return le message lu
+     * @param socket     la prise utilisée pour communiquer à travers le réseau
+     * @param wireFormat le format de transmission proposé au client
+     * @param keepAlive  les paramètres de maintien de la connexion
      * @throws UncheckedIOException en cas d'erreur d'entrée/sortie
      */
-    private String readMessage() {
+    public RemotePlayerProxy(Socket socket, WireFormat wireFormat, KeepAlive keepAlive) {
+        this(new StreamChannel(socket, keepAlive), wireFormat, null);
+    }
+
+    /**
+     * Construit un mandataire du joueur distant communiquant avec le client au travers de la connexion donnée,
+     * prise en charge par un transport non bloquant. Les messages reçus par la connexion doivent être mis en file.
+     * Les messages sont toujours transmis au format textuel.
+     *
+     * @param connection la connexion utilisée pour communiquer à travers le réseau
+     */
+    public RemotePlayerProxy(NioTransport.Connection connection) {
+        this(connection, WireFormat.TEXT, null);
+    }
+
+    /**
+     * Construit le mandataire du joueur distant de la session donnée, qui communique au travers de la connexion
+     * actuelle de la session et reprend les suivantes lorsque le client se reconnecte.
+     *
+     * @param session    la session du client
+     * @param wireFormat le format de transmission proposé au client
+     */
+    RemotePlayerProxy(SessionServer.Session session, WireFormat wireFormat) {
+        this(session.channel(), wireFormat, session);
+    }
+
+    private RemotePlayerProxy(MessageChannel channel, WireFormat wireFormat, SessionServer.Session session) {
+        this.channel = channel;
+        this.wireFormat = wireFormat;
+        this.session = session;
+        this.codec = MessageCodec.of(WireFormat.TEXT, channel, metrics);
+    }
+
+    /**
+     * Retourne le format de transmission actuellement utilisé avec le client.
+     *
+     * @return le format de transmission actuellement utilisé
+     */
+    public WireFormat wireFormat() {
+        awaitOutbound();
+        return codec.format();
+    }
+
+    /**
+     * Fait rapporter au récepteur donné les mesures des messages échangés avec le client à partir de cet appel :
+     * leur nombre, leur taille, leur temps de codage et de décodage, ainsi que le temps d'aller-retour des demandes.
+     * Le récepteur peut être partagé par les mandataires de plusieurs joueurs.
+     *
+     * @param metrics le récepteur des mesures
+     * @throws UncheckedIOException en cas d'erreur d'entrée/sortie lors de l'écriture d'un message déposé, ou si le
+     *                              fil appelant est interrompu
+     */
+    public void setMetrics(NetworkMetrics metrics) {
+        awaitOutbound();
+        this.metrics = metrics;
+        codec = MessageCodec.of(codec.format(), channel, metrics);
+    }
+
+    /**
+     * Fait partager aux mandataires donnés, ceux des joueurs d'une même partie, le codage des informations et des
+     * états qui leur sont diffusés : chacun n'est alors codé qu'une fois par format, quel que soit le nombre de
+     * joueurs. Doit être appelée avant le début de la partie; sans cela, chaque mandataire code ses messages
+     * lui-même.
+     *
+     * @param proxies les mandataires des joueurs d'une même partie
+     * @throws UncheckedIOException en cas d'erreur d'entrée/sortie lors de l'écriture d'un message déposé, ou si le
+     *                              fil appelant est interrompu
+     */
+    public static void shareEncodings(Collection<RemotePlayerProxy> proxies) {
+        Broadcast broadcast = new Broadcast();
+        for (RemotePlayerProxy proxy : proxies) {
+            proxy.awaitOutbound();
+            proxy.broadcast = broadcast;
+        }
+    }
+
+    /**
+     * Attend que tous les messages déposés dans la file de ce mandataire aient été écrits sur son canal, puis vide
+     * ce dernier. Doit être appelée avant de fermer le canal à la fin d'une partie, faute de quoi les derniers
+     * messages seraient perdus.
+     *
+     * @throws UncheckedIOException en cas d'erreur d'entrée/sortie lors de l'écriture d'un message, ou si le fil
+     *                              appelant est interrompu
+     */
+    public void awaitPendingMessages() {
+        awaitOutbound();
+        channel.flush();
+    }
+
+    /**
+     * Ferme la connexion avec le client, et met fin à sa session s'il en a une : le client qui tente ensuite de s'y
+     * reconnecter est refusé. Doit être appelée à la fin de la partie, après {@link #awaitPendingMessages()}.
+     */
+    @Override
+    public void close() {
+        if (session != null)
+            session.close();
+        else
+            channel.close();
+    }
+
+    private void post(Runnable message) {
+        synchronized (outbound) {
+            if (failure == null) {
+                outbound.add(message);
+                if (!sending) {
+                    sending = true;
+                    OUTBOUND_EXECUTOR.execute(this::sendOutbound);
+                }
+                return;
+            }
+        }
+
         try {
-            return bufferedReader.readLine();
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
+            awaitOutbound();
+        } catch (UncheckedIOException e) {
+            recover(e);
+        }
+        post(message);
+    }
+
+    // Attend que la file soit vide, puis pose la demande donnée, à nouveau si le client s'est reconnecté entre-temps
+    private <T> T request(Supplier<T> request) {
+        while (true) {
+            try {
+                awaitOutbound();
+                return request.get();
+            } catch (UncheckedIOException e) {
+                recover(e);
+            }
         }
     }
 
     /**
-     * Écrit, sur la prise de ce mandataire, un message communiquant l'identité de ce joueur
-     * et les noms des différents joueurs.
+     * Attend que le client de la session se reconnecte à la suite de l'erreur donnée, puis resynchronise ce
+     * dernier. Doit être appelée alors qu'aucun message n'est en cours d'écriture.
+     *
+     * @throws UncheckedIOException l'erreur donnée, s'il n'y a pas de session, que le fil appelant a été
+     *                              interrompu, ou que le client ne s'est pas reconnecté à temps
+     */
+    private void recover(UncheckedIOException error) {
+        if (session == null || Thread.currentThread().isInterrupted())
+            throw error;
+
+        while (true) {
+            StreamChannel newChannel = session.awaitReconnection();
+            if (newChannel == null)
+                throw error;
+
+            synchronized (outbound) {
+                failure = null;
+            }
+            channel = newChannel;
+            codec = MessageCodec.of(WireFormat.TEXT, channel, metrics);
+            try {
+                resynchronize();
+                return;
+            } catch (UncheckedIOException e) {
+                error = e;
+            }
+        }
+    }
+
+    private void resynchronize() {
+        negotiateWireFormat();
+        if (pendingInitialTickets != null)
+            codec.message(SET_INITIAL_TICKETS).put(pendingInitialTickets, ticketsSerde, binaryTicketsSerde).send();
+
+        PublicGameState state = stateDeltaCodec.state();
+        if (state != null) {
+            PlayerState ownState = stateDeltaCodec.ownState();
+            codec.message(UPDATE_STATE)
+                    .put(state, broadcast.publicGameState)
+                    .put(ownState, playerStateSerde, binaryPlayerStateSerde)
+                    .send();
+        }
+    }
+
+    // Écrit les messages de la file jusqu'à ce qu'elle soit vide, ou jusqu'à la première erreur
+    private void sendOutbound() {
+        while (true) {
+            Runnable message;
+            synchronized (outbound) {
+                message = failure == null ? outbound.poll() : null;
+                if (message == null) {
+                    outbound.clear();
+                    sending = false;
+                    outbound.notifyAll();
+                    return;
+                }
+            }
+            try {
+                message.run();
+            } catch (RuntimeException e) {
+                synchronized (outbound) {
+                    failure = e;
+                }
+            }
+        }
+    }
+
+    private void awaitOutbound() {
+        synchronized (outbound) {
+            try {
+                while (sending)
+                    outbound.wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException(new InterruptedIOException());
+            }
+            throwFailure();
+        }
+    }
+
+    private void throwFailure() {
+        if (failure != null)
+            throw failure;
+    }
+
+    /**
+     * Propose le format de transmission de ce mandataire au client, s'il n'est pas déjà utilisé, et adopte celui
+     * que le client choisit. La proposition et la réponse sont toujours textuelles.
+     */
+    private void negotiateWireFormat() {
+        if (codec.format() == wireFormat)
+            return;
+
+        codec.message(CHOOSE_WIRE_FORMAT).put(wireFormat, OF_WIRE_FORMAT, BinarySerdes.OF_WIRE_FORMAT).send();
+        WireFormat chosen = codec.readReply().next(OF_WIRE_FORMAT, BinarySerdes.OF_WIRE_FORMAT);
+        codec = MessageCodec.of(chosen, channel, metrics);
+    }
+
+    /**
+     * Dépose un message communiquant l'identité de ce joueur et les noms des différents joueurs. Le format de
+     * transmission est négocié au préalable, par le fil écrivant les messages.
      *
      * @param ownId       l'identité de ce joueur
      * @param playerNames le nom des différents joueurs associé à leur identité
      */
     @Override
     public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
-        String playerNamesSer = OF_LIST_OF_STRINGS.serialize(List.copyOf(playerNames.values()));
-
-        ticketsSerde = playerNames.size() == MINIMUM_PLAYER_COUNT ?
-                OF_SORTED_BAG_OF_TICKETS : OF_SORTED_BAG_OF_SUPP_TICKETS;
-        playerStateSerde = playerNames.size() == MINIMUM_PLAYER_COUNT ?
-                OF_PLAYER_STATE : OF_SUPP_PLAYER_STATE;
+        List<String> names = List.copyOf(playerNames.values());
+        boolean twoPlayers = playerNames.size() == MINIMUM_PLAYER_COUNT;
+        ticketsSerde = twoPlayers ? OF_SORTED_BAG_OF_TICKETS : OF_SORTED_BAG_OF_SUPP_TICKETS;
+        binaryTicketsSerde = twoPlayers ?
+                BinarySerdes.OF_SORTED_BAG_OF_TICKETS : BinarySerdes.OF_SORTED_BAG_OF_SUPP_TICKETS;
+        playerStateSerde = twoPlayers ? OF_PLAYER_STATE : OF_SUPP_PLAYER_STATE;
+        binaryPlayerStateSerde = twoPlayers ? BinarySerdes.OF_PLAYER_STATE : BinarySerdes.OF_SUPP_PLAYER_STATE;
+        stateDeltaCodec = new StateDeltaCodec(broadcast.publicDeltaCache);
 
-        writeMessage(INIT_PLAYERS,
-                OF_PLAYER_ID.serialize(ownId),
-                playerNamesSer);
+        post(() -> {
+            negotiateWireFormat();
+            codec.message(INIT_PLAYERS)
+                    .put(ownId, OF_PLAYER_ID, BinarySerdes.OF_PLAYER_ID)
+                    .put(names, OF_LIST_OF_STRINGS, BinarySerdes.OF_LIST_OF_STRINGS)
+                    .send();
+        });
     }
 
     /**
-     * Écrit, sur la prise de ce mandataire, un message communiquant une information sur la partie en cours.
+     * Dépose un message communiquant une information sur la partie en cours. Le message n'est codé qu'une fois
+     * lorsque la même information est donnée à tous les mandataires de la partie qui en partagent le codage.
      *
      * @param info l'information communiquée
      */
     @Override
     public void receiveInfo(String info) {
-        writeMessage(RECEIVE_INFO, OF_STRING.serialize(info));
+        post(() -> codec.send(broadcast.infoMessage, info));
     }
 
     /**
-     * Écrit, sur la prise de ce mandataire,
-     * un message communiquant le nouvel état public de la partie ainsi que le nouvel état de ce joueur.
+     * Dépose un message communiquant le nouvel état public de la partie ainsi que le nouvel état de ce joueur.
+     * Seul le premier état d'une partie est transmis en entier, les suivants l'étant sous la forme de leur différence
+     * avec le précédent. La partie publique de l'état ou de la différence, identique pour tous les joueurs, n'est
+     * codée qu'une fois pour les mandataires de la partie qui en partagent le codage.
      *
      * @param newState le nouvel état public de la partie
      * @param ownState le nouvel état de ce joueur
      */
     @Override
     public void updateState(PublicGameState newState, PlayerState ownState) {
+        post(() -> sendState(newState, ownState));
+    }
 
-        writeMessage(UPDATE_STATE, OF_PUBLIC_GAME_STATE.serialize(newState), playerStateSerde.serialize(ownState));
+    private void sendState(PublicGameState newState, PlayerState ownState) {
+        // L'état est mémorisé avant l'envoi, afin d'être renvoyé en entier au client s'il se reconnecte
+        if (stateDeltaCodec.canEncode(newState, ownState)) {
+            // Le message est commencé avant le calcul de la différence, qui fait ainsi partie de son temps de codage
+            MessageCodec.Encoder message = codec.message(UPDATE_STATE_DELTA);
+            PublicGameState publicDelta = stateDeltaCodec.publicDelta(newState);
+            PlayerState ownDelta = stateDeltaCodec.ownDelta(ownState);
+            stateDeltaCodec.reset(newState, ownState);
+            message.put(publicDelta, broadcast.publicGameState)
+                    .put(ownDelta, playerStateSerde, binaryPlayerStateSerde)
+                    .send();
+        } else {
+            stateDeltaCodec.reset(newState, ownState);
+            codec.message(UPDATE_STATE)
+                    .put(newState, broadcast.publicGameState)
+                    .put(ownState, playerStateSerde, binaryPlayerStateSerde)
+                    .send();
+        }
     }
 
     /**
-     * Écrit, sur la prise de ce mandataire,
-     * un message communiquant les billets initialement tirés par ce joueur en début de partie.
+     * Dépose un message communiquant les billets initialement tirés par ce joueur en début de partie.
      *
      * @param tickets les billets initialement tirés par le joueur
      */
     @Override
     public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
-        if (ticketsSerde == OF_SORTED_BAG_OF_TICKETS)
-            System.out.println("non supp");
-        else System.out.println("supp");
-        writeMessage(SET_INITIAL_TICKETS, ticketsSerde.serialize(tickets));
+        pendingInitialTickets = tickets;
+        post(() -> {
+            if (ticketsSerde == OF_SORTED_BAG_OF_TICKETS)
+                System.out.println("non supp");
+            else System.out.println("supp");
+            codec.message(SET_INITIAL_TICKETS).put(tickets, ticketsSerde, binaryTicketsSerde).send();
+        });
     }
 
     /**
@@ -151,8 +432,12 @@ public final class RemotePlayerProxy implements Player {
         if (ticketsSerde == OF_SORTED_BAG_OF_TICKETS)
             System.out.println("non supp");
         else System.out.println("supp");
-        writeMessage(CHOOSE_INITIAL_TICKETS);
-        return ticketsSerde.deserialize(readMessage());
+        SortedBag<Ticket> chosenTickets = request(() -> {
+            codec.message(CHOOSE_INITIAL_TICKETS).send();
+            return codec.readReply().next(ticketsSerde, binaryTicketsSerde);
+        });
+        pendingInitialTickets = null;
+        return chosenTickets;
     }
 
     /**
@@ -163,8 +448,10 @@ public final class RemotePlayerProxy implements Player {
      */
     @Override
     public TurnKind nextTurn() {
-        writeMessage(NEXT_TURN);
-        return OF_TURN_KIND.deserialize(readMessage());
+        return request(() -> {
+            codec.message(NEXT_TURN).send();
+            return codec.readReply().next(OF_TURN_KIND, BinarySerdes.OF_TURN_KIND);
+        });
     }
 
     /**
@@ -180,8 +467,10 @@ public final class RemotePlayerProxy implements Player {
         if (ticketsSerde == OF_SORTED_BAG_OF_TICKETS)
             System.out.println("non supp");
         else System.out.println("supp");
-        writeMessage(CHOOSE_TICKETS, ticketsSerde.serialize(options));
-        return ticketsSerde.deserialize(readMessage());
+        return request(() -> {
+            codec.message(CHOOSE_TICKETS).put(options, ticketsSerde, binaryTicketsSerde).send();
+            return codec.readReply().next(ticketsSerde, binaryTicketsSerde);
+        });
     }
 
     /**
@@ -192,8 +481,10 @@ public final class RemotePlayerProxy implements Player {
      */
     @Override
     public int drawSlot() {
-        writeMessage(DRAW_SLOT);
-        return OF_INTEGER.deserialize(readMessage());
+        return request(() -> {
+            codec.message(DRAW_SLOT).send();
+            return codec.readReply().next(OF_INTEGER, BinarySerdes.OF_INTEGER);
+        });
     }
 
     /**
@@ -204,8 +495,10 @@ public final class RemotePlayerProxy implements Player {
      */
     @Override
     public Route claimedRoute() {
-        writeMessage(ROUTE);
-        return OF_ROUTE.deserialize(readMessage());
+        return request(() -> {
+            codec.message(ROUTE).send();
+            return codec.readReply().next(OF_ROUTE, BinarySerdes.OF_ROUTE);
+        });
     }
 
     /**
@@ -216,8 +509,10 @@ public final class RemotePlayerProxy implements Player {
      */
     @Override
     public SortedBag<Card> initialClaimCards() {
-        writeMessage(CARDS);
-        return OF_SORTED_BAG_OF_CARD.deserialize(readMessage());
+        return request(() -> {
+            codec.message(CARDS).send();
+            return codec.readReply().next(OF_SORTED_BAG_OF_CARD, BinarySerdes.OF_SORTED_BAG_OF_CARD);
+        });
     }
 
     /**
@@ -231,7 +526,20 @@ public final class RemotePlayerProxy implements Player {
      */
     @Override
     public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
-        writeMessage(CHOOSE_ADDITIONAL_CARDS, OF_LIST_OF_SORTED_BAGS_OF_CARDS.serialize(options));
-        return OF_SORTED_BAG_OF_CARD.deserialize(readMessage());
+        return request(() -> {
+            codec.message(CHOOSE_ADDITIONAL_CARDS)
+                    .put(options, OF_LIST_OF_SORTED_BAGS_OF_CARDS, BinarySerdes.OF_LIST_OF_SORTED_BAGS_OF_CARDS)
+                    .send();
+            return codec.readReply().next(OF_SORTED_BAG_OF_CARD, BinarySerdes.OF_SORTED_BAG_OF_CARD);
+        });
+    }
+
+    // Codages partagés par les mandataires d'une même partie, voir shareEncodings
+    private static final class Broadcast {
+        private final SharedEncoding<String> infoMessage =
+                SharedEncoding.ofMessage(RECEIVE_INFO, OF_STRING, BinarySerdes.OF_STRING);
+        private final SharedEncoding<PublicGameState> publicGameState =
+                SharedEncoding.ofValue(OF_PUBLIC_GAME_STATE, BinarySerdes.OF_PUBLIC_GAME_STATE);
+        private final StateDeltaCodec.PublicDeltaCache publicDeltaCache = new StateDeltaCodec.PublicDeltaCache();
     }
 }
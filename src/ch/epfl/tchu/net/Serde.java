@@ -3,11 +3,13 @@ package ch.epfl.tchu.net;
 import ch.epfl.tchu.Preconditions;
 import ch.epfl.tchu.SortedBag;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+
+import static ch.epfl.tchu.net.StreamingSerde.indexOf;
 
 /**
  * Représente un serializer-deserializer, un objet capable de sérialiser et désérialiser des valeurs d'un type donné.
@@ -42,7 +44,8 @@ public interface Serde<E> {
     /**
      * Crée le {@code Serde} correspondant à la (dé)sérialisation des valeurs de la liste de valeurs donnée.
      * Cette liste contient toutes les valeurs d'un ensemble de valeurs énuméré et le {@code Serde} retourné se base sur
-     * l'index des valeurs au sein de cette liste pour les (dé)sérialiser.
+     * l'index des valeurs au sein de cette liste pour les (dé)sérialiser, obtenu au moyen d'une table associative
+     * plutôt que d'un parcours de la liste.
      *
      * @param values la liste de toutes les valeurs de l'ensemble de valeurs énuméré
      * @param <T>    le type des objets contenus dans la liste
@@ -51,7 +54,22 @@ public interface Serde<E> {
      */
     static <T> Serde<T> oneOf(List<T> values) {
         Preconditions.checkArgument(!values.isEmpty());
-        return Serde.of(i -> Integer.toString(values.indexOf(i)), s -> values.get(Integer.parseInt(s)));
+        List<T> valuesCopy = List.copyOf(values);
+        Map<T, Integer> indexes = new HashMap<>();
+        for (int i = valuesCopy.size() - 1; i >= 0; i--)
+            indexes.put(valuesCopy.get(i), i);
+
+        return new StreamingSerde<>() {
+            @Override
+            public void serializeTo(T obj, StringBuilder sb) {
+                sb.append(indexes.getOrDefault(obj, -1).intValue());
+            }
+
+            @Override
+            public T deserialize(CharSequence cs, int from, int to) {
+                return valuesCopy.get(Integer.parseInt(cs, from, to, 10));
+            }
+        };
     }
 
     /**
@@ -64,17 +82,29 @@ public interface Serde<E> {
      * @return un {@code Serde} capable de (dé)sérialiser des listes de valeurs du type donné
      */
     static <T> Serde<List<T>> listOf(Serde<T> serde, char delimiter) {
-        return Serde.of(list -> list.stream()
-                        .map(serde::serialize)
-                        .collect(Collectors.joining(String.valueOf(delimiter))),
-                str -> {
-                    String[] splits = str.split(Pattern.quote(String.valueOf(delimiter)), -1);
-                    return str.isEmpty() ?
-                            List.of() :
-                            Arrays.stream(splits)
-                                    .map(serde::deserialize)
-                                    .collect(Collectors.toList());
-                });
+        return new StreamingSerde<>() {
+            @Override
+            public void serializeTo(List<T> list, StringBuilder sb) {
+                for (int i = 0; i < list.size(); i++) {
+                    if (i > 0)
+                        sb.append(delimiter);
+                    serde.serializeTo(list.get(i), sb);
+                }
+            }
+
+            @Override
+            public List<T> deserialize(CharSequence cs, int from, int to) {
+                if (from == to)
+                    return List.of();
+
+                List<T> list = new ArrayList<>();
+                for (int start = from, end; start <= to; start = end + 1) {
+                    end = indexOf(cs, delimiter, start, to);
+                    list.add(serde.deserialize(cs, start, end));
+                }
+                return list;
+            }
+        };
     }
 
     /**
@@ -87,8 +117,29 @@ public interface Serde<E> {
      * @return un {@code Serde} capable de (dé)sérialiser des multi-ensembles de valeurs du type donné
      */
     static <T extends Comparable<T>> Serde<SortedBag<T>> bagOf(Serde<T> serde, char delimiter) {
-        Serde<List<T>> listSerde = Serde.listOf(serde, delimiter);
-        return Serde.of(bag -> listSerde.serialize(bag.toList()), str -> SortedBag.of(listSerde.deserialize(str)));
+        return new StreamingSerde<>() {
+            @Override
+            public void serializeTo(SortedBag<T> bag, StringBuilder sb) {
+                for (int i = 0; i < bag.size(); i++) {
+                    if (i > 0)
+                        sb.append(delimiter);
+                    serde.serializeTo(bag.get(i), sb);
+                }
+            }
+
+            @Override
+            public SortedBag<T> deserialize(CharSequence cs, int from, int to) {
+                if (from == to)
+                    return SortedBag.of();
+
+                SortedBag.Builder<T> builder = new SortedBag.Builder<>();
+                for (int start = from, end; start <= to; start = end + 1) {
+                    end = indexOf(cs, delimiter, start, to);
+                    builder.add(serde.deserialize(cs, start, end));
+                }
+                return builder.build();
+            }
+        };
     }
 
     /**
@@ -106,4 +157,30 @@ public interface Serde<E> {
      * @return l'objet correspondant à la désérialisation de la chaîne de caractères donnée
      */
     E deserialize(String str);
+
+    /**
+     * Sérialise l'objet donné à la fin du bâtisseur de chaîne donné. Les {@code Serde} de ce paquetage le font sans
+     * créer de chaîne intermédiaire.
+     *
+     * @param obj l'objet à sérialiser
+     * @param sb  le bâtisseur auquel ajouter la sérialisation de l'objet
+     */
+    default void serializeTo(E obj, StringBuilder sb) {
+        sb.append(serialize(obj));
+    }
+
+    /**
+     * Désérialise la portion de la séquence de caractères donnée comprise entre {@code from} (inclus) et {@code to}
+     * (exclus), et retourne l'objet correspondant. Les {@code Serde} de ce paquetage le font sans créer de chaîne
+     * intermédiaire.
+     *
+     * @param cs   la séquence de caractères
+     * @param from l'index du premier caractère à désérialiser
+     * @param to   l'index suivant le dernier caractère à désérialiser
+     * @return l'objet correspondant à la désérialisation de la portion donnée
+     * @throws IndexOutOfBoundsException si la portion n'est pas comprise dans la séquence
+     */
+    default E deserialize(CharSequence cs, int from, int to) {
+        return deserialize(cs.subSequence(from, to).toString());
+    }
 }
\ No newline at end of file
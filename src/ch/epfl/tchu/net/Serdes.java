@@ -5,10 +5,9 @@ import ch.epfl.tchu.game.*;
 
 import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.function.Function;
-import java.util.regex.Pattern;
 
 import static ch.epfl.tchu.game.Player.TurnKind;
+import static ch.epfl.tchu.net.StreamingSerde.indexOf;
 
 /**
  * Contient la totalité des {@code Serdes} utiles au jeu.
@@ -22,7 +21,17 @@ public final class Serdes {
     /**
      * {@code Serde} relatif aux entiers.
      */
-    public static final Serde<Integer> OF_INTEGER = Serde.of(i -> Integer.toString(i), Integer::parseInt);
+    public static final Serde<Integer> OF_INTEGER = new StreamingSerde<>() {
+        @Override
+        public void serializeTo(Integer i, StringBuilder sb) {
+            sb.append(i.intValue());
+        }
+
+        @Override
+        public Integer deserialize(CharSequence cs, int from, int to) {
+            return Integer.parseInt(cs, from, to, 10);
+        }
+    };
     /**
      * {@code Serde} relatif aux chaînes de caractères.
      */
@@ -53,6 +62,10 @@ public final class Serdes {
      * {@code Serde} relatif aux billets pour 3 joueurs.
      */
     public static final Serde<Ticket> OF_SUPP_TICKET = Serde.oneOf(ChMap.supplementaryTickets());
+    /**
+     * {@code Serde} relatif aux formats de transmission.
+     */
+    public static final Serde<WireFormat> OF_WIRE_FORMAT = Serde.oneOf(WireFormat.ALL);
     /**
      * Séparateur des éléments d'une collection
      */
@@ -93,20 +106,19 @@ public final class Serdes {
     /**
      * {@code Serde} relatif aux {@code PublicCardState}.
      */
-    public static final Serde<PublicCardState> OF_PUBLIC_CARD_STATE =
-            Serde.of(serFuncPublicCardState(), deserFuncPublicCardState());
+    public static final Serde<PublicCardState> OF_PUBLIC_CARD_STATE = publicCardStateSerde();
     /**
      * {@code Serde} relatif aux {@code PublicPlayerState}.
      */
-    public static final Serde<PublicPlayerState> OF_PUBLIC_PLAYER_STATE = Serde.of(serFuncPublicPlayerState(), deserFuncPublicPlayerState());
+    public static final Serde<PublicPlayerState> OF_PUBLIC_PLAYER_STATE = publicPlayerStateSerde();
     /**
      * {@code Serde} relatif aux {@code PlayerState}.
      */
-    public static final Serde<PlayerState> OF_PLAYER_STATE = Serde.of(serFuncPlayerState(), deserFuncPlayerState());
+    public static final Serde<PlayerState> OF_PLAYER_STATE = playerStateSerde(OF_SORTED_BAG_OF_TICKETS);
     /**
      * {@code Serde} relatif aux {@code PlayerState}.
      */
-    public static final Serde<PlayerState> OF_SUPP_PLAYER_STATE = Serde.of(serFuncSuppPlayerState(), deserFuncSuppPlayerState());
+    public static final Serde<PlayerState> OF_SUPP_PLAYER_STATE = playerStateSerde(OF_SORTED_BAG_OF_SUPP_TICKETS);
     /**
      * Séparateur des éléments d'une collection de collections de collections
      */
@@ -114,174 +126,138 @@ public final class Serdes {
     /**
      * {@code Serde} relatif aux {@code PublicGameState}.
      */
-    public static final Serde<PublicGameState> OF_PUBLIC_GAME_STATE =
-            Serde.of(serFuncPublicGameState(), deserFuncPublicGameState());
+    public static final Serde<PublicGameState> OF_PUBLIC_GAME_STATE = publicGameStateSerde();
 
     private Serdes() {
     }
 
     /**
-     * Crée la fonction de sérialisation d'un {@code PublicCardState}.
-     *
-     * @return la fonction de sérialisation d'un {@code PublicCardState}
-     */
-    private static Function<PublicCardState, String> serFuncPublicCardState() {
-        return pcs -> {
-            StringJoiner joiner = new StringJoiner(String.valueOf(COLL_DELIM_DEG2));
-            joiner.add(Serdes.OF_LIST_OF_CARDS.serialize(pcs.faceUpCards()));
-            joiner.add(Serdes.OF_INTEGER.serialize(pcs.deckSize()));
-            joiner.add(Serdes.OF_INTEGER.serialize(pcs.discardsSize()));
-            return joiner.toString();
-        };
-    }
-
-    /**
-     * Crée la fonction de désérialisation d'un {@code PublicCardState}.
-     *
-     * @return la fonction de désérialisation d'un {@code PublicCardState}
-     */
-    private static Function<String, PublicCardState> deserFuncPublicCardState() {
-        return s -> {
-            String[] elements = s.split(Pattern.quote(String.valueOf(COLL_DELIM_DEG2)), -1);
-            return new PublicCardState(Serdes.OF_LIST_OF_CARDS.deserialize(elements[0]),
-                    Serdes.OF_INTEGER.deserialize(elements[1]),
-                    Serdes.OF_INTEGER.deserialize(elements[2]));
-        };
-    }
-
-    /**
-     * Crée la fonction de sérialisation d'un {@code PublicPlayerState}.
-     *
-     * @return la fonction de sérialisation d'un {@code PublicPlayerState}
-     */
-    private static Function<PublicPlayerState, String> serFuncPublicPlayerState() {
-        return publicPlayerState -> {
-            StringJoiner joiner = new StringJoiner(String.valueOf(COLL_DELIM_DEG2));
-            joiner.add(Serdes.OF_INTEGER.serialize(publicPlayerState.ticketCount()));
-            joiner.add(Serdes.OF_INTEGER.serialize(publicPlayerState.cardCount()));
-            joiner.add(Serdes.OF_LIST_OF_ROUTES.serialize(publicPlayerState.routes()));
-            return joiner.toString();
-        };
-    }
-
-    /**
-     * Crée la fonction de désérialisation d'un {@code PublicPlayerState}.
-     *
-     * @return la fonction de désérialisation d'un {@code PublicPlayerState}
-     */
-    private static Function<String, PublicPlayerState> deserFuncPublicPlayerState() {
-        return s -> {
-            String[] elements = s.split(Pattern.quote(String.valueOf(COLL_DELIM_DEG2)), -1);
-            return new PublicPlayerState(Serdes.OF_INTEGER.deserialize(elements[0]),
-                    Serdes.OF_INTEGER.deserialize(elements[1]),
-                    Serdes.OF_LIST_OF_ROUTES.deserialize(elements[2]));
-        };
-    }
-
-    /**
-     * Crée la fonction de sérialisation d'un {@code PlayerState}.
+     * Crée le {@code Serde} d'un {@code PublicCardState}.
      *
-     * @return la fonction de sérialisation d'un {@code PlayerState}
-     */
-    private static Function<PlayerState, String> serFuncPlayerState() {
-        return playerState -> {
-            StringJoiner joiner = new StringJoiner(String.valueOf(COLL_DELIM_DEG2));
-            joiner.add(Serdes.OF_SORTED_BAG_OF_TICKETS.serialize(playerState.tickets()));
-            joiner.add(Serdes.OF_SORTED_BAG_OF_CARD.serialize(playerState.cards()));
-            joiner.add(Serdes.OF_LIST_OF_ROUTES.serialize(playerState.routes()));
-            return joiner.toString();
-
-        };
-    }
+     * @return le {@code Serde} d'un {@code PublicCardState}
+     */
+    private static Serde<PublicCardState> publicCardStateSerde() {
+        return new StreamingSerde<>() {
+            @Override
+            public void serializeTo(PublicCardState pcs, StringBuilder sb) {
+                OF_LIST_OF_CARDS.serializeTo(pcs.faceUpCards(), sb);
+                sb.append(COLL_DELIM_DEG2).append(pcs.deckSize());
+                sb.append(COLL_DELIM_DEG2).append(pcs.discardsSize());
+            }
 
-    /**
-     * Retourne la fonction de désérialisation d'un {@code PlayerState}.
-     *
-     * @return la fonction de désérialisation d'un {@code PlayerState}
-     */
-    private static Function<String, PlayerState> deserFuncPlayerState() {
-        return s -> {
-            String[] elements = s.split(Pattern.quote(String.valueOf(COLL_DELIM_DEG2)), -1);
-            return new PlayerState(Serdes.OF_SORTED_BAG_OF_TICKETS.deserialize(elements[0]),
-                    Serdes.OF_SORTED_BAG_OF_CARD.deserialize(elements[1]),
-                    Serdes.OF_LIST_OF_ROUTES.deserialize(elements[2]));
+            @Override
+            public PublicCardState deserialize(CharSequence cs, int from, int to) {
+                int end1 = indexOf(cs, COLL_DELIM_DEG2, from, to);
+                int end2 = indexOf(cs, COLL_DELIM_DEG2, end1 + 1, to);
+                return new PublicCardState(OF_LIST_OF_CARDS.deserialize(cs, from, end1),
+                        Integer.parseInt(cs, end1 + 1, end2, 10),
+                        Integer.parseInt(cs, end2 + 1, to, 10));
+            }
         };
     }
 
     /**
-     * Crée la fonction de sérialisation d'un {@code PlayerState}.
+     * Crée le {@code Serde} d'un {@code PublicPlayerState}.
      *
-     * @return la fonction de sérialisation d'un {@code PlayerState}
-     */
-    private static Function<PlayerState, String> serFuncSuppPlayerState() {
-        return playerState -> {
-            StringJoiner joiner = new StringJoiner(String.valueOf(COLL_DELIM_DEG2));
-            joiner.add(Serdes.OF_SORTED_BAG_OF_SUPP_TICKETS.serialize(playerState.tickets()));
-            joiner.add(Serdes.OF_SORTED_BAG_OF_CARD.serialize(playerState.cards()));
-            joiner.add(Serdes.OF_LIST_OF_ROUTES.serialize(playerState.routes()));
-            return joiner.toString();
+     * @return le {@code Serde} d'un {@code PublicPlayerState}
+     */
+    private static Serde<PublicPlayerState> publicPlayerStateSerde() {
+        return new StreamingSerde<>() {
+            @Override
+            public void serializeTo(PublicPlayerState pps, StringBuilder sb) {
+                sb.append(pps.ticketCount()).append(COLL_DELIM_DEG2);
+                sb.append(pps.cardCount()).append(COLL_DELIM_DEG2);
+                OF_LIST_OF_ROUTES.serializeTo(pps.routes(), sb);
+            }
 
+            @Override
+            public PublicPlayerState deserialize(CharSequence cs, int from, int to) {
+                int end1 = indexOf(cs, COLL_DELIM_DEG2, from, to);
+                int end2 = indexOf(cs, COLL_DELIM_DEG2, end1 + 1, to);
+                return new PublicPlayerState(Integer.parseInt(cs, from, end1, 10),
+                        Integer.parseInt(cs, end1 + 1, end2, 10),
+                        OF_LIST_OF_ROUTES.deserialize(cs, end2 + 1, to));
+            }
         };
     }
 
     /**
-     * Retourne la fonction de désérialisation d'un {@code PlayerState}.
+     * Crée le {@code Serde} d'un {@code PlayerState} dont les billets sont (dé)sérialisés par {@code ticketsSerde}.
      *
-     * @return la fonction de désérialisation d'un {@code PlayerState}
-     */
-    private static Function<String, PlayerState> deserFuncSuppPlayerState() {
-        return s -> {
-            String[] elements = s.split(Pattern.quote(String.valueOf(COLL_DELIM_DEG2)), -1);
-            return new PlayerState(Serdes.OF_SORTED_BAG_OF_SUPP_TICKETS.deserialize(elements[0]),
-                    Serdes.OF_SORTED_BAG_OF_CARD.deserialize(elements[1]),
-                    Serdes.OF_LIST_OF_ROUTES.deserialize(elements[2]));
-        };
-    }
+     * @param ticketsSerde le {@code Serde} des billets
+     * @return le {@code Serde} d'un {@code PlayerState}
+     */
+    private static Serde<PlayerState> playerStateSerde(Serde<SortedBag<Ticket>> ticketsSerde) {
+        return new StreamingSerde<>() {
+            @Override
+            public void serializeTo(PlayerState playerState, StringBuilder sb) {
+                ticketsSerde.serializeTo(playerState.tickets(), sb);
+                sb.append(COLL_DELIM_DEG2);
+                OF_SORTED_BAG_OF_CARD.serializeTo(playerState.cards(), sb);
+                sb.append(COLL_DELIM_DEG2);
+                OF_LIST_OF_ROUTES.serializeTo(playerState.routes(), sb);
+            }
 
-    /**
-     * Crée la fonction de sérialisation d'un {@code PublicGameState}.
-     *
-     * @return la fonction de sérialisation d'un {@code PublicGameState}
-     */
-    private static Function<PublicGameState, String> serFuncPublicGameState() {
-        return publicGameState -> {
-            StringJoiner joiner = new StringJoiner(String.valueOf(COLL_DELIM_DEG3));
-            joiner.add(Serdes.OF_INTEGER.serialize(publicGameState.ticketsCount()));
-            joiner.add(Serdes.OF_PUBLIC_CARD_STATE.serialize(publicGameState.cardState()));
-            joiner.add(Serdes.OF_PLAYER_ID.serialize(publicGameState.currentPlayerId()));
-            for (PlayerId id : PlayerId.ALL) {
-                PublicPlayerState playerState = publicGameState.playerState(id);
-                joiner.add(playerState == null ? "" : Serdes.OF_PUBLIC_PLAYER_STATE.serialize(playerState));
+            @Override
+            public PlayerState deserialize(CharSequence cs, int from, int to) {
+                int end1 = indexOf(cs, COLL_DELIM_DEG2, from, to);
+                int end2 = indexOf(cs, COLL_DELIM_DEG2, end1 + 1, to);
+                return new PlayerState(ticketsSerde.deserialize(cs, from, end1),
+                        OF_SORTED_BAG_OF_CARD.deserialize(cs, end1 + 1, end2),
+                        OF_LIST_OF_ROUTES.deserialize(cs, end2 + 1, to));
             }
-            joiner.add(publicGameState.lastPlayer() == null ?
-                    "" : Serdes.OF_PLAYER_ID.serialize(publicGameState.lastPlayer()));
-            return joiner.toString();
         };
     }
 
     /**
-     * Crée la fonction de désérialisation d'un {@code PublicGameState}.
+     * Crée le {@code Serde} d'un {@code PublicGameState}.
      *
-     * @return la fonction de désérialisation d'un {@code PublicGameState}
-     */
-    private static Function<String, PublicGameState> deserFuncPublicGameState() {
-        return s -> {
-            String[] elements = s.split(Pattern.quote(String.valueOf(COLL_DELIM_DEG3)), -1);
-            Map<PlayerId, PublicPlayerState> playerState = new EnumMap<>(PlayerId.class);
-            int playerStateStart = 3;
-            for (int i = 0; i < PlayerId.COUNT; i++) {
-                String e = elements[i + playerStateStart];
-                if (!e.isEmpty())
-                    playerState.put(PlayerId.ALL.get(i), Serdes.OF_PUBLIC_PLAYER_STATE.deserialize(e));
+     * @return le {@code Serde} d'un {@code PublicGameState}
+     */
+    private static Serde<PublicGameState> publicGameStateSerde() {
+        return new StreamingSerde<>() {
+            @Override
+            public void serializeTo(PublicGameState publicGameState, StringBuilder sb) {
+                sb.append(publicGameState.ticketsCount()).append(COLL_DELIM_DEG3);
+                OF_PUBLIC_CARD_STATE.serializeTo(publicGameState.cardState(), sb);
+                sb.append(COLL_DELIM_DEG3);
+                OF_PLAYER_ID.serializeTo(publicGameState.currentPlayerId(), sb);
+                for (PlayerId id : PlayerId.ALL) {
+                    sb.append(COLL_DELIM_DEG3);
+                    PublicPlayerState playerState = publicGameState.playerState(id);
+                    if (playerState != null)
+                        OF_PUBLIC_PLAYER_STATE.serializeTo(playerState, sb);
+                }
+                sb.append(COLL_DELIM_DEG3);
+                if (publicGameState.lastPlayer() != null)
+                    OF_PLAYER_ID.serializeTo(publicGameState.lastPlayer(), sb);
             }
 
-            String lastPlayerSer = elements[playerStateStart + PlayerId.COUNT];
-            return new PublicGameState(
-                    Serdes.OF_INTEGER.deserialize(elements[0]),
-                    Serdes.OF_PUBLIC_CARD_STATE.deserialize(elements[1]),
-                    Serdes.OF_PLAYER_ID.deserialize(elements[2]),
-                    playerState,
-                    lastPlayerSer.isEmpty() ? null : Serdes.OF_PLAYER_ID.deserialize(lastPlayerSer));
+            @Override
+            public PublicGameState deserialize(CharSequence cs, int from, int to) {
+                int end = indexOf(cs, COLL_DELIM_DEG3, from, to);
+                int ticketsCount = Integer.parseInt(cs, from, end, 10);
+
+                int start = end + 1;
+                end = indexOf(cs, COLL_DELIM_DEG3, start, to);
+                PublicCardState cardState = OF_PUBLIC_CARD_STATE.deserialize(cs, start, end);
+
+                start = end + 1;
+                end = indexOf(cs, COLL_DELIM_DEG3, start, to);
+                PlayerId currentPlayerId = OF_PLAYER_ID.deserialize(cs, start, end);
+
+                Map<PlayerId, PublicPlayerState> playerState = new EnumMap<>(PlayerId.class);
+                for (PlayerId id : PlayerId.ALL) {
+                    start = end + 1;
+                    end = indexOf(cs, COLL_DELIM_DEG3, start, to);
+                    if (start != end)
+                        playerState.put(id, OF_PUBLIC_PLAYER_STATE.deserialize(cs, start, end));
+                }
+
+                start = end + 1;
+                return new PublicGameState(ticketsCount, cardState, currentPlayerId, playerState,
+                        start == to ? null : OF_PLAYER_ID.deserialize(cs, start, to));
+            }
         };
     }
 }
@@ -0,0 +1,239 @@
+package ch.epfl.tchu.net;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static ch.epfl.tchu.net.MessageId.SESSION;
+import static ch.epfl.tchu.net.Serdes.OF_STRING;
+
+/**
+ * Serveur acceptant les clients de joueurs distants en leur attribuant une session, qui leur permet de se
+ * reconnecter s'ils perdent leur connexion en cours de partie.
+ * <p>
+ * Dès qu'un client se connecte, le serveur lui envoie un message {@code SESSION} contenant un jeton nouvellement
+ * tiré, auquel le client répond par ce même jeton s'il s'agit de sa première connexion, ou par le jeton de sa
+ * session s'il se reconnecte. Dans ce dernier cas, la nouvelle connexion remplace l'ancienne, qui est fermée, et le
+ * mandataire de la session la reprend lors de sa prochaine communication avec le client, sans que la partie soit
+ * interrompue : il lui renvoie alors l'état complet de la partie. Une session prend fin lorsque son mandataire est
+ * fermé, à la fin de la partie : le serveur refuse alors le jeton de la session, en fermant la connexion sans rien
+ * envoyer d'autre que le message {@code SESSION}, ce qui termine le client. Les connexions sont acceptées par un fil
+ * d'exécution propre au serveur, et leurs sessions négociées par des fils empruntés à un pool.
+ *
+ * @author Dylan Vairoli (326603)
+ * @author Giovanni Ranieri (326870)
+ */
+public final class SessionServer implements Closeable {
+    private static final int TOKEN_BYTES = 16;
+
+    private final ServerSocket serverSocket;
+    private final KeepAlive keepAlive;
+    private final ExecutorService handshakes;
+    private final SecureRandom random = new SecureRandom();
+    private final BlockingQueue<Session> newSessions = new LinkedBlockingQueue<>();
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * Construit un serveur écoutant sur le port {@code port}, dont les connexions sont maintenues selon les
+     * paramètres donnés, et commence à accepter les connexions des clients.
+     *
+     * @param port      le port d'écoute (0 pour un port choisi par le système)
+     * @param keepAlive les paramètres de maintien des connexions
+     * @throws UncheckedIOException en cas d'erreur d'entrée/sortie
+     */
+    public SessionServer(int port, KeepAlive keepAlive) {
+        this.keepAlive = keepAlive;
+        try {
+            this.serverSocket = new ServerSocket(port);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.handshakes = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "tchu-session");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Thread acceptor = new Thread(this::acceptConnections, "tchu-session-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Retourne le port sur lequel ce serveur écoute.
+     *
+     * @return le port d'écoute
+     */
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Attend la connexion d'un nouveau client et retourne le mandataire de sa session, qui lui propose le format de
+     * transmission donné.
+     *
+     * @param wireFormat le format de transmission proposé au client
+     * @return le mandataire du joueur distant
+     * @throws UncheckedIOException si le fil appelant est interrompu
+     */
+    public RemotePlayerProxy accept(WireFormat wireFormat) {
+        try {
+            return new RemotePlayerProxy(newSessions.take(), wireFormat);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException());
+        }
+    }
+
+    /**
+     * Ferme ce serveur : plus aucune connexion n'est acceptée, et toutes les sessions sont fermées, ainsi que leurs
+     * connexions.
+     */
+    @Override
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException ignored) {
+            // Le serveur n'accepte plus de connexions de toute manière
+        }
+        handshakes.shutdownNow();
+        sessions.values().forEach(Session::close);
+        newSessions.forEach(Session::close);
+    }
+
+    private void acceptConnections() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                handshakes.execute(() -> openSession(socket));
+            } catch (IOException | RejectedExecutionException e) {
+                // Le serveur a été fermé
+            }
+        }
+    }
+
+    private void openSession(Socket socket) {
+        StreamChannel channel;
+        try {
+            channel = new StreamChannel(socket, keepAlive);
+        } catch (UncheckedIOException e) {
+            return;
+        }
+
+        try {
+            String token = newToken();
+            MessageCodec codec = MessageCodec.of(WireFormat.TEXT, channel);
+            codec.message(SESSION).put(token, OF_STRING, BinarySerdes.OF_STRING).send();
+            String chosenToken = codec.readReply().next(OF_STRING, BinarySerdes.OF_STRING);
+
+            if (chosenToken.equals(token)) {
+                Session session = new Session(channel, keepAlive.reconnectTimeoutMillis(),
+                        () -> sessions.remove(token));
+                sessions.put(token, session);
+                newSessions.add(session);
+            } else {
+                Session session = sessions.get(chosenToken);
+                if (session == null)
+                    channel.close();
+                else
+                    session.resume(channel);
+            }
+        } catch (UncheckedIOException e) {
+            channel.close();
+        }
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Session d'un client, dont la connexion peut être remplacée lorsque le client se reconnecte.
+     */
+    static final class Session {
+        private final long reconnectTimeoutMillis;
+        private final Runnable onClose;
+        private final BlockingQueue<StreamChannel> reconnections = new LinkedBlockingQueue<>();
+        private volatile StreamChannel channel;
+        private volatile boolean closed;
+
+        private Session(StreamChannel channel, long reconnectTimeoutMillis, Runnable onClose) {
+            this.channel = channel;
+            this.reconnectTimeoutMillis = reconnectTimeoutMillis;
+            this.onClose = onClose;
+        }
+
+        /**
+         * Retourne la connexion actuelle de cette session.
+         *
+         * @return la connexion actuelle
+         */
+        StreamChannel channel() {
+            return channel;
+        }
+
+        /**
+         * Attend que le client se reconnecte, au plus pendant le délai de reconnexion, puis retourne la nouvelle
+         * connexion, qui devient celle de la session, ou {@code null} si le client ne s'est pas reconnecté à temps.
+         *
+         * @return la nouvelle connexion, ou {@code null}
+         * @throws UncheckedIOException si le fil appelant est interrompu
+         */
+        StreamChannel awaitReconnection() {
+            try {
+                StreamChannel newChannel = closed
+                        ? null
+                        : reconnections.poll(reconnectTimeoutMillis, TimeUnit.MILLISECONDS);
+                if (newChannel == null)
+                    return null;
+
+                // Seule la connexion la plus récente est utilisée, le client ayant abandonné les précédentes
+                StreamChannel newerChannel;
+                while ((newerChannel = reconnections.poll()) != null) {
+                    newChannel.close();
+                    newChannel = newerChannel;
+                }
+                channel = newChannel;
+                return newChannel;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException(new InterruptedIOException());
+            }
+        }
+
+        // Synchronisée avec close, afin qu'aucune connexion ne soit mise en file après la fin de la session
+        private synchronized void resume(StreamChannel newChannel) {
+            if (closed) {
+                newChannel.close();
+                return;
+            }
+            // Fermer l'ancienne connexion fait échouer la communication en cours du mandataire, qui reprend alors
+            // la nouvelle
+            StreamChannel oldChannel = channel;
+            reconnections.add(newChannel);
+            oldChannel.close();
+        }
+
+        /**
+         * Met fin à cette session : ses connexions sont fermées, et le client qui tente ensuite de s'y reconnecter
+         * est refusé.
+         */
+        synchronized void close() {
+            closed = true;
+            onClose.run();
+            channel.close();
+            StreamChannel newChannel;
+            while ((newChannel = reconnections.poll()) != null)
+                newChannel.close();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package ch.epfl.tchu.net;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Codage, dans chacun des formats de transmission, d'une valeur diffusée à plusieurs mandataires. Le codage de la
+ * dernière valeur est mémorisé, si bien qu'une valeur donnée successivement à tous les mandataires d'une partie —
+ * comme le fait {@link ch.epfl.tchu.game.Game} — n'est codée qu'une fois par format, quel que soit le nombre de
+ * joueurs. Les valeurs sont comparées par identité, leur codage ne dépendant que de leur contenu.
+ * <p>
+ * Une instance ne doit être partagée que par les mandataires d'une même partie : ceux de plusieurs parties
+ * s'évinceraient mutuellement de son unique entrée par format.
+ * <p>
+ * Le codage est un tableau d'octets qui n'est jamais modifié, et peut donc être partagé par tous les canaux qui
+ * l'envoient. Les instances de cette classe peuvent être utilisées par plusieurs fils d'exécution à la fois : une
+ * valeur demandée simultanément par plusieurs d'entre eux n'est codée qu'une fois, les autres attendant son codage.
+ *
+ * @author Dylan Vairoli (326603)
+ * @author Giovanni Ranieri (326870)
+ */
+final class SharedEncoding<T> {
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final MessageId id;
+    private final Serde<T> serde;
+    private final BinarySerde<T> binarySerde;
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final Entry<T>[] lastEntries = new Entry[WireFormat.ALL.size()];
+
+    private SharedEncoding(MessageId id, Serde<T> serde, BinarySerde<T> binarySerde) {
+        this.id = id;
+        this.serde = serde;
+        this.binarySerde = binarySerde;
+    }
+
+    /**
+     * Retourne le codage partagé des messages complets du type donné, dont la valeur est l'unique argument. Au
+     * format textuel, le codage inclut la fin de ligne.
+     *
+     * @param id          le type des messages
+     * @param serde       le {@code Serde} de la valeur
+     * @param binarySerde le {@code BinarySerde} de la valeur
+     * @param <T>         le type de la valeur
+     * @return le codage partagé des messages du type {@code id}
+     */
+    static <T> SharedEncoding<T> ofMessage(MessageId id, Serde<T> serde, BinarySerde<T> binarySerde) {
+        return new SharedEncoding<>(id, serde, binarySerde);
+    }
+
+    /**
+     * Retourne le codage partagé de valeurs utilisées comme argument de messages.
+     *
+     * @param serde       le {@code Serde} de la valeur
+     * @param binarySerde le {@code BinarySerde} de la valeur
+     * @param <T>         le type de la valeur
+     * @return le codage partagé des valeurs
+     */
+    static <T> SharedEncoding<T> ofValue(Serde<T> serde, BinarySerde<T> binarySerde) {
+        return new SharedEncoding<>(null, serde, binarySerde);
+    }
+
+    /**
+     * Retourne le type des messages codés, ou {@code null} s'il s'agit du codage de valeurs.
+     *
+     * @return le type des messages codés
+     */
+    MessageId id() {
+        return id;
+    }
+
+    /**
+     * Retourne le codage de la valeur donnée au format donné, qui ne doit pas être modifié.
+     *
+     * @param value  la valeur
+     * @param format le format de transmission
+     * @return le codage de {@code value} au format {@code format}
+     */
+    synchronized byte[] encode(T value, WireFormat format) {
+        Entry<T> entry = lastEntries[format.ordinal()];
+        if (entry != null && entry.value == value)
+            return entry.bytes;
+
+        byte[] bytes = format == WireFormat.TEXT ? encodeText(value) : encodeBinary(value);
+        lastEntries[format.ordinal()] = new Entry<>(value, bytes);
+        return bytes;
+    }
+
+    private byte[] encodeText(T value) {
+        StringBuilder sb = new StringBuilder();
+        if (id != null)
+            sb.append(id.name()).append(' ');
+        serde.serializeTo(value, sb);
+        if (id != null)
+            sb.append('\n');
+        return sb.toString().getBytes(US_ASCII);
+    }
+
+    // La taille du codage n'étant pas connue d'avance, il est recommencé dans un tampon plus grand si nécessaire
+    private byte[] encodeBinary(T value) {
+        for (int capacity = INITIAL_CAPACITY; ; capacity *= 2) {
+            ByteBuffer buffer = ByteBuffer.allocate(capacity);
+            try {
+                if (id != null)
+                    buffer.put((byte) id.ordinal());
+                binarySerde.write(value, buffer);
+                return Arrays.copyOf(buffer.array(), buffer.position());
+            } catch (BufferOverflowException e) {
+                // Le tampon est trop petit
+            }
+        }
+    }
+
+    private static final class Entry<T> {
+        private final T value;
+        private final byte[] bytes;
+
+        private Entry(T value, byte[] bytes) {
+            this.value = value;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.Spectator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static ch.epfl.tchu.net.Serdes.*;
+
+/**
+ * Un client de spectateur distant, qui reçoit le flot d'une partie ({@link SpectatorStream}) et le communique au
+ * spectateur donné.
+ *
+ * @author Dylan Vairoli (326603)
+ * @author Giovanni Ranieri (326870)
+ */
+public final class SpectatorClient {
+    private final Spectator spectator;
+    private final String hostName;
+    private final int port;
+
+    /**
+     * Construit le client du spectateur donné, qui se connecte au flot d'une partie à l'aide du nom d'hôte et du
+     * port d'écoute donnés.
+     *
+     * @param spectator le spectateur auquel le client communique la partie
+     * @param hostName  le nom d'hôte
+     * @param port      le port d'écoute
+     */
+    public SpectatorClient(Spectator spectator, String hostName, int port) {
+        this.spectator = spectator;
+        this.hostName = hostName;
+        this.port = port;
+    }
+
+    /**
+     * Reçoit les messages du flot jusqu'à ce que la connexion soit fermée, c-à-d jusqu'à la fin de la partie ou
+     * jusqu'à ce que le serveur déconnecte ce spectateur, et appelle pour chacun la méthode du spectateur associée à
+     * son type.
+     *
+     * @throws UncheckedIOException en cas d'erreur d'entrée/sortie
+     */
+    public void run() {
+        try (Socket socket = new Socket(hostName, port)) {
+            StreamChannel channel = new StreamChannel(socket);
+            MessageCodec codec = MessageCodec.of(WireFormat.TEXT, channel);
+            while (!channel.atEnd())
+                handleMessage(codec.readMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void handleMessage(MessageCodec.Decoder message) {
+        switch (message.id()) {
+            case SPECTATE:
+                List<String> names = message.next(OF_LIST_OF_STRINGS, BinarySerdes.OF_LIST_OF_STRINGS);
+                Map<PlayerId, String> playerNames = new EnumMap<>(PlayerId.class);
+                for (int i = 0; i < names.size(); i++)
+                    playerNames.put(PlayerId.ALL.get(i), names.get(i));
+                spectator.initPlayers(playerNames);
+                break;
+
+            case RECEIVE_INFO:
+                spectator.receiveInfo(message.next(OF_STRING, BinarySerdes.OF_STRING));
+                break;
+
+            case UPDATE_PUBLIC_STATE:
+                spectator.updateState(message.next(OF_PUBLIC_GAME_STATE, BinarySerdes.OF_PUBLIC_GAME_STATE));
+                break;
+
+            default:
+                throw new Error("Type de message (MessageId) non reconnu: " + message.id());
+        }
+    }
+}
@@ -0,0 +1,406 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.io.Closeable;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static ch.epfl.tchu.net.MessageId.*;
+import static ch.epfl.tchu.net.Serdes.*;
+
+/**
+ * Flot d'une partie diffusé à des spectateurs distants, qui ne reçoivent que les noms des joueurs, les informations
+ * et les états publics de la partie, au format textuel.
+ * <p>
+ * Chaque événement de la partie est codé une seule fois, quel que soit le nombre de spectateurs, puis déposé dans un
+ * tampon circulaire de taille bornée, dans lequel les spectateurs le lisent chacun à leur rythme. Le fil de la
+ * partie ne fait donc que déposer les événements, sans jamais attendre un spectateur : les messages sont écrits sur
+ * les prises des spectateurs par des fils empruntés à un pool, un au plus par spectateur.
+ * <p>
+ * Un spectateur qui a pris plus de retard que la taille du tampon reçoit un instantané — les noms des joueurs et le
+ * dernier état public — puis reprend la lecture du flot après cet état; les informations intermédiaires sont
+ * perdues. Un spectateur qui a pris un tel retard et dont l'écriture est de plus bloquée depuis le délai donné est
+ * déconnecté, ce qui libère le fil qui lui écrivait. Une fois le flot fermé, un spectateur dont l'écriture est
+ * bloquée depuis ce délai est déconnecté quel que soit son retard, aucun événement ne devant plus le rattraper.
+ *
+ * @author Dylan Vairoli (326603)
+ * @author Giovanni Ranieri (326870)
+ */
+public final class SpectatorStream implements Spectator, Closeable {
+    private static final Executor EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "tchu-spectator");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Vérifie les spectateurs restants une fois le flot fermé
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "tchu-spectator-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Intervalle minimal entre deux vérifications des spectateurs bloqués, une fois le flot fermé
+    private static final long MIN_STALL_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final int capacity;
+    private final long stallTimeoutNanos;
+    private final AtomicReferenceArray<Frame> frames;
+    private final List<Watcher> watchers = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean pumpScheduled = new AtomicBoolean();
+    private final AtomicInteger snapshotCount = new AtomicInteger();
+    private final AtomicInteger droppedCount = new AtomicInteger();
+
+    // Propres à ce flot, et donc à sa partie : les flots d'autres parties n'évincent pas leurs codages
+    private final SharedEncoding<List<String>> spectateMessage =
+            SharedEncoding.ofMessage(SPECTATE, OF_LIST_OF_STRINGS, BinarySerdes.OF_LIST_OF_STRINGS);
+    private final SharedEncoding<String> infoMessage =
+            SharedEncoding.ofMessage(RECEIVE_INFO, OF_STRING, BinarySerdes.OF_STRING);
+    private final SharedEncoding<PublicGameState> stateMessage =
+            SharedEncoding.ofMessage(UPDATE_PUBLIC_STATE, OF_PUBLIC_GAME_STATE, BinarySerdes.OF_PUBLIC_GAME_STATE);
+
+    // Écrit uniquement par le fil de la partie
+    private volatile long head;
+    private volatile Snapshot snapshot = new Snapshot(0, null, null);
+    private volatile boolean closed;
+
+    /**
+     * Construit un flot dont le tampon contient les {@code capacity} derniers événements de la partie, et qui
+     * déconnecte les spectateurs en retard dont l'écriture est bloquée depuis plus de {@code stallTimeoutMillis}
+     * millisecondes.
+     *
+     * @param capacity           la taille du tampon, en nombre d'événements
+     * @param stallTimeoutMillis le délai après lequel un spectateur bloqué est déconnecté, en millisecondes
+     * @throws IllegalArgumentException si la taille n'est pas strictement positive, ou si le délai est négatif
+     */
+    public SpectatorStream(int capacity, int stallTimeoutMillis) {
+        Preconditions.checkArgument(capacity > 0);
+        Preconditions.checkArgument(stallTimeoutMillis >= 0);
+        this.capacity = capacity;
+        this.stallTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(stallTimeoutMillis);
+        this.frames = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Retourne un joueur se comportant comme le joueur donné, et qui communique de plus à ce flot les noms des
+     * joueurs, les informations et les états publics qu'il reçoit. Chaque information et chaque état étant
+     * communiqués à tous les joueurs, il suffit que ce flot observe l'un d'entre eux pour suivre toute la partie.
+     *
+     * @param player le joueur observé
+     * @return le joueur observé par ce flot
+     */
+    public Player observe(Player player) {
+        return new ObservedPlayer(player, this);
+    }
+
+    /**
+     * Ajoute un spectateur communiquant au travers de la prise donnée. Il reçoit d'abord l'instantané de la partie,
+     * s'il y en a un, puis les événements suivants. Si le flot est fermé, le spectateur reçoit les derniers
+     * événements, puis sa prise est fermée.
+     *
+     * @param socket la prise du spectateur
+     * @throws UncheckedIOException en cas d'erreur d'entrée/sortie
+     */
+    public void addSpectator(Socket socket) {
+        Watcher watcher = new Watcher(new StreamChannel(socket));
+        watchers.add(watcher);
+        wake(watcher);
+    }
+
+    /**
+     * Retourne le nombre de spectateurs connectés.
+     *
+     * @return le nombre de spectateurs
+     */
+    public int spectatorCount() {
+        return watchers.size();
+    }
+
+    /**
+     * Retourne le nombre d'instantanés envoyés à des spectateurs en retard, en plus de celui qu'un spectateur reçoit
+     * lorsqu'il est ajouté.
+     *
+     * @return le nombre d'instantanés envoyés
+     */
+    public int snapshotCount() {
+        return snapshotCount.get();
+    }
+
+    /**
+     * Retourne le nombre de spectateurs déconnectés faute d'avoir lu leurs messages, ou à cause d'une erreur
+     * d'entrée/sortie.
+     *
+     * @return le nombre de spectateurs déconnectés
+     */
+    public int droppedCount() {
+        return droppedCount.get();
+    }
+
+    @Override
+    public void initPlayers(Map<PlayerId, String> playerNames) {
+        byte[] line = spectateMessage.encode(List.copyOf(playerNames.values()), WireFormat.TEXT);
+        long seq = publish(line);
+        snapshot = new Snapshot(seq + 1, line, null);
+    }
+
+    @Override
+    public void receiveInfo(String info) {
+        publish(infoMessage.encode(info, WireFormat.TEXT));
+    }
+
+    @Override
+    public void updateState(PublicGameState newState) {
+        byte[] line = stateMessage.encode(newState, WireFormat.TEXT);
+        long seq = publish(line);
+        snapshot = new Snapshot(seq + 1, snapshot.names, line);
+    }
+
+    /**
+     * Ferme ce flot à la fin de la partie : chaque spectateur reçoit les derniers événements, puis sa prise est
+     * fermée. Un spectateur dont l'écriture reste bloquée pendant le délai donné est déconnecté.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        schedulePump();
+        scheduleStallCheck();
+    }
+
+    private long publish(byte[] line) {
+        long seq = head;
+        frames.set(index(seq), new Frame(seq, line));
+        head = seq + 1;
+        schedulePump();
+        return seq;
+    }
+
+    private int index(long seq) {
+        return (int) (seq % capacity);
+    }
+
+    // Le fil de la partie ne fait que planifier le réveil des spectateurs, effectué par un fil du pool
+    private void schedulePump() {
+        if (pumpScheduled.compareAndSet(false, true))
+            EXECUTOR.execute(this::pump);
+    }
+
+    private void pump() {
+        pumpScheduled.set(false);
+        long now = System.nanoTime();
+        for (Watcher watcher : watchers) {
+            if (watcher.sending.get()) {
+                if (head - watcher.next > capacity && now - watcher.progressNanos > stallTimeoutNanos)
+                    drop(watcher);
+            } else {
+                wake(watcher);
+            }
+        }
+    }
+
+    // Plus aucun événement ne réveillant la pompe une fois le flot fermé, les spectateurs restants sont vérifiés
+    // périodiquement, jusqu'à ce qu'ils aient tous reçu les derniers événements ou aient été déconnectés
+    private void scheduleStallCheck() {
+        SCHEDULER.schedule(this::checkStalls, Math.max(stallTimeoutNanos, MIN_STALL_CHECK_NANOS),
+                TimeUnit.NANOSECONDS);
+    }
+
+    private void checkStalls() {
+        long now = System.nanoTime();
+        for (Watcher watcher : watchers) {
+            if (!watcher.sending.get())
+                wake(watcher);
+            else if (now - watcher.progressNanos > stallTimeoutNanos)
+                drop(watcher);
+        }
+        if (!watchers.isEmpty())
+            scheduleStallCheck();
+    }
+
+    private void wake(Watcher watcher) {
+        if ((watcher.next < head || closed) && watcher.sending.compareAndSet(false, true)) {
+            watcher.progressNanos = System.nanoTime();
+            EXECUTOR.execute(() -> drain(watcher));
+        }
+    }
+
+    // Écrit les événements destinés au spectateur donné jusqu'à ce qu'il soit à jour
+    private void drain(Watcher watcher) {
+        try {
+            while (true) {
+                long next = watcher.next;
+                Frame frame = next < head ? frames.get(index(next)) : null;
+                if (frame != null && frame.seq == next) {
+                    watcher.channel.writeLine(frame.line);
+                    watcher.next = next + 1;
+                    watcher.progressNanos = System.nanoTime();
+                } else if (frame != null) {
+                    // Le spectateur a été dépassé, ou vient d'être ajouté
+                    Snapshot snapshot = this.snapshot;
+                    if (snapshot.next > next) {
+                        if (next > 0)
+                            snapshotCount.incrementAndGet();
+                        snapshot.writeTo(watcher.channel);
+                    }
+                    watcher.next = Math.max(snapshot.next, head - capacity + 1);
+                } else {
+                    watcher.channel.flush();
+                    watcher.progressNanos = System.nanoTime();
+                    if (closed && watcher.next == head) {
+                        remove(watcher);
+                        return;
+                    }
+                    watcher.sending.set(false);
+                    // Un événement déposé entre-temps n'a pas pu réveiller ce spectateur
+                    if ((watcher.next >= head && !closed) || !watcher.sending.compareAndSet(false, true))
+                        return;
+                }
+            }
+        } catch (UncheckedIOException e) {
+            drop(watcher);
+        }
+    }
+
+    private void drop(Watcher watcher) {
+        if (remove(watcher))
+            droppedCount.incrementAndGet();
+    }
+
+    private boolean remove(Watcher watcher) {
+        boolean removed = watchers.remove(watcher);
+        watcher.channel.close();
+        return removed;
+    }
+
+    /**
+     * Événement de la partie, et son numéro d'ordre dans le flot.
+     */
+    private static final class Frame {
+        private final long seq;
+        private final byte[] line;
+
+        private Frame(long seq, byte[] line) {
+            this.seq = seq;
+            this.line = line;
+        }
+    }
+
+    /**
+     * Instantané de la partie : les noms des joueurs et le dernier état public, s'ils sont connus, ainsi que le
+     * numéro d'ordre de l'événement qui les suit.
+     */
+    private static final class Snapshot {
+        private final long next;
+        private final byte[] names;
+        private final byte[] state;
+
+        private Snapshot(long next, byte[] names, byte[] state) {
+            this.next = next;
+            this.names = names;
+            this.state = state;
+        }
+
+        private void writeTo(StreamChannel channel) {
+            if (names != null)
+                channel.writeLine(names);
+            if (state != null)
+                channel.writeLine(state);
+        }
+    }
+
+    /**
+     * Spectateur connecté, le numéro d'ordre du prochain événement qui lui est destiné et l'instant auquel son
+     * écriture a progressé pour la dernière fois.
+     */
+    private static final class Watcher {
+        private final StreamChannel channel;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile long next;
+        private volatile long progressNanos;
+
+        private Watcher(StreamChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * Joueur observé par un flot, auquel il communique les événements publics de la partie.
+     */
+    private static final class ObservedPlayer implements Player {
+        private final Player player;
+        private final Spectator spectator;
+
+        private ObservedPlayer(Player player, Spectator spectator) {
+            this.player = player;
+            this.spectator = spectator;
+        }
+
+        @Override
+        public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+            spectator.initPlayers(playerNames);
+            player.initPlayers(ownId, playerNames);
+        }
+
+        @Override
+        public void receiveInfo(String info) {
+            spectator.receiveInfo(info);
+            player.receiveInfo(info);
+        }
+
+        @Override
+        public void updateState(PublicGameState newState, PlayerState ownState) {
+            spectator.updateState(newState);
+            player.updateState(newState, ownState);
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+            player.setInitialTicketChoice(tickets);
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseInitialTickets() {
+            return player.chooseInitialTickets();
+        }
+
+        @Override
+        public TurnKind nextTurn() {
+            return player.nextTurn();
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+            return player.chooseTickets(options);
+        }
+
+        @Override
+        public int drawSlot() {
+            return player.drawSlot();
+        }
+
+        @Override
+        public Route claimedRoute() {
+            return player.claimedRoute();
+        }
+
+        @Override
+        public SortedBag<Card> initialClaimCards() {
+            return player.initialClaimCards();
+        }
+
+        @Override
+        public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+            return player.chooseAdditionalCards(options);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.game.*;
+
+import java.util.*;
+
+/**
+ * Calcule et applique les changements d'état d'une partie sous la forme de différences par rapport au dernier état
+ * transmis sur une connexion. Le mandataire et le client en possèdent chacun un exemplaire, qui mémorise le dernier
+ * état envoyé, respectivement reçu : les messages d'une connexion arrivant dans l'ordre de leur envoi, ces deux
+ * états sont toujours identiques lorsqu'une différence est appliquée.
+ * <p>
+ * Une différence est elle-même formée d'un état public de la partie et d'un état du joueur, qui ne contiennent que
+ * les routes ajoutées depuis le dernier état, respectivement les billets ajoutés, et sont donc (dé)sérialisés par
+ * les mêmes {@code Serde} et {@code BinarySerde} que les états complets.
+ * Les routes et les billets d'un joueur ne faisant que s'accumuler au cours d'une partie, cela suffit à reconstruire
+ * l'état complet.
+ *
+ * @author Dylan Vairoli (326603)
+ * @author Giovanni Ranieri (326870)
+ */
+final class StateDeltaCodec {
+    private final PublicDeltaCache publicDeltaCache;
+    private PublicGameState state;
+    private PlayerState ownState;
+
+    /**
+     * Construit un codec ne partageant les parties publiques de ses différences avec aucun autre.
+     */
+    StateDeltaCodec() {
+        this(new PublicDeltaCache());
+    }
+
+    /**
+     * Construit un codec partageant les parties publiques de ses différences avec les autres codecs utilisant le
+     * cache donné, en principe ceux des mandataires d'une même partie.
+     *
+     * @param publicDeltaCache le cache des parties publiques des différences
+     */
+    StateDeltaCodec(PublicDeltaCache publicDeltaCache) {
+        this.publicDeltaCache = publicDeltaCache;
+    }
+
+    /**
+     * Mémorise l'état donné, transmis en entier ou sous la forme d'une différence.
+     *
+     * @param newState le nouvel état public de la partie
+     * @param ownState le nouvel état du joueur
+     */
+    void reset(PublicGameState newState, PlayerState ownState) {
+        this.state = newState;
+        this.ownState = ownState;
+    }
+
+    /**
+     * Retourne le dernier état public de la partie transmis.
+     *
+     * @return le dernier état public de la partie transmis
+     */
+    PublicGameState state() {
+        return state;
+    }
+
+    /**
+     * Retourne le dernier état du joueur transmis.
+     *
+     * @return le dernier état du joueur transmis
+     */
+    PlayerState ownState() {
+        return ownState;
+    }
+
+    /**
+     * Retourne vrai ssi l'état donné peut s'exprimer comme une différence avec le dernier état transmis, ce qui
+     * n'est pas le cas si aucun état n'a encore été transmis, ou par exemple au début d'une nouvelle partie.
+     *
+     * @param newState    le nouvel état public de la partie
+     * @param newOwnState le nouvel état du joueur
+     * @return vrai ssi l'état donné peut être transmis sous la forme d'une différence
+     */
+    boolean canEncode(PublicGameState newState, PlayerState newOwnState) {
+        if (state == null)
+            return false;
+
+        for (PlayerId id : PlayerId.ALL) {
+            PublicPlayerState oldPlayerState = state.playerState(id);
+            PublicPlayerState newPlayerState = newState.playerState(id);
+            if ((oldPlayerState == null) != (newPlayerState == null))
+                return false;
+            if (newPlayerState != null && !isPrefix(oldPlayerState.routes(), newPlayerState.routes()))
+                return false;
+        }
+        return isPrefix(ownState.routes(), newOwnState.routes())
+                && newOwnState.tickets().contains(ownState.tickets());
+    }
+
+    /**
+     * Retourne la partie publique de la différence entre le dernier état transmis et l'état donné, qui doit pouvoir
+     * s'exprimer comme une différence. Elle ne dépend que des deux états publics, identiques pour tous les joueurs :
+     * la même instance est donc retournée à tous les codecs partageant le cache de ce codec, qui n'en calculent et
+     * n'en codent qu'une.
+     *
+     * @param newState le nouvel état public de la partie
+     * @return l'état public ne contenant que les routes ajoutées depuis le dernier état transmis
+     * @see #canEncode(PublicGameState, PlayerState)
+     */
+    PublicGameState publicDelta(PublicGameState newState) {
+        return publicDeltaCache.publicDelta(state, newState);
+    }
+
+    private static PublicGameState computePublicDelta(PublicGameState state, PublicGameState newState) {
+        Map<PlayerId, PublicPlayerState> playerStates = new EnumMap<>(PlayerId.class);
+        for (PlayerId id : PlayerId.ALL) {
+            PublicPlayerState newPlayerState = newState.playerState(id);
+            if (newPlayerState != null) {
+                playerStates.put(id, new PublicPlayerState(newPlayerState.ticketCount(), newPlayerState.cardCount(),
+                        added(state.playerState(id).routes(), newPlayerState.routes())));
+            }
+        }
+        return new PublicGameState(newState.ticketsCount(), newState.cardState(),
+                newState.currentPlayerId(), playerStates, newState.lastPlayer());
+    }
+
+    /**
+     * Retourne la partie propre au joueur de la différence entre le dernier état transmis et l'état donné, qui doit
+     * pouvoir s'exprimer comme une différence.
+     *
+     * @param newOwnState le nouvel état du joueur
+     * @return l'état du joueur ne contenant que les billets et les routes ajoutés depuis le dernier état transmis
+     * @see #canEncode(PublicGameState, PlayerState)
+     */
+    PlayerState ownDelta(PlayerState newOwnState) {
+        return new PlayerState(newOwnState.tickets().difference(ownState.tickets()), newOwnState.cards(),
+                added(ownState.routes(), newOwnState.routes()));
+    }
+
+    /**
+     * Applique la différence donnée au dernier état transmis, et mémorise l'état obtenu, que retournent ensuite
+     * {@link #state()} et {@link #ownState()}.
+     *
+     * @param publicDelta la partie publique de la différence
+     * @param ownDelta    la partie propre au joueur de la différence
+     * @throws IllegalStateException si aucun état n'a encore été transmis
+     */
+    void apply(PublicGameState publicDelta, PlayerState ownDelta) {
+        if (state == null)
+            throw new IllegalStateException("Différence reçue avant le premier état complet");
+
+        Map<PlayerId, PublicPlayerState> playerStates = new EnumMap<>(PlayerId.class);
+        for (PlayerId id : PlayerId.ALL) {
+            PublicPlayerState playerDelta = publicDelta.playerState(id);
+            if (playerDelta != null) {
+                playerStates.put(id, new PublicPlayerState(playerDelta.ticketCount(), playerDelta.cardCount(),
+                        appended(state.playerState(id).routes(), playerDelta.routes())));
+            }
+        }
+        PublicGameState newState = new PublicGameState(publicDelta.ticketsCount(), publicDelta.cardState(),
+                publicDelta.currentPlayerId(), playerStates, publicDelta.lastPlayer());
+
+        PlayerState newOwnState = new PlayerState(ownState.tickets().union(ownDelta.tickets()), ownDelta.cards(),
+                appended(ownState.routes(), ownDelta.routes()));
+
+        reset(newState, newOwnState);
+    }
+
+    private static boolean isPrefix(List<Route> prefix, List<Route> list) {
+        return prefix.size() <= list.size() && prefix.equals(list.subList(0, prefix.size()));
+    }
+
+    private static List<Route> added(List<Route> oldRoutes, List<Route> newRoutes) {
+        return newRoutes.subList(oldRoutes.size(), newRoutes.size());
+    }
+
+    private static List<Route> appended(List<Route> routes, List<Route> newRoutes) {
+        if (newRoutes.isEmpty())
+            return routes;
+        List<Route> allRoutes = new ArrayList<>(routes);
+        allRoutes.addAll(newRoutes);
+        return allRoutes;
+    }
+
+    /**
+     * Cache de la dernière partie publique de différence calculée, partagé par les codecs des mandataires d'une
+     * même partie. Il n'est pas partagé entre parties, qui s'évinceraient mutuellement de son unique entrée.
+     * Les instances de cette classe peuvent être utilisées par plusieurs fils d'exécution à la fois : une différence
+     * demandée simultanément par plusieurs codecs n'est calculée qu'une fois.
+     */
+    static final class PublicDeltaCache {
+        private PublicGameState oldState;
+        private PublicGameState newState;
+        private PublicGameState delta;
+
+        private synchronized PublicGameState publicDelta(PublicGameState oldState, PublicGameState newState) {
+            if (oldState != this.oldState || newState != this.newState) {
+                this.delta = computePublicDelta(oldState, newState);
+                this.oldState = oldState;
+                this.newState = newState;
+            }
+            return delta;
+        }
+    }
+}
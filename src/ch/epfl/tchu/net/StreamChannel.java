@@ -0,0 +1,287 @@
+package ch.epfl.tchu.net;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Canal de messages utilisant les flots (bloquants) d'une prise. En plus des messages textuels d'une ligne, il
+ * transmet des trames binaires précédées de leur longueur; les deux pouvant se succéder sur une même connexion,
+ * les flots sont lus octet par octet (au travers d'un tampon) plutôt qu'au moyen d'un {@link BufferedReader}.
+ * <p>
+ * Les messages écrits sont accumulés dans le tampon du flot de sortie, qui n'est vidé que par {@link #flush()} ou,
+ * au plus tard, {@value #FLUSH_DELAY_MILLIS} ms après l'écriture du premier message qu'il contient. Ce dernier
+ * vidage est effectué par un fil partagé par tous les canaux, qui le délègue à un autre fil afin qu'une prise
+ * bloquée ne retarde pas les autres. Un vidage n'est délégué que si le précédent a commencé, si bien qu'une prise
+ * bloquée n'occupe jamais plus d'un fil par type de tâche.
+ * <p>
+ * Si des paramètres de maintien de connexion lui sont donnés, le canal envoie de la même manière un battement de
+ * cœur à intervalle régulier. Un battement est un octet nul, qui ne peut apparaître ni dans un message textuel (en
+ * ASCII imprimable) ni comme longueur d'une trame (jamais vide); il est donc ignoré à la lecture, où il ne fait que
+ * montrer que la connexion est active.
+ *
+ * @author Dylan Vairoli (326603)
+ * @author Giovanni Ranieri (326870)
+ */
+final class StreamChannel implements MessageChannel {
+    /**
+     * Le délai maximal (en millisecondes) entre l'écriture d'un message et son envoi.
+     */
+    static final int FLUSH_DELAY_MILLIS = 10;
+
+    private static final int HEARTBEAT = 0;
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+            daemonThreads("tchu-channel-scheduler"));
+    private static final Executor EXECUTOR = Executors.newCachedThreadPool(daemonThreads("tchu-channel"));
+
+    private final Socket socket;
+    private final InputStream inputStream;
+    private final OutputStream outputStream;
+    private byte[] bytes = new byte[256];
+
+    private final ScheduledFuture<?> heartbeats;
+    // Vrai tant qu'un battement de cœur délégué à un fil n'a pas obtenu le verrou du canal
+    private final AtomicBoolean heartbeatPending = new AtomicBoolean();
+
+    // Vrai tant qu'un vidage différé n'a pas obtenu le verrou du canal; accédé uniquement en possession de ce verrou
+    private boolean flushScheduled;
+
+    /**
+     * Construit un canal utilisant les flots de la prise donnée, sans délai de lecture ni battements de cœur.
+     *
+     * @param socket la prise
+     * @throws UncheckedIOException en cas d'erreur d'entrée/sortie
+     */
+    StreamChannel(Socket socket) {
+        this(socket, null);
+    }
+
+    /**
+     * Construit un canal utilisant les flots de la prise donnée et, s'ils ne sont pas nuls, les paramètres de
+     * maintien de connexion donnés.
+     *
+     * @param socket    la prise
+     * @param keepAlive les paramètres de maintien de connexion, ou {@code null}
+     * @throws UncheckedIOException en cas d'erreur d'entrée/sortie
+     */
+    StreamChannel(Socket socket, KeepAlive keepAlive) {
+        try {
+            this.socket = socket;
+            // Les messages étant regroupés par le canal, l'algorithme de Nagle ne ferait que retarder leur envoi
+            socket.setTcpNoDelay(true);
+            if (keepAlive != null)
+                socket.setSoTimeout(keepAlive.readTimeoutMillis());
+            this.inputStream = new BufferedInputStream(socket.getInputStream());
+            this.outputStream = new BufferedOutputStream(socket.getOutputStream());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        this.heartbeats = keepAlive == null ? null : SCHEDULER.scheduleAtFixedRate(
+                () -> {
+                    if (heartbeatPending.compareAndSet(false, true))
+                        EXECUTOR.execute(this::sendHeartbeat);
+                },
+                keepAlive.heartbeatMillis(), keepAlive.heartbeatMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public synchronized void write(CharSequence message) {
+        try {
+            for (int i = 0; i < message.length(); i++)
+                outputStream.write(message.charAt(i));
+            outputStream.write('\n');
+            scheduleFlush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void writeLine(byte[] line) {
+        try {
+            outputStream.write(line);
+            scheduleFlush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        try {
+            outputStream.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String read() {
+        try {
+            int length = 0;
+            int b;
+            while ((b = inputStream.read()) != '\n') {
+                if (b < 0)
+                    throw new EOFException("La connexion est fermée");
+                if (b == HEARTBEAT)
+                    continue;
+                ensureCapacity(length + 1);
+                bytes[length++] = (byte) b;
+            }
+            if (length > 0 && bytes[length - 1] == '\r')
+                length -= 1;
+            return new String(bytes, 0, length, US_ASCII);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Écrit la trame binaire constituée des octets restants du tampon donné, précédés de leur nombre. Comme un
+     * message textuel, elle n'est envoyée qu'au prochain vidage.
+     *
+     * @param frame le tampon contenant la trame, qui doit être adossé à un tableau
+     * @throws UncheckedIOException en cas d'erreur d'entrée/sortie
+     */
+    synchronized void writeFrame(ByteBuffer frame) {
+        try {
+            int length = frame.remaining();
+            while ((length & ~0x7F) != 0) {
+                outputStream.write((length & 0x7F) | 0x80);
+                length >>>= 7;
+            }
+            outputStream.write(length);
+            outputStream.write(frame.array(), frame.arrayOffset() + frame.position(), frame.remaining());
+            scheduleFlush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Attend la prochaine trame binaire et la retourne. Le tampon retourné est réutilisé par l'appel suivant.
+     *
+     * @return un tampon dont les octets restants sont ceux de la trame reçue
+     * @throws UncheckedIOException en cas d'erreur d'entrée/sortie, si la connexion est fermée, ou si la longueur
+     *                              de la trame est invalide ou dépasse la taille maximale d'un message
+     */
+    ByteBuffer readFrame() {
+        try {
+            int length;
+            do {
+                length = 0;
+                int b;
+                int shift = 0;
+                do {
+                    // Une longueur de plus de 5 octets ne tient pas dans un int
+                    if (shift > 28)
+                        throw new IOException("Longueur de trame invalide");
+                    b = readByte();
+                    length |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while ((b & 0x80) != 0);
+            } while (length == HEARTBEAT);
+
+            if (length < 0 || length > MessageCodec.MAX_MESSAGE_SIZE)
+                throw new IOException("Message trop long");
+            ensureCapacity(length);
+            for (int read = 0; read < length; ) {
+                int count = inputStream.read(bytes, read, length - read);
+                if (count < 0)
+                    throw new EOFException("La connexion est fermée");
+                read += count;
+            }
+            return ByteBuffer.wrap(bytes, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Attend que des données soient disponibles et retourne vrai ssi la connexion a été fermée à la place.
+     *
+     * @return vrai ssi la connexion est fermée et toutes ses données ont été lues
+     * @throws UncheckedIOException en cas d'erreur d'entrée/sortie
+     */
+    boolean atEnd() {
+        try {
+            inputStream.mark(1);
+            boolean atEnd = inputStream.read() < 0;
+            inputStream.reset();
+            return atEnd;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Ferme ce canal et sa prise, et arrête ses battements de cœur. Les messages qui n'ont pas encore été envoyés
+     * sont perdus.
+     */
+    @Override
+    public void close() {
+        if (heartbeats != null)
+            heartbeats.cancel(false);
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // La prise est inutilisable de toute manière
+        }
+    }
+
+    private synchronized void sendHeartbeat() {
+        heartbeatPending.set(false);
+        try {
+            outputStream.write(HEARTBEAT);
+            flush();
+        } catch (IOException | UncheckedIOException e) {
+            // La connexion est perdue, ce que le prochain message écrit ou lu signalera
+            heartbeats.cancel(false);
+        }
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled)
+            return;
+
+        flushScheduled = true;
+        SCHEDULER.schedule(() -> EXECUTOR.execute(this::delayedFlush), FLUSH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    // Les messages écrits pendant que le vidage attend le verrou sont envoyés par ce même vidage
+    private synchronized void delayedFlush() {
+        flushScheduled = false;
+        try {
+            flush();
+        } catch (UncheckedIOException ignored) {
+            // L'erreur sera signalée lors de la prochaine utilisation du canal
+        }
+    }
+
+    private int readByte() throws IOException {
+        int b = inputStream.read();
+        if (b < 0)
+            throw new EOFException("La connexion est fermée");
+        return b;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > bytes.length)
+            bytes = Arrays.copyOf(bytes, Math.max(capacity, 2 * bytes.length));
+    }
+}
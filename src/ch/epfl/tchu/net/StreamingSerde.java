@@ -0,0 +1,47 @@
+package ch.epfl.tchu.net;
+
+/**
+ * Base des {@code Serde} qui (dé)sérialisent directement dans un bâtisseur de chaîne, respectivement à partir d'une
+ * portion de séquence de caractères, et dont les méthodes {@link #serialize(Object)} et
+ * {@link #deserialize(String)} ne sont que des cas particuliers.
+ *
+ * @author Dylan Vairoli (326603)
+ * @author Giovanni Ranieri (326870)
+ */
+abstract class StreamingSerde<E> implements Serde<E> {
+
+    /**
+     * Retourne l'index de la première occurrence du caractère donné dans la portion de la séquence comprise entre
+     * {@code from} (inclus) et {@code to} (exclus), ou {@code to} s'il n'y apparaît pas.
+     *
+     * @param cs   la séquence de caractères
+     * @param c    le caractère cherché
+     * @param from l'index du début de la portion
+     * @param to   l'index de la fin de la portion
+     * @return l'index de la première occurrence de {@code c}, ou {@code to}
+     */
+    static int indexOf(CharSequence cs, char c, int from, int to) {
+        int i = from;
+        while (i < to && cs.charAt(i) != c)
+            i += 1;
+        return i;
+    }
+
+    @Override
+    public final String serialize(E obj) {
+        StringBuilder sb = new StringBuilder();
+        serializeTo(obj, sb);
+        return sb.toString();
+    }
+
+    @Override
+    public final E deserialize(String str) {
+        return deserialize(str, 0, str.length());
+    }
+
+    @Override
+    public abstract void serializeTo(E obj, StringBuilder sb);
+
+    @Override
+    public abstract E deserialize(CharSequence cs, int from, int to);
+}
@@ -0,0 +1,27 @@
+package ch.epfl.tchu.net;
+
+import java.util.List;
+
+/**
+ * Énumération représentant les formats dans lesquels les messages peuvent être transmis entre le mandataire et
+ * le client d'un joueur distant. Le format est négocié par connexion, le format textuel étant celui par défaut.
+ *
+ * @author Dylan Vairoli (326603)
+ * @author Giovanni Ranieri (326870)
+ */
+public enum WireFormat {
+
+    /**
+     * Messages textuels d'une ligne, sérialisés par les {@link Serdes}.
+     */
+    TEXT,
+    /**
+     * Messages binaires préfixés de leur longueur, sérialisés par les {@link BinarySerdes}.
+     */
+    BINARY;
+
+    /**
+     * La liste contenant les différents formats.
+     */
+    public static final List<WireFormat> ALL = List.of(values());
+}
@@ -0,0 +1,278 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.util.*;
+
+import static ch.epfl.tchu.game.Constants.*;
+
+/**
+ * Un joueur artificiel glouton, qui décide de chacun de ses coups en quelques microsecondes : il tient à jour les
+ * plus courts chemins ({@link ShortestPaths}) entre les gares de {@link ChMap} en ne comptant que les routes qui lui
+ * sont encore accessibles, et cherche à prendre les routes libres de ceux qui relient les gares de ses billets non
+ * encore réalisés.
+ * <p>
+ * À chaque tour, il s'empare de la plus longue de ces routes s'il le peut, et tire sinon des cartes, en préférant
+ * celles, faces visibles, de la couleur d'une route voulue. Lorsque ses billets sont réalisés ou ne peuvent plus
+ * l'être, il en tire de nouveaux tant qu'il lui reste assez de wagons, et s'empare sinon de la plus longue route
+ * possible. Il ne conserve que le dernier état reçu, comme {@link RandomBot}, et peut donc jouer aussi bien dans une
+ * simulation que derrière un {@link ch.epfl.tchu.net.RemotePlayerClient}.
+ *
+ * @author Dylan Vairoli (326603)
+ * @author Giovanni Ranieri (326870)
+ */
+public final class GreedyBot implements Player {
+    private static final int MAX_CARD_COUNT = 12;
+    private static final int MIN_CAR_COUNT_FOR_TICKETS = 15;
+
+    private static final List<Route> ROUTES = ChMap.routes();
+    private static final Map<Route, Integer> ROUTE_INDICES = computeRouteIndices();
+    private static final int[] DOUBLE_ROUTES = computeDoubleRoutes();
+
+    private final Random rng;
+    // Plus courts chemins n'empruntant que les routes libres ou possédées par le joueur, ces dernières ne coûtant rien
+    private ShortestPaths paths;
+    // Index du joueur possédant chaque route, ou -1
+    private final int[] owners = new int[ROUTES.size()];
+    // Cartes utiles aux routes voulues lors du dernier tour, indexées par l'ordinal de la carte
+    private final boolean[] wantedCards = new boolean[Card.COUNT];
+
+    private PlayerId ownId;
+    private int playerCount;
+    private PublicGameState gameState;
+    private PlayerState ownState;
+    private SortedBag<Ticket> initialTickets;
+
+    private Route routeToClaim;
+    private SortedBag<Card> initialClaimCards;
+
+    /**
+     * Construit un joueur glouton, qui n'utilise le générateur aléatoire {@code rng} que pour départager les cartes
+     * faces visibles qui lui sont également utiles.
+     *
+     * @param rng le générateur aléatoire utilisé
+     */
+    public GreedyBot(Random rng) {
+        this.rng = Objects.requireNonNull(rng);
+    }
+
+    private static Map<Route, Integer> computeRouteIndices() {
+        Map<Route, Integer> routeIndices = new HashMap<>();
+        for (int i = 0; i < ROUTES.size(); i++)
+            routeIndices.put(ROUTES.get(i), i);
+        return Map.copyOf(routeIndices);
+    }
+
+    /**
+     * Retourne, pour chaque route, l'index de l'autre voie de la route double dont elle fait partie, ou -1.
+     */
+    private static int[] computeDoubleRoutes() {
+        int[] doubleRoutes = new int[ROUTES.size()];
+        Arrays.fill(doubleRoutes, -1);
+        for (int i = 0; i < ROUTES.size(); i++) {
+            for (int j = 0; j < ROUTES.size(); j++) {
+                if (i != j && ROUTES.get(i).stations().equals(ROUTES.get(j).stations()))
+                    doubleRoutes[i] = j;
+            }
+        }
+        return doubleRoutes;
+    }
+
+    @Override
+    public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+        this.ownId = ownId;
+        this.playerCount = playerNames.size();
+
+        // Le joueur peut être réutilisé pour plusieurs parties, dont l'état ne doit pas se mélanger
+        this.paths = ShortestPaths.ofChMap();
+        Arrays.fill(owners, -1);
+        Arrays.fill(wantedCards, false);
+    }
+
+    @Override
+    public void receiveInfo(String info) {
+    }
+
+    @Override
+    public void updateState(PublicGameState newState, PlayerState ownState) {
+        this.gameState = newState;
+        this.ownState = ownState;
+
+        // Les routes prises depuis l'état précédent sont répercutées sur les plus courts chemins du joueur
+        Arrays.fill(owners, -1);
+        for (PlayerId id : PlayerId.ALL) {
+            PublicPlayerState playerState = newState.playerState(id);
+            if (playerState == null)
+                continue;
+            for (Route route : playerState.routes())
+                owners[ROUTE_INDICES.get(route)] = id.ordinal();
+        }
+        for (int route = 0; route < ROUTES.size(); route++) {
+            if (owners[route] == ownId.ordinal())
+                paths.claimRoute(ROUTES.get(route));
+            else if (!isFree(route))
+                paths.removeRoute(ROUTES.get(route));
+        }
+    }
+
+    @Override
+    public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+        this.initialTickets = tickets;
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseInitialTickets() {
+        return cheapestTickets(initialTickets, INITIAL_TICKETS_COUNT - DISCARDABLE_TICKETS_COUNT);
+    }
+
+    @Override
+    public TurnKind nextTurn() {
+        Route wantedRoute = planRoutes();
+        if (wantedRoute != null)
+            return claim(wantedRoute);
+
+        boolean hasPlan = false;
+        for (boolean wanted : wantedCards)
+            hasPlan |= wanted;
+        if (!hasPlan && gameState.canDrawTickets() && ownState.carCount() >= MIN_CAR_COUNT_FOR_TICKETS)
+            return TurnKind.DRAW_TICKETS;
+
+        // Faute de mieux, le joueur prend la plus longue route possible plutôt que d'accumuler des cartes inutiles
+        if (!hasPlan || ownState.cardCount() >= MAX_CARD_COUNT || !gameState.canDrawCards()) {
+            Route longestRoute = null;
+            for (int route = 0; route < ROUTES.size(); route++) {
+                if (canClaim(route) && (longestRoute == null || ROUTES.get(route).length() > longestRoute.length()))
+                    longestRoute = ROUTES.get(route);
+            }
+            if (longestRoute != null)
+                return claim(longestRoute);
+        }
+
+        if (gameState.canDrawCards())
+            return TurnKind.DRAW_CARDS;
+        // Le joueur tire les derniers billets, ou passe son tour s'il n'en reste aucun : aucun autre coup n'est possible
+        return TurnKind.DRAW_TICKETS;
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+        // Un billet ne coûtant plus rien est déjà réalisé par les routes du joueur
+        SortedBag.Builder<Ticket> chosen = new SortedBag.Builder<>();
+        for (Ticket ticket : options) {
+            if (paths.distance(paths.cheapestTrip(ticket)) == 0)
+                chosen.add(ticket);
+        }
+        return !chosen.isEmpty() ? chosen.build() : cheapestTickets(options, 1);
+    }
+
+    @Override
+    public int drawSlot() {
+        List<Integer> wantedSlots = new ArrayList<>();
+        List<Integer> locomotiveSlots = new ArrayList<>();
+        for (int slot : FACE_UP_CARD_SLOTS) {
+            Card card = gameState.cardState().faceUpCard(slot);
+            if (card == Card.LOCOMOTIVE)
+                locomotiveSlots.add(slot);
+            else if (wantedCards[card.ordinal()])
+                wantedSlots.add(slot);
+        }
+
+        if (!wantedSlots.isEmpty())
+            return wantedSlots.get(rng.nextInt(wantedSlots.size()));
+        if (!locomotiveSlots.isEmpty())
+            return locomotiveSlots.get(0);
+        return DECK_SLOT;
+    }
+
+    @Override
+    public Route claimedRoute() {
+        return routeToClaim;
+    }
+
+    @Override
+    public SortedBag<Card> initialClaimCards() {
+        return initialClaimCards;
+    }
+
+    @Override
+    public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+        return options.get(0);
+    }
+
+    private TurnKind claim(Route route) {
+        routeToClaim = route;
+        // Les possibilités sont triées par nombre croissant de locomotives, que le joueur garde pour plus tard
+        initialClaimCards = ownState.possibleClaimCards(route).get(0);
+        return TurnKind.CLAIM_ROUTE;
+    }
+
+    /**
+     * Parcourt les plus courts chemins des billets non réalisés du joueur, note dans {@code wantedCards} les cartes
+     * utiles aux routes libres de ces chemins, et retourne la plus longue d'entre elles dont le joueur peut
+     * s'emparer, ou {@code null}.
+     */
+    private Route planRoutes() {
+        Arrays.fill(wantedCards, false);
+        Card mostFrequentCard = mostFrequentCarCard();
+
+        Route wantedRoute = null;
+        for (Ticket ticket : ownState.tickets()) {
+            Trip trip = paths.cheapestTrip(ticket);
+            int distance = paths.distance(trip);
+            if (distance == 0 || distance == ShortestPaths.UNREACHABLE)
+                continue;
+
+            for (Station from = trip.from(); from.id() != trip.to().id(); ) {
+                Station next = paths.nextStation(from, trip.to());
+                for (Route route : paths.freeRoutes(from, next)) {
+                    Color color = route.color();
+                    wantedCards[(color == null ? mostFrequentCard : Card.of(color)).ordinal()] = true;
+                    if (ownState.canClaimRoute(route)
+                            && (wantedRoute == null || route.length() > wantedRoute.length()))
+                        wantedRoute = route;
+                }
+                from = next;
+            }
+        }
+        return wantedRoute;
+    }
+
+    /**
+     * Retourne vrai ssi la route d'index donné est libre et n'est pas bloquée pour le joueur par l'autre voie de sa
+     * route double : à deux joueurs, une route double est bloquée dès que l'une de ses voies est prise; à trois,
+     * seulement pour le joueur qui possède l'autre voie.
+     */
+    private boolean isFree(int route) {
+        if (owners[route] >= 0)
+            return false;
+        int other = DOUBLE_ROUTES[route];
+        if (other < 0 || owners[other] < 0)
+            return true;
+        return playerCount > MINIMUM_PLAYER_COUNT && owners[other] != ownId.ordinal();
+    }
+
+    private boolean canClaim(int route) {
+        return isFree(route) && ownState.canClaimRoute(ROUTES.get(route));
+    }
+
+    // Carte wagon que le joueur possède en plus grand nombre, qu'il cherche à compléter pour les routes grises
+    private Card mostFrequentCarCard() {
+        CardBag cards = ownState.cardBag();
+        Card mostFrequent = Card.CARS.get(0);
+        for (Card card : Card.CARS) {
+            if (cards.countOf(card) > cards.countOf(mostFrequent))
+                mostFrequent = card;
+        }
+        return mostFrequent;
+    }
+
+    /**
+     * Retourne les {@code count} billets de {@code tickets} les moins coûteux à réaliser.
+     */
+    private SortedBag<Ticket> cheapestTickets(SortedBag<Ticket> tickets, int count) {
+        List<Ticket> sorted = new ArrayList<>(tickets.toList());
+        sorted.sort(Comparator.comparingInt(t -> paths.distance(paths.cheapestTrip(t))));
+        return SortedBag.of(sorted.subList(0, Math.min(count, sorted.size())));
+    }
+}
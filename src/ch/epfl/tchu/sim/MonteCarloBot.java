@@ -0,0 +1,582 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import static ch.epfl.tchu.game.Constants.*;
+
+/**
+ * Un joueur artificiel qui choisit ses coups par recherche arborescente Monte-Carlo sur les ensembles
+ * d'information (ISMCTS) : à chaque itération, les informations qu'il ignore (cartes et billets des autres joueurs,
+ * pioches, défausse) sont tirées au hasard de manière compatible avec ce qu'il sait de la partie, l'arbre des coups
+ * est parcouru sur cet état, puis la partie est terminée par des coups simulés rapides, joués sur un
+ * {@link MutableGameState} sans allocation à chaque coup.
+ * <p>
+ * La recherche dure le temps donné à chaque appel de {@link #nextTurn()} et au second appel de {@link #drawSlot()};
+ * elle est parallélisée à la racine : chaque tâche du pool commun construit son propre arbre, et le coup choisi est
+ * celui qui a été le plus visité par l'ensemble des tâches. Les choix de billets et de cartes additionnelles, ainsi
+ * que la première carte tirée et la route choisie, qui découlent du coup choisi par {@link #nextTurn()}, sont
+ * immédiats.
+ *
+ * @author Dylan Vairoli (326603)
+ * @author Giovanni Ranieri (326870)
+ */
+public final class MonteCarloBot implements Player {
+
+    /**
+     * Le temps de recherche par coup, en millisecondes, par défaut.
+     */
+    public static final int DEFAULT_BUDGET_MILLIS = 200;
+
+    private static final double EXPLORATION = 0.7;
+    private static final int MAX_ROLLOUT_TURNS = 300;
+    private static final int ROLLOUT_MIN_CARD_COUNT = 8;
+    private static final int ROLLOUT_MIN_ROUTE_LENGTH = 3;
+
+    private static final List<Route> ROUTES = ChMap.routes();
+    private static final int[] DOUBLE_ROUTES = computeDoubleRoutes();
+
+    // Connectivité dans laquelle toutes les gares sont reliées, qui donne la valeur maximale d'un billet
+    private static final StationConnectivity ALL_CONNECTED = (s1, s2) -> true;
+
+    // Coups d'un tour : tirer des billets, tirer des cartes (la première de l'emplacement donné), prendre une route
+    private static final int DRAW_TICKETS = 0;
+    private static final int DRAW_CARDS = 1;
+    private static final int CLAIM_ROUTE = DRAW_CARDS + FACE_UP_CARDS_COUNT + 1;
+    private static final int ACTION_COUNT = CLAIM_ROUTE + ROUTES.size();
+
+    private final Random rng;
+    private final int budgetMillis;
+    private final int parallelism;
+
+    private PlayerId ownId;
+    private List<PlayerId> playerIds;
+    private SortedBag<Ticket> tickets;
+    private PublicGameState gameState;
+    private PlayerState ownState;
+    private SortedBag<Ticket> initialTickets;
+
+    private int drawnCount;
+    private int firstSlot;
+    private Route routeToClaim;
+    private SortedBag<Card> initialClaimCards;
+
+    /**
+     * Construit un joueur cherchant ses coups pendant le temps par défaut, sur tous les processeurs disponibles, au
+     * moyen du générateur aléatoire {@code rng}.
+     *
+     * @param rng le générateur aléatoire utilisé
+     */
+    public MonteCarloBot(Random rng) {
+        this(rng, DEFAULT_BUDGET_MILLIS, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Construit un joueur cherchant chacun de ses coups pendant {@code budgetMillis} millisecondes au moyen de
+     * {@code parallelism} tâches du pool commun, dont les générateurs aléatoires sont dérivés de {@code rng}.
+     *
+     * @param rng          le générateur aléatoire utilisé
+     * @param budgetMillis le temps de recherche par coup, en millisecondes
+     * @param parallelism  le nombre de recherches parallèles
+     * @throws IllegalArgumentException si {@code budgetMillis} est négatif ou si {@code parallelism} n'est pas
+     *                                  strictement positif
+     */
+    public MonteCarloBot(Random rng, int budgetMillis, int parallelism) {
+        Preconditions.checkArgument(budgetMillis >= 0);
+        Preconditions.checkArgument(parallelism > 0);
+
+        this.rng = Objects.requireNonNull(rng);
+        this.budgetMillis = budgetMillis;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Retourne, pour chaque route, l'index de l'autre voie de la route double dont elle fait partie, ou -1.
+     */
+    private static int[] computeDoubleRoutes() {
+        int[] doubleRoutes = new int[ROUTES.size()];
+        Arrays.fill(doubleRoutes, -1);
+        for (int i = 0; i < ROUTES.size(); i++) {
+            for (int j = 0; j < ROUTES.size(); j++) {
+                if (i != j && ROUTES.get(i).stations().equals(ROUTES.get(j).stations()))
+                    doubleRoutes[i] = j;
+            }
+        }
+        return doubleRoutes;
+    }
+
+    @Override
+    public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+        this.ownId = ownId;
+        this.playerIds = List.copyOf(new TreeSet<>(playerNames.keySet()));
+        this.tickets = SortedBag.of(playerIds.size() == MINIMUM_PLAYER_COUNT
+                ? ChMap.tickets()
+                : ChMap.supplementaryTickets());
+    }
+
+    @Override
+    public void receiveInfo(String info) {
+    }
+
+    @Override
+    public void updateState(PublicGameState newState, PlayerState ownState) {
+        this.gameState = newState;
+        this.ownState = ownState;
+    }
+
+    @Override
+    public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+        this.initialTickets = tickets;
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseInitialTickets() {
+        // Les billets rapportant le moins de points sont les plus courts, donc les plus faciles à réaliser
+        List<Ticket> sorted = new ArrayList<>(initialTickets.toList());
+        sorted.sort(Comparator.comparingInt(MonteCarloBot::maxPoints));
+        return SortedBag.of(sorted.subList(0, INITIAL_TICKETS_COUNT - DISCARDABLE_TICKETS_COUNT));
+    }
+
+    @Override
+    public TurnKind nextTurn() {
+        int action = search(false);
+        drawnCount = 0;
+        if (action == DRAW_TICKETS)
+            return TurnKind.DRAW_TICKETS;
+
+        if (action < CLAIM_ROUTE) {
+            firstSlot = action - DRAW_CARDS + DECK_SLOT;
+            return TurnKind.DRAW_CARDS;
+        }
+
+        routeToClaim = ROUTES.get(action - CLAIM_ROUTE);
+        initialClaimCards = claimCards(routeToClaim, ownState.cardBag()).toSortedBag();
+        return TurnKind.CLAIM_ROUTE;
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+        // Les billets déjà réalisés sont gardés, sinon le plus facile d'entre eux
+        StationPartition.Builder connectivityBuilder = new StationPartition.Builder(ChMap.stations().size());
+        for (Route route : ownState.routes())
+            connectivityBuilder.connect(route.station1(), route.station2());
+        StationPartition connectivity = connectivityBuilder.build();
+
+        SortedBag.Builder<Ticket> chosen = new SortedBag.Builder<>();
+        for (Ticket ticket : options) {
+            if (ticket.points(connectivity) > 0)
+                chosen.add(ticket);
+        }
+        if (chosen.isEmpty())
+            chosen.add(options.stream().min(Comparator.comparingInt(MonteCarloBot::maxPoints)).orElseThrow());
+        return chosen.build();
+    }
+
+    @Override
+    public int drawSlot() {
+        drawnCount += 1;
+        return drawnCount == 1 ? firstSlot : search(true) - DRAW_CARDS + DECK_SLOT;
+    }
+
+    @Override
+    public Route claimedRoute() {
+        return routeToClaim;
+    }
+
+    @Override
+    public SortedBag<Card> initialClaimCards() {
+        return initialClaimCards;
+    }
+
+    @Override
+    public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+        // Les options sont triées par nombre croissant de locomotives
+        return options.get(0);
+    }
+
+    private static int maxPoints(Ticket ticket) {
+        return ticket.points(ALL_CONNECTED);
+    }
+
+    /**
+     * Cherche le meilleur coup pour l'état actuel et le retourne; si {@code secondDraw} est vrai, le joueur a déjà
+     * tiré une carte et les seuls coups possibles sont les tirages de cartes, désignés par l'emplacement tiré. Le
+     * meilleur coup est le plus visité, ou, à visites égales, celui de meilleure récompense moyenne, ce qui importe
+     * lorsque le temps ne permet de visiter chaque coup qu'une fois.
+     */
+    private int search(boolean secondDraw) {
+        long deadline = System.nanoTime() + budgetMillis * 1_000_000L;
+        List<Callable<Node>> searches = new ArrayList<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            Random searchRng = new Random(rng.nextLong());
+            searches.add(() -> new Search(searchRng, secondDraw).run(deadline));
+        }
+
+        int[] visits = new int[ACTION_COUNT];
+        double[] rewards = new double[ACTION_COUNT];
+        try {
+            for (Future<Node> result : ForkJoinPool.commonPool().invokeAll(searches)) {
+                for (Node child : result.get().children) {
+                    visits[child.action] += child.visits;
+                    rewards[child.action] += child.reward;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+
+        int best = -1;
+        int ties = 0;
+        for (int a = 0; a < ACTION_COUNT; a++) {
+            if (visits[a] == 0)
+                continue;
+            int comparison = best == -1 ? 1 : Integer.compare(visits[a], visits[best]);
+            if (comparison == 0)
+                comparison = Double.compare(rewards[a] / visits[a], rewards[best] / visits[best]);
+            if (comparison > 0) {
+                best = a;
+                ties = 1;
+            } else if (comparison == 0 && rng.nextInt(++ties) == 0) {
+                best = a;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Retourne les cartes, utilisant le moins de locomotives possible, avec lesquelles s'emparer de la route donnée.
+     */
+    private static CardBag claimCards(Route route, CardBag cards) {
+        for (CardBag claimCards : route.possibleClaimCardBags()) {
+            if (cards.contains(claimCards))
+                return claimCards;
+        }
+        throw new IllegalArgumentException();
+    }
+
+    /**
+     * Nœud de l'arbre de recherche, atteint en jouant le coup {@code action}, joué par le joueur d'index
+     * {@code player}. Sa disponibilité est le nombre de fois que ce coup était possible lorsque son parent a été
+     * traversé.
+     */
+    private static final class Node {
+        private final Node parent;
+        private final int action;
+        private final int player;
+        private final List<Node> children = new ArrayList<>();
+        private int visits;
+        private int availability;
+        private double reward;
+
+        private Node(Node parent, int action, int player) {
+            this.parent = parent;
+            this.action = action;
+            this.player = player;
+        }
+
+        private Node child(int action) {
+            for (Node child : children) {
+                if (child.action == action)
+                    return child;
+            }
+            return null;
+        }
+
+        private double score() {
+            return reward / visits + EXPLORATION * Math.sqrt(Math.log(availability) / visits);
+        }
+    }
+
+    /**
+     * Une recherche, menée par une seule tâche sur son propre arbre.
+     */
+    private final class Search {
+        private final Random rng;
+        private final boolean secondDraw;
+        private final Node root = new Node(null, -1, -1);
+        private final int[] actions = new int[ACTION_COUNT];
+        private final double[] rewards = new double[playerIds.size()];
+
+        private Search(Random rng, boolean secondDraw) {
+            this.rng = rng;
+            this.secondDraw = secondDraw;
+        }
+
+        /**
+         * Itère jusqu'à l'échéance donnée (au moins une fois) et retourne la racine de l'arbre, dont les enfants
+         * sont les coups essayés.
+         */
+        private Node run(long deadline) {
+            do {
+                iterate();
+            } while (System.nanoTime() < deadline);
+            return root;
+        }
+
+        private void iterate() {
+            MutableGameState state = MutableGameState.sampled(gameState, ownId, ownState, tickets, rng);
+            Node node = root;
+            boolean ended = false;
+            boolean drawOnly = secondDraw;
+            int turnCount = 0;
+
+            // Sélection et expansion
+            while (!ended) {
+                int player = playerIds.indexOf(state.currentPlayerId());
+                int count = drawOnly ? drawActions(state) : legalActions(state, player);
+                Node best = null;
+                int untried = 0;
+                int untriedAction = -1;
+                for (int i = 0; i < count; i++) {
+                    Node child = node.child(actions[i]);
+                    if (child == null) {
+                        untried += 1;
+                        if (rng.nextInt(untried) == 0)
+                            untriedAction = actions[i];
+                    } else {
+                        child.availability += 1;
+                        if (best == null || child.score() > best.score())
+                            best = child;
+                    }
+                }
+
+                if (untried > 0) {
+                    Node child = new Node(node, untriedAction, player);
+                    child.availability = 1;
+                    node.children.add(child);
+                    node = child;
+                } else {
+                    node = best;
+                }
+                ended = playTurn(state, node.action, drawOnly);
+                drawOnly = false;
+                turnCount += 1;
+                if (untried > 0)
+                    break;
+            }
+
+            // Simulation
+            while (!ended && turnCount < MAX_ROLLOUT_TURNS) {
+                ended = playTurn(state, rolloutAction(state), false);
+                turnCount += 1;
+            }
+
+            // Rétropropagation
+            computeRewards(state);
+            for (; node != root; node = node.parent) {
+                node.visits += 1;
+                node.reward += rewards[node.player];
+            }
+            root.visits += 1;
+        }
+
+        /**
+         * Place les coups possibles du joueur courant dans {@code actions} et retourne leur nombre; si aucun coup
+         * n'est possible, le joueur tire des billets, même s'il n'en reste plus assez, ce qui revient à passer.
+         */
+        private int legalActions(MutableGameState state, int player) {
+            int count = 0;
+            if (state.ticketsCount() >= IN_GAME_TICKETS_COUNT)
+                actions[count++] = DRAW_TICKETS;
+            if (state.canDrawCards())
+                count = drawActions(state, count);
+
+            CardBag cards = state.cards(state.currentPlayerId());
+            int carCount = state.carCount(state.currentPlayerId());
+            for (int r = 0; r < ROUTES.size(); r++) {
+                if (canClaimRoute(state, player, r, cards, carCount))
+                    actions[count++] = CLAIM_ROUTE + r;
+            }
+
+            if (count == 0)
+                actions[count++] = DRAW_TICKETS;
+            return count;
+        }
+
+        private int drawActions(MutableGameState state) {
+            return drawActions(state, 0);
+        }
+
+        private int drawActions(MutableGameState state, int count) {
+            for (int slot = DECK_SLOT; slot < FACE_UP_CARDS_COUNT; slot++)
+                actions[count++] = DRAW_CARDS + slot - DECK_SLOT;
+            return count;
+        }
+
+        /**
+         * Retourne le coup joué par la politique de simulation : s'emparer de la plus longue route possible si elle
+         * est assez longue, si le joueur a assez de cartes ou s'il ne peut pas en tirer, sinon tirer des cartes.
+         */
+        private int rolloutAction(MutableGameState state) {
+            int player = playerIds.indexOf(state.currentPlayerId());
+            CardBag cards = state.cards(state.currentPlayerId());
+            int carCount = state.carCount(state.currentPlayerId());
+
+            int bestRoute = -1;
+            int ties = 0;
+            for (int r = 0; r < ROUTES.size(); r++) {
+                if (!canClaimRoute(state, player, r, cards, carCount))
+                    continue;
+                int length = ROUTES.get(r).length();
+                int bestLength = bestRoute == -1 ? 0 : ROUTES.get(bestRoute).length();
+                if (length > bestLength) {
+                    bestRoute = r;
+                    ties = 1;
+                } else if (length == bestLength && rng.nextInt(++ties) == 0) {
+                    bestRoute = r;
+                }
+            }
+
+            boolean canDrawCards = state.canDrawCards();
+            if (bestRoute != -1 && (!canDrawCards
+                    || ROUTES.get(bestRoute).length() >= ROLLOUT_MIN_ROUTE_LENGTH
+                    || cards.size() >= ROLLOUT_MIN_CARD_COUNT))
+                return CLAIM_ROUTE + bestRoute;
+            if (canDrawCards)
+                return DRAW_CARDS + rng.nextInt(FACE_UP_CARDS_COUNT + 1);
+            return DRAW_TICKETS;
+        }
+
+        /**
+         * Joue le coup donné pour le joueur courant et termine son tour; si {@code drawOnly} est vrai, le joueur a
+         * déjà tiré une carte et ne tire que celle désignée par le coup. Retourne vrai ssi la partie est terminée.
+         */
+        private boolean playTurn(MutableGameState state, int action, boolean drawOnly) {
+            if (action == DRAW_TICKETS) {
+                int drawnCount = Math.min(IN_GAME_TICKETS_COUNT, state.ticketsCount());
+                int easiest = 0;
+                for (int i = 1; i < drawnCount; i++) {
+                    if (maxPoints(state.topTicket(i)) < maxPoints(state.topTicket(easiest)))
+                        easiest = i;
+                }
+                state.chooseAdditionalTickets(drawnCount, drawnCount == 0 ? 0 : 1 << easiest);
+            } else if (action < CLAIM_ROUTE) {
+                drawCard(state, action - DRAW_CARDS + DECK_SLOT);
+                if (!drawOnly)
+                    drawCard(state, rng.nextInt(FACE_UP_CARDS_COUNT + 1) + DECK_SLOT);
+            } else {
+                claimRoute(state, ROUTES.get(action - CLAIM_ROUTE));
+            }
+
+            boolean ended = state.lastPlayer() == state.currentPlayerId();
+            state.nextTurn();
+            return ended;
+        }
+
+        private void drawCard(MutableGameState state, int slot) {
+            state.recreateCardsDeckIfNeeded(rng);
+            if (state.deckSize() == 0)
+                return;
+            if (slot == DECK_SLOT)
+                state.drawBlindCard();
+            else
+                state.drawFaceUpCard(slot);
+        }
+
+        /**
+         * Fait s'emparer le joueur courant de la route donnée, comme le ferait {@link Game}; dans le cas d'un
+         * tunnel, les cartes additionnelles sont posées si possible, en utilisant le moins de locomotives possible.
+         */
+        private void claimRoute(MutableGameState state, Route route) {
+            CardBag cards = state.cards(state.currentPlayerId());
+            CardBag claimCards = claimCards(route, cards);
+            if (route.level() == Route.Level.OVERGROUND) {
+                state.claimRoute(route, claimCards);
+                return;
+            }
+
+            Card claimCard = Card.LOCOMOTIVE;
+            for (Card car : Card.CARS) {
+                if (claimCards.countOf(car) > 0)
+                    claimCard = car;
+            }
+
+            CardBag drawnCards = CardBag.EMPTY;
+            int additionalCount = 0;
+            for (int i = 0; i < ADDITIONAL_TUNNEL_CARDS; i++) {
+                state.recreateCardsDeckIfNeeded(rng);
+                if (state.deckSize() == 0)
+                    break;
+                Card card = state.topCard();
+                state.removeTopCard();
+                drawnCards = drawnCards.with(card);
+                if (card == Card.LOCOMOTIVE || card == claimCard)
+                    additionalCount += 1;
+            }
+
+            if (additionalCount == 0) {
+                state.claimRoute(route, claimCards);
+            } else {
+                CardBag remaining = cards.difference(claimCards);
+                int locomotives = remaining.countOf(Card.LOCOMOTIVE);
+                int cars = claimCard == Card.LOCOMOTIVE ? 0 : Math.min(additionalCount, remaining.countOf(claimCard));
+                if (cars + locomotives >= additionalCount) {
+                    CardBag additionalCards = claimCard == Card.LOCOMOTIVE
+                            ? CardBag.of(additionalCount, Card.LOCOMOTIVE)
+                            : CardBag.of(cars, claimCard, additionalCount - cars, Card.LOCOMOTIVE);
+                    state.claimRoute(route, claimCards.union(additionalCards));
+                }
+            }
+            state.discard(drawnCards);
+        }
+
+        /**
+         * Retourne vrai ssi le joueur d'index {@code player} peut s'emparer de la route d'index {@code route} : elle
+         * doit être libre, il doit avoir assez de wagons et de cartes, et l'autre voie d'une route double ne doit
+         * pas être prise (à deux joueurs) ou lui appartenir (à trois joueurs).
+         */
+        private boolean canClaimRoute(MutableGameState state, int player, int route, CardBag cards, int carCount) {
+            Route r = ROUTES.get(route);
+            if (carCount < r.length() || state.routeOwner(r) != null || !r.canBeClaimedWith(cards))
+                return false;
+
+            int other = DOUBLE_ROUTES[route];
+            if (other == -1)
+                return true;
+            PlayerId otherOwner = state.routeOwner(ROUTES.get(other));
+            return playerIds.size() == MINIMUM_PLAYER_COUNT
+                    ? otherOwner == null
+                    : otherOwner != playerIds.get(player);
+        }
+
+        /**
+         * Calcule la récompense de chaque joueur à la fin de la simulation : la part de la victoire qui lui revient,
+         * le bonus du plus long chemin compris.
+         */
+        private void computeRewards(MutableGameState state) {
+            int[] points = new int[playerIds.size()];
+            int[] trailLengths = new int[playerIds.size()];
+            int maxTrailLength = 0;
+            for (int p = 0; p < points.length; p++) {
+                points[p] = state.finalPoints(playerIds.get(p));
+                trailLengths[p] = state.longestTrail(playerIds.get(p)).length();
+                maxTrailLength = Math.max(maxTrailLength, trailLengths[p]);
+            }
+
+            int maxPoints = Integer.MIN_VALUE;
+            for (int p = 0; p < points.length; p++) {
+                if (trailLengths[p] == maxTrailLength)
+                    points[p] += LONGEST_TRAIL_BONUS_POINTS;
+                maxPoints = Math.max(maxPoints, points[p]);
+            }
+
+            int winnerCount = 0;
+            for (int p : points) {
+                if (p == maxPoints)
+                    winnerCount += 1;
+            }
+            for (int p = 0; p < points.length; p++)
+                rewards[p] = points[p] == maxPoints ? 1d / winnerCount : 0;
+        }
+    }
+}
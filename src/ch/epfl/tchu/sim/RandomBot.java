@@ -0,0 +1,157 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.util.*;
+
+import static ch.epfl.tchu.game.Constants.*;
+
+/**
+ * Un joueur artificiel qui joue au hasard parmi les coups autorisés, en privilégiant la prise de routes.
+ * Il ne conserve que le dernier état reçu et ignore les informations, ce qui le rend assez léger pour être utilisé
+ * dans des simulations de très nombreuses parties. Son comportement ne dépend que de son générateur aléatoire.
+ *
+ * @author Dylan Vairoli (326603)
+ * @author Giovanni Ranieri (326870)
+ */
+public final class RandomBot implements Player {
+    private static final int DRAW_TICKETS_ODDS = 20;
+    private static final int MIN_CARD_COUNT = 8;
+
+    private final Random rng;
+    private final List<Route> routes;
+
+    private PlayerId ownId;
+    private int playerCount;
+    private PublicGameState gameState;
+    private PlayerState ownState;
+    private SortedBag<Ticket> initialTickets;
+
+    private Route routeToClaim;
+    private SortedBag<Card> initialClaimCards;
+
+    /**
+     * Construit un joueur jouant au hasard sur le réseau de tCHu, au moyen du générateur aléatoire {@code rng}.
+     *
+     * @param rng le générateur aléatoire utilisé
+     */
+    public RandomBot(Random rng) {
+        this(rng, ChMap.routes());
+    }
+
+    /**
+     * Construit un joueur jouant au hasard sur le réseau formé des routes {@code routes}, au moyen du générateur
+     * aléatoire {@code rng}.
+     *
+     * @param rng    le générateur aléatoire utilisé
+     * @param routes les routes du réseau
+     */
+    public RandomBot(Random rng, List<Route> routes) {
+        this.rng = Objects.requireNonNull(rng);
+        this.routes = List.copyOf(routes);
+    }
+
+    @Override
+    public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+        this.ownId = ownId;
+        this.playerCount = playerNames.size();
+    }
+
+    @Override
+    public void receiveInfo(String info) {
+    }
+
+    @Override
+    public void updateState(PublicGameState newState, PlayerState ownState) {
+        this.gameState = newState;
+        this.ownState = ownState;
+    }
+
+    @Override
+    public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+        this.initialTickets = tickets;
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseInitialTickets() {
+        int minCount = INITIAL_TICKETS_COUNT - 2;
+        return randomSubset(initialTickets, minCount + rng.nextInt(initialTickets.size() - minCount + 1));
+    }
+
+    @Override
+    public TurnKind nextTurn() {
+        // Tirer des billets n'est possible que s'il en reste assez pour en proposer le nombre habituel
+        boolean canDrawTickets = gameState.ticketsCount() >= IN_GAME_TICKETS_COUNT;
+        if (canDrawTickets && rng.nextInt(DRAW_TICKETS_ODDS) == 0)
+            return TurnKind.DRAW_TICKETS;
+
+        List<Route> claimableRoutes = claimableRoutes();
+        if (!claimableRoutes.isEmpty() && (ownState.cardCount() >= MIN_CARD_COUNT || !gameState.canDrawCards())) {
+            routeToClaim = claimableRoutes.get(rng.nextInt(claimableRoutes.size()));
+            List<SortedBag<Card>> claimCards = ownState.possibleClaimCards(routeToClaim);
+            initialClaimCards = claimCards.get(rng.nextInt(claimCards.size()));
+            return TurnKind.CLAIM_ROUTE;
+        }
+
+        if (gameState.canDrawCards())
+            return TurnKind.DRAW_CARDS;
+        // Le joueur tire les derniers billets, ou passe son tour s'il n'en reste aucun : aucun autre coup n'est possible
+        return TurnKind.DRAW_TICKETS;
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+        return randomSubset(options, 1 + rng.nextInt(options.size()));
+    }
+
+    @Override
+    public int drawSlot() {
+        return rng.nextInt(FACE_UP_CARDS_COUNT + 1) - 1;
+    }
+
+    @Override
+    public Route claimedRoute() {
+        return routeToClaim;
+    }
+
+    @Override
+    public SortedBag<Card> initialClaimCards() {
+        return initialClaimCards;
+    }
+
+    @Override
+    public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+        return options.get(rng.nextInt(options.size()));
+    }
+
+    /**
+     * Retourne les routes dont ce joueur peut actuellement s'emparer, en tenant compte des routes doubles : à deux
+     * joueurs, une route double est bloquée dès que l'une de ses voies est prise; à trois, seulement pour le joueur
+     * qui possède l'autre voie.
+     */
+    private List<Route> claimableRoutes() {
+        Set<Route> claimedRoutes = new HashSet<>(gameState.claimedRoutes());
+        List<Route> blockingRoutes = playerCount == MINIMUM_PLAYER_COUNT
+                ? gameState.claimedRoutes()
+                : gameState.playerState(ownId).routes();
+        Set<List<Station>> blockedStations = new HashSet<>();
+        for (Route route : blockingRoutes)
+            blockedStations.add(route.stations());
+
+        List<Route> claimableRoutes = new ArrayList<>();
+        for (Route route : routes) {
+            if (!claimedRoutes.contains(route)
+                    && !blockedStations.contains(route.stations())
+                    && ownState.canClaimRoute(route))
+                claimableRoutes.add(route);
+        }
+        return claimableRoutes;
+    }
+
+    private <E extends Comparable<E>> SortedBag<E> randomSubset(SortedBag<E> bag, int size) {
+        List<E> elements = new ArrayList<>(bag.toList());
+        Collections.shuffle(elements, rng);
+        return SortedBag.of(elements.subList(0, size));
+    }
+}
@@ -0,0 +1,137 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static ch.epfl.tchu.game.Constants.MINIMUM_PLAYER_COUNT;
+
+/**
+ * Simulateur de parties de tCHu sans interface graphique, jouées par des joueurs artificiels.
+ * Chaque partie est entièrement déterminée par sa graine : le générateur de la partie et ceux des joueurs en sont
+ * dérivés, si bien que {@link #play(long)} rejoue à l'identique n'importe quelle partie simulée.
+ * Un simulateur est immuable et peut jouer plusieurs parties en parallèle, pour autant que ses fabriques de joueurs
+ * le permettent.
+ *
+ * @author Dylan Vairoli (326603)
+ * @author Giovanni Ranieri (326870)
+ */
+public final class Simulator {
+
+    /**
+     * Le nombre maximal de tours d'une partie simulée, par défaut.
+     */
+    public static final int DEFAULT_MAX_TURN_COUNT = 1_000;
+
+    private static final int DEFAULT_GAME_COUNT = 10_000;
+
+    private final List<Function<Random, Player>> bots;
+    private final boolean informed;
+    private final int maxTurnCount;
+    private final SortedBag<Ticket> tickets;
+    private final Map<PlayerId, String> playerNames;
+
+    /**
+     * Construit un simulateur dont les parties opposent les joueurs créés par les fabriques {@code bots}, le i-ème
+     * jouant avec l'identité {@code PlayerId.ALL.get(i)}; les textes décrivant le déroulement des parties ne sont pas
+     * générés.
+     *
+     * @param bots les fabriques des joueurs, recevant chacune le générateur aléatoire de son joueur
+     * @throws IllegalArgumentException s'il n'y a pas entre 2 et {@link PlayerId#COUNT} fabriques
+     */
+    public Simulator(List<Function<Random, Player>> bots) {
+        this(bots, false, DEFAULT_MAX_TURN_COUNT);
+    }
+
+    /**
+     * Construit un simulateur dont les parties opposent les joueurs créés par les fabriques {@code bots}, le i-ème
+     * jouant avec l'identité {@code PlayerId.ALL.get(i)}, et durent au plus {@code maxTurnCount} tours.
+     *
+     * @param bots         les fabriques des joueurs, recevant chacune le générateur aléatoire de son joueur
+     * @param informed     vrai ssi les joueurs doivent recevoir les textes décrivant le déroulement des parties
+     * @param maxTurnCount le nombre maximal de tours d'une partie
+     * @throws IllegalArgumentException s'il n'y a pas entre 2 et {@link PlayerId#COUNT} fabriques, ou si
+     *                                  {@code maxTurnCount} n'est pas strictement positif
+     */
+    public Simulator(List<Function<Random, Player>> bots, boolean informed, int maxTurnCount) {
+        Preconditions.checkArgument(MINIMUM_PLAYER_COUNT <= bots.size() && bots.size() <= PlayerId.COUNT);
+        Preconditions.checkArgument(maxTurnCount > 0);
+
+        this.bots = List.copyOf(bots);
+        this.informed = informed;
+        this.maxTurnCount = maxTurnCount;
+        this.tickets = SortedBag.of(bots.size() == MINIMUM_PLAYER_COUNT
+                ? ChMap.tickets()
+                : ChMap.supplementaryTickets());
+
+        Map<PlayerId, String> playerNames = new EnumMap<>(PlayerId.class);
+        for (int i = 0; i < bots.size(); i++)
+            playerNames.put(PlayerId.ALL.get(i), "Joueur " + (i + 1));
+        this.playerNames = Collections.unmodifiableMap(playerNames);
+    }
+
+    /**
+     * Joue la partie de graine {@code seed} et retourne son résultat. Deux appels avec la même graine jouent
+     * exactement la même partie, pour autant que les joueurs ne dépendent que de leur générateur aléatoire.
+     *
+     * @param seed la graine de la partie
+     * @return le résultat de la partie
+     */
+    public GameResult play(long seed) {
+        Random seeds = new Random(seed);
+        Random gameRng = new Random(seeds.nextLong());
+
+        // EnumMap, et non Map.of, dont l'ordre d'itération varie d'une exécution à l'autre
+        Map<PlayerId, Player> players = new EnumMap<>(PlayerId.class);
+        for (int i = 0; i < bots.size(); i++)
+            players.put(PlayerId.ALL.get(i), bots.get(i).apply(new Random(seeds.nextLong())));
+
+        return Game.simulate(players, playerNames, tickets, gameRng, informed, maxTurnCount);
+    }
+
+    /**
+     * Joue les {@code gameCount} parties de graines {@code firstSeed}, {@code firstSeed + 1}, etc., transmet leur
+     * résultat à {@code results} dans cet ordre et retourne le nombre de parties jouées par seconde.
+     *
+     * @param firstSeed la graine de la première partie
+     * @param gameCount le nombre de parties à jouer
+     * @param results   le destinataire des résultats
+     * @return le nombre de parties jouées par seconde
+     * @throws IllegalArgumentException si {@code gameCount} n'est pas strictement positif
+     */
+    public double run(long firstSeed, int gameCount, Consumer<GameResult> results) {
+        Preconditions.checkArgument(gameCount > 0);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < gameCount; i++)
+            results.accept(play(firstSeed + i));
+        long elapsed = Math.max(1, System.nanoTime() - start);
+
+        return gameCount * 1e9 / elapsed;
+    }
+
+    /**
+     * Simule des parties entre deux joueurs jouant au hasard et affiche le nombre de parties jouées par seconde.
+     * Les arguments optionnels sont le nombre de parties et la graine de la première partie.
+     *
+     * @param args le nombre de parties et la graine de la première partie (optionnels)
+     */
+    public static void main(String[] args) {
+        int gameCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAME_COUNT;
+        long firstSeed = args.length > 1 ? Long.parseLong(args[1]) : 0;
+
+        Simulator simulator = new Simulator(List.of(RandomBot::new, RandomBot::new));
+        int[] incomplete = new int[1];
+        double gamesPerSecond = simulator.run(firstSeed, gameCount, result -> {
+            if (!result.isComplete())
+                incomplete[0]++;
+        });
+
+        System.out.printf("%d parties (dont %d interrompues) : %.0f parties/s%n",
+                gameCount, incomplete[0], gamesPerSecond);
+    }
+}
@@ -0,0 +1,340 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.game.GameResult;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static ch.epfl.tchu.game.Constants.MINIMUM_PLAYER_COUNT;
+
+/**
+ * Tournoi entre joueurs artificiels : toutes les combinaisons (avec répétition) de joueurs s'affrontent sur le même
+ * nombre de parties, jouées en parallèle au moyen d'un {@link ForkJoinPool}. Les parties d'une combinaison ont pour
+ * graines {@code firstSeed}, {@code firstSeed + 1}, etc., si bien que toutes les combinaisons sont évaluées sur les
+ * mêmes tirages et que chaque partie peut être rejouée avec {@link Simulator#play(long)}.
+ *
+ * @author Dylan Vairoli (326603)
+ * @author Giovanni Ranieri (326870)
+ */
+public final class Tournament {
+    private static final int DEFAULT_GAMES_PER_PAIRING = 1_000;
+
+    private final List<String> names;
+    private final List<Function<Random, Player>> bots;
+    private final List<List<Integer>> pairings;
+    private final List<Simulator> simulators;
+
+    /**
+     * Construit un tournoi entre les joueurs créés par les fabriques de {@code bots}, chacune associée à son nom,
+     * dont les parties se jouent à {@code playerCount}. Les fabriques peuvent être appelées par plusieurs fils
+     * d'exécution à la fois.
+     *
+     * @param bots        table associant les fabriques des joueurs à leur nom
+     * @param playerCount le nombre de joueurs par partie
+     * @throws IllegalArgumentException si {@code bots} est vide, ou si {@code playerCount} n'est pas compris entre
+     *                                  2 et {@link PlayerId#COUNT}
+     */
+    public Tournament(Map<String, Function<Random, Player>> bots, int playerCount) {
+        Preconditions.checkArgument(!bots.isEmpty());
+        Preconditions.checkArgument(MINIMUM_PLAYER_COUNT <= playerCount && playerCount <= PlayerId.COUNT);
+
+        this.names = List.copyOf(bots.keySet());
+        this.bots = List.copyOf(bots.values());
+        this.pairings = pairings(this.bots.size(), playerCount);
+
+        List<Simulator> simulators = new ArrayList<>();
+        for (List<Integer> pairing : pairings) {
+            List<Function<Random, Player>> pairingBots = new ArrayList<>();
+            for (int bot : pairing)
+                pairingBots.add(this.bots.get(bot));
+            simulators.add(new Simulator(pairingBots));
+        }
+        this.simulators = List.copyOf(simulators);
+    }
+
+    /**
+     * Retourne les combinaisons avec répétition, triées, de {@code size} joueurs parmi {@code botCount}.
+     */
+    private static List<List<Integer>> pairings(int botCount, int size) {
+        List<List<Integer>> pairings = new ArrayList<>();
+        int[] pairing = new int[size];
+        while (true) {
+            List<Integer> list = new ArrayList<>(size);
+            for (int bot : pairing)
+                list.add(bot);
+            pairings.add(List.copyOf(list));
+
+            // Passe à la combinaison suivante, dont les indices sont croissants au sens large
+            int i = size - 1;
+            while (i >= 0 && pairing[i] == botCount - 1)
+                i--;
+            if (i < 0)
+                return List.copyOf(pairings);
+            Arrays.fill(pairing, i, size, pairing[i] + 1);
+        }
+    }
+
+    /**
+     * Joue {@code gamesPerPairing} parties pour chaque combinaison de joueurs dans le pool commun et retourne les
+     * statistiques de chaque combinaison.
+     *
+     * @param firstSeed       la graine de la première partie de chaque combinaison
+     * @param gamesPerPairing le nombre de parties par combinaison
+     * @return les statistiques de chaque combinaison
+     * @throws IllegalArgumentException si {@code gamesPerPairing} n'est pas strictement positif
+     */
+    public List<PairingStats> run(long firstSeed, int gamesPerPairing) {
+        return run(firstSeed, gamesPerPairing, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Joue {@code gamesPerPairing} parties pour chaque combinaison de joueurs dans le pool {@code pool} et retourne
+     * les statistiques de chaque combinaison. Chaque tâche du pool accumule ses résultats dans ses propres
+     * statistiques, qui ne sont combinées qu'à la fin : les parties ne partagent rien et le calcul passe à l'échelle
+     * avec le nombre de cœurs.
+     *
+     * @param firstSeed       la graine de la première partie de chaque combinaison
+     * @param gamesPerPairing le nombre de parties par combinaison
+     * @param pool            le pool dans lequel les parties sont jouées
+     * @return les statistiques de chaque combinaison, dans l'ordre des combinaisons
+     * @throws IllegalArgumentException si {@code gamesPerPairing} n'est pas strictement positif
+     */
+    public List<PairingStats> run(long firstSeed, int gamesPerPairing, ForkJoinPool pool) {
+        Preconditions.checkArgument(gamesPerPairing > 0);
+
+        int gameCount = pairings.size() * gamesPerPairing;
+        Accumulator accumulator;
+        try {
+            accumulator = pool.submit(() -> IntStream.range(0, gameCount)
+                    .parallel()
+                    .collect(() -> new Accumulator(pairings),
+                            (a, game) -> {
+                                int pairing = game / gamesPerPairing;
+                                GameResult result = simulators.get(pairing).play(firstSeed + game % gamesPerPairing);
+                                a.stats.get(pairing).add(result);
+                            },
+                            Accumulator::addAll))
+                    .get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+
+        List<PairingStats> stats = new ArrayList<>();
+        for (int i = 0; i < pairings.size(); i++) {
+            List<String> pairingNames = new ArrayList<>();
+            for (int bot : pairings.get(i))
+                pairingNames.add(names.get(bot));
+            stats.add(accumulator.stats.get(i).toPairingStats(List.copyOf(pairingNames)));
+        }
+        return List.copyOf(stats);
+    }
+
+    /**
+     * Joue un tournoi à deux joueurs entre le joueur aléatoire et lui-même, et affiche ses statistiques ainsi que
+     * le nombre de parties jouées par seconde. Les arguments optionnels sont le nombre de parties par combinaison et
+     * le nombre de fils d'exécution.
+     *
+     * @param args le nombre de parties par combinaison et le nombre de fils d'exécution (optionnels)
+     */
+    public static void main(String[] args) {
+        int gamesPerPairing = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES_PER_PAIRING;
+        int parallelism = args.length > 1
+                ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors();
+
+        Map<String, Function<Random, Player>> bots = new LinkedHashMap<>();
+        bots.put("aléatoire", RandomBot::new);
+        Tournament tournament = new Tournament(bots, MINIMUM_PLAYER_COUNT);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        long start = System.nanoTime();
+        List<PairingStats> stats = tournament.run(0, gamesPerPairing, pool);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+
+        stats.forEach(System.out::println);
+        System.out.printf("%d fils : %.0f parties/s%n",
+                parallelism, stats.size() * gamesPerPairing / seconds);
+    }
+
+    /**
+     * Statistiques (immuables) des parties d'une combinaison de joueurs, chaque place étant désignée par son indice
+     * (0 pour {@link PlayerId#PLAYER_1}, etc.).
+     */
+    public static final class PairingStats {
+        private final List<String> names;
+        private final int gameCount;
+        private final int incompleteCount;
+        private final double[] wins;
+        private final long[] points;
+        private final int[] longestTrailBonuses;
+        private final long turnCount;
+
+        private PairingStats(List<String> names, int gameCount, int incompleteCount,
+                             double[] wins, long[] points, int[] longestTrailBonuses, long turnCount) {
+            this.names = names;
+            this.gameCount = gameCount;
+            this.incompleteCount = incompleteCount;
+            this.wins = wins;
+            this.points = points;
+            this.longestTrailBonuses = longestTrailBonuses;
+            this.turnCount = turnCount;
+        }
+
+        /**
+         * Retourne le nom des joueurs de la combinaison, dans l'ordre des places.
+         *
+         * @return le nom des joueurs de la combinaison
+         */
+        public List<String> names() {
+            return names;
+        }
+
+        /**
+         * Retourne le nombre de parties jouées.
+         *
+         * @return le nombre de parties jouées
+         */
+        public int gameCount() {
+            return gameCount;
+        }
+
+        /**
+         * Retourne le nombre de parties interrompues faute de s'être terminées.
+         *
+         * @return le nombre de parties interrompues
+         */
+        public int incompleteCount() {
+            return incompleteCount;
+        }
+
+        /**
+         * Retourne la proportion de parties gagnées par le joueur de la place donnée, une victoire partagée entre
+         * n joueurs comptant pour 1/n.
+         *
+         * @param seat la place du joueur
+         * @return la proportion de parties gagnées par le joueur
+         */
+        public double winRate(int seat) {
+            return wins[seat] / gameCount;
+        }
+
+        /**
+         * Retourne la moyenne des points finaux, bonus compris, du joueur de la place donnée.
+         *
+         * @param seat la place du joueur
+         * @return la moyenne des points finaux du joueur
+         */
+        public double averagePoints(int seat) {
+            return (double) points[seat] / gameCount;
+        }
+
+        /**
+         * Retourne la proportion de parties dans lesquelles le joueur de la place donnée a obtenu le bonus du chemin
+         * le plus long.
+         *
+         * @param seat la place du joueur
+         * @return la proportion de parties dans lesquelles le joueur a obtenu le bonus
+         */
+        public double longestTrailRate(int seat) {
+            return (double) longestTrailBonuses[seat] / gameCount;
+        }
+
+        /**
+         * Retourne la durée moyenne des parties, en tours.
+         *
+         * @return la durée moyenne des parties
+         */
+        public double averageTurnCount() {
+            return (double) turnCount / gameCount;
+        }
+
+        @Override
+        public String toString() {
+            StringJoiner joiner = new StringJoiner(" | ", "", " | " + gameCount + " parties, "
+                    + String.format("%.1f", averageTurnCount()) + " tours en moyenne");
+            for (int seat = 0; seat < names.size(); seat++) {
+                joiner.add(String.format("%s : %.1f%% victoires, %.1f points, %.1f%% chemin le plus long",
+                        names.get(seat), 100 * winRate(seat), averagePoints(seat), 100 * longestTrailRate(seat)));
+            }
+            return joiner.toString();
+        }
+    }
+
+    /**
+     * Statistiques mutables d'une combinaison, accumulées par une seule tâche.
+     */
+    private static final class MutableStats {
+        private int gameCount;
+        private int incompleteCount;
+        private final double[] wins;
+        private final long[] points;
+        private final int[] longestTrailBonuses;
+        private long turnCount;
+
+        private MutableStats(int playerCount) {
+            wins = new double[playerCount];
+            points = new long[playerCount];
+            longestTrailBonuses = new int[playerCount];
+        }
+
+        private void add(GameResult result) {
+            gameCount++;
+            if (!result.isComplete())
+                incompleteCount++;
+            turnCount += result.turnCount();
+
+            Set<PlayerId> winners = result.winners();
+            for (int seat = 0; seat < points.length; seat++) {
+                PlayerId id = PlayerId.ALL.get(seat);
+                if (winners.contains(id))
+                    wins[seat] += 1d / winners.size();
+                points[seat] += result.points(id);
+                if (result.hasLongestTrailBonus(id))
+                    longestTrailBonuses[seat]++;
+            }
+        }
+
+        private void addAll(MutableStats that) {
+            gameCount += that.gameCount;
+            incompleteCount += that.incompleteCount;
+            turnCount += that.turnCount;
+            for (int seat = 0; seat < points.length; seat++) {
+                wins[seat] += that.wins[seat];
+                points[seat] += that.points[seat];
+                longestTrailBonuses[seat] += that.longestTrailBonuses[seat];
+            }
+        }
+
+        private PairingStats toPairingStats(List<String> names) {
+            return new PairingStats(names, gameCount, incompleteCount,
+                    wins.clone(), points.clone(), longestTrailBonuses.clone(), turnCount);
+        }
+    }
+
+    /**
+     * Statistiques mutables de toutes les combinaisons, accumulées par une seule tâche.
+     */
+    private static final class Accumulator {
+        private final List<MutableStats> stats = new ArrayList<>();
+
+        private Accumulator(List<List<Integer>> pairings) {
+            for (List<Integer> pairing : pairings)
+                stats.add(new MutableStats(pairing.size()));
+        }
+
+        private void addAll(Accumulator that) {
+            for (int i = 0; i < stats.size(); i++)
+                stats.get(i).addAll(that.stats.get(i));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package ch.epfl.tchu;
+
+import ch.epfl.test.TestRandomizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortedBagTest {
+    @Test
+    void sortedBagSizeGetAndIteratorAgreeWithSortedList() {
+        var rng = TestRandomizer.newRandom();
+        for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS; i++) {
+            var list = new ArrayList<Integer>();
+            var size = rng.nextInt(30);
+            for (int j = 0; j < size; j++)
+                list.add(rng.nextInt(6));
+            var bag = SortedBag.of(list);
+            Collections.sort(list);
+
+            assertEquals(list.size(), bag.size());
+            for (int j = 0; j < list.size(); j++)
+                assertEquals(list.get(j), bag.get(j));
+
+            var iterated = new ArrayList<Integer>();
+            bag.forEach(iterated::add);
+            assertEquals(list, iterated);
+            assertEquals(list, bag.stream().collect(Collectors.toList()));
+            assertEquals(list, bag.toList());
+        }
+    }
+
+    @Test
+    void sortedBagGetFailsWithInvalidIndex() {
+        var bag = SortedBag.of(2, "a", 1, "b");
+        assertThrows(IndexOutOfBoundsException.class, () -> bag.get(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> bag.get(3));
+    }
+
+    @Test
+    void sortedBagIteratorFailsWhenExhausted() {
+        var iterator = SortedBag.of(1, "a").iterator();
+        assertEquals("a", iterator.next());
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    @Test
+    void sortedBagBuilderSizeCountsAllAddedElements() {
+        var builder = new SortedBag.Builder<String>()
+                .add(2, "a")
+                .add("b")
+                .add(SortedBag.of(List.of("a", "c")));
+        assertEquals(5, builder.size());
+        assertEquals(5, builder.build().size());
+    }
+
+    @Test
+    void sortedBagSubsetsOfSizeWorks() {
+        var bag = SortedBag.of(2, "a", 1, "b");
+        assertEquals(Set.of(SortedBag.of()), bag.subsetsOfSize(0));
+        assertEquals(Set.of(SortedBag.of("a"), SortedBag.of("b")), bag.subsetsOfSize(1));
+        assertEquals(Set.of(SortedBag.of(2, "a"), SortedBag.of(1, "a", 1, "b")), bag.subsetsOfSize(2));
+        assertEquals(Set.of(bag), bag.subsetsOfSize(3));
+        assertThrows(IllegalArgumentException.class, () -> bag.subsetsOfSize(4));
+    }
+
+    @Test
+    void sortedBagSubsetsOfSizeReturnsAllSubsetsWithoutDuplicates() {
+        var rng = TestRandomizer.newRandom();
+        for (int i = 0; i < 100; i++) {
+            var builder = new SortedBag.Builder<Integer>();
+            for (int e = 0; e < 5; e++)
+                builder.add(rng.nextInt(4), e);
+            var bag = builder.build();
+
+            for (int size = 0; size <= bag.size(); size++) {
+                var expected = new HashSet<SortedBag<Integer>>();
+                for (var subset : allSubsets(bag)) {
+                    if (subset.size() == size) expected.add(subset);
+                }
+
+                var subsets = new ArrayList<>(bag.subsetsOfSize(size));
+                assertEquals(expected, new HashSet<>(subsets));
+                assertEquals(expected.size(), subsets.size());
+            }
+        }
+    }
+
+    private static Set<SortedBag<Integer>> allSubsets(SortedBag<Integer> bag) {
+        var subsets = new HashSet<SortedBag<Integer>>();
+        subsets.add(SortedBag.of());
+        for (var e : bag) {
+            var newSubsets = new HashSet<SortedBag<Integer>>();
+            for (var subset : subsets)
+                newSubsets.add(subset.union(SortedBag.of(e)));
+            subsets.addAll(newSubsets);
+        }
+        return subsets;
+    }
+}
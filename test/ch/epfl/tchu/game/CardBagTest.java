@@ -0,0 +1,82 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.test.TestRandomizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardBagTest {
+    @Test
+    void cardBagOfFailsWithInvalidCount() {
+        assertThrows(IllegalArgumentException.class, () -> CardBag.of(-1, Card.RED));
+        assertThrows(IllegalArgumentException.class, () -> CardBag.of(CardBag.MAX_COUNT + 1, Card.RED));
+    }
+
+    @Test
+    void cardBagUnionFailsOnOverflow() {
+        var bag = CardBag.of(CardBag.MAX_COUNT, Card.LOCOMOTIVE);
+        assertThrows(IllegalArgumentException.class, () -> bag.with(Card.LOCOMOTIVE));
+    }
+
+    @Test
+    void cardBagWorksLikeSortedBag() {
+        var rng = TestRandomizer.newRandom();
+        for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS; i++) {
+            var sortedBag1 = randomSortedBag(rng);
+            var sortedBag2 = randomSortedBag(rng);
+            var bag1 = CardBag.of(sortedBag1);
+            var bag2 = CardBag.of(sortedBag2);
+
+            assertEquals(sortedBag1.size(), bag1.size());
+            assertEquals(sortedBag1.isEmpty(), bag1.isEmpty());
+            assertEquals(sortedBag1.toSet().size(), bag1.distinctCount());
+            for (var card : Card.ALL)
+                assertEquals(sortedBag1.countOf(card), bag1.countOf(card));
+
+            assertEquals(sortedBag1.contains(sortedBag2), bag1.contains(bag2));
+            assertEquals(sortedBag1.union(sortedBag2), bag1.union(bag2).toSortedBag());
+            assertEquals(sortedBag1.difference(sortedBag2), bag1.difference(bag2).toSortedBag());
+            assertEquals(sortedBag1, CardBag.of(sortedBag1).toSortedBag());
+            assertEquals(bag1, CardBag.of(bag1.toSortedBag()));
+        }
+    }
+
+    @Test
+    void cardBagContainsItsSubsets() {
+        var bag = CardBag.of(3, Card.BLUE, 2, Card.LOCOMOTIVE);
+        assertTrue(bag.contains(CardBag.EMPTY));
+        assertTrue(bag.contains(bag));
+        assertTrue(bag.contains(CardBag.of(3, Card.BLUE)));
+        assertFalse(bag.contains(CardBag.of(4, Card.BLUE)));
+        assertFalse(bag.contains(CardBag.of(1, Card.RED)));
+    }
+
+    @Test
+    void cardBagSubsetsOfSizeWorksLikeSortedBag() {
+        var rng = TestRandomizer.newRandom();
+        for (int i = 0; i < 100; i++) {
+            var sortedBag = randomSortedBag(rng);
+            var bag = CardBag.of(sortedBag);
+            var size = rng.nextInt(Math.min(sortedBag.size(), 4) + 1);
+
+            var expected = sortedBag.subsetsOfSize(size);
+            var subsets = bag.subsetsOfSize(size);
+            assertEquals(expected.size(), subsets.size());
+            for (var subset : subsets)
+                assertTrue(expected.contains(subset.toSortedBag()));
+            assertSame(subsets, bag.subsetsOfSize(size));
+        }
+    }
+
+    private static SortedBag<Card> randomSortedBag(Random rng) {
+        var builder = new SortedBag.Builder<Card>();
+        for (var card : Card.ALL) {
+            if (rng.nextBoolean())
+                builder.add(rng.nextInt(Constants.LOCOMOTIVE_CARDS_COUNT + 1), card);
+        }
+        return builder.build();
+    }
+}
@@ -120,6 +120,21 @@ class DeckTest {
         assertEquals(cards, actualCardsBuilder.build());
     }
 
+    @Test
+    void deckOfCardsKeepsShuffledOrderAndIsPersistent() {
+        for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS; i++) {
+            var expected = Constants.ALL_CARDS.toList();
+            Collections.shuffle(expected, new Random(i));
+            var deck = Deck.of(Constants.ALL_CARDS, new Random(i));
+            var smallerDeck = deck.withoutTopCards(i % expected.size());
+
+            assertEquals(expected, deckToList(deck));
+            assertEquals(expected.subList(i % expected.size(), expected.size()), deckToList(smallerDeck));
+            for (int count = 0; count <= 10; count++)
+                assertEquals(SortedBag.of(expected.subList(0, count)), deck.topCards(count));
+        }
+    }
+
     private static <E extends Comparable<E>> List<E> deckToList(Deck<E> deck) {
         var list = new ArrayList<E>(deck.size());
         while (!deck.isEmpty()) {
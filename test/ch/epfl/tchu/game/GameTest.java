@@ -245,6 +245,33 @@ class GameTest {
         }
     }
 
+    @Test
+    void gameSimulateWithoutInformationOnlyUpdatesState() {
+        var rng = new Random(2030);
+        var p1 = new TestPlayer(rng.nextLong(), ChMap.ALL_ROUTES);
+        var p2 = new TestPlayer(rng.nextLong(), ChMap.ALL_ROUTES);
+        var players = new EnumMap<PlayerId, Player>(PlayerId.class);
+        players.put(PlayerId.PLAYER_1, p1);
+        players.put(PlayerId.PLAYER_2, p2);
+        var playerNames = Map.of(
+                PlayerId.PLAYER_1, "Ada",
+                PlayerId.PLAYER_2, "Charles");
+
+        var result = Game.simulate(players, playerNames, SortedBag.of(ChMap.ALL_TICKETS), rng, false, 10_000);
+
+        assertTrue(result.isComplete());
+        for (var player : List.of(p1, p2)) {
+            var callSummary = player.callSummary();
+            assertNull(callSummary.get(RECEIVE_INFO));
+            assertTrue(callSummary.get(UPDATE_STATE) >= result.turnCount());
+
+            var ownState = player.ownState();
+            assertEquals(result.longestTrail(player.ownId).length(), ownState.longestTrail().length());
+            var bonus = result.hasLongestTrailBonus(player.ownId) ? Constants.LONGEST_TRAIL_BONUS_POINTS : 0;
+            assertEquals(ownState.finalPoints() + bonus, result.points(player.ownId));
+        }
+    }
+
     private static List<TestPlayer> playRandomGame(long randomSeed) {
         var rng = new Random(randomSeed);
         var routes = ChMap.ALL_ROUTES;
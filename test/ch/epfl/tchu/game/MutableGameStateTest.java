@@ -0,0 +1,223 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MutableGameStateTest {
+    private static final List<PlayerId> PLAYER_IDS = List.of(PlayerId.PLAYER_1, PlayerId.PLAYER_2);
+
+    @Test
+    void mutableGameStateConvertsBackToTheSameGameState() {
+        for (int i = 0; i < 5; i++) {
+            var state = GameState.initial(PLAYER_IDS, SortedBag.of(ChMap.tickets()), new Random(i));
+            assertSameState(state, MutableGameState.of(state).toGameState());
+        }
+    }
+
+    @Test
+    void mutableGameStateTransitionsMatchGameStateTransitions() {
+        for (int i = 0; i < 10; i++) {
+            var states = playRandomGame(i);
+            var mutable = MutableGameState.of(states.get(0));
+            var rng = new Random(i);
+            for (int j = 1; j < states.size(); j++) {
+                playRandomTurn(mutable, states.get(j - 1), rng);
+                assertSameState(states.get(j), mutable.toGameState());
+            }
+        }
+    }
+
+    @Test
+    void mutableGameStateUndoesEveryTransition() {
+        for (int i = 0; i < 10; i++) {
+            var states = playRandomGame(i);
+            var mutable = MutableGameState.of(states.get(0));
+            var rng = new Random(i);
+            var historySizes = new ArrayList<Integer>();
+            for (int j = 1; j < states.size(); j++) {
+                historySizes.add(mutable.historySize());
+                playRandomTurn(mutable, states.get(j - 1), rng);
+            }
+
+            for (int j = states.size() - 2; j >= 0; j--) {
+                mutable.undoTo(historySizes.get(j));
+                assertSameState(states.get(j), mutable.toGameState());
+            }
+            assertEquals(0, mutable.historySize());
+            assertThrows(IllegalStateException.class, mutable::undo);
+        }
+    }
+
+    @Test
+    void mutableGameStateSampledIsConsistentWithWhatThePlayerKnows() {
+        var states = playRandomGame(3);
+        var tickets = SortedBag.of(ChMap.tickets());
+        for (int j = 0; j < states.size(); j += 10) {
+            var state = states.get(j);
+            var ownState = state.playerState(PlayerId.PLAYER_1);
+            var sampled = MutableGameState.sampled(state, PlayerId.PLAYER_1, ownState, tickets, new Random(j))
+                    .toGameState();
+
+            assertEquals(state.currentPlayerId(), sampled.currentPlayerId());
+            assertEquals(state.lastPlayer(), sampled.lastPlayer());
+            assertEquals(state.ticketsCount(), sampled.ticketsCount());
+            assertEquals(state.cardState().faceUpCards(), sampled.cardState().faceUpCards());
+            assertEquals(state.cardState().deckSize(), sampled.cardState().deckSize());
+            assertEquals(state.cardState().discardsSize(), sampled.cardState().discardsSize());
+            assertEquals(ownState.tickets(), sampled.playerState(PlayerId.PLAYER_1).tickets());
+            assertEquals(ownState.cards(), sampled.playerState(PlayerId.PLAYER_1).cards());
+
+            var opponent = state.playerState(PlayerId.PLAYER_2);
+            var sampledOpponent = sampled.playerState(PlayerId.PLAYER_2);
+            assertEquals(opponent.ticketCount(), sampledOpponent.ticketCount());
+            assertEquals(opponent.cardCount(), sampledOpponent.cardCount());
+            assertEquals(opponent.routes(), sampledOpponent.routes());
+
+            // Toutes les cartes du jeu sont présentes, une seule fois
+            var allCards = new SortedBag.Builder<Card>()
+                    .add(sampled.cardState().discards())
+                    .add(sampled.cardState().deck().topCards(sampled.cardState().deckSize()))
+                    .add(SortedBag.of(sampled.cardState().faceUpCards()))
+                    .add(sampled.playerState(PlayerId.PLAYER_1).cards())
+                    .add(sampledOpponent.cards());
+            assertEquals(Constants.ALL_CARDS, allCards.build());
+        }
+    }
+
+    @Test
+    void mutableGameStateFailsWithInvalidTransitions() {
+        var state = GameState.initial(PLAYER_IDS, SortedBag.of(ChMap.tickets()), new Random(1));
+        var mutable = MutableGameState.of(state);
+        var route = ChMap.routes().get(0);
+
+        assertThrows(IllegalArgumentException.class, () -> mutable.chooseAdditionalTickets(3, 0b1000));
+        assertThrows(IllegalArgumentException.class, () -> mutable.chooseAdditionalTickets(-1, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> mutable.drawFaceUpCard(5));
+        assertThrows(IllegalArgumentException.class, () -> mutable.claimRoute(route, CardBag.of(10, Card.LOCOMOTIVE)));
+        assertThrows(IllegalArgumentException.class, () -> mutable.undoTo(1));
+        assertEquals(0, mutable.historySize());
+    }
+
+    // Joue une partie aléatoire et retourne les états à la fin de chaque tour, les transitions des deux types
+    // d'états étant rejouées à l'identique grâce au même générateur
+    private static List<GameState> playRandomGame(int seed) {
+        var state = GameState.initial(PLAYER_IDS, SortedBag.of(ChMap.tickets()), new Random(seed));
+        for (var id : PLAYER_IDS)
+            state = state.withInitiallyChosenTickets(id, state.topTickets(3));
+        state = state.withoutTopTickets(6);
+
+        var states = new ArrayList<>(List.of(state));
+        var rng = new Random(seed);
+        while (states.size() < 300 && (state.lastPlayer() == null || states.size() % 2 == 1)) {
+            state = playRandomTurn(null, state, rng);
+            states.add(state);
+        }
+        return states;
+    }
+
+    // Joue un tour aléatoire à partir de l'état state, et l'applique aussi à mutable s'il n'est pas nul
+    private static GameState playRandomTurn(MutableGameState mutable, GameState state, Random rng) {
+        var player = state.currentPlayerState();
+        int action = rng.nextInt(10);
+        if (action == 0 && state.ticketsCount() >= 3) {
+            var drawn = state.topTickets(3);
+            var chosen = SortedBag.<Ticket>of();
+            int chosenMask = rng.nextInt(7) + 1;
+            for (int i = 0; i < 3; i++) {
+                if ((chosenMask & (1 << i)) != 0)
+                    chosen = chosen.union(SortedBag.of(ticketAt(state, i)));
+            }
+            state = state.withChosenAdditionalTickets(drawn, chosen);
+            if (mutable != null)
+                mutable.chooseAdditionalTickets(3, chosenMask);
+        } else if (action < 5) {
+            var claimable = new ArrayList<Route>();
+            for (var route : ChMap.routes()) {
+                if (!state.claimedRoutes().contains(route) && player.canClaimRoute(route))
+                    claimable.add(route);
+            }
+            if (!claimable.isEmpty()) {
+                var route = claimable.get(rng.nextInt(claimable.size()));
+                var options = player.possibleClaimCards(route);
+                var cards = options.get(rng.nextInt(options.size()));
+                if (route.level() == Route.Level.UNDERGROUND) {
+                    var drawn = new SortedBag.Builder<Card>();
+                    for (int i = 0; i < 3 && state.canDrawCards(); i++) {
+                        state = recreateDeckIfNeeded(mutable, state, rng);
+                        drawn.add(state.topCard());
+                        state = state.withoutTopCard();
+                        if (mutable != null)
+                            mutable.removeTopCard();
+                    }
+                    state = state.withMoreDiscardedCards(drawn.build());
+                    if (mutable != null)
+                        mutable.discard(CardBag.of(drawn.build()));
+                }
+                state = state.withClaimedRoute(route, cards);
+                if (mutable != null)
+                    mutable.claimRoute(route, CardBag.of(cards));
+            }
+        } else if (state.canDrawCards()) {
+            for (int i = 0; i < 2 && state.canDrawCards(); i++) {
+                state = recreateDeckIfNeeded(mutable, state, rng);
+                int slot = rng.nextInt(Constants.FACE_UP_CARDS_COUNT + 1);
+                if (slot == Constants.FACE_UP_CARDS_COUNT) {
+                    state = state.withBlindlyDrawnCard();
+                    if (mutable != null)
+                        mutable.drawBlindCard();
+                } else {
+                    state = state.withDrawnFaceUpCard(slot);
+                    if (mutable != null)
+                        mutable.drawFaceUpCard(slot);
+                }
+            }
+        }
+
+        state = state.forNextTurn(PLAYER_IDS);
+        if (mutable != null)
+            mutable.nextTurn();
+        return state;
+    }
+
+    // Les deux pioches sont mélangées au moyen de générateurs identiques, pour qu'elles soient égales
+    private static GameState recreateDeckIfNeeded(MutableGameState mutable, GameState state, Random rng) {
+        long seed = rng.nextLong();
+        if (mutable != null)
+            mutable.recreateCardsDeckIfNeeded(new Random(seed));
+        return state.withCardsDeckRecreatedIfNeeded(new Random(seed));
+    }
+
+    private static Ticket ticketAt(GameState state, int index) {
+        return state.ticketDeck().card(index);
+    }
+
+    private static void assertSameState(GameState expected, GameState actual) {
+        assertEquals(expected.currentPlayerId(), actual.currentPlayerId());
+        assertEquals(expected.lastPlayer(), actual.lastPlayer());
+        assertEquals(expected.ticketsCount(), actual.ticketsCount());
+        for (int i = 0; i < expected.ticketsCount(); i++)
+            assertEquals(ticketAt(expected, i), ticketAt(actual, i));
+
+        var expectedCards = expected.cardState();
+        var actualCards = actual.cardState();
+        assertEquals(expectedCards.faceUpCards(), actualCards.faceUpCards());
+        assertEquals(expectedCards.deckSize(), actualCards.deckSize());
+        for (int i = 0; i < expectedCards.deckSize(); i++)
+            assertEquals(expectedCards.deck().card(i), actualCards.deck().card(i));
+        assertEquals(expectedCards.discards(), actualCards.discards());
+
+        for (var id : PLAYER_IDS) {
+            var expectedPlayer = expected.playerState(id);
+            var actualPlayer = actual.playerState(id);
+            assertEquals(expectedPlayer.tickets(), actualPlayer.tickets());
+            assertEquals(expectedPlayer.cards(), actualPlayer.cards());
+            assertEquals(expectedPlayer.routes(), actualPlayer.routes());
+            assertEquals(expectedPlayer.carCount(), actualPlayer.carCount());
+            assertEquals(expectedPlayer.claimPoints(), actualPlayer.claimPoints());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.test.TestRandomizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerStateTest {
+    @Test
+    void playerStateLongestTrailIsEmptyInitially() {
+        var playerState = PlayerState.initial(SortedBag.of(4, Card.BLUE));
+        assertEquals(0, playerState.longestTrail().length());
+        assertNull(playerState.longestTrail().station1());
+    }
+
+    @Test
+    void playerStateLongestTrailIsUpdatedWhenClaimingRoutes() {
+        var rng = TestRandomizer.newRandom();
+        for (int i = 0; i < 100; i++) {
+            var routes = new ArrayList<>(ChMap.routes());
+            Collections.shuffle(routes, rng);
+
+            var playerState = new PlayerState(SortedBag.of(), SortedBag.of(), List.of());
+            var carCount = Constants.INITIAL_CAR_COUNT;
+            for (var route : routes.subList(0, 12)) {
+                if (route.length() > carCount)
+                    break;
+                carCount -= route.length();
+                playerState = playerState.withClaimedRoute(route, SortedBag.of());
+                var expected = Trail.longest(playerState.routes());
+                assertEquals(expected.length(), playerState.longestTrail().length());
+                assertEquals(expected.routes(), playerState.longestTrail().routes());
+                assertEquals(expected.toString(), playerState.longestTrail().toString());
+            }
+        }
+    }
+
+    @Test
+    void playerStateLongestTrailIsKeptWhenAddingCardsAndTickets() {
+        var route = ChMap.routes().get(0);
+        var playerState = new PlayerState(SortedBag.of(), SortedBag.of(), List.of())
+                .withClaimedRoute(route, SortedBag.of());
+        var longestTrail = playerState.longestTrail();
+
+        assertSame(longestTrail, playerState.withAddedCard(Card.RED).longestTrail());
+        assertSame(longestTrail, playerState.withAddedTickets(SortedBag.of(ChMap.tickets().get(0))).longestTrail());
+    }
+
+    @Test
+    void playerStateTicketPointsAreUpdatedWhenClaimingRoutes() {
+        var rng = TestRandomizer.newRandom();
+        var tickets = SortedBag.of(ChMap.tickets());
+        for (int i = 0; i < 100; i++) {
+            var routes = new ArrayList<>(ChMap.routes());
+            Collections.shuffle(routes, rng);
+
+            var playerState = new PlayerState(tickets, SortedBag.of(), List.of());
+            for (var route : routes.subList(0, 10)) {
+                playerState = playerState.withClaimedRoute(route, SortedBag.of());
+                var rebuilt = new PlayerState(tickets, SortedBag.of(), playerState.routes());
+                assertEquals(rebuilt.ticketPoints(), playerState.ticketPoints());
+            }
+        }
+    }
+
+    @Test
+    void playerStatePossibleAdditionalCardsWorks() {
+        var cards = SortedBag.of(3, Card.GREEN, 2, Card.LOCOMOTIVE)
+                .union(SortedBag.of(2, Card.BLUE));
+        var playerState = new PlayerState(SortedBag.of(), cards, List.of());
+
+        var options = playerState.possibleAdditionalCards(2, SortedBag.of(2, Card.GREEN));
+        assertEquals(List.of(
+                SortedBag.of(1, Card.GREEN, 1, Card.LOCOMOTIVE),
+                SortedBag.of(2, Card.LOCOMOTIVE)), options);
+    }
+}
@@ -383,4 +383,33 @@ class RouteTest {
             assertEquals(expectedClaimPoints.get(l), r.claimPoints());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void routeCanBeClaimedWithAgreesWithPossibleClaimCards() {
+        var rng = TestRandomizer.newRandom();
+        for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS; i++) {
+            var builder = new SortedBag.Builder<Card>();
+            for (var card : Card.ALL)
+                builder.add(rng.nextInt(4), card);
+            var cards = builder.build();
+            var cardBag = CardBag.of(cards);
+
+            for (var route : ChMap.routes()) {
+                var expected = route.possibleClaimCards().stream().anyMatch(cards::contains);
+                assertEquals(expected, route.canBeClaimedWith(cardBag));
+            }
+        }
+    }
+
+    @Test
+    void routePossibleClaimCardBagsMatchPossibleClaimCards() {
+        for (var route : ChMap.routes()) {
+            var claimCards = route.possibleClaimCards();
+            var claimCardBags = route.possibleClaimCardBags();
+            assertEquals(claimCards.size(), claimCardBags.size());
+            for (int i = 0; i < claimCards.size(); i++)
+                assertEquals(claimCards.get(i), claimCardBags.get(i).toSortedBag());
+            assertSame(claimCards, route.possibleClaimCards());
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package ch.epfl.tchu.game;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShortestPathsTest {
+    private static final List<Route> ROUTES = ChMap.routes();
+    private static final List<Station> STATIONS = ChMap.stations();
+
+    @Test
+    void shortestPathsOfChMapGiveKnownDistances() {
+        var paths = ShortestPaths.ofChMap();
+        assertEquals(0, paths.distance(station("Berne"), station("Berne")));
+        assertEquals(1, paths.distance(station("Berne"), station("Fribourg")));
+        assertEquals(4, paths.distance(station("Berne"), station("Lausanne")));
+        assertEquals(8, paths.distance(station("Berne"), station("Genève")));
+        assertSame(station("Fribourg"), paths.nextStation(station("Berne"), station("Lausanne")));
+        assertSame(station("Berne"), paths.nextStation(station("Berne"), station("Berne")));
+    }
+
+    @Test
+    void shortestPathsMatchFloydWarshallAfterUpdates() {
+        for (int seed = 0; seed < 50; seed++) {
+            var rng = new Random(seed);
+            var paths = ShortestPaths.ofChMap();
+            var states = new int[ROUTES.size()];
+            var order = new ArrayList<>(ROUTES);
+            Collections.shuffle(order, rng);
+            for (var route : order.subList(0, 40)) {
+                int index = ROUTES.indexOf(route);
+                if (rng.nextInt(4) == 0) {
+                    paths.claimRoute(route);
+                    states[index] = 1;
+                } else {
+                    paths.removeRoute(route);
+                    states[index] = 2;
+                }
+                // Les chemins ne sont pas toujours consultés, pour que plusieurs mises à jour s'accumulent
+                if (rng.nextInt(3) == 0) {
+                    var lengths = pairLengths(states);
+                    assertSamePaths(referenceDistances(lengths), lengths, paths);
+                }
+            }
+            var lengths = pairLengths(states);
+            assertSamePaths(referenceDistances(lengths), lengths, paths);
+        }
+    }
+
+    @Test
+    void shortestPathsCopiesAreIndependent() {
+        var paths = ShortestPaths.ofChMap();
+        var copy = new ShortestPaths(paths);
+        paths.claimRoute(route("BER_FRI_1"));
+
+        assertEquals(0, paths.distance(station("Berne"), station("Fribourg")));
+        assertEquals(1, copy.distance(station("Berne"), station("Fribourg")));
+        assertEquals(1, ShortestPaths.ofChMap().distance(station("Berne"), station("Fribourg")));
+    }
+
+    @Test
+    void shortestPathsKeepDoubleRouteUntilBothTracksAreRemoved() {
+        var paths = ShortestPaths.ofChMap();
+        var berne = station("Berne");
+        var fribourg = station("Fribourg");
+        paths.removeRoute(route("BER_FRI_1"));
+        assertEquals(1, paths.distance(berne, fribourg));
+        assertEquals(List.of(route("BER_FRI_2")), paths.freeRoutes(berne, fribourg));
+
+        paths.removeRoute(route("BER_FRI_2"));
+        assertTrue(paths.distance(berne, fribourg) > 1);
+        assertTrue(paths.freeRoutes(fribourg, berne).isEmpty());
+        assertNotSame(fribourg, paths.nextStation(berne, fribourg));
+    }
+
+    @Test
+    void shortestPathsGiveCheapestTripOfTicket() {
+        var paths = ShortestPaths.ofChMap();
+        for (var ticket : ChMap.tickets()) {
+            var trip = paths.cheapestTrip(ticket);
+            assertTrue(ticket.trips().contains(trip));
+            for (var other : ticket.trips())
+                assertTrue(paths.distance(trip) <= paths.distance(other));
+        }
+    }
+
+    @Test
+    void shortestPathsFailWithInvalidRoutesOrStations() {
+        var paths = ShortestPaths.ofChMap();
+        var route = route("BER_FRI_1");
+        paths.claimRoute(route);
+        paths.claimRoute(route);
+        assertThrows(IllegalArgumentException.class, () -> paths.removeRoute(route));
+
+        var other = route("FRI_LAU_1");
+        paths.removeRoute(other);
+        paths.removeRoute(other);
+        assertThrows(IllegalArgumentException.class, () -> paths.claimRoute(other));
+
+        var unknownStation = new Station(100, "Inconnue");
+        var unknownRoute = new Route("BER_INC_1", station("Berne"), unknownStation, 1, Route.Level.OVERGROUND, null);
+        assertThrows(IllegalArgumentException.class, () -> paths.claimRoute(unknownRoute));
+        assertThrows(IllegalArgumentException.class, () -> paths.distance(station("Berne"), unknownStation));
+    }
+
+    // Compare distances et chemins, qui doivent mener à destination en ne suivant que des routes accessibles
+    private static void assertSamePaths(int[][] expected, int[][] lengths, ShortestPaths paths) {
+        for (var from : STATIONS) {
+            for (var to : STATIONS) {
+                int distance = expected[from.id()][to.id()];
+                assertEquals(distance, paths.distance(from, to));
+                if (distance == ShortestPaths.UNREACHABLE) {
+                    assertNull(paths.nextStation(from, to));
+                    continue;
+                }
+
+                int length = 0;
+                for (var station = from; station != to; ) {
+                    var next = paths.nextStation(station, to);
+                    length += lengths[station.id()][next.id()];
+                    station = next;
+                }
+                assertEquals(distance, length);
+            }
+        }
+    }
+
+    private static int[][] referenceDistances(int[][] lengths) {
+        int n = STATIONS.size();
+        var distances = new int[n][];
+        for (int i = 0; i < n; i++)
+            distances[i] = lengths[i].clone();
+        for (int k = 0; k < n; k++) {
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    if (distances[i][k] != ShortestPaths.UNREACHABLE && distances[k][j] != ShortestPaths.UNREACHABLE)
+                        distances[i][j] = Math.min(distances[i][j], distances[i][k] + distances[k][j]);
+                }
+            }
+        }
+        return distances;
+    }
+
+    // Longueur de la liaison directe entre chaque paire de gares : nulle si l'une de leurs routes est prise, sinon
+    // celle de la plus courte route libre
+    private static int[][] pairLengths(int[] states) {
+        int n = STATIONS.size();
+        var lengths = new int[n][n];
+        for (var row : lengths)
+            Arrays.fill(row, ShortestPaths.UNREACHABLE);
+        for (int i = 0; i < n; i++)
+            lengths[i][i] = 0;
+        for (int i = 0; i < ROUTES.size(); i++) {
+            int s1 = ROUTES.get(i).station1().id();
+            int s2 = ROUTES.get(i).station2().id();
+            int length = states[i] == 1 ? 0 : states[i] == 0 ? ROUTES.get(i).length() : ShortestPaths.UNREACHABLE;
+            lengths[s1][s2] = lengths[s2][s1] = Math.min(lengths[s1][s2], length);
+        }
+        return lengths;
+    }
+
+    private static Station station(String name) {
+        return STATIONS.stream().filter(s -> s.name().equals(name)).findFirst().orElseThrow();
+    }
+
+    private static Route route(String id) {
+        return ROUTES.stream().filter(r -> r.id().equals(id)).findFirst().orElseThrow();
+    }
+}
@@ -154,6 +154,31 @@ class StationPartitionTest {
         }
     }
 
+    @Test
+    void stationPartitionWithConnectedMatchesBuilder() {
+        var chMap = new ChMap();
+        var stations = chMap.ALL_STATIONS;
+
+        Random rng = TestRandomizer.newRandom();
+        for (int i = 0; i < 100; i++) {
+            var pb = new StationPartition.Builder(0);
+            var p = pb.build();
+            var all = new StationPartition.Builder(stations.size());
+            for (int j = 0; j < 20; j++) {
+                var s1 = stations.get(rng.nextInt(stations.size()));
+                var s2 = stations.get(rng.nextInt(stations.size()));
+                p = p.withConnected(s1, s2);
+                all.connect(s1, s2);
+            }
+
+            var expected = all.build();
+            for (var s1 : stations) {
+                for (var s2 : stations)
+                    assertEquals(expected.connected(s1, s2), p.connected(s1, s2));
+            }
+        }
+    }
+
     private static List<Station> reducedChStations() {
         return List.of(
                 new Station(0, "Berne"),
@@ -43,6 +43,25 @@ class TrailTest {
         assertNull(longest.station2());
     }
 
+    @Test
+    void trailLongestPrefersTrailWithFewestRoutes() {
+        var s1 = new Station(1, "Yverdon");
+        var s2 = new Station(2, "Fribourg");
+        var s3 = new Station(3, "Neuchâtel");
+        var s4 = new Station(4, "Berne");
+        var s5 = new Station(5, "Lucerne");
+
+        var routes = List.of(
+                new Route("A", s3, s4, 2, Route.Level.OVERGROUND, Color.BLACK),
+                new Route("B", s4, s5, 2, Route.Level.OVERGROUND, Color.GREEN),
+                new Route("C", s1, s2, 4, Route.Level.OVERGROUND, Color.RED));
+
+        var longest = Trail.longest(routes);
+        assertEquals(4, longest.length());
+        assertEquals(s1, longest.station1());
+        assertEquals(s2, longest.station2());
+    }
+
     @Test
     void trailLongestWorksWithDisconnectedRoutes() {
         var chRoutes = new ChRoutes();
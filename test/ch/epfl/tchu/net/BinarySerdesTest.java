@@ -0,0 +1,242 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+import ch.epfl.tchu.sim.RandomBot;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinarySerdesTest {
+    private static <T> T roundTrip(BinarySerde<T> serde, T value) {
+        var buffer = ByteBuffer.allocate(1 << 12);
+        serde.write(value, buffer);
+        buffer.flip();
+        var result = serde.read(buffer);
+        assertFalse(buffer.hasRemaining());
+        return result;
+    }
+
+    private static <T> int size(BinarySerde<T> serde, T value) {
+        var buffer = ByteBuffer.allocate(1 << 12);
+        serde.write(value, buffer);
+        return buffer.position();
+    }
+
+    @Test
+    void binarySerdesOfCollectionsRejectSizesLargerThanTheBuffer() {
+        var buffer = ByteBuffer.allocate(16);
+        BinarySerde.putVarInt(buffer, Integer.MAX_VALUE);
+        buffer.put((byte) 0).flip();
+        assertThrows(BufferUnderflowException.class,
+                () -> BinarySerdes.OF_LIST_OF_STRINGS.read(buffer.duplicate()));
+        assertThrows(BufferUnderflowException.class,
+                () -> BinarySerdes.OF_SORTED_BAG_OF_TICKETS.read(buffer.duplicate()));
+    }
+
+    @Test
+    void binarySerdesOfIntegerWorksOnAllKindsOfIntegers() {
+        for (int i : new int[]{0, 1, -1, 63, -64, 64, 1_000_000, Integer.MAX_VALUE, Integer.MIN_VALUE})
+            assertEquals(i, roundTrip(BinarySerdes.OF_INTEGER, i));
+        assertEquals(1, size(BinarySerdes.OF_INTEGER, -1));
+        assertEquals(1, size(BinarySerdes.OF_INTEGER, 4));
+    }
+
+    @Test
+    void binarySerdesOfStringWorksOnNonAsciiStrings() {
+        for (var s : List.of("", "Charles", "Zürich – Genève", "日本語", "🚂 train"))
+            assertEquals(s, roundTrip(BinarySerdes.OF_STRING, s));
+        assertEquals("a?b", roundTrip(BinarySerdes.OF_STRING, "a\uD83Db"));
+        assertEquals(1 + "Genève".getBytes(java.nio.charset.StandardCharsets.UTF_8).length,
+                size(BinarySerdes.OF_STRING, "Genève"));
+    }
+
+    @Test
+    void binarySerdesOfEnumeratedValuesUseOneByte() {
+        for (var route : ChMap.routes()) {
+            assertEquals(route, roundTrip(BinarySerdes.OF_ROUTE, route));
+            assertTrue(size(BinarySerdes.OF_ROUTE, route) <= 2);
+        }
+        for (var card : Card.ALL)
+            assertEquals(1, size(BinarySerdes.OF_CARD, card));
+        for (var ticket : ChMap.supplementaryTickets())
+            assertEquals(ticket, roundTrip(BinarySerdes.OF_SUPP_TICKET, ticket));
+    }
+
+    @Test
+    void binarySerdesOfSortedBagOfCardPacksCounts() {
+        var rng = new Random(2021);
+        for (int i = 0; i < 100; i++) {
+            var builder = new SortedBag.Builder<Card>();
+            for (var card : Card.ALL)
+                builder.add(rng.nextInt(3) * rng.nextInt(20), card);
+            var cards = builder.build();
+            assertEquals(cards, roundTrip(BinarySerdes.OF_SORTED_BAG_OF_CARD, cards));
+        }
+        assertEquals(1, size(BinarySerdes.OF_SORTED_BAG_OF_CARD, SortedBag.of()));
+        assertEquals(3, size(BinarySerdes.OF_SORTED_BAG_OF_CARD, SortedBag.of(5, Card.LOCOMOTIVE)));
+    }
+
+    @Test
+    void binarySerdesOfListOfSortedBagsOfCardsWorks() {
+        var options = List.of(SortedBag.of(2, Card.BLUE), SortedBag.of(1, Card.BLUE, 1, Card.LOCOMOTIVE),
+                SortedBag.<Card>of());
+        assertEquals(options, roundTrip(BinarySerdes.OF_LIST_OF_SORTED_BAGS_OF_CARDS, options));
+    }
+
+    @Test
+    void binarySerdesOfGameStatesWorkOnWholeGames() {
+        for (int playerCount = 2; playerCount <= 3; playerCount++) {
+            var ownStateSerde = playerCount == 2 ? Serdes.OF_PLAYER_STATE : Serdes.OF_SUPP_PLAYER_STATE;
+            var binaryOwnStateSerde = playerCount == 2 ?
+                    BinarySerdes.OF_PLAYER_STATE : BinarySerdes.OF_SUPP_PLAYER_STATE;
+
+            var states = new ArrayList<PublicGameState>();
+            var ownStates = new ArrayList<PlayerState>();
+            var players = new EnumMap<PlayerId, Player>(PlayerId.class);
+            var names = new EnumMap<PlayerId, String>(PlayerId.class);
+            for (int i = 0; i < playerCount; i++) {
+                var bot = new RandomBot(new Random(i));
+                players.put(PlayerId.ALL.get(i), i > 0 ? bot : new ForwardingPlayer(bot) {
+                    @Override
+                    public void updateState(PublicGameState newState, PlayerState ownState) {
+                        states.add(newState);
+                        ownStates.add(ownState);
+                        super.updateState(newState, ownState);
+                    }
+                });
+                names.put(PlayerId.ALL.get(i), "Joueur " + i);
+            }
+            var tickets = playerCount == 2 ? ChMap.tickets() : ChMap.supplementaryTickets();
+            Game.simulate(players, names, SortedBag.of(tickets), new Random(playerCount), false, 1_000);
+
+            for (int i = 0; i < states.size(); i++) {
+                assertEquals(Serdes.OF_PUBLIC_GAME_STATE.serialize(states.get(i)),
+                        Serdes.OF_PUBLIC_GAME_STATE.serialize(roundTrip(BinarySerdes.OF_PUBLIC_GAME_STATE,
+                                states.get(i))));
+                assertEquals(ownStateSerde.serialize(ownStates.get(i)),
+                        ownStateSerde.serialize(roundTrip(binaryOwnStateSerde, ownStates.get(i))));
+            }
+        }
+    }
+
+    @Test
+    void remotePlayersNegotiateBinaryFormatAndPlayLikeLocalPlayers() throws Exception {
+        assertEquals(List.of(WireFormat.BINARY, WireFormat.BINARY),
+                playRemoteGame(WireFormat.BINARY, WireFormat.BINARY));
+        assertEquals(List.of(WireFormat.TEXT, WireFormat.TEXT), playRemoteGame(WireFormat.BINARY, WireFormat.TEXT));
+        assertEquals(List.of(WireFormat.TEXT, WireFormat.TEXT), playRemoteGame(WireFormat.TEXT, WireFormat.BINARY));
+    }
+
+    private static List<WireFormat> playRemoteGame(WireFormat proxyFormat, WireFormat clientFormat)
+            throws IOException, InterruptedException {
+        var names = new EnumMap<PlayerId, String>(Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles"));
+        var tickets = SortedBag.of(ChMap.tickets());
+
+        var localPlayers = new EnumMap<PlayerId, Player>(PlayerId.class);
+        for (var id : names.keySet())
+            localPlayers.put(id, new RandomBot(new Random(id.ordinal())));
+        var localResult = Game.simulate(localPlayers, names, tickets, new Random(7), true, 1_000);
+
+        var proxies = new EnumMap<PlayerId, RemotePlayerProxy>(PlayerId.class);
+        var clients = new ArrayList<Thread>();
+        var sockets = new ArrayList<Socket>();
+        try (var serverSocket = new ServerSocket(0)) {
+            for (var id : List.of(PlayerId.PLAYER_1, PlayerId.PLAYER_2)) {
+                var client = new RemotePlayerClient(new RandomBot(new Random(id.ordinal())),
+                        "localhost", serverSocket.getLocalPort(), clientFormat);
+                var clientThread = new Thread(client::run);
+                clientThread.setDaemon(true);
+                clientThread.start();
+                clients.add(clientThread);
+                sockets.add(serverSocket.accept());
+                proxies.put(id, new RemotePlayerProxy(sockets.get(sockets.size() - 1), proxyFormat));
+            }
+            RemotePlayerProxy.shareEncodings(proxies.values());
+
+            var remoteResult = Game.simulate(new EnumMap<>(proxies), names, tickets, new Random(7), true, 1_000);
+            proxies.values().forEach(RemotePlayerProxy::awaitPendingMessages);
+            assertEquals(localResult.toString(), remoteResult.toString());
+        } finally {
+            for (var socket : sockets)
+                socket.close();
+        }
+
+        var formats = new ArrayList<WireFormat>();
+        for (var proxy : proxies.values())
+            formats.add(proxy.wireFormat());
+        for (var client : clients)
+            client.join(10_000);
+        return formats;
+    }
+
+    private static class ForwardingPlayer implements Player {
+        private final Player player;
+
+        private ForwardingPlayer(Player player) {
+            this.player = player;
+        }
+
+        @Override
+        public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+            player.initPlayers(ownId, playerNames);
+        }
+
+        @Override
+        public void receiveInfo(String info) {
+            player.receiveInfo(info);
+        }
+
+        @Override
+        public void updateState(PublicGameState newState, PlayerState ownState) {
+            player.updateState(newState, ownState);
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+            player.setInitialTicketChoice(tickets);
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseInitialTickets() {
+            return player.chooseInitialTickets();
+        }
+
+        @Override
+        public TurnKind nextTurn() {
+            return player.nextTurn();
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+            return player.chooseTickets(options);
+        }
+
+        @Override
+        public int drawSlot() {
+            return player.drawSlot();
+        }
+
+        @Override
+        public Route claimedRoute() {
+            return player.claimedRoute();
+        }
+
+        @Override
+        public SortedBag<Card> initialClaimCards() {
+            return player.initialClaimCards();
+        }
+
+        @Override
+        public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+            return player.chooseAdditionalCards(options);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+import ch.epfl.tchu.sim.RandomBot;
+import org.junit.jupiter.api.Test;
+
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistogramMetricsTest {
+    @Test
+    void histogramRecordsSmallValuesExactly() {
+        var histogram = new Histogram();
+        for (int i = 1; i <= 20; i++)
+            histogram.record(i);
+
+        assertEquals(20, histogram.count());
+        assertEquals(20, histogram.max());
+        assertEquals(10.5, histogram.mean());
+        assertEquals(1, histogram.valueAtPercentile(0));
+        assertEquals(10, histogram.valueAtPercentile(50));
+        assertEquals(19, histogram.valueAtPercentile(95));
+        assertEquals(20, histogram.valueAtPercentile(100));
+    }
+
+    @Test
+    void histogramPercentilesHaveBoundedRelativeError() {
+        var histogram = new Histogram();
+        var rng = new Random(2021);
+        var values = new long[10_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(rng.nextDouble() * 40);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (var percentile : new double[]{1, 10, 50, 90, 99, 99.9}) {
+            var expected = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            var actual = histogram.valueAtPercentile(percentile);
+            assertTrue(actual >= expected);
+            assertTrue(actual <= expected + expected / 32);
+        }
+        assertEquals(values[values.length - 1], histogram.valueAtPercentile(100));
+        assertEquals(Long.MAX_VALUE, recorded(Long.MAX_VALUE).valueAtPercentile(50));
+    }
+
+    @Test
+    void histogramFailsWithInvalidArguments() {
+        var histogram = new Histogram();
+        assertThrows(IllegalArgumentException.class, () -> histogram.record(-1));
+        assertThrows(IllegalArgumentException.class, () -> histogram.valueAtPercentile(-1));
+        assertThrows(IllegalArgumentException.class, () -> histogram.valueAtPercentile(100.5));
+        assertEquals(0, histogram.valueAtPercentile(50));
+        assertEquals(0, histogram.mean());
+    }
+
+    @Test
+    void proxiesAndClientsMeasureTheMessagesTheyExchange() throws Exception {
+        var names = new EnumMap<PlayerId, String>(Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles"));
+        var proxyMetrics = new HistogramMetrics();
+        var clientMetrics = new HistogramMetrics();
+
+        var proxies = new EnumMap<PlayerId, RemotePlayerProxy>(PlayerId.class);
+        var clients = new ArrayList<Thread>();
+        var sockets = new ArrayList<Socket>();
+        try (var serverSocket = new ServerSocket(0)) {
+            for (var id : List.of(PlayerId.PLAYER_1, PlayerId.PLAYER_2)) {
+                var client = new RemotePlayerClient(new RandomBot(new Random(id.ordinal())),
+                        "localhost", serverSocket.getLocalPort(), WireFormat.BINARY);
+                client.setMetrics(clientMetrics);
+                var clientThread = new Thread(client::run);
+                clientThread.setDaemon(true);
+                clientThread.start();
+                clients.add(clientThread);
+                sockets.add(serverSocket.accept());
+                var proxy = new RemotePlayerProxy(sockets.get(sockets.size() - 1), WireFormat.BINARY);
+                proxy.setMetrics(proxyMetrics);
+                proxies.put(id, proxy);
+            }
+
+            Game.simulate(new EnumMap<>(proxies), names, SortedBag.of(ChMap.tickets()), new Random(7), true, 1_000);
+            proxies.values().forEach(RemotePlayerProxy::awaitPendingMessages);
+        } finally {
+            for (var socket : sockets)
+                socket.close();
+        }
+        for (var client : clients)
+            client.join(10_000);
+
+        // Chaque demande reçoit une réponse, rapportée au type de la demande des deux côtés
+        long turnCount = proxyMetrics.sentCount(MessageId.NEXT_TURN);
+        assertTrue(turnCount > 0);
+        assertEquals(turnCount, proxyMetrics.roundTripTimes(MessageId.NEXT_TURN).count());
+        assertEquals(turnCount, proxyMetrics.receivedCount(MessageId.NEXT_TURN));
+        assertEquals(turnCount, clientMetrics.receivedCount(MessageId.NEXT_TURN));
+        assertEquals(turnCount, clientMetrics.sentCount(MessageId.NEXT_TURN));
+        assertEquals(turnCount, clientMetrics.handlingTimes(MessageId.NEXT_TURN).count());
+        assertEquals(clientMetrics.bytesSent(MessageId.NEXT_TURN), proxyMetrics.bytesReceived(MessageId.NEXT_TURN));
+        assertEquals(proxyMetrics.bytesSent(MessageId.NEXT_TURN), clientMetrics.bytesReceived(MessageId.NEXT_TURN));
+
+        // Le dernier message reçu par un client n'est rapporté que s'il en lit un autre
+        for (var id : List.of(MessageId.RECEIVE_INFO, MessageId.UPDATE_STATE_DELTA)) {
+            long sentCount = proxyMetrics.sentCount(id);
+            assertTrue(sentCount > 0);
+            assertTrue(clientMetrics.receivedCount(id) >= sentCount - clients.size());
+            assertEquals(0, proxyMetrics.receivedCount(id));
+        }
+
+        var roundTrip = proxyMetrics.roundTripTimes(MessageId.NEXT_TURN);
+        assertTrue(roundTrip.valueAtPercentile(50) <= roundTrip.max());
+        assertTrue(proxyMetrics.report().contains("NEXT_TURN: " + turnCount + " envoyés"));
+        assertTrue(clientMetrics.report().contains("traitement"));
+    }
+
+    private static Histogram recorded(long value) {
+        var histogram = new Histogram();
+        histogram.record(value);
+        return histogram;
+    }
+}
@@ -0,0 +1,33 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.sim.GreedyBot;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadTestTest {
+    @Test
+    void loadTestConstructorFailsWithInvalidClientCount() {
+        assertThrows(IllegalArgumentException.class, () -> new LoadTest("localhost", 0, 0, GreedyBot::new));
+    }
+
+    @Test
+    void loadTestPlaysAllGamesAndReportsTurnsAndLatencies() {
+        try (var server = new LobbyServer(0, 2, 60_000)) {
+            var serverThread = new Thread(server::run);
+            serverThread.setDaemon(true);
+            serverThread.start();
+
+            var report = new LoadTest("localhost", server.port(), 6, GreedyBot::new).run();
+
+            assertEquals(3, server.playedTableCount());
+            assertEquals(6, report.clientCount());
+            assertTrue(report.turnCount() > 0);
+            assertTrue(report.turnsPerSecond() > 0);
+            assertTrue(0 < report.latencyAtPercentile(50));
+            assertTrue(report.latencyAtPercentile(50) <= report.latencyAtPercentile(90));
+            assertTrue(report.latencyAtPercentile(90) <= report.latencyAtPercentile(99));
+            assertTrue(report.latencyAtPercentile(99) <= report.maxLatency());
+        }
+    }
+}
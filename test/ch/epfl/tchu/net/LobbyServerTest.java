@@ -0,0 +1,83 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.sim.RandomBot;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LobbyServerTest {
+    @Test
+    void lobbyServerConstructorFailsWithInvalidTableSize() {
+        assertThrows(IllegalArgumentException.class, () -> new LobbyServer(0, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new LobbyServer(0, 4, 0));
+    }
+
+    @Test
+    void lobbyServerPlaysConcurrentTables() throws InterruptedException {
+        try (var server = new LobbyServer(0, 2, 60_000)) {
+            var serverThread = new Thread(server::run);
+            serverThread.setDaemon(true);
+            serverThread.start();
+
+            var clients = new ArrayList<Thread>();
+            for (int i = 0; i < 6; i++) {
+                var client = new RemotePlayerClient(new RandomBot(new Random(i)), "localhost", server.port());
+                var clientThread = new Thread(client::run);
+                clientThread.setDaemon(true);
+                clientThread.start();
+                clients.add(clientThread);
+            }
+            for (var client : clients)
+                client.join(60_000);
+
+            assertEquals(0, server.activeTableCount());
+            assertEquals(3, server.playedTableCount());
+        }
+    }
+
+    @Test
+    void lobbyServerPlaysTablesOfNonBlockingClients() throws Exception {
+        try (var server = new LobbyServer(0, 3, 60_000); var transport = new NioTransport()) {
+            var serverThread = new Thread(server::run);
+            serverThread.setDaemon(true);
+            serverThread.start();
+
+            var clients = new ArrayList<CompletableFuture<Void>>();
+            for (int i = 0; i < 12; i++) {
+                var client = new RemotePlayerClient(new RandomBot(new Random(i)), "localhost", server.port());
+                clients.add(client.runOn(transport));
+            }
+            CompletableFuture.allOf(clients.toArray(CompletableFuture[]::new)).get(60, TimeUnit.SECONDS);
+
+            assertEquals(0, server.activeTableCount());
+            assertEquals(4, server.playedTableCount());
+        }
+    }
+
+    @Test
+    void lobbyServerStartsIncompleteTableAfterMaxWait() throws InterruptedException {
+        try (var server = new LobbyServer(0, 3, 0)) {
+            var serverThread = new Thread(server::run);
+            serverThread.setDaemon(true);
+            serverThread.start();
+
+            var clients = new ArrayList<Thread>();
+            for (int i = 0; i < 2; i++) {
+                var client = new RemotePlayerClient(new RandomBot(new Random(i)), "localhost", server.port());
+                var clientThread = new Thread(client::run);
+                clientThread.setDaemon(true);
+                clientThread.start();
+                clients.add(clientThread);
+            }
+            for (var client : clients)
+                client.join(60_000);
+
+            assertEquals(1, server.playedTableCount());
+        }
+    }
+}
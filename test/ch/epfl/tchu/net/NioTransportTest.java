@@ -0,0 +1,98 @@
+package ch.epfl.tchu.net;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.*;
+
+class NioTransportTest {
+    @Test
+    void nioTransportFramesMessagesByLine() throws Exception {
+        try (var transport = new NioTransport(); var server = new ServerSocket(0)) {
+            var connection = transport.connect("localhost", server.getLocalPort(), null);
+            try (var socket = server.accept()) {
+                var out = socket.getOutputStream();
+                out.write("NEXT_".getBytes(US_ASCII));
+                out.flush();
+                Thread.sleep(20);
+                out.write("TURN\n\nDRAW_SLOT 2\n".getBytes(US_ASCII));
+                out.write(("x".repeat(MessageCodec.MAX_MESSAGE_SIZE) + "\n").getBytes(US_ASCII));
+                out.flush();
+
+                assertEquals("NEXT_TURN", connection.read());
+                assertEquals("", connection.read());
+                assertEquals("DRAW_SLOT 2", connection.read());
+                assertEquals(MessageCodec.MAX_MESSAGE_SIZE, connection.read().length());
+            }
+        }
+    }
+
+    @Test
+    void nioTransportClosesConnectionsSendingTooLongLines() throws Exception {
+        try (var transport = new NioTransport(); var server = new ServerSocket(0)) {
+            var connection = transport.connect("localhost", server.getLocalPort(), null);
+            try (var socket = server.accept()) {
+                var out = socket.getOutputStream();
+                out.write("RECEIVE_INFO abc\n".getBytes(US_ASCII));
+                out.write("x".repeat(MessageCodec.MAX_MESSAGE_SIZE + 1).getBytes(US_ASCII));
+                out.flush();
+
+                assertEquals("RECEIVE_INFO abc", connection.read());
+                assertThrows(UncheckedIOException.class, connection::read);
+                connection.closed().get(10, TimeUnit.SECONDS);
+                assertEquals(-1, socket.getInputStream().read());
+            }
+        }
+    }
+
+    @Test
+    void nioTransportSendsMessagesInOrder() throws Exception {
+        try (var transport = new NioTransport(); var server = new ServerSocket(0)) {
+            var connection = transport.connect("localhost", server.getLocalPort(), null);
+            try (var socket = server.accept()) {
+                for (int i = 0; i < 10_000; i++)
+                    connection.write("RECEIVE_INFO " + i);
+                connection.close();
+
+                var reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), US_ASCII));
+                for (int i = 0; i < 10_000; i++)
+                    assertEquals("RECEIVE_INFO " + i, reader.readLine());
+                assertNull(reader.readLine());
+                connection.closed().get(10, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    @Test
+    void nioTransportRepliesWithHandler() throws Exception {
+        try (var transport = new NioTransport(); var server = new ServerSocket(0)) {
+            var connection = transport.connect("localhost", server.getLocalPort(),
+                    m -> m.startsWith("NEXT_TURN") ? "1" : null);
+            try (var socket = server.accept()) {
+                var writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), US_ASCII));
+                var reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), US_ASCII));
+                writer.write("RECEIVE_INFO abc\nNEXT_TURN\n");
+                writer.flush();
+                assertEquals("1", reader.readLine());
+            }
+            connection.closed().get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void nioTransportReadFailsOnceClosed() throws Exception {
+        try (var transport = new NioTransport(); var server = new ServerSocket(0)) {
+            var connection = transport.connect("localhost", server.getLocalPort(), null);
+            server.accept().close();
+
+            assertThrows(UncheckedIOException.class, connection::read);
+            assertThrows(UncheckedIOException.class, connection::read);
+            connection.closed().get(10, TimeUnit.SECONDS);
+            assertThrows(UncheckedIOException.class, () -> connection.write("NEXT_TURN"));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RemotePlayerProxyTest {
+    private static final int INFO_COUNT = 200;
+
+    @Test
+    void remotePlayerProxyDoesNotWaitForAStalledClientToBroadcast() throws IOException {
+        try (var serverSocket = new ServerSocket(0); var stalledClientSocket = new Socket()) {
+            stalledClientSocket.connect(serverSocket.getLocalSocketAddress());
+            var stalled = new RemotePlayerProxy(serverSocket.accept());
+
+            var receivedInfoCount = new AtomicInteger();
+            var client = new RemotePlayerClient(new CountingPlayer(receivedInfoCount),
+                    "localhost", serverSocket.getLocalPort());
+            var clientThread = new Thread(client::run);
+            clientThread.setDaemon(true);
+            clientThread.start();
+
+            try (var socket = serverSocket.accept()) {
+                var responsive = new RemotePlayerProxy(socket);
+                var names = Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles");
+                var info = "x".repeat(1 << 16);
+
+                // Le client bloqué ne lit jamais ses messages, qui finissent par remplir les tampons de sa prise
+                assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                    stalled.initPlayers(PlayerId.PLAYER_1, names);
+                    responsive.initPlayers(PlayerId.PLAYER_2, names);
+                    for (int i = 0; i < INFO_COUNT; i++) {
+                        stalled.receiveInfo(info);
+                        responsive.receiveInfo(info);
+                    }
+                    assertEquals(3, responsive.drawSlot());
+                });
+                assertEquals(INFO_COUNT, receivedInfoCount.get());
+
+                stalled.close();
+                assertThrows(UncheckedIOException.class, stalled::awaitPendingMessages);
+                assertThrows(UncheckedIOException.class, () -> stalled.receiveInfo(info));
+            }
+        }
+    }
+
+    private static final class CountingPlayer implements Player {
+        private final AtomicInteger receivedInfoCount;
+
+        private CountingPlayer(AtomicInteger receivedInfoCount) {
+            this.receivedInfoCount = receivedInfoCount;
+        }
+
+        @Override
+        public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+        }
+
+        @Override
+        public void receiveInfo(String info) {
+            receivedInfoCount.incrementAndGet();
+        }
+
+        @Override
+        public void updateState(PublicGameState newState, PlayerState ownState) {
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseInitialTickets() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public TurnKind nextTurn() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int drawSlot() {
+            return 3;
+        }
+
+        @Override
+        public Route claimedRoute() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SortedBag<Card> initialClaimCards() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SerdesTest {
+    private static PublicGameState sampleState() {
+        var routes = ChMap.routes();
+        Map<PlayerId, PublicPlayerState> playerStates = new EnumMap<>(PlayerId.class);
+        playerStates.put(PlayerId.PLAYER_1, new PublicPlayerState(10, 11, routes.subList(0, 2)));
+        playerStates.put(PlayerId.PLAYER_2, new PublicPlayerState(20, 21, List.of()));
+        var faceUpCards = List.of(Card.RED, Card.WHITE, Card.BLUE, Card.BLACK, Card.RED);
+        var cardState = new PublicCardState(faceUpCards, 30, 31);
+        return new PublicGameState(40, cardState, PlayerId.PLAYER_2, playerStates, null);
+    }
+
+    @Test
+    void serdesOfPublicGameStateKeepsTheTextFormat() {
+        assertEquals("40:6,7,2,0,6;30;31:1:10;11;0,1:20;21;::", Serdes.OF_PUBLIC_GAME_STATE.serialize(sampleState()));
+    }
+
+    @Test
+    void serdesSerializeToAppendsToTheBuilder() {
+        var sb = new StringBuilder("UPDATE_STATE ");
+        Serdes.OF_PUBLIC_GAME_STATE.serializeTo(sampleState(), sb);
+        sb.append(' ');
+        Serdes.OF_SORTED_BAG_OF_CARD.serializeTo(SortedBag.of(2, Card.BLUE, 1, Card.LOCOMOTIVE), sb);
+        assertEquals("UPDATE_STATE 40:6,7,2,0,6;30;31:1:10;11;0,1:20;21;:: 2,2,8", sb.toString());
+    }
+
+    @Test
+    void serdesDeserializeRangeOnlyReadsTheRange() {
+        var message = "ROUTE 12,3,7 -5 " + Serdes.OF_PUBLIC_GAME_STATE.serialize(sampleState()) + " end";
+        assertEquals(List.of(ChMap.routes().get(12), ChMap.routes().get(3), ChMap.routes().get(7)),
+                Serdes.OF_LIST_OF_ROUTES.deserialize(message, 6, 12));
+        assertEquals(-5, Serdes.OF_INTEGER.deserialize(message, 13, 15));
+
+        int stateEnd = message.length() - " end".length();
+        var state = Serdes.OF_PUBLIC_GAME_STATE.deserialize(message, 16, stateEnd);
+        assertEquals(Serdes.OF_PUBLIC_GAME_STATE.serialize(sampleState()),
+                Serdes.OF_PUBLIC_GAME_STATE.serialize(state));
+        assertNull(state.lastPlayer());
+        assertNull(state.playerState(PlayerId.PLAYER_3));
+    }
+
+    @Test
+    void serdesOfCollectionsWorkOnEmptyCollections() {
+        assertEquals(List.of(), Serdes.OF_LIST_OF_ROUTES.deserialize("x", 1, 1));
+        assertEquals(SortedBag.of(), Serdes.OF_SORTED_BAG_OF_TICKETS.deserialize(""));
+        assertEquals(List.of(SortedBag.of(), SortedBag.of(1, Card.RED)),
+                Serdes.OF_LIST_OF_SORTED_BAGS_OF_CARDS.deserialize(";6"));
+    }
+
+    @Test
+    void serdesOneOfWorksOnAllValues() {
+        for (int i = 0; i < ChMap.routes().size(); i++) {
+            var route = ChMap.routes().get(i);
+            assertEquals(Integer.toString(i), Serdes.OF_ROUTE.serialize(route));
+            assertSame(route, Serdes.OF_ROUTE.deserialize(Serdes.OF_ROUTE.serialize(route)));
+        }
+    }
+}
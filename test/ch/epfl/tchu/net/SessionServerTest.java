@@ -0,0 +1,231 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+import ch.epfl.tchu.sim.RandomBot;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionServerTest {
+    @Test
+    void keepAliveConstructorFailsWithInvalidDelays() {
+        assertThrows(IllegalArgumentException.class, () -> new KeepAlive(0, 100, 100));
+        assertThrows(IllegalArgumentException.class, () -> new KeepAlive(100, 100, 100));
+        assertThrows(IllegalArgumentException.class, () -> new KeepAlive(10, 100, -1));
+    }
+
+    @Test
+    void sessionServerResumesTheGameWhenAClientReconnects() throws Exception {
+        var keepAlive = new KeepAlive(20, 2_000, 2_000);
+        try (var server = new SessionServer(0, keepAlive); var relay = new Relay(server.port())) {
+            var clients = new ArrayList<Thread>();
+            var proxies = new EnumMap<PlayerId, Player>(PlayerId.class);
+            for (var id : List.of(PlayerId.PLAYER_1, PlayerId.PLAYER_2)) {
+                int port = id == PlayerId.PLAYER_1 ? relay.port() : server.port();
+                var client = new RemotePlayerClient(new RandomBot(new Random(id.ordinal())),
+                        "localhost", port, WireFormat.BINARY, keepAlive);
+                var clientThread = new Thread(client::run);
+                clientThread.setDaemon(true);
+                clientThread.start();
+                clients.add(clientThread);
+                proxies.put(id, server.accept(WireFormat.BINARY));
+            }
+
+            // La connexion du premier joueur est coupée au milieu de la partie, juste avant qu'il ne joue
+            var turnCount = new AtomicInteger();
+            var player1 = proxies.get(PlayerId.PLAYER_1);
+            proxies.put(PlayerId.PLAYER_1, new ForwardingPlayer(player1) {
+                @Override
+                public TurnKind nextTurn() {
+                    if (turnCount.incrementAndGet() == 10)
+                        relay.cut();
+                    return super.nextTurn();
+                }
+            });
+
+            var names = new EnumMap<PlayerId, String>(PlayerId.class);
+            names.put(PlayerId.PLAYER_1, "Ada");
+            names.put(PlayerId.PLAYER_2, "Charles");
+            var result = Game.simulate(proxies, names, SortedBag.of(ChMap.tickets()), new Random(7), true, 1_000);
+
+            assertTrue(turnCount.get() > 10);
+            assertTrue(result.turnCount() > 20);
+            assertEquals(2, relay.connectionCount());
+            assertEquals(WireFormat.BINARY, ((RemotePlayerProxy) player1).wireFormat());
+
+            // Les clients, refusés lorsqu'ils tentent de se reconnecter, se terminent alors que le serveur est ouvert
+            for (var proxy : List.of(player1, proxies.get(PlayerId.PLAYER_2))) {
+                ((RemotePlayerProxy) proxy).awaitPendingMessages();
+                ((RemotePlayerProxy) proxy).close();
+            }
+            for (var client : clients) {
+                client.join(10_000);
+                assertFalse(client.isAlive());
+            }
+        }
+    }
+
+    @Test
+    void remotePlayerProxyGivesUpOnASilentClient() throws IOException {
+        var keepAlive = new KeepAlive(20, 200, 200);
+        try (var server = new SessionServer(0, keepAlive);
+             var socket = new Socket("localhost", server.port())) {
+            // Le client accepte sa session, puis ne répond plus et n'envoie aucun battement de cœur
+            var reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), US_ASCII));
+            var session = reader.readLine().replace("\0", "");
+            assertTrue(session.startsWith("SESSION "));
+            var token = Serdes.OF_STRING.deserialize(session.substring("SESSION ".length()));
+            socket.getOutputStream().write((Serdes.OF_STRING.serialize(token) + "\n").getBytes(US_ASCII));
+            socket.getOutputStream().flush();
+
+            var proxy = server.accept(WireFormat.TEXT);
+            long start = System.nanoTime();
+            assertThrows(UncheckedIOException.class, proxy::drawSlot);
+            assertTrue(System.nanoTime() - start >= 300_000_000L);
+        }
+    }
+
+    /**
+     * Relais TCP entre les clients et le serveur, dont les connexions peuvent être coupées.
+     */
+    private static final class Relay implements Closeable {
+        private final ServerSocket serverSocket;
+        private final List<Socket> sockets = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger connectionCount = new AtomicInteger();
+
+        private Relay(int targetPort) throws IOException {
+            serverSocket = new ServerSocket(0);
+            var acceptor = new Thread(() -> {
+                try {
+                    while (true) {
+                        var client = serverSocket.accept();
+                        var target = new Socket("localhost", targetPort);
+                        sockets.add(client);
+                        sockets.add(target);
+                        connectionCount.incrementAndGet();
+                        pump(client, target);
+                        pump(target, client);
+                    }
+                } catch (IOException e) {
+                    // Le relais est fermé
+                }
+            });
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        private static void pump(Socket from, Socket to) {
+            var thread = new Thread(() -> {
+                try {
+                    from.getInputStream().transferTo(to.getOutputStream());
+                } catch (IOException e) {
+                    // La connexion est coupée
+                }
+                try {
+                    from.close();
+                    to.close();
+                } catch (IOException ignored) {
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private int port() {
+            return serverSocket.getLocalPort();
+        }
+
+        private int connectionCount() {
+            return connectionCount.get();
+        }
+
+        private void cut() {
+            synchronized (sockets) {
+                for (var socket : sockets) {
+                    try {
+                        socket.close();
+                    } catch (IOException ignored) {
+                    }
+                }
+                sockets.clear();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            cut();
+        }
+    }
+
+    private static class ForwardingPlayer implements Player {
+        private final Player player;
+
+        private ForwardingPlayer(Player player) {
+            this.player = player;
+        }
+
+        @Override
+        public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+            player.initPlayers(ownId, playerNames);
+        }
+
+        @Override
+        public void receiveInfo(String info) {
+            player.receiveInfo(info);
+        }
+
+        @Override
+        public void updateState(PublicGameState newState, PlayerState ownState) {
+            player.updateState(newState, ownState);
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+            player.setInitialTicketChoice(tickets);
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseInitialTickets() {
+            return player.chooseInitialTickets();
+        }
+
+        @Override
+        public TurnKind nextTurn() {
+            return player.nextTurn();
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+            return player.chooseTickets(options);
+        }
+
+        @Override
+        public int drawSlot() {
+            return player.drawSlot();
+        }
+
+        @Override
+        public Route claimedRoute() {
+            return player.claimedRoute();
+        }
+
+        @Override
+        public SortedBag<Card> initialClaimCards() {
+            return player.initialClaimCards();
+        }
+
+        @Override
+        public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+            return player.chooseAdditionalCards(options);
+        }
+    }
+}
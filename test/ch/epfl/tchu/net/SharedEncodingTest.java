@@ -0,0 +1,71 @@
+package ch.epfl.tchu.net;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SharedEncodingTest {
+    @Test
+    void sharedEncodingOfMessageEncodesLikeACodec() {
+        var encoding = SharedEncoding.ofMessage(MessageId.RECEIVE_INFO, Serdes.OF_STRING, BinarySerdes.OF_STRING);
+        var info = "Ada a pris possession de la route Lausanne – Neuchâtel.";
+
+        var expectedText = "RECEIVE_INFO " + Serdes.OF_STRING.serialize(info) + "\n";
+        assertEquals(expectedText, new String(encoding.encode(info, WireFormat.TEXT), US_ASCII));
+
+        var buffer = ByteBuffer.allocate(1 << 10);
+        buffer.put((byte) MessageId.RECEIVE_INFO.ordinal());
+        BinarySerdes.OF_STRING.write(info, buffer);
+        assertArrayEquals(Arrays.copyOf(buffer.array(), buffer.position()), encoding.encode(info, WireFormat.BINARY));
+    }
+
+    @Test
+    void sharedEncodingOnlyEncodesTheSameValueOnce() {
+        var encoding = SharedEncoding.ofValue(Serdes.OF_STRING, BinarySerdes.OF_STRING);
+        var info = "x".repeat(10_000);
+
+        var text = encoding.encode(info, WireFormat.TEXT);
+        var binary = encoding.encode(info, WireFormat.BINARY);
+        assertSame(text, encoding.encode(info, WireFormat.TEXT));
+        assertSame(binary, encoding.encode(info, WireFormat.BINARY));
+        assertEquals(Serdes.OF_STRING.serialize(info), new String(text, US_ASCII));
+
+        var copy = new String(info);
+        assertNotSame(text, encoding.encode(copy, WireFormat.TEXT));
+        assertArrayEquals(text, encoding.encode(copy, WireFormat.TEXT));
+    }
+
+    @Test
+    void sharedEncodingEncodesAValueOnceWhenRequestedConcurrently() throws Exception {
+        var encoding = SharedEncoding.ofValue(Serdes.OF_STRING, BinarySerdes.OF_STRING);
+        var info = "x".repeat(100_000);
+        int threadCount = 8;
+
+        var executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            var start = new CountDownLatch(1);
+            var results = new ArrayList<Future<byte[]>>();
+            for (int i = 0; i < threadCount; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return encoding.encode(info, WireFormat.TEXT);
+                }));
+            }
+            start.countDown();
+
+            var first = results.get(0).get();
+            for (var result : results)
+                assertSame(first, result.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
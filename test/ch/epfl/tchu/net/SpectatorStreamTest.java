@@ -0,0 +1,198 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+import ch.epfl.tchu.sim.RandomBot;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.*;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpectatorStreamTest {
+    private static final int SPECTATOR_COUNT = 50;
+
+    @Test
+    void spectatorStreamConstructorFailsWithInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new SpectatorStream(0, 100));
+        assertThrows(IllegalArgumentException.class, () -> new SpectatorStream(16, -1));
+    }
+
+    @Test
+    void spectatorStreamSendsTheWholeGameToEverySpectator() throws Exception {
+        var stream = new SpectatorStream(1 << 16, 60_000);
+        var spectators = new ArrayList<RecordingSpectator>();
+        var threads = new ArrayList<Thread>();
+        try (var serverSocket = new ServerSocket(0)) {
+            for (int i = 0; i < SPECTATOR_COUNT; i++) {
+                var spectator = new RecordingSpectator();
+                spectators.add(spectator);
+                threads.add(startClient(spectator, serverSocket.getLocalPort()));
+                stream.addSpectator(serverSocket.accept());
+            }
+            assertEquals(SPECTATOR_COUNT, stream.spectatorCount());
+
+            playGame(stream);
+            stream.close();
+            for (var thread : threads) {
+                thread.join(10_000);
+                assertFalse(thread.isAlive());
+            }
+        }
+
+        var first = spectators.get(0);
+        assertEquals(List.of("Ada", "Charles"), List.copyOf(first.playerNames.values()));
+        assertFalse(first.infos.isEmpty());
+        assertTrue(first.stateCount > 0);
+        for (var spectator : spectators) {
+            assertEquals(first.playerNames, spectator.playerNames);
+            assertEquals(first.infos, spectator.infos);
+            assertEquals(first.stateCount, spectator.stateCount);
+            assertEquals(first.lastState, spectator.lastState);
+        }
+        assertEquals(0, stream.snapshotCount());
+        assertEquals(0, stream.droppedCount());
+        assertEquals(0, stream.spectatorCount());
+    }
+
+    @Test
+    void spectatorStreamSendsASnapshotToASlowSpectator() throws Exception {
+        var stream = new SpectatorStream(8, 60_000);
+        try (var serverSocket = new ServerSocket(0); var slowSocket = slowClient(serverSocket.getLocalPort())) {
+            stream.addSpectator(slowServerSocket(serverSocket));
+            var spectator = new RecordingSpectator();
+            var thread = startClient(spectator, serverSocket.getLocalPort());
+            stream.addSpectator(serverSocket.accept());
+
+            // Le spectateur lent lit le premier événement, afin que son retard ne puisse se résorber dans
+            // l'instantané reçu à son arrivée, puis ne lit plus rien pendant la partie, qui ne l'attend pas
+            stream.initPlayers(names());
+            var reader = new BufferedReader(new InputStreamReader(slowSocket.getInputStream(), US_ASCII));
+            var lines = new ArrayList<String>(List.of(reader.readLine()));
+            playGame(stream);
+            stream.close();
+            thread.join(10_000);
+
+            for (var line = reader.readLine(); line != null; line = reader.readLine())
+                lines.add(line);
+
+            // Le spectateur lent a reçu au moins un instantané, puis le même dernier état que l'autre spectateur
+            assertTrue(lines.get(0).startsWith("SPECTATE "));
+            assertTrue(lines.stream().filter(l -> l.startsWith("SPECTATE ")).count() > 1);
+            assertTrue(stream.snapshotCount() > 0);
+            var states = lines.stream().filter(l -> l.startsWith("UPDATE_PUBLIC_STATE ")).toArray(String[]::new);
+            assertEquals("UPDATE_PUBLIC_STATE " + spectator.lastState, states[states.length - 1]);
+            assertEquals(0, stream.droppedCount());
+        }
+    }
+
+    @Test
+    void spectatorStreamDropsAStalledSpectator() throws Exception {
+        // Le tampon contenant toute la partie, le spectateur bloqué n'a jamais plus de retard que sa taille : seule
+        // la fin de la partie peut le déconnecter
+        var stream = new SpectatorStream(1 << 16, 0);
+        try (var serverSocket = new ServerSocket(0); var slowSocket = slowClient(serverSocket.getLocalPort())) {
+            stream.addSpectator(slowServerSocket(serverSocket));
+
+            playGame(stream);
+            assertEquals(0, stream.droppedCount());
+            stream.close();
+            // Le spectateur est retiré avant d'être compté comme déconnecté
+            for (int i = 0; i < 1_000 && stream.droppedCount() == 0; i++)
+                Thread.sleep(10);
+
+            assertEquals(1, stream.droppedCount());
+            assertEquals(0, stream.spectatorCount());
+
+            // La connexion du spectateur est fermée après les messages qui lui ont déjà été envoyés
+            slowSocket.setSoTimeout(10_000);
+            slowSocket.getInputStream().transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    @Test
+    void spectatorStreamDropsAStalledSpectatorFallingBehindDuringTheGame() throws Exception {
+        var stream = new SpectatorStream(8, 0);
+        try (var serverSocket = new ServerSocket(0); var slowSocket = slowClient(serverSocket.getLocalPort())) {
+            stream.addSpectator(slowServerSocket(serverSocket));
+
+            // Chaque événement trouvant le spectateur bloqué avec plus de retard que la taille du tampon, il est
+            // déconnecté avant la fin de la partie
+            stream.initPlayers(names());
+            var info = "x".repeat(1 << 10);
+            for (int i = 0; i < 1_000 && stream.droppedCount() == 0; i++) {
+                stream.receiveInfo(info);
+                Thread.sleep(1);
+            }
+
+            assertEquals(1, stream.droppedCount());
+            assertEquals(0, stream.spectatorCount());
+            stream.close();
+            slowSocket.setSoTimeout(10_000);
+            slowSocket.getInputStream().transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    private static Thread startClient(Spectator spectator, int port) {
+        var thread = new Thread(new SpectatorClient(spectator, "localhost", port)::run);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    // Les tampons de la connexion d'un spectateur qui ne lit pas sont aussi petits que possible
+    private static Socket slowClient(int port) throws IOException {
+        var socket = new Socket();
+        socket.setReceiveBufferSize(1);
+        socket.connect(new InetSocketAddress("localhost", port));
+        return socket;
+    }
+
+    private static Socket slowServerSocket(ServerSocket serverSocket) throws IOException {
+        var socket = serverSocket.accept();
+        socket.setSendBufferSize(1);
+        return socket;
+    }
+
+    private static void playGame(SpectatorStream stream) {
+        var players = new EnumMap<PlayerId, Player>(PlayerId.class);
+        players.put(PlayerId.PLAYER_1, stream.observe(new RandomBot(new Random(1))));
+        players.put(PlayerId.PLAYER_2, new RandomBot(new Random(2)));
+        Game.simulate(players, names(), SortedBag.of(ChMap.tickets()), new Random(7), true, 1_000);
+    }
+
+    private static Map<PlayerId, String> names() {
+        return new EnumMap<>(Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles"));
+    }
+
+    private static final class RecordingSpectator implements Spectator {
+        private final Map<PlayerId, String> playerNames = new EnumMap<>(PlayerId.class);
+        private final List<String> infos = new ArrayList<>();
+        private int stateCount;
+        private String lastState;
+
+        @Override
+        public void initPlayers(Map<PlayerId, String> playerNames) {
+            this.playerNames.putAll(playerNames);
+        }
+
+        @Override
+        public void receiveInfo(String info) {
+            infos.add(info);
+        }
+
+        @Override
+        public void updateState(PublicGameState newState) {
+            stateCount += 1;
+            lastState = Serdes.OF_PUBLIC_GAME_STATE.serialize(newState);
+        }
+    }
+}
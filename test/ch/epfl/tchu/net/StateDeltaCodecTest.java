@@ -0,0 +1,254 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+import ch.epfl.tchu.sim.RandomBot;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StateDeltaCodecTest {
+    @Test
+    void stateDeltaCodecCannotEncodeWithoutPreviousState() {
+        var codec = new StateDeltaCodec();
+        var updates = recordedUpdates(1, 2);
+        assertFalse(codec.canEncode(updates.get(0).state, updates.get(0).ownState));
+    }
+
+    @Test
+    void stateDeltaCodecApplyFailsWithoutPreviousState() {
+        var codec = new StateDeltaCodec();
+        var update = recordedUpdates(1, 2).get(0);
+        assertThrows(IllegalStateException.class, () -> codec.apply(update.state, update.ownState));
+    }
+
+    @Test
+    void stateDeltaCodecReconstructsAllStatesOfTwoPlayerGames() {
+        for (long seed = 0; seed < 5; seed++) {
+            assertReconstructsAllStates(recordedUpdates(seed, 2), WireFormat.TEXT,
+                    Serdes.OF_PLAYER_STATE, BinarySerdes.OF_PLAYER_STATE);
+            assertReconstructsAllStates(recordedUpdates(seed, 2), WireFormat.BINARY,
+                    Serdes.OF_PLAYER_STATE, BinarySerdes.OF_PLAYER_STATE);
+        }
+    }
+
+    @Test
+    void stateDeltaCodecReconstructsAllStatesOfThreePlayerGames() {
+        for (long seed = 0; seed < 5; seed++) {
+            assertReconstructsAllStates(recordedUpdates(seed, 3), WireFormat.TEXT,
+                    Serdes.OF_SUPP_PLAYER_STATE, BinarySerdes.OF_SUPP_PLAYER_STATE);
+            assertReconstructsAllStates(recordedUpdates(seed, 3), WireFormat.BINARY,
+                    Serdes.OF_SUPP_PLAYER_STATE, BinarySerdes.OF_SUPP_PLAYER_STATE);
+        }
+    }
+
+    @Test
+    void stateDeltaCodecIsMuchSmallerThanFullStates() {
+        var updates = recordedUpdates(42, 2);
+        var sender = new StateDeltaCodec();
+        sender.reset(updates.get(0).state, updates.get(0).ownState);
+
+        long fullSize = 0, deltaSize = 0, fullBinarySize = 0, deltaBinarySize = 0;
+        for (int i = 1; i < updates.size(); i++) {
+            var update = updates.get(i);
+            assertTrue(sender.canEncode(update.state, update.ownState));
+            var publicDelta = sender.publicDelta(update.state);
+            var ownDelta = sender.ownDelta(update.ownState);
+            sender.reset(update.state, update.ownState);
+            // Seule la seconde moitié de la partie, où les états complets sont les plus longs, est mesurée
+            if (i < updates.size() / 2)
+                continue;
+
+            fullSize += Serdes.OF_PUBLIC_GAME_STATE.serialize(update.state).length()
+                    + Serdes.OF_PLAYER_STATE.serialize(update.ownState).length();
+            deltaSize += Serdes.OF_PUBLIC_GAME_STATE.serialize(publicDelta).length()
+                    + Serdes.OF_PLAYER_STATE.serialize(ownDelta).length();
+            fullBinarySize += binarySize(update.state, BinarySerdes.OF_PUBLIC_GAME_STATE)
+                    + binarySize(update.ownState, BinarySerdes.OF_PLAYER_STATE);
+            deltaBinarySize += binarySize(publicDelta, BinarySerdes.OF_PUBLIC_GAME_STATE)
+                    + binarySize(ownDelta, BinarySerdes.OF_PLAYER_STATE);
+        }
+        assertTrue(deltaSize * 2 < fullSize);
+        assertTrue(deltaBinarySize * 2 < fullBinarySize);
+        assertTrue(deltaBinarySize < deltaSize);
+    }
+
+    @Test
+    void stateDeltaCodecRefusesStatesOfAnotherGame() {
+        var sender = new StateDeltaCodec();
+        var game1 = recordedUpdates(1, 2);
+        var game2 = recordedUpdates(2, 2);
+        var last = game1.get(game1.size() - 1);
+        sender.reset(last.state, last.ownState);
+        assertFalse(sender.canEncode(game2.get(0).state, game2.get(0).ownState));
+    }
+
+    @Test
+    void stateDeltaCodecKeepsOwnStatesSeparateWhenSharingThePublicPart() {
+        var updates = recordedUpdates(3, 2);
+        var first = updates.get(0);
+        var otherOwnState = first.ownState;
+        var cache = new StateDeltaCodec.PublicDeltaCache();
+        var sender = new StateDeltaCodec(cache);
+        var otherSender = new StateDeltaCodec(cache);
+        var otherReceiver = new StateDeltaCodec();
+        var otherTableSender = new StateDeltaCodec();
+        sender.reset(first.state, first.ownState);
+        otherSender.reset(first.state, otherOwnState);
+        otherReceiver.reset(first.state, otherOwnState);
+        otherTableSender.reset(first.state, first.ownState);
+
+        for (var update : updates.subList(1, updates.size())) {
+            var publicDelta = sender.publicDelta(update.state);
+            sender.reset(update.state, update.ownState);
+            assertSame(publicDelta, otherSender.publicDelta(update.state));
+            assertNotSame(publicDelta, otherTableSender.publicDelta(update.state));
+            otherTableSender.reset(update.state, update.ownState);
+            otherReceiver.apply(publicDelta, otherSender.ownDelta(otherOwnState));
+            otherSender.reset(update.state, otherOwnState);
+
+            assertEquals(Serdes.OF_PUBLIC_GAME_STATE.serialize(update.state),
+                    Serdes.OF_PUBLIC_GAME_STATE.serialize(otherReceiver.state()));
+            assertEquals(Serdes.OF_PLAYER_STATE.serialize(otherOwnState),
+                    Serdes.OF_PLAYER_STATE.serialize(otherReceiver.ownState()));
+        }
+    }
+
+    // Transmet chaque différence au format donné, comme le font le mandataire et le client
+    private static void assertReconstructsAllStates(List<Update> updates, WireFormat format,
+                                                    Serde<PlayerState> playerStateSerde,
+                                                    BinarySerde<PlayerState> binaryPlayerStateSerde) {
+        var sender = new StateDeltaCodec();
+        var receiver = new StateDeltaCodec();
+        sender.reset(updates.get(0).state, updates.get(0).ownState);
+        receiver.reset(updates.get(0).state, updates.get(0).ownState);
+
+        for (var update : updates.subList(1, updates.size())) {
+            assertTrue(sender.canEncode(update.state, update.ownState));
+            var publicDelta = sender.publicDelta(update.state);
+            var ownDelta = sender.ownDelta(update.ownState);
+            sender.reset(update.state, update.ownState);
+            if (format == WireFormat.TEXT) {
+                receiver.apply(transmitted(publicDelta, Serdes.OF_PUBLIC_GAME_STATE),
+                        transmitted(ownDelta, playerStateSerde));
+            } else {
+                receiver.apply(transmitted(publicDelta, BinarySerdes.OF_PUBLIC_GAME_STATE),
+                        transmitted(ownDelta, binaryPlayerStateSerde));
+            }
+
+            assertEquals(Serdes.OF_PUBLIC_GAME_STATE.serialize(update.state),
+                    Serdes.OF_PUBLIC_GAME_STATE.serialize(receiver.state()));
+            assertEquals(playerStateSerde.serialize(update.ownState),
+                    playerStateSerde.serialize(receiver.ownState()));
+        }
+    }
+
+    private static <T> T transmitted(T value, Serde<T> serde) {
+        return serde.deserialize(serde.serialize(value));
+    }
+
+    private static <T> T transmitted(T value, BinarySerde<T> serde) {
+        var buffer = ByteBuffer.allocate(1 << 16);
+        serde.write(value, buffer);
+        return serde.read(buffer.flip());
+    }
+
+    private static <T> int binarySize(T value, BinarySerde<T> serde) {
+        var buffer = ByteBuffer.allocate(1 << 16);
+        serde.write(value, buffer);
+        return buffer.position();
+    }
+
+    private static List<Update> recordedUpdates(long seed, int playerCount) {
+        var rng = new Random(seed);
+        var recorder = new RecordingPlayer(new RandomBot(new Random(rng.nextLong())));
+        var players = new EnumMap<PlayerId, Player>(PlayerId.class);
+        var playerNames = new EnumMap<PlayerId, String>(PlayerId.class);
+        for (int i = 0; i < playerCount; i++) {
+            var id = PlayerId.ALL.get(i);
+            players.put(id, i == 0 ? recorder : new RandomBot(new Random(rng.nextLong())));
+            playerNames.put(id, "Joueur " + i);
+        }
+        var tickets = playerCount == 2 ? ChMap.tickets() : ChMap.supplementaryTickets();
+        Game.simulate(players, playerNames, SortedBag.of(tickets), rng, false, 1_000);
+        return recorder.updates;
+    }
+
+    private static final class Update {
+        private final PublicGameState state;
+        private final PlayerState ownState;
+
+        private Update(PublicGameState state, PlayerState ownState) {
+            this.state = state;
+            this.ownState = ownState;
+        }
+    }
+
+    private static final class RecordingPlayer implements Player {
+        private final Player player;
+        private final List<Update> updates = new ArrayList<>();
+
+        private RecordingPlayer(Player player) {
+            this.player = player;
+        }
+
+        @Override
+        public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+            player.initPlayers(ownId, playerNames);
+        }
+
+        @Override
+        public void receiveInfo(String info) {
+            player.receiveInfo(info);
+        }
+
+        @Override
+        public void updateState(PublicGameState newState, PlayerState ownState) {
+            updates.add(new Update(newState, ownState));
+            player.updateState(newState, ownState);
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+            player.setInitialTicketChoice(tickets);
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseInitialTickets() {
+            return player.chooseInitialTickets();
+        }
+
+        @Override
+        public TurnKind nextTurn() {
+            return player.nextTurn();
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+            return player.chooseTickets(options);
+        }
+
+        @Override
+        public int drawSlot() {
+            return player.drawSlot();
+        }
+
+        @Override
+        public Route claimedRoute() {
+            return player.claimedRoute();
+        }
+
+        @Override
+        public SortedBag<Card> initialClaimCards() {
+            return player.initialClaimCards();
+        }
+
+        @Override
+        public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+            return player.chooseAdditionalCards(options);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package ch.epfl.tchu.net;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamChannelTest {
+    @Test
+    void streamChannelSendsUnflushedMessagesAfterTheDelay() throws IOException {
+        try (var serverSocket = new ServerSocket(0);
+             var clientSocket = new Socket("localhost", serverSocket.getLocalPort());
+             var socket = serverSocket.accept()) {
+            var sender = new StreamChannel(socket);
+            var receiver = new StreamChannel(clientSocket);
+            clientSocket.setSoTimeout(10_000);
+
+            for (int i = 0; i < 100; i++)
+                sender.write("RECEIVE_INFO " + i);
+            for (int i = 0; i < 100; i++)
+                assertEquals("RECEIVE_INFO " + i, receiver.read());
+        }
+    }
+
+    @Test
+    void streamChannelMixesLinesAndFrames() throws IOException {
+        try (var serverSocket = new ServerSocket(0);
+             var clientSocket = new Socket("localhost", serverSocket.getLocalPort());
+             var socket = serverSocket.accept()) {
+            var sender = new StreamChannel(socket);
+            var receiver = new StreamChannel(clientSocket);
+
+            sender.write("CHOOSE_WIRE_FORMAT 1");
+            var frame = ByteBuffer.allocate(300);
+            for (int i = 0; i < 300; i++)
+                frame.put((byte) i);
+            sender.writeFrame(frame.flip());
+            sender.write("");
+            sender.flush();
+
+            assertEquals("CHOOSE_WIRE_FORMAT 1", receiver.read());
+            var received = receiver.readFrame();
+            assertEquals(300, received.remaining());
+            for (int i = 0; i < 300; i++)
+                assertEquals((byte) i, received.get());
+            assertEquals("", receiver.read());
+
+            sender.close();
+            assertTrue(receiver.atEnd());
+            assertThrows(UncheckedIOException.class, receiver::read);
+        }
+    }
+
+    @Test
+    void streamChannelRejectsInvalidAndOversizedFrames() throws IOException {
+        var invalidLengths = List.of(
+                new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07},
+                new byte[]{(byte) 0x81, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x01},
+                new byte[]{(byte) 0x81, (byte) 0x80, 0x04});
+        for (var length : invalidLengths) {
+            try (var serverSocket = new ServerSocket(0);
+                 var clientSocket = new Socket("localhost", serverSocket.getLocalPort());
+                 var socket = serverSocket.accept()) {
+                clientSocket.getOutputStream().write(length);
+                clientSocket.getOutputStream().flush();
+                var receiver = new StreamChannel(socket);
+                assertThrows(UncheckedIOException.class, receiver::readFrame);
+            }
+        }
+    }
+
+    @Test
+    void streamChannelOccupiesOneThreadPerTaskWhenItsPeerStalls() throws Exception {
+        try (var serverSocket = new ServerSocket(0); var clientSocket = new Socket()) {
+            clientSocket.setReceiveBufferSize(1);
+            clientSocket.connect(serverSocket.getLocalSocketAddress());
+            var socket = serverSocket.accept();
+            socket.setSendBufferSize(1);
+            int blockedBefore = blockedChannelThreadCount();
+
+            // Le pair ne lisant rien, l'écriture bloque en possession du verrou du canal
+            var sender = new StreamChannel(socket, new KeepAlive(1, 10_000, 0));
+            var writer = new Thread(() -> {
+                try {
+                    sender.write("x".repeat(1 << 22));
+                    sender.flush();
+                } catch (UncheckedIOException ignored) {
+                    // La prise est fermée à la fin du test
+                }
+            });
+            writer.setDaemon(true);
+            writer.start();
+            Thread.sleep(300);
+
+            assertTrue(blockedChannelThreadCount() - blockedBefore <= 2);
+            sender.close();
+            writer.join(10_000);
+            assertFalse(writer.isAlive());
+        }
+    }
+
+    private static int blockedChannelThreadCount() {
+        int count = 0;
+        for (var thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("tchu-channel") && thread.getState() == Thread.State.BLOCKED)
+                count += 1;
+        }
+        return count;
+    }
+}
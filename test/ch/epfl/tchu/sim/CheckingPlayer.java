@@ -0,0 +1,107 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Vérifie, à chaque prise de route, que le joueur décoré respecte les règles que Game ne vérifie pas
+final class CheckingPlayer implements Player {
+    private final Player player;
+    private PlayerId ownId;
+    private int playerCount;
+    private PublicGameState gameState;
+    private PlayerState ownState;
+
+    CheckingPlayer(Player player) {
+        this.player = player;
+    }
+
+    @Override
+    public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+        this.ownId = ownId;
+        this.playerCount = playerNames.size();
+        player.initPlayers(ownId, playerNames);
+    }
+
+    @Override
+    public void receiveInfo(String info) {
+        player.receiveInfo(info);
+    }
+
+    @Override
+    public void updateState(PublicGameState newState, PlayerState ownState) {
+        this.gameState = newState;
+        this.ownState = ownState;
+        player.updateState(newState, ownState);
+    }
+
+    @Override
+    public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+        player.setInitialTicketChoice(tickets);
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseInitialTickets() {
+        return player.chooseInitialTickets();
+    }
+
+    @Override
+    public TurnKind nextTurn() {
+        var turnKind = player.nextTurn();
+        // Sans billets ni cartes à tirer, le joueur tire des billets pour passer son tour
+        if (turnKind == TurnKind.DRAW_TICKETS)
+            assertTrue(gameState.canDrawTickets() || !gameState.canDrawCards());
+        if (turnKind == TurnKind.DRAW_CARDS)
+            assertTrue(gameState.canDrawCards());
+        return turnKind;
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+        var chosen = player.chooseTickets(options);
+        assertTrue(options.contains(chosen));
+        return chosen;
+    }
+
+    @Override
+    public int drawSlot() {
+        var slot = player.drawSlot();
+        assertTrue(Constants.DECK_SLOT <= slot && slot < Constants.FACE_UP_CARDS_COUNT);
+        return slot;
+    }
+
+    @Override
+    public Route claimedRoute() {
+        var route = player.claimedRoute();
+        assertTrue(ownState.canClaimRoute(route));
+        for (var id : PlayerId.ALL) {
+            var playerState = gameState.playerState(id);
+            if (playerState == null)
+                continue;
+            for (var claimed : playerState.routes()) {
+                assertNotSame(route, claimed);
+                if (claimed.stations().equals(route.stations()))
+                    assertTrue(playerCount > Constants.MINIMUM_PLAYER_COUNT && id != ownId);
+            }
+        }
+        return route;
+    }
+
+    @Override
+    public SortedBag<Card> initialClaimCards() {
+        var cards = player.initialClaimCards();
+        assertTrue(ownState.cards().contains(cards));
+        return cards;
+    }
+
+    @Override
+    public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+        var cards = player.chooseAdditionalCards(options);
+        assertTrue(cards.isEmpty() || options.contains(cards));
+        return cards;
+    }
+}
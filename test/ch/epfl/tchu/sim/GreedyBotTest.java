@@ -0,0 +1,81 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GreedyBotTest {
+
+    @Test
+    void greedyBotPlaysCompleteGamesWithLegalMoves() {
+        for (int playerCount = 2; playerCount <= PlayerId.COUNT; playerCount++) {
+            var bots = new ArrayList<Function<Random, Player>>();
+            for (int i = 0; i < playerCount; i++)
+                bots.add(rng -> new CheckingPlayer(new GreedyBot(rng)));
+
+            var simulator = new Simulator(bots);
+            for (long seed = 0; seed < 20; seed++)
+                assertTrue(simulator.play(seed).isComplete());
+        }
+    }
+
+    @Test
+    void greedyBotCanBeReusedForSeveralGames() {
+        var names = new EnumMap<PlayerId, String>(Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles"));
+        var players = new EnumMap<PlayerId, Player>(PlayerId.class);
+        for (var id : names.keySet())
+            players.put(id, new CheckingPlayer(new GreedyBot(new Random(id.ordinal()))));
+
+        var rng = new Random(3);
+        for (int game = 0; game < 5; game++) {
+            var result = Game.simulate(players, names, SortedBag.of(ChMap.tickets()), rng, false, 1_000);
+            assertTrue(result.isComplete());
+        }
+    }
+
+    @Test
+    void greedyBotBeatsRandomBot() {
+        var bots = new LinkedHashMap<String, Function<Random, Player>>();
+        bots.put("glouton", GreedyBot::new);
+        bots.put("aléatoire", RandomBot::new);
+        var stats = new Tournament(bots, Constants.MINIMUM_PLAYER_COUNT).run(0, 50);
+
+        // La combinaison opposant les deux joueurs est la deuxième, le joueur glouton ayant la première place
+        var pairing = stats.get(1);
+        assertEquals(List.of("glouton", "aléatoire"), pairing.names());
+        assertTrue(pairing.winRate(0) > 0.8);
+    }
+
+    @Test
+    void greedyBotKeepsTheShortestInitialTicketsAndConnectedAdditionalTickets() {
+        var bot = new GreedyBot(new Random(1));
+        var names = new EnumMap<PlayerId, String>(Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles"));
+        bot.initPlayers(PlayerId.PLAYER_1, names);
+        var tickets = ChMap.tickets();
+        bot.setInitialTicketChoice(SortedBag.of(tickets.subList(0, 5)));
+        assertEquals(3, bot.chooseInitialTickets().size());
+
+        // Fribourg - Lucerne est réalisé par les routes du joueur, et préféré à tous les autres
+        var fribourgLucerne = ticket(tickets, "Fribourg - Lucerne");
+        var routes = List.of(route("BER_FRI_1"), route("BER_LUC_1"));
+        var ownState = new PlayerState(SortedBag.of(), SortedBag.of(), routes);
+        var state = GameState.initial(names.keySet(), SortedBag.of(tickets), new Random(1));
+        bot.updateState(state, ownState);
+        var options = SortedBag.of(List.of(fribourgLucerne, ticket(tickets, "Berne - Coire"),
+                ticket(tickets, "Genève - Zürich")));
+        assertEquals(SortedBag.of(fribourgLucerne), bot.chooseTickets(options));
+    }
+
+    private static Route route(String id) {
+        return ChMap.routes().stream().filter(r -> r.id().equals(id)).findFirst().orElseThrow();
+    }
+
+    private static Ticket ticket(List<Ticket> tickets, String text) {
+        return tickets.stream().filter(t -> t.text().startsWith(text)).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,62 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonteCarloBotTest {
+
+    @Test
+    void monteCarloBotConstructorFailsWithInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new MonteCarloBot(new Random(1), -1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new MonteCarloBot(new Random(1), 10, 0));
+    }
+
+    @Test
+    void monteCarloBotPlaysCompleteGamesWithLegalMoves() {
+        for (int playerCount = 2; playerCount <= PlayerId.COUNT; playerCount++) {
+            var bots = new ArrayList<Function<Random, Player>>();
+            bots.add(rng -> new CheckingPlayer(new MonteCarloBot(rng, 0, 2)));
+            for (int i = 1; i < playerCount; i++)
+                bots.add(RandomBot::new);
+
+            var simulator = new Simulator(bots);
+            for (long seed = 0; seed < 3; seed++)
+                assertTrue(simulator.play(seed).isComplete());
+        }
+    }
+
+    @Test
+    void monteCarloBotBeatsRandomBotWithASmallBudget() {
+        var simulator = new Simulator(List.of(rng -> new MonteCarloBot(rng, 2, 1), RandomBot::new));
+        int[] wins = new int[2];
+        simulator.run(0, 30, result -> {
+            for (PlayerId winner : result.winners())
+                wins[winner.ordinal()] += 1;
+        });
+        assertTrue(wins[0] > wins[1]);
+    }
+
+    @Test
+    void monteCarloBotKeepsAtLeastThreeInitialTicketsAndOneAdditionalTicket() {
+        var bot = new MonteCarloBot(new Random(1), 0, 1);
+        var names = new EnumMap<PlayerId, String>(Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles"));
+        bot.initPlayers(PlayerId.PLAYER_1, names);
+        var tickets = ChMap.tickets();
+        bot.setInitialTicketChoice(SortedBag.of(tickets.subList(0, 5)));
+        var initialTickets = bot.chooseInitialTickets();
+        assertEquals(3, initialTickets.size());
+
+        var state = GameState.initial(names.keySet(), SortedBag.of(tickets), new Random(1));
+        bot.updateState(state, state.playerState(PlayerId.PLAYER_1));
+        var options = SortedBag.of(tickets.subList(5, 8));
+        var chosen = bot.chooseTickets(options);
+        assertFalse(chosen.isEmpty());
+        assertTrue(options.contains(chosen));
+    }
+}
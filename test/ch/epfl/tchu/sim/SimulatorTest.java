@@ -0,0 +1,79 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulatorTest {
+    private static final List<Function<Random, Player>> TWO_BOTS = List.of(RandomBot::new, RandomBot::new);
+    private static final List<Function<Random, Player>> THREE_BOTS =
+            List.of(RandomBot::new, RandomBot::new, RandomBot::new);
+
+    @Test
+    void simulatorConstructorFailsWithInvalidPlayerCount() {
+        assertThrows(IllegalArgumentException.class, () -> new Simulator(List.of(RandomBot::new)));
+    }
+
+    @Test
+    void simulatorPlayReplaysGamesDeterministically() {
+        var simulator = new Simulator(THREE_BOTS);
+        for (long seed = 0; seed < 20; seed++) {
+            var result1 = simulator.play(seed);
+            var result2 = simulator.play(seed);
+
+            assertEquals(result1.turnCount(), result2.turnCount());
+            for (var id : result1.playerIds()) {
+                assertEquals(result1.points(id), result2.points(id));
+                assertEquals(result1.longestTrail(id).toString(), result2.longestTrail(id).toString());
+            }
+        }
+    }
+
+    @Test
+    void simulatorRunPlaysGamesOfConsecutiveSeeds() {
+        var simulator = new Simulator(TWO_BOTS);
+        var results = new ArrayList<GameResult>();
+        var gamesPerSecond = simulator.run(100, 10, results::add);
+
+        assertTrue(gamesPerSecond > 0);
+        assertEquals(10, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            var replayed = simulator.play(100 + i);
+            assertEquals(results.get(i).turnCount(), replayed.turnCount());
+            assertEquals(results.get(i).points(PlayerId.PLAYER_1), replayed.points(PlayerId.PLAYER_1));
+        }
+    }
+
+    @Test
+    void simulatorGamesEndNormallyAndAwardLongestTrailBonus() {
+        var simulator = new Simulator(TWO_BOTS);
+        simulator.run(0, 50, result -> {
+            assertTrue(result.isComplete());
+            assertEquals(List.of(PlayerId.PLAYER_1, PlayerId.PLAYER_2), List.copyOf(result.playerIds()));
+            assertTrue(result.playerIds().stream().anyMatch(result::hasLongestTrailBonus));
+            assertFalse(result.winners().isEmpty());
+        });
+    }
+
+    @Test
+    void simulatorGamesGoOnWhenNoMoveIsPossible() {
+        // Des joueurs ne pouvant s'emparer d'aucune route épuisent les cartes, puis l'unique billet restant
+        var names = new EnumMap<PlayerId, String>(Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles"));
+        var tickets = SortedBag.of(ChMap.tickets().subList(0, 2 * Constants.INITIAL_TICKETS_COUNT + 1));
+        for (long seed = 0; seed < 10; seed++) {
+            var rng = new Random(seed);
+            var players = new EnumMap<PlayerId, Player>(PlayerId.class);
+            for (var id : names.keySet())
+                players.put(id, new CheckingPlayer(new RandomBot(new Random(rng.nextLong()), List.of())));
+
+            var result = Game.simulate(players, names, tickets, rng, false, 200);
+            assertFalse(result.isComplete());
+            assertEquals(200, result.turnCount());
+        }
+    }
+}
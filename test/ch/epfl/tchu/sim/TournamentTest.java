@@ -0,0 +1,66 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.game.Player;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TournamentTest {
+    private static Map<String, Function<Random, Player>> bots() {
+        var bots = new LinkedHashMap<String, Function<Random, Player>>();
+        bots.put("a", RandomBot::new);
+        bots.put("b", RandomBot::new);
+        return bots;
+    }
+
+    @Test
+    void tournamentConstructorFailsWithInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new Tournament(Map.of(), 2));
+        assertThrows(IllegalArgumentException.class, () -> new Tournament(bots(), 1));
+        assertThrows(IllegalArgumentException.class, () -> new Tournament(bots(), 4));
+    }
+
+    @Test
+    void tournamentRunPlaysAllPairings() {
+        var stats = new Tournament(bots(), 2).run(0, 4);
+        assertEquals(List.of(List.of("a", "a"), List.of("a", "b"), List.of("b", "b")),
+                stats.stream().map(Tournament.PairingStats::names).collect(Collectors.toList()));
+
+        var threePlayerStats = new Tournament(bots(), 3).run(0, 1);
+        assertEquals(4, threePlayerStats.size());
+    }
+
+    @Test
+    void tournamentRunAggregatesConsistentStatistics() {
+        var stats = new Tournament(bots(), 2).run(0, 10);
+        for (var s : stats) {
+            assertEquals(10, s.gameCount());
+            assertEquals(1, s.winRate(0) + s.winRate(1), 1e-9);
+            assertTrue(s.longestTrailRate(0) + s.longestTrailRate(1) >= 1);
+            assertTrue(s.averageTurnCount() > 0);
+        }
+    }
+
+    @Test
+    void tournamentRunDoesNotDependOnParallelism() {
+        var tournament = new Tournament(bots(), 2);
+        var pool1 = new ForkJoinPool(1);
+        var pool4 = new ForkJoinPool(4);
+        try {
+            var stats1 = tournament.run(7, 6, pool1);
+            var stats4 = tournament.run(7, 6, pool4);
+            assertEquals(stats1.toString(), stats4.toString());
+        } finally {
+            pool1.shutdown();
+            pool4.shutdown();
+        }
+    }
+}